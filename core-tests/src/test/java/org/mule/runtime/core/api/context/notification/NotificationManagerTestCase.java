@@ -167,6 +167,20 @@ public class NotificationManagerTestCase extends AbstractMuleTestCase {
     assertTrue(listener2.isNotified());
   }
 
+  @Test
+  public void testNotificationAfterConfigurationChange() throws ClassNotFoundException {
+    registerDefaultEvents();
+    registerDefaultListeners();
+    manager.notifyListeners(new SubEvent2(), (listener, nfn) -> listener.onNotification(nfn));
+    assertTrue(listener2.isNotified());
+
+    manager.removeListener(listener2);
+    Listener2 newListener = new Listener2();
+    manager.addListener(newListener);
+    manager.notifyListeners(new SubEvent2(), (listener, nfn) -> listener.onNotification(nfn));
+    assertTrue(newListener.isNotified());
+  }
+
   protected void assertNoListenersNotified() {
     assertFalse(listener1.isNotified());
     assertFalse(listener2.isNotified());
@@ -0,0 +1,294 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mule.runtime.api.config.PoolingProfile.INITIALISE_NONE;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_FAIL;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_GROW;
+import static org.mule.runtime.api.config.PoolingProfile.WHEN_EXHAUSTED_WAIT;
+import org.mule.runtime.api.config.PoolingProfile;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.probe.JUnitLambdaProbe;
+import org.mule.tck.probe.PollingProber;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.pool.BasePoolableObjectFactory;
+import org.junit.After;
+import org.junit.Test;
+
+@SmallTest
+public class ConcurrentObjectPoolTestCase extends AbstractMuleTestCase {
+
+  private static final int MAX_ACTIVE = 2;
+
+  private final AtomicInteger live = new AtomicInteger();
+  private final AtomicInteger maxLive = new AtomicInteger();
+  private final TestFactory factory = new TestFactory();
+  private volatile CountDownLatch makeObjectStarted;
+  private volatile CountDownLatch makeObjectLatch;
+  private ConcurrentObjectPool<Object> pool;
+
+  @After
+  public void after() throws Exception {
+    if (pool != null) {
+      pool.close();
+    }
+  }
+
+  @Test
+  public void returnedObjectIsReusedBySameThread() throws Exception {
+    pool = createPool(MAX_ACTIVE, MAX_ACTIVE, 100, WHEN_EXHAUSTED_FAIL);
+
+    Object first = pool.borrowObject();
+    Object second = pool.borrowObject();
+    pool.returnObject(first);
+    pool.returnObject(second);
+
+    assertThat(pool.borrowObject(), is(sameInstance(second)));
+    assertThat(pool.borrowObject(), is(sameInstance(first)));
+    assertThat(pool.getCreatedCount(), is(2L));
+    assertThat(pool.getBorrowedCount(), is(4L));
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void exhaustedFail() throws Exception {
+    pool = createPool(1, 1, 100, WHEN_EXHAUSTED_FAIL);
+    pool.borrowObject();
+    pool.borrowObject();
+  }
+
+  @Test(expected = NoSuchElementException.class)
+  public void exhaustedWaitTimesOut() throws Exception {
+    pool = createPool(1, 1, 100, WHEN_EXHAUSTED_WAIT);
+    pool.borrowObject();
+    pool.borrowObject();
+  }
+
+  @Test
+  public void exhaustedGrow() throws Exception {
+    pool = createPool(1, 1, 100, WHEN_EXHAUSTED_GROW);
+    Object first = pool.borrowObject();
+    Object second = pool.borrowObject();
+
+    assertThat(first, is(not(sameInstance(second))));
+    assertThat(pool.getNumActive(), is(2));
+  }
+
+  @Test
+  public void returnedObjectIsHandedOffToWaiter() throws Exception {
+    pool = createPool(1, 1, -1, WHEN_EXHAUSTED_WAIT);
+    Object borrowed = pool.borrowObject();
+
+    ExecutorService executor = newFixedThreadPool(1);
+    try {
+      Future<Object> waiter = executor.submit(() -> pool.borrowObject());
+      new PollingProber().check(new JUnitLambdaProbe(() -> pool.getNumWaiters() == 1));
+      pool.returnObject(borrowed);
+
+      assertThat(waiter.get(5, SECONDS), is(sameInstance(borrowed)));
+      assertThat(pool.getCreatedCount(), is(1L));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void invalidatedObjectFreesSlotForWaiter() throws Exception {
+    pool = createPool(1, 1, -1, WHEN_EXHAUSTED_WAIT);
+    Object borrowed = pool.borrowObject();
+
+    ExecutorService executor = newFixedThreadPool(1);
+    try {
+      Future<Object> waiter = executor.submit(() -> pool.borrowObject());
+      new PollingProber().check(new JUnitLambdaProbe(() -> pool.getNumWaiters() == 1));
+      pool.invalidateObject(borrowed);
+
+      assertThat(waiter.get(5, SECONDS), is(not(sameInstance(borrowed))));
+      assertThat(pool.getCreatedCount(), is(2L));
+      assertThat(pool.getDestroyedCount(), is(1L));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void returnDoesNotWaitForWaiterCreatingObject() throws Exception {
+    pool = createPool(MAX_ACTIVE, MAX_ACTIVE, -1, WHEN_EXHAUSTED_WAIT);
+    Object first = pool.borrowObject();
+    Object second = pool.borrowObject();
+
+    ExecutorService executor = newFixedThreadPool(2);
+    CountDownLatch creating = new CountDownLatch(1);
+    makeObjectLatch = new CountDownLatch(1);
+    try {
+      Future<Object> waiter = executor.submit(() -> pool.borrowObject());
+      new PollingProber().check(new JUnitLambdaProbe(() -> pool.getNumWaiters() == 1));
+      makeObjectStarted = creating;
+      pool.invalidateObject(second);
+      assertThat(creating.await(5, SECONDS), is(true));
+
+      // the waiter is still creating its object
+      executor.submit(() -> {
+        pool.returnObject(first);
+        return null;
+      }).get(5, SECONDS);
+
+      makeObjectLatch.countDown();
+      assertThat(waiter.get(5, SECONDS), is(not(sameInstance(first))));
+    } finally {
+      makeObjectLatch.countDown();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void closeFailsAllWaiters() throws Exception {
+    final int waiters = 3;
+    pool = createPool(1, 1, -1, WHEN_EXHAUSTED_WAIT);
+    pool.borrowObject();
+
+    ExecutorService executor = newFixedThreadPool(waiters);
+    try {
+      List<Future<Object>> futures = new ArrayList<>();
+      for (int i = 0; i < waiters; i++) {
+        futures.add(executor.submit(() -> pool.borrowObject()));
+      }
+      new PollingProber().check(new JUnitLambdaProbe(() -> pool.getNumWaiters() == waiters));
+      pool.close();
+
+      for (Future<Object> future : futures) {
+        try {
+          future.get(5, SECONDS);
+          fail("Borrowing from a closed pool should fail");
+        } catch (ExecutionException e) {
+          assertThat(e.getCause(), is(instanceOf(IllegalStateException.class)));
+        }
+      }
+      assertThat(pool.getCreatedCount(), is(1L));
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  public void objectsOverMaxIdleAreDestroyed() throws Exception {
+    pool = createPool(MAX_ACTIVE, 1, 100, WHEN_EXHAUSTED_FAIL);
+    Object first = pool.borrowObject();
+    Object second = pool.borrowObject();
+    pool.returnObject(first);
+    pool.returnObject(second);
+
+    assertThat(pool.getNumIdle(), is(1));
+    assertThat(pool.getNumActive(), is(0));
+    assertThat(pool.getDestroyedCount(), is(1L));
+    assertThat(live.get(), is(1));
+  }
+
+  @Test
+  public void idleObjectsAreEvicted() throws Exception {
+    PoolingProfile poolingProfile = new PoolingProfile(MAX_ACTIVE, MAX_ACTIVE, 100, WHEN_EXHAUSTED_FAIL, INITIALISE_NONE);
+    poolingProfile.setEvictionCheckIntervalMillis(10);
+    poolingProfile.setMinEvictionMillis(10);
+    pool = new ConcurrentObjectPool<>(factory, poolingProfile);
+
+    pool.returnObject(pool.borrowObject());
+
+    new PollingProber().check(new JUnitLambdaProbe(() -> pool.getNumIdle() == 0 && live.get() == 0));
+  }
+
+  @Test
+  public void closeDestroysIdleAndReturnedObjects() throws Exception {
+    pool = createPool(MAX_ACTIVE, MAX_ACTIVE, 100, WHEN_EXHAUSTED_FAIL);
+    Object first = pool.borrowObject();
+    Object second = pool.borrowObject();
+    pool.returnObject(first);
+
+    pool.close();
+    assertThat(live.get(), is(1));
+
+    pool.returnObject(second);
+    assertThat(live.get(), is(0));
+    assertThat(pool.getDestroyedCount(), is(2L));
+  }
+
+  @Test
+  public void concurrentBorrowersNeverExceedMaxActive() throws Exception {
+    final int threads = 8;
+    final int iterations = 500;
+    pool = createPool(MAX_ACTIVE, MAX_ACTIVE, -1, WHEN_EXHAUSTED_WAIT);
+
+    ExecutorService executor = newFixedThreadPool(threads);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    try {
+      for (int i = 0; i < threads; i++) {
+        futures.add(executor.submit(() -> {
+          start.await();
+          for (int j = 0; j < iterations; j++) {
+            pool.returnObject(pool.borrowObject());
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get(30, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(maxLive.get(), is(lessThanOrEqualTo(MAX_ACTIVE)));
+    assertThat(pool.getBorrowedCount(), is((long) threads * iterations));
+    assertThat(pool.getNumActive(), is(0));
+    assertThat(pool.getNumIdle(), is(live.get()));
+    assertThat(pool.getBorrowWaitTimeNanos(), is(greaterThan(0L)));
+  }
+
+  private ConcurrentObjectPool<Object> createPool(int maxActive, int maxIdle, int maxWait, int exhaustedAction) {
+    return new ConcurrentObjectPool<>(factory,
+                                      new PoolingProfile(maxActive, maxIdle, maxWait, exhaustedAction, INITIALISE_NONE));
+  }
+
+  private class TestFactory extends BasePoolableObjectFactory<Object> {
+
+    @Override
+    public Object makeObject() throws Exception {
+      CountDownLatch started = makeObjectStarted;
+      if (started != null) {
+        started.countDown();
+        makeObjectLatch.await();
+      }
+      maxLive.accumulateAndGet(live.incrementAndGet(), Math::max);
+      return new Object();
+    }
+
+    @Override
+    public void destroyObject(Object obj) throws Exception {
+      live.decrementAndGet();
+    }
+  }
+}
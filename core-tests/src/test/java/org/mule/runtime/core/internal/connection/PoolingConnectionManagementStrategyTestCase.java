@@ -132,6 +132,22 @@ public class PoolingConnectionManagementStrategyTestCase extends AbstractMuleCon
     verify(connectionProvider, times(2)).disconnect(any(Object.class));
   }
 
+  @Test
+  public void poolStatistics() throws Exception {
+    ConnectionPoolStatistics statistics = strategy.getPoolStatistics();
+    assertThat(statistics.getNumActive(), is(MAX_ACTIVE));
+    assertThat(statistics.getNumIdle(), is(0));
+
+    connection1.release();
+    assertThat(statistics.getNumActive(), is(MAX_ACTIVE - 1));
+    assertThat(statistics.getNumIdle(), is(1));
+    assertThat(statistics.getBorrowedCount(), is((long) MAX_ACTIVE));
+    assertThat(statistics.getCreatedCount(), is((long) MAX_ACTIVE));
+
+    strategy.close();
+    assertThat(statistics.getDestroyedCount(), is(1L));
+  }
+
   @Test(expected = ConnectionException.class)
   public void failDueToInvalidConnection() throws ConnectionException {
     when(connectionProvider.validate(anyVararg())).thenReturn(ConnectionValidationResult
@@ -34,8 +34,11 @@ import org.mule.runtime.api.lifecycle.LifecycleException;
 import org.mule.runtime.api.lifecycle.Startable;
 import org.mule.runtime.api.lifecycle.Stoppable;
 import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.context.notification.MessageProcessorNotification;
+import org.mule.runtime.core.api.context.notification.MessageProcessorNotificationListener;
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.api.processor.Sink;
 import org.mule.runtime.core.api.source.MessageSource;
 import org.mule.runtime.core.internal.construct.DefaultFlowBuilder.DefaultFlow;
 import org.mule.runtime.core.internal.processor.ResponseMessageProcessorAdapter;
@@ -162,6 +165,59 @@ public class DefaultFlowTestCase extends AbstractFlowConstructTestCase {
     assertSucessfulProcessing((PrivilegedEvent) response);
   }
 
+  @Test
+  public void pipelineReassembledWhenMessageProcessorNotificationsEnabled() throws Exception {
+    flow.initialise();
+    flow.start();
+    Sink sink = flow.getSink();
+
+    muleContext.getNotificationManager().addInterfaceToType(MessageProcessorNotificationListener.class,
+                                                            MessageProcessorNotification.class);
+    muleContext.getNotificationManager().addListener((MessageProcessorNotificationListener) notification -> {
+    });
+
+    assertThat(flow.getSink(), not(sameInstance(sink)));
+    BaseEvent response = triggerFunction.apply(directInboundMessageSource.getListener(), testEvent());
+    assertSucessfulProcessing((PrivilegedEvent) response);
+  }
+
+  @Test
+  public void replacedSinkReusedWhenNotificationsChangeBack() throws Exception {
+    flow.initialise();
+    flow.start();
+    Sink sink = flow.getSink();
+
+    muleContext.getNotificationManager().addInterfaceToType(MessageProcessorNotificationListener.class,
+                                                            MessageProcessorNotification.class);
+    MessageProcessorNotificationListener listener = notification -> {
+    };
+    muleContext.getNotificationManager().addListener(listener);
+    assertThat(flow.getStandbySink(), sameInstance(sink));
+
+    Sink notifyingSink = flow.getSink();
+    muleContext.getNotificationManager().removeListener(listener);
+    assertThat(flow.getSink(), sameInstance(sink));
+    assertThat(flow.getStandbySink(), sameInstance(notifyingSink));
+
+    BaseEvent response = triggerFunction.apply(directInboundMessageSource.getListener(), testEvent());
+    assertSucessfulProcessing((PrivilegedEvent) response);
+  }
+
+  @Test
+  public void stopDisposesStandbySink() throws Exception {
+    flow.initialise();
+    flow.start();
+
+    muleContext.getNotificationManager().addInterfaceToType(MessageProcessorNotificationListener.class,
+                                                            MessageProcessorNotification.class);
+    muleContext.getNotificationManager().addListener((MessageProcessorNotificationListener) notification -> {
+    });
+    flow.stop();
+
+    assertThat(flow.getStandbySink(), nullValue());
+    assertThat(flow.getSink(), nullValue());
+  }
+
   private void assertSucessfulProcessing(PrivilegedEvent response) throws MuleException {
     assertThat(response.getMessageAsString(muleContext), equalTo(TEST_PAYLOAD + "abcdef"));
     assertThat(response.getVariables().get("thread").getValue(), not(sameInstance(currentThread())));
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.contains;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy.BLOCK;
+import static org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy.DROP;
+import static org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy.SAMPLE;
+
+import org.mule.runtime.core.api.context.notification.Event1;
+import org.mule.runtime.core.api.context.notification.NotificationListener;
+import org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+@SmallTest
+public class NotificationListenerBufferTestCase extends AbstractMuleTestCase {
+
+  private static final long TIMEOUT = 5000;
+
+  private final Queue<Runnable> tasks = new LinkedList<>();
+  private final Executor executor = tasks::add;
+  private final List<String> received = new ArrayList<>();
+  private final NotificationListener<Event1> listener = n -> received.add(n.getResourceIdentifier());
+
+  @Test
+  public void deliversInBatches() {
+    NotificationListenerBuffer buffer = createBuffer(listener, executor, 10, 2, DROP, 1, 0);
+    for (int i = 0; i < 5; i++) {
+      buffer.offer(new Event1("id" + i));
+    }
+    assertThat(tasks.size(), is(1));
+    assertThat(buffer.getQueueDepth(), is(5));
+
+    int submittedTasks = runTasks();
+
+    assertThat(submittedTasks, is(3));
+    assertThat(received, contains("id0", "id1", "id2", "id3", "id4"));
+    assertThat(buffer.getQueueDepth(), is(0));
+    assertThat(buffer.getDeliveredCount(), is(5L));
+  }
+
+  @Test
+  public void dropsWhenFull() {
+    NotificationListenerBuffer buffer = createBuffer(listener, executor, 2, 10, DROP, 1, 0);
+    assertThat(buffer.offer(new Event1("id0")), is(true));
+    assertThat(buffer.offer(new Event1("id1")), is(true));
+    assertThat(buffer.offer(new Event1("id2")), is(false));
+
+    runTasks();
+    assertThat(received, contains("id0", "id1"));
+    assertThat(buffer.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void samplesWhenHalfFull() {
+    NotificationListenerBuffer buffer = createBuffer(listener, executor, 8, 10, SAMPLE, 2, 0);
+    for (int i = 0; i < 8; i++) {
+      buffer.offer(new Event1("id" + i));
+    }
+
+    runTasks();
+    assertThat(received, contains("id0", "id1", "id2", "id3", "id5", "id7"));
+    assertThat(buffer.getDroppedCount(), is(2L));
+  }
+
+  @Test
+  public void blocksUntilThereIsSpace() throws Exception {
+    Executor threadExecutor = command -> new Thread(command).start();
+    List<String> synchronizedReceived = new ArrayList<>();
+    NotificationListener<Event1> slowListener = n -> {
+      synchronized (synchronizedReceived) {
+        synchronizedReceived.add(n.getResourceIdentifier());
+      }
+    };
+    NotificationListenerBuffer buffer = createBuffer(slowListener, threadExecutor, 1, 1, BLOCK, 1, 10000);
+    for (int i = 0; i < 20; i++) {
+      assertThat(buffer.offer(new Event1("id" + i)), is(true));
+    }
+
+    while (buffer.getDeliveredCount() < 20) {
+      Thread.sleep(10);
+    }
+    assertThat(buffer.getDroppedCount(), is(0L));
+    synchronized (synchronizedReceived) {
+      assertThat(synchronizedReceived.size(), is(20));
+      assertThat(synchronizedReceived.get(19), is("id19"));
+    }
+  }
+
+  @Test
+  public void disposeReleasesBlockedProducer() throws Exception {
+    NotificationListenerBuffer buffer = createBuffer(listener, executor, 1, 1, BLOCK, 1, 60000);
+    buffer.offer(new Event1("id0"));
+
+    AtomicBoolean accepted = new AtomicBoolean(true);
+    CountDownLatch offered = new CountDownLatch(1);
+    Thread producer = new Thread(() -> {
+      accepted.set(buffer.offer(new Event1("id1")));
+      offered.countDown();
+    });
+    producer.start();
+    while (producer.getState() != Thread.State.TIMED_WAITING) {
+      Thread.sleep(10);
+    }
+
+    buffer.dispose();
+
+    assertThat(offered.await(TIMEOUT, MILLISECONDS), is(true));
+    assertThat(accepted.get(), is(false));
+    assertThat(buffer.getQueueDepth(), is(0));
+    assertThat(buffer.getDroppedCount(), is(2L));
+  }
+
+  @Test
+  public void blockGivesUpAfterMaxBlockTime() {
+    NotificationListenerBuffer buffer = createBuffer(listener, executor, 1, 1, BLOCK, 1, 50);
+    assertThat(buffer.offer(new Event1("id0")), is(true));
+    assertThat(buffer.offer(new Event1("id1")), is(false));
+
+    runTasks();
+    assertThat(received, contains("id0"));
+    assertThat(buffer.getDroppedCount(), is(1L));
+  }
+
+  @Test
+  public void blockDoesNotWaitOnNonBlockingThread() throws Exception {
+    ThreadGroup cpuLightGroup = new ThreadGroup("cpuLight");
+    NotificationListenerBuffer buffer = new NotificationListenerBuffer(listener, executor, 1, 1, BLOCK, 1, 60000,
+                                                                       thread -> thread.getThreadGroup() == cpuLightGroup);
+    buffer.offer(new Event1("id0"));
+
+    AtomicBoolean accepted = new AtomicBoolean(true);
+    Thread producer = new Thread(cpuLightGroup, () -> accepted.set(buffer.offer(new Event1("id1"))));
+    producer.start();
+    producer.join(TIMEOUT);
+
+    assertThat(producer.isAlive(), is(false));
+    assertThat(accepted.get(), is(false));
+  }
+
+  @Test
+  public void discardsWhenDrainIsRejected() {
+    Executor rejectingExecutor = command -> {
+      throw new RejectedExecutionException("stopped");
+    };
+    for (OverflowPolicy policy : OverflowPolicy.values()) {
+      NotificationListenerBuffer buffer = createBuffer(listener, rejectingExecutor, 1, 1, policy, 1, 60000);
+      assertThat(buffer.offer(new Event1("id0")), is(false));
+      assertThat(buffer.offer(new Event1("id1")), is(false));
+      assertThat(buffer.getQueueDepth(), is(0));
+      assertThat(buffer.getDroppedCount(), is(2L));
+    }
+  }
+
+  @Test
+  public void listenerExceptionDoesNotStopDelivery() {
+    NotificationListener<Event1> failingListener = n -> {
+      received.add(n.getResourceIdentifier());
+      throw new IllegalStateException();
+    };
+    NotificationListenerBuffer buffer = createBuffer(failingListener, executor, 10, 10, DROP, 1, 0);
+    buffer.offer(new Event1("id0"));
+    buffer.offer(new Event1("id1"));
+
+    runTasks();
+    assertThat(received, contains("id0", "id1"));
+  }
+
+  @Test
+  public void listenerErrorDoesNotStopFurtherDrains() {
+    NotificationListener<Event1> failingListener = n -> {
+      received.add(n.getResourceIdentifier());
+      if (received.size() == 1) {
+        throw new AssertionError();
+      }
+    };
+    NotificationListenerBuffer buffer = createBuffer(failingListener, executor, 10, 1, DROP, 1, 0);
+    buffer.offer(new Event1("id0"));
+    buffer.offer(new Event1("id1"));
+
+    try {
+      tasks.poll().run();
+    } catch (AssertionError e) {
+      // expected
+    }
+    runTasks();
+    assertThat(received, contains("id0", "id1"));
+  }
+
+  private NotificationListenerBuffer createBuffer(NotificationListener bufferListener, Executor bufferExecutor, int capacity,
+                                                  int batchSize, OverflowPolicy policy, int sampleRate, long maxBlockMillis) {
+    return new NotificationListenerBuffer(bufferListener, bufferExecutor, capacity, batchSize, policy, sampleRate,
+                                          maxBlockMillis, thread -> false);
+  }
+
+  private int runTasks() {
+    int count = 0;
+    Runnable task;
+    while ((task = tasks.poll()) != null) {
+      task.run();
+      count++;
+    }
+    return count;
+  }
+}
@@ -6,15 +6,26 @@
  */
 package org.mule.runtime.core.internal.message;
 
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
+import static org.mule.runtime.core.api.util.IOUtils.toByteArray;
 import static org.mule.runtime.core.privileged.event.PrivilegedEvent.setCurrentEvent;
 
 import org.mule.runtime.api.message.Message;
 import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamProvider;
 import org.mule.runtime.core.api.transformer.TransformerException;
+import org.mule.runtime.core.internal.streaming.bytes.ManagedCursorStreamProvider;
 import org.mule.runtime.core.internal.transformer.simple.ObjectToByteArray;
 import org.mule.runtime.core.privileged.event.PrivilegedEvent;
+import org.mule.tck.core.streaming.SimpleByteBufferManager;
 import org.mule.tck.junit4.AbstractMuleContextTestCase;
 
 import org.apache.commons.lang3.SerializationUtils;
@@ -65,6 +76,34 @@ public class DefaultMuleMessageSerializationTestCase extends AbstractMuleContext
     assertTrue(Arrays.equals(TEST_MESSAGE.getBytes(), payload));
   }
 
+  @Test
+  public void testCursorStreamPayloadSerialization() throws Exception {
+    final Message message = InternalMessage.builder().value(createCursorStreamProvider()).build();
+    setCurrentEvent(this.<PrivilegedEvent.Builder>getEventBuilder().message(message).build());
+    InternalMessage deserializedMessage = serializationRoundtrip(message);
+
+    assertThat(deserializedMessage.getPayload().getValue(), is(instanceOf(ManagedCursorStreamProvider.class)));
+    assertThat(deserializedMessage.getPayload().getDataType(), equalTo(message.getPayload().getDataType()));
+    try (CursorStream cursor = ((CursorStreamProvider) deserializedMessage.getPayload().getValue()).openCursor()) {
+      assertThat(toByteArray(cursor), equalTo(TEST_MESSAGE.getBytes()));
+    }
+  }
+
+  @Test
+  public void testCursorStreamPayloadDeserializedOutsideEvent() throws Exception {
+    final Message message = InternalMessage.builder().value(createCursorStreamProvider()).build();
+    setCurrentEvent(null);
+    InternalMessage deserializedMessage = serializationRoundtrip(message);
+
+    assertEquals(byte[].class, deserializedMessage.getPayload().getDataType().getType());
+    assertTrue(Arrays.equals(TEST_MESSAGE.getBytes(), (byte[]) deserializedMessage.getPayload().getValue()));
+  }
+
+  private CursorStreamProvider createCursorStreamProvider() {
+    return new InMemoryCursorStreamProvider(new ByteArrayInputStream(TEST_MESSAGE.getBytes()),
+                                            InMemoryCursorStreamConfig.getDefault(), new SimpleByteBufferManager());
+  }
+
   private InternalMessage serializationRoundtrip(Message message) throws Exception {
     return (InternalMessage) SerializationUtils.deserialize(SerializationUtils.serialize(message));
   }
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.retry.policies;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.Thread.currentThread;
+import static java.util.function.Function.identity;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mule.runtime.core.api.retry.policy.SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER;
+import static reactor.core.Exceptions.unwrap;
+import static reactor.core.publisher.Mono.from;
+import static reactor.core.publisher.Mono.fromCallable;
+import org.mule.runtime.api.connection.ConnectionException;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+import org.reactivestreams.Publisher;
+
+@SmallTest
+public class ExponentialBackoffRetryPolicyTestCase extends AbstractMuleTestCase {
+
+  private static final int RETRIES = 3;
+  private static final long INITIAL_DELAY = 20;
+  private static final long MAX_DELAY = 60;
+  // currentTimeMillis granularity may make a delay look a bit shorter
+  private static final long PRECISION = 5;
+
+  private final AtomicInteger executions = new AtomicInteger(0);
+  private final AtomicBoolean exhausted = new AtomicBoolean(false);
+  private final List<Long> executionMoments = new CopyOnWriteArrayList<>();
+  private final List<Thread> executionThreads = new CopyOnWriteArrayList<>();
+
+  @Test
+  public void delaysGrowExponentiallyUpToMax() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(INITIAL_DELAY, MAX_DELAY, 2, false, RETRIES);
+    Integer value = from(retryPolicy.applyPolicy(failingPublisher(RETRIES),
+                                                 e -> e instanceof IllegalArgumentException,
+                                                 e -> exhausted.set(true),
+                                                 identity()))
+                                                     .block();
+
+    assertThat(value, is(RETRIES + 1));
+    assertThat(exhausted.get(), is(false));
+    assertThat(delta(1), greaterThanOrEqualTo(INITIAL_DELAY));
+    assertThat(delta(2), greaterThanOrEqualTo(INITIAL_DELAY * 2));
+    assertThat(delta(3), greaterThanOrEqualTo(MAX_DELAY));
+  }
+
+  @Test
+  public void jitteredDelaysAreNotShorterThanInitialDelay() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(INITIAL_DELAY, MAX_DELAY, 3, true, RETRIES);
+    from(retryPolicy.applyPolicy(failingPublisher(RETRIES), e -> true, e -> exhausted.set(true), identity())).block();
+
+    assertThat(executionMoments, hasSize(RETRIES + 1));
+    for (int i = 1; i <= RETRIES; i++) {
+      assertThat(delta(i), greaterThanOrEqualTo(INITIAL_DELAY));
+    }
+  }
+
+  @Test
+  public void retriesDoNotBlockSubscribingThread() throws Exception {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(INITIAL_DELAY, MAX_DELAY, 2, false, RETRIES);
+    CountDownLatch done = new CountDownLatch(1);
+
+    from(retryPolicy.applyPolicy(failingPublisher(RETRIES), e -> true, e -> exhausted.set(true), identity()))
+        .subscribe(value -> done.countDown());
+
+    assertThat(done.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(executionThreads.get(0), is(currentThread()));
+    assertThat(executionThreads.get(1), is(not(currentThread())));
+  }
+
+  @Test
+  public void exhaustedRetryWithMappedException() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(INITIAL_DELAY, MAX_DELAY, 2, true, RETRIES);
+
+    try {
+      from(retryPolicy.applyPolicy(failingPublisher(Integer.MAX_VALUE), e -> true, e -> exhausted.set(true),
+                                   ConnectionException::new))
+                                       .block();
+      fail("Retry should have been exhausted");
+    } catch (Throwable e) {
+      e = unwrap(e);
+      assertThat(e, instanceOf(ConnectionException.class));
+      assertThat(e.getCause(), instanceOf(IllegalArgumentException.class));
+      assertThat(exhausted.get(), is(true));
+      assertThat(executions.get(), is(RETRIES + 1));
+    }
+  }
+
+  @Test
+  public void skipRetry() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(INITIAL_DELAY, MAX_DELAY, 2, true, RETRIES);
+
+    try {
+      from(retryPolicy.applyPolicy(failingPublisher(Integer.MAX_VALUE), e -> false, e -> exhausted.set(true), identity()))
+          .block();
+      fail("Retry should have been skipped");
+    } catch (Exception e) {
+      assertThat(e, instanceOf(IllegalArgumentException.class));
+      assertThat(exhausted.get(), is(true));
+      assertThat(executions.get(), is(1));
+    }
+  }
+
+  @Test
+  public void blockingPolicyIsExhaustedAfterCount() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(1, 4, 2, true, RETRIES);
+    Exception cause = new IllegalArgumentException();
+
+    for (int i = 0; i < RETRIES; i++) {
+      assertThat(retryPolicy.applyPolicy(cause).isOk(), is(true));
+    }
+    assertThat(retryPolicy.applyPolicy(cause).isExhausted(), is(true));
+  }
+
+  @Test
+  public void blockingPolicyRetriesForever() {
+    ExponentialBackoffRetryPolicy retryPolicy = new ExponentialBackoffRetryPolicy(1, 2, 2, false, RETRY_COUNT_FOREVER);
+    Exception cause = new IllegalArgumentException();
+
+    for (int i = 0; i < 100; i++) {
+      assertThat(retryPolicy.applyPolicy(cause).isOk(), is(true));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void maxDelayShorterThanInitialDelay() {
+    new ExponentialBackoffRetryPolicy(INITIAL_DELAY, INITIAL_DELAY - 1, 2, false, RETRIES);
+  }
+
+  private Publisher<Integer> failingPublisher(int failures) {
+    return fromCallable(() -> {
+      executionMoments.add(currentTimeMillis());
+      executionThreads.add(currentThread());
+      if (executions.incrementAndGet() <= failures) {
+        throw new IllegalArgumentException("not retried enough");
+      }
+      return executions.get();
+    });
+  }
+
+  private long delta(int execution) {
+    return executionMoments.get(execution) - executionMoments.get(execution - 1) + PRECISION;
+  }
+}
@@ -12,6 +12,10 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import org.mule.runtime.api.message.Message;
 import org.mule.runtime.api.store.ObjectStoreException;
@@ -201,6 +205,41 @@ public class EventGroupTestCase extends AbstractMuleContextTestCase {
     assertTrue(es.contains(secondId));
   }
 
+  @Test
+  public void sizeDoesNotListStoredEvents() throws Exception {
+    PartitionableObjectStore<BaseEvent> spiedObjectStore = spy(objectStore);
+    EventGroup eg = new EventGroup(UUID.getUUID(), muleContext);
+    eg.initEventsStore(spiedObjectStore);
+
+    for (int i = 0; i < 100; i++) {
+      eg.addEvent(eventBuilder().message(Message.of("foo" + i)).build());
+      assertEquals(i + 1, eg.size());
+    }
+    assertEquals(100, eg.toArray().length);
+
+    verify(spiedObjectStore, times(1)).allKeys(anyString());
+  }
+
+  @Test
+  public void eventsAreLoadedInArrivalOrderByAnotherInstance() throws Exception {
+    final String groupId = UUID.getUUID();
+    EventGroup eg = new EventGroup(groupId, muleContext);
+    eg.initEventsStore(objectStore);
+    for (int i = 0; i < 20; i++) {
+      eg.addEvent(eventBuilder().message(Message.of("foo" + i)).build());
+    }
+
+    // as if it had been deserialized from a persistent store
+    EventGroup restoredGroup = new EventGroup(groupId, muleContext);
+    restoredGroup.initEventsStore(objectStore);
+    assertEquals(20, restoredGroup.size());
+
+    PrivilegedEvent[] events = restoredGroup.toArray();
+    for (int i = 0; i < 20; i++) {
+      assertEquals("foo" + i, events[i].getMessage().getPayload().getValue());
+    }
+  }
+
   @Test
   public void mergedSessions() throws Exception {
     EventGroup eg = new EventGroup(UUID.getUUID(), muleContext);
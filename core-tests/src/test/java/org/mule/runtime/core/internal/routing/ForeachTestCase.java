@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.core.internal.routing;
 
+import static java.time.Duration.ofMillis;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptyList;
 import static java.util.Collections.singletonList;
@@ -25,6 +26,7 @@ import static org.mule.runtime.core.internal.routing.Foreach.DEFAULT_COUNTER_VAR
 import static org.mule.runtime.core.internal.routing.Foreach.DEFAULT_ROOT_MESSAGE_VARIABLE;
 
 import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.message.Message;
 import org.mule.runtime.api.metadata.DataType;
 import org.mule.runtime.api.metadata.TypedValue;
@@ -44,12 +46,17 @@ import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
+import org.reactivestreams.Publisher;
 
 import java.nio.BufferOverflowException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 public class ForeachTestCase extends AbstractReactiveProcessorTestCase {
 
@@ -315,6 +322,72 @@ public class ForeachTestCase extends AbstractReactiveProcessorTestCase {
     assertThat(((PrivilegedEvent) processedEvents.get(1)).getMessageAsString(muleContext), is("[3]:foo:zas"));
   }
 
+  @Test
+  public void invalidMaxConcurrency() throws Exception {
+    Foreach foreach = createForeach();
+    foreach.setMuleContext(muleContext);
+    foreach.setMessageProcessors(getSimpleMessageProcessors(new TestMessageProcessor("zas")));
+    foreach.setMaxConcurrency(0);
+
+    expectedException.expect(InitialisationException.class);
+    foreach.initialise();
+  }
+
+  @Test
+  public void maxConcurrency() throws Exception {
+    AtomicInteger inFlight = new AtomicInteger();
+    AtomicInteger maxInFlight = new AtomicInteger();
+    List<Processor> processors = new ArrayList<>();
+    processors.add(new Processor() {
+
+      @Override
+      public BaseEvent process(BaseEvent event) throws MuleException {
+        throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Publisher<BaseEvent> apply(Publisher<BaseEvent> publisher) {
+        // earlier elements take longer, so they complete out of order
+        return Flux.from(publisher).flatMap(event -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          int value = (Integer) event.getMessage().getPayload().getValue();
+          return Mono.delay(ofMillis((5 - value) * 20))
+              .map(l -> BaseEvent.builder(event).addVariable("last", value).build())
+              .doOnNext(e -> inFlight.decrementAndGet());
+        });
+      }
+    });
+
+    Foreach foreachMp = createForeach();
+    foreachMp.setMuleContext(muleContext);
+    foreachMp.setMessageProcessors(processors);
+    foreachMp.setMaxConcurrency(2);
+    foreachMp.initialise();
+
+    BaseEvent input = eventBuilder().message(of(asList(1, 2, 3, 4))).build();
+    BaseEvent result = process(foreachMp, input);
+
+    assertThat(maxInFlight.get(), is(2));
+    assertThat(result.getMessage(), equalTo(input.getMessage()));
+    assertThat(result.getVariables().get("last").getValue(), equalTo(4));
+    assertThat(result.getVariables().containsKey(DEFAULT_COUNTER_VARIABLE), is(false));
+    assertThat(result.getVariables().containsKey(DEFAULT_ROOT_MESSAGE_VARIABLE), is(false));
+  }
+
+  @Test
+  public void maxConcurrencyPreservesOrder() throws Exception {
+    Foreach foreachMp = createForeach();
+    foreachMp.setMuleContext(muleContext);
+    foreachMp.setMessageProcessors(getSimpleMessageProcessors(new TestMessageProcessor("zas")));
+    foreachMp.setMaxConcurrency(4);
+    foreachMp.initialise();
+
+    process(foreachMp, eventBuilder().message(of(asList("bar", "zip"))).build());
+
+    assertSimpleProcessedMessages();
+    assertThat(variables.get(DEFAULT_COUNTER_VARIABLE).getValue(), equalTo(2));
+  }
+
   @Test
   public void variables() throws Exception {
     List<String> arrayList = new ArrayList<>();
@@ -6,8 +6,14 @@
  */
 package org.mule.runtime.core.internal.routing.correlation;
 
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
 import static org.junit.Assert.fail;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,6 +42,9 @@ import org.mule.tck.probe.Probe;
 import org.mule.tck.probe.Prober;
 import org.mule.tck.size.SmallTest;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.Lock;
+
 import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -116,6 +125,69 @@ public class EventCorrelatorTestCase extends AbstractMuleTestCase {
     verify(mockEventGroup, times(1)).initAfterDeserialisation(mockMuleContext);
   }
 
+  @Test
+  public void dropsEventForGroupProcessedWhileWaitingForLock() throws Exception {
+    when(mockMuleEvent.getCorrelationId()).thenReturn(TEST_GROUP_ID);
+    when(mockProcessedGroups.contains(TEST_GROUP_ID)).thenReturn(false, true);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+
+    assertThat(eventCorrelator.process(mockMuleEvent), is(nullValue()));
+    verify(mockEventGroup, never()).addEvent(any(BaseEvent.class));
+  }
+
+  @Test
+  public void removesCreatedGroupForGroupProcessedWhileWaitingForLock() throws Exception {
+    when(mockMuleEvent.getCorrelationId()).thenReturn(TEST_GROUP_ID);
+    when(mockProcessedGroups.contains(TEST_GROUP_ID)).thenReturn(false, true);
+    EventGroup createdGroup = mock(EventGroup.class);
+    when(createdGroup.getGroupId()).thenReturn(TEST_GROUP_ID);
+    when(mockEventCorrelatorCallback.createEventGroup(mockMuleEvent, TEST_GROUP_ID)).thenReturn(createdGroup);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+    memoryObjectStore.remove(TEST_GROUP_ID, "prefix.eventGroups");
+
+    assertThat(eventCorrelator.process(mockMuleEvent), is(nullValue()));
+    verify(createdGroup, never()).addEvent(any(BaseEvent.class));
+    verify(createdGroup).clear();
+    assertThat(memoryObjectStore.contains(TEST_GROUP_ID, "prefix.eventGroups"), is(false));
+  }
+
+  @Test(timeout = 10000)
+  public void groupsAreEvaluatedIndependently() throws Exception {
+    final String otherGroupId = "otherGroupId";
+    final EventGroup otherEventGroup = mock(EventGroup.class);
+    when(otherEventGroup.getGroupId()).thenReturn(otherGroupId);
+    when(mockMuleEvent.getCorrelationId()).thenReturn(otherGroupId);
+    when(mockEventCorrelatorCallback.createEventGroup(mockMuleEvent, otherGroupId)).thenReturn(otherEventGroup);
+    when(mockEventCorrelatorCallback.shouldAggregateEvents(any(EventGroup.class))).thenReturn(false);
+    EventCorrelator eventCorrelator = createEventCorrelator();
+
+    final Lock groupLock = eventCorrelator.getGroupLock(TEST_GROUP_ID);
+    final CountDownLatch locked = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread lockHolder = new Thread(() -> {
+      groupLock.lock();
+      try {
+        locked.countDown();
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      } finally {
+        groupLock.unlock();
+      }
+    });
+    lockHolder.start();
+
+    try {
+      assertThat(locked.await(5, SECONDS), is(true));
+      assertThat(eventCorrelator.getGroupLock(otherGroupId) == groupLock, is(false));
+      assertThat(eventCorrelator.process(mockMuleEvent), is(nullValue()));
+      verify(otherEventGroup).addEvent(mockMuleEvent);
+    } finally {
+      release.countDown();
+      lockHolder.join();
+    }
+  }
+
   @Test
   @Ignore("MULE-7311")
   @Issue("MULE-7311")
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static java.util.Optional.of;
+import static org.mule.runtime.api.metadata.DataType.OBJECT;
+import static org.mule.runtime.api.metadata.MediaType.APPLICATION_JSON;
+import static org.mule.runtime.api.metadata.MediaType.TEXT;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.internal.message.InternalMessage;
+import org.mule.tck.core.internal.serialization.AbstractSerializerProtocolContractTestCase;
+
+import org.junit.Test;
+
+public class CompactSerializationProtocolTestCase extends AbstractSerializerProtocolContractTestCase {
+
+  private static final int PROPERTIES = 20;
+
+  private final SerializationProtocol javaProtocol = new JavaExternalSerializerProtocol();
+
+  @Override
+  protected ObjectSerializer getObjectSerializer() {
+    return new CompactObjectSerializer();
+  }
+
+  @Override
+  protected void doSetUp() throws Exception {
+    serializationProtocol = muleContext.getObjectSerializer().getExternalProtocol();
+    ((JavaExternalSerializerProtocol) javaProtocol).setMuleContext(muleContext);
+  }
+
+  @Test
+  public void message() throws Exception {
+    InternalMessage message = createMessage();
+    assertMessage(serializationProtocol.deserialize(serializationProtocol.serialize(message)), message);
+  }
+
+  @Test
+  public void messageIsReadableByJavaProtocol() throws Exception {
+    InternalMessage message = createMessage();
+    assertMessage(javaProtocol.deserialize(serializationProtocol.serialize(message)), message);
+  }
+
+  @Test
+  public void javaSerializedMessageIsReadable() throws Exception {
+    InternalMessage message = createMessage();
+    assertMessage(serializationProtocol.deserialize(javaProtocol.serialize(message)), message);
+  }
+
+  @Test
+  public void messageIsSmallerThanJavaSerialized() throws Exception {
+    InternalMessage message = createMessage();
+    assertThat(serializationProtocol.serialize(message).length, is(lessThan(javaProtocol.serialize(message).length)));
+  }
+
+  @Test
+  public void typedValueLength() throws Exception {
+    TypedValue<Integer> typedValue = new TypedValue<>(42, OBJECT, of(1024L));
+
+    TypedValue<?> deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(typedValue));
+
+    assertTypedValue(deserialized, typedValue);
+    assertThat(deserialized.getLength(), equalTo(typedValue.getLength()));
+  }
+
+  @Test
+  public void event() throws Exception {
+    BaseEvent event = eventBuilder().message(createMessage()).addVariable("count", 42)
+        .addVariable("text", "value", DataType.builder().type(String.class).mediaType(TEXT).build()).build();
+
+    BaseEvent deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(event));
+
+    assertThat(deserialized.getContext().getId(), equalTo(event.getContext().getId()));
+    assertMessage((InternalMessage) deserialized.getMessage(), (InternalMessage) event.getMessage());
+    assertTypedValue(deserialized.getVariables().get("count"), event.getVariables().get("count"));
+    assertTypedValue(deserialized.getVariables().get("text"), event.getVariables().get("text"));
+  }
+
+  private InternalMessage createMessage() {
+    InternalMessage.Builder builder = InternalMessage.builder().value("{\"key\": \"value\"}").mediaType(APPLICATION_JSON)
+        .attributesValue(42L);
+    for (int i = 0; i < PROPERTIES; i++) {
+      builder.addInboundProperty("inbound" + i, i).addOutboundProperty("outbound" + i, "value" + i, TEXT);
+    }
+    return builder.build();
+  }
+
+  private void assertMessage(InternalMessage actual, InternalMessage expected) {
+    assertTypedValue(actual.getPayload(), expected.getPayload());
+    assertTypedValue(actual.getAttributes(), expected.getAttributes());
+    assertThat(actual.getInboundPropertyNames(), equalTo(expected.getInboundPropertyNames()));
+    assertThat(actual.getOutboundPropertyNames(), equalTo(expected.getOutboundPropertyNames()));
+    for (String name : expected.getInboundPropertyNames()) {
+      assertThat(actual.getInboundProperty(name), equalTo(expected.getInboundProperty(name)));
+      assertDataType(actual.getInboundPropertyDataType(name), expected.getInboundPropertyDataType(name));
+    }
+    for (String name : expected.getOutboundPropertyNames()) {
+      assertThat(actual.getOutboundProperty(name), equalTo(expected.getOutboundProperty(name)));
+      assertDataType(actual.getOutboundPropertyDataType(name), expected.getOutboundPropertyDataType(name));
+    }
+  }
+
+  private void assertTypedValue(TypedValue<?> actual, TypedValue<?> expected) {
+    assertThat(actual.getValue(), equalTo(expected.getValue()));
+    assertDataType(actual.getDataType(), expected.getDataType());
+  }
+
+  private void assertDataType(DataType actual, DataType expected) {
+    assertThat(actual.getType(), equalTo(expected.getType()));
+    assertThat(actual.getMediaType(), equalTo(expected.getMediaType()));
+  }
+}
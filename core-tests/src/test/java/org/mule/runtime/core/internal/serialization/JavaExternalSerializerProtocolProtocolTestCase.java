@@ -6,13 +6,33 @@
  */
 package org.mule.runtime.core.internal.serialization;
 
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphabetic;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.core.api.util.IOUtils.toByteArray;
+import static org.mule.runtime.core.privileged.event.PrivilegedEvent.setCurrentEvent;
 import org.mule.runtime.api.serialization.SerializationException;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamProvider;
+import org.mule.runtime.core.internal.streaming.bytes.FileStoreCursorStreamProvider;
+import org.mule.runtime.core.internal.streaming.bytes.ManagedCursorStreamProvider;
+import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 import org.mule.tck.core.internal.serialization.AbstractSerializerProtocolContractTestCase;
+import org.mule.tck.core.streaming.SimpleByteBufferManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 
 import org.junit.Test;
 
 public class JavaExternalSerializerProtocolProtocolTestCase extends AbstractSerializerProtocolContractTestCase {
 
+  private static final byte[] STREAM_CONTENT = randomAlphabetic(100 * 1024).getBytes();
+
   @Override
   protected void doSetUp() throws Exception {
     serializationProtocol = muleContext.getObjectSerializer().getExternalProtocol();
@@ -23,4 +43,78 @@ public class JavaExternalSerializerProtocolProtocolTestCase extends AbstractSeri
     serializationProtocol.serialize(new Object());
   }
 
+  @Test
+  public void cursorStreamProviderToOutputStream() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    serializationProtocol.serialize(createCursorStreamProvider(), out);
+
+    assertDeserializedContent(serializationProtocol.deserialize(new ByteArrayInputStream(out.toByteArray())));
+  }
+
+  @Test
+  public void cursorStreamProviderToBytes() throws Exception {
+    assertDeserializedContent(serializationProtocol.deserialize(serializationProtocol.serialize(createCursorStreamProvider())));
+  }
+
+  @Test
+  public void cursorStreamProviderManagedByCurrentEvent() throws Exception {
+    setCurrentEvent((PrivilegedEvent) testEvent());
+    try {
+      Object deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(createCursorStreamProvider()));
+      assertThat(deserialized, is(instanceOf(ManagedCursorStreamProvider.class)));
+
+      try (CursorStream cursor = ((CursorStreamProvider) deserialized).openCursor()) {
+        assertThat(toByteArray(cursor), equalTo(STREAM_CONTENT));
+      }
+    } finally {
+      setCurrentEvent(null);
+    }
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void closingUnmanagedCursorStreamProviderReleasesIt() throws Exception {
+    CursorStreamProvider deserialized =
+        serializationProtocol.deserialize(serializationProtocol.serialize(createCursorStreamProvider()));
+    CursorStream cursor = deserialized.openCursor();
+    deserialized.close();
+
+    cursor.read();
+  }
+
+  @Test
+  public void emptyCursorStreamProvider() throws Exception {
+    CursorStreamProvider provider = new InMemoryCursorStreamProvider(new ByteArrayInputStream(new byte[0]),
+                                                                     InMemoryCursorStreamConfig.getDefault(),
+                                                                     new SimpleByteBufferManager());
+
+    CursorStreamProvider deserialized = serializationProtocol.deserialize(serializationProtocol.serialize(provider));
+    try (CursorStream cursor = deserialized.openCursor()) {
+      assertThat(cursor.read(), is(-1));
+    } finally {
+      deserialized.close();
+    }
+  }
+
+  private CursorStreamProvider createCursorStreamProvider() {
+    return new InMemoryCursorStreamProvider(new ByteArrayInputStream(STREAM_CONTENT), InMemoryCursorStreamConfig.getDefault(),
+                                            new SimpleByteBufferManager());
+  }
+
+  private void assertDeserializedContent(Object deserialized) throws Exception {
+    assertThat(deserialized, is(instanceOf(FileStoreCursorStreamProvider.class)));
+
+    CursorStreamProvider provider = (CursorStreamProvider) deserialized;
+    try {
+      try (CursorStream cursor = provider.openCursor()) {
+        assertThat(toByteArray(cursor), equalTo(STREAM_CONTENT));
+      }
+
+      try (CursorStream cursor = provider.openCursor()) {
+        cursor.seek(STREAM_CONTENT.length - 1);
+        assertThat(cursor.read(), is(STREAM_CONTENT[STREAM_CONTENT.length - 1] & 0xff));
+      }
+    } finally {
+      provider.close();
+    }
+  }
 }
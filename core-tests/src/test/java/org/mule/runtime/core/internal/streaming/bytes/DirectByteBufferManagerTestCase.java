@@ -0,0 +1,225 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.toIntExact;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.lang3.RandomStringUtils.randomAlphanumeric;
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.not;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.api.util.DataUnit.BYTE;
+import static org.mule.test.allure.AllureConstants.StreamingFeature.STREAMING;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.util.DataSize;
+import org.mule.runtime.api.util.Reference;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamProvider;
+import org.mule.runtime.core.api.util.concurrent.Latch;
+import org.mule.runtime.core.internal.streaming.MemoryManager;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.After;
+import org.junit.Test;
+import io.qameta.allure.Feature;
+
+@SmallTest
+@Feature(STREAMING)
+public class DirectByteBufferManagerTestCase extends AbstractMuleTestCase {
+
+  private static final int SIZE_CLASS_CAPACITY = 128;
+  private static final int CAPACITY = 100;
+
+  private DirectByteBufferManager bufferManager = new DirectByteBufferManager();
+
+  @After
+  public void after() {
+    bufferManager.dispose();
+  }
+
+  @Test
+  public void direct() throws Exception {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    try {
+      assertThat(buffer.isDirect(), is(true));
+    } finally {
+      bufferManager.deallocate(buffer);
+    }
+  }
+
+  @Test
+  public void pooling() throws Exception {
+    ByteBuffer buffer = bufferManager.allocate(SIZE_CLASS_CAPACITY);
+    bufferManager.deallocate(buffer);
+
+    ByteBuffer newBuffer = bufferManager.allocate(SIZE_CLASS_CAPACITY);
+    assertThat(buffer, is(sameInstance(newBuffer)));
+  }
+
+  @Test
+  public void grow() throws Exception {
+    ByteBuffer buffer = bufferManager.allocate(SIZE_CLASS_CAPACITY);
+    ByteBuffer newBuffer = bufferManager.allocate(SIZE_CLASS_CAPACITY);
+
+    assertThat(buffer, not(sameInstance(newBuffer)));
+  }
+
+  @Test
+  public void capacity() throws Exception {
+    assertCapacity(0);
+    assertCapacity(CAPACITY);
+    assertCapacity(CAPACITY + 1);
+    assertCapacity(SIZE_CLASS_CAPACITY);
+  }
+
+  @Test
+  public void sameSizeClassSharesSlot() throws Exception {
+    ByteBuffer buffer = bufferManager.allocate(CAPACITY);
+    buffer.put(0, (byte) 1);
+    bufferManager.deallocate(buffer);
+
+    ByteBuffer otherBuffer = bufferManager.allocate(CAPACITY + 1);
+    assertThat(otherBuffer.capacity(), is(CAPACITY + 1));
+    assertThat(otherBuffer.get(0), is((byte) 1));
+  }
+
+  @Test
+  public void limitTotalMemory() throws Exception {
+    final long maxMemory = SIZE_CLASS_CAPACITY * 4;
+    final long waitTimeoutMillis = SECONDS.toMillis(2);
+
+    MemoryManager memoryManager = mock(MemoryManager.class);
+    when(memoryManager.getMaxMemory()).thenReturn(maxMemory);
+
+    bufferManager = new DirectByteBufferManager(memoryManager, waitTimeoutMillis);
+
+    assertMemoryLimit(toIntExact(maxMemory / 4), waitTimeoutMillis);
+  }
+
+  @Test
+  public void cursorStreamOverDirectBuffers() throws Exception {
+    final int bufferSize = 1024;
+    final String data = randomAlphanumeric(bufferSize * 10);
+    InMemoryCursorStreamConfig config = new InMemoryCursorStreamConfig(new DataSize(bufferSize, BYTE),
+                                                                       new DataSize(bufferSize, BYTE),
+                                                                       new DataSize(data.length(), BYTE));
+
+    InMemoryCursorStreamProvider provider =
+        new InMemoryCursorStreamProvider(new ByteArrayInputStream(data.getBytes()), config, bufferManager);
+    try (CursorStream cursor = provider.openCursor()) {
+      assertThat(IOUtils.toString(cursor), equalTo(data));
+      cursor.seek(0);
+      assertThat(IOUtils.toString(cursor), equalTo(data));
+    } finally {
+      provider.releaseResources();
+    }
+  }
+
+  @Test
+  public void releasesSlotsCachedByDeadThreads() throws Exception {
+    // allows 4 slots of the smallest size class
+    bufferManager = new DirectByteBufferManager(memoryManager(SIZE_CLASS_CAPACITY * 4), SECONDS.toMillis(2));
+
+    Thread thread = new Thread(() -> bufferManager.deallocate(bufferManager.allocate(1)));
+    thread.start();
+    thread.join();
+
+    // needs all the memory, including the slot left in the magazine of the dead thread
+    ByteBuffer buffer = bufferManager.allocate(SIZE_CLASS_CAPACITY * 2);
+    assertThat(buffer.capacity(), is(SIZE_CLASS_CAPACITY * 2));
+  }
+
+  @Test
+  public void disposeKeepsLeasedMemoryAccounted() throws Exception {
+    bufferManager = new DirectByteBufferManager(memoryManager(SIZE_CLASS_CAPACITY * 4), 100);
+
+    ByteBuffer leased = bufferManager.allocate(SIZE_CLASS_CAPACITY);
+    bufferManager.deallocate(bufferManager.allocate(SIZE_CLASS_CAPACITY));
+    bufferManager.dispose();
+
+    // the idle slot was released, the leased one is still accounted
+    bufferManager.allocate(SIZE_CLASS_CAPACITY);
+    assertMemoryExhausted(SIZE_CLASS_CAPACITY);
+
+    bufferManager.deallocate(leased);
+    assertThat(bufferManager.allocate(SIZE_CLASS_CAPACITY).capacity(), is(SIZE_CLASS_CAPACITY));
+  }
+
+  private MemoryManager memoryManager(long maxMemory) {
+    MemoryManager memoryManager = mock(MemoryManager.class);
+    when(memoryManager.getMaxMemory()).thenReturn(maxMemory);
+    return memoryManager;
+  }
+
+  private void assertMemoryExhausted(int capacity) {
+    try {
+      bufferManager.allocate(capacity);
+      fail("Max streaming memory should have been exceeded");
+    } catch (MuleRuntimeException e) {
+      assertThat(e.getCause(), is(instanceOf(MaxStreamingMemoryExceededException.class)));
+    }
+  }
+
+  private void assertMemoryLimit(int bufferCapacity, long waitTimeoutMillis) throws InterruptedException {
+    ByteBuffer buffer1 = bufferManager.allocate(bufferCapacity);
+    ByteBuffer buffer2 = bufferManager.allocate(bufferCapacity);
+    assertThat(buffer1.capacity(), is(bufferCapacity));
+    assertThat(buffer2.capacity(), is(bufferCapacity));
+
+    Latch latch = new Latch();
+    Reference<Boolean> maxMemoryExhausted = new Reference<>(false);
+
+    new Thread(() -> {
+      try {
+        bufferManager.allocate(bufferCapacity);
+        latch.release();
+      } catch (Exception e) {
+        maxMemoryExhausted.set(e.getCause() instanceof MaxStreamingMemoryExceededException);
+      }
+    }).start();
+
+    assertThat(latch.await(waitTimeoutMillis * 2, MILLISECONDS), is(false));
+    assertThat(maxMemoryExhausted.get(), is(true));
+
+    bufferManager.deallocate(buffer1);
+
+    Latch secondLatch = new Latch();
+    new Thread(() -> {
+      try {
+        bufferManager.allocate(bufferCapacity);
+        maxMemoryExhausted.set(false);
+      } finally {
+        secondLatch.release();
+      }
+    }).start();
+
+    assertThat(secondLatch.await(waitTimeoutMillis, MILLISECONDS), is(true));
+    assertThat(maxMemoryExhausted.get(), is(false));
+  }
+
+  private void assertCapacity(int capacity) {
+    ByteBuffer buffer = bufferManager.allocate(capacity);
+    try {
+      assertThat(buffer.capacity(), is(capacity));
+    } finally {
+      bufferManager.deallocate(buffer);
+    }
+  }
+}
@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.core.internal.util.queue;
 
+import static java.util.Arrays.asList;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import org.mule.runtime.core.internal.util.queue.QueueFileProvider;
@@ -13,6 +14,8 @@ import org.mule.runtime.core.internal.util.queue.RandomAccessFileQueueStore;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 import org.mule.tck.size.SmallTest;
 
+import java.io.RandomAccessFile;
+
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
@@ -50,6 +53,54 @@ public class RandomAccessFileQueueStoreTestCase extends AbstractMuleTestCase {
                is((dataSize + RandomAccessFileQueueStore.CONTROL_DATA_SIZE) * numberOfElements));
   }
 
+  @Test
+  public void addAllKeepsOrder() throws Exception {
+    final RandomAccessFileQueueStore randomAccessFileQueueStore = createRandomAccessFileQueueStore();
+    randomAccessFileQueueStore.addLast(new byte[] {0});
+    randomAccessFileQueueStore.addAll(asList(new byte[] {1}, new byte[] {2, 2}, new byte[] {3}));
+
+    assertThat(randomAccessFileQueueStore.getSize(), is(4));
+    assertThat(randomAccessFileQueueStore.getLength(), is(5L + 4 * RandomAccessFileQueueStore.CONTROL_DATA_SIZE));
+    for (int i = 0; i < 4; i++) {
+      assertThat(randomAccessFileQueueStore.removeFirst()[0], is((byte) i));
+    }
+  }
+
+  @Test
+  public void removeBySelector() throws Exception {
+    final RandomAccessFileQueueStore randomAccessFileQueueStore = createRandomAccessFileQueueStore();
+    randomAccessFileQueueStore.addAll(asList(new byte[] {1}, new byte[] {2}, new byte[] {3}));
+
+    assertThat(randomAccessFileQueueStore.remove(data -> data[0] == 2), is(true));
+    assertThat(randomAccessFileQueueStore.contains(data -> data[0] == 2), is(false));
+    assertThat(randomAccessFileQueueStore.contains(data -> data[0] == 3), is(true));
+
+    randomAccessFileQueueStore.close();
+    final RandomAccessFileQueueStore restoredQueueStore = createRandomAccessFileQueueStore();
+    assertThat(restoredQueueStore.getSize(), is(2));
+    assertThat(restoredQueueStore.removeFirst()[0], is((byte) 1));
+    assertThat(restoredQueueStore.removeFirst()[0], is((byte) 3));
+  }
+
+  @Test
+  public void discardsIncompleteElementOnRestore() throws Exception {
+    final RandomAccessFileQueueStore randomAccessFileQueueStore = createRandomAccessFileQueueStore();
+    randomAccessFileQueueStore.addAll(asList(new byte[] {1}, new byte[10]));
+    randomAccessFileQueueStore.close();
+
+    try (RandomAccessFile file = new RandomAccessFile(randomAccessFileQueueStore.getFile(), "rw")) {
+      file.setLength(file.length() - 3);
+    }
+
+    final RandomAccessFileQueueStore restoredQueueStore = createRandomAccessFileQueueStore();
+    assertThat(restoredQueueStore.getSize(), is(1));
+    assertThat(restoredQueueStore.getLength(), is(1L + RandomAccessFileQueueStore.CONTROL_DATA_SIZE));
+
+    restoredQueueStore.addLast(new byte[] {2});
+    assertThat(restoredQueueStore.removeFirst()[0], is((byte) 1));
+    assertThat(restoredQueueStore.removeFirst()[0], is((byte) 2));
+  }
+
   private RandomAccessFileQueueStore createRandomAccessFileQueueStore() {
     return new RandomAccessFileQueueStore(new QueueFileProvider(temporaryFolder.getRoot(), "datafile"));
   }
@@ -0,0 +1,226 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static java.util.Arrays.asList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.util.queue.DualRandomAccessFileQueueStoreDelegate.MAX_LENGTH_PER_FILE_PROPERTY_KEY;
+import static org.mule.tck.SerializationTestUtils.addJavaSerializerToMockMuleContext;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.tck.MuleTestUtils;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class SegmentedFileQueueStoreDelegateTestCase extends AbstractMuleTestCase {
+
+  private static final int MAXIMUM_NUMBER_OF_BYTES = 100;
+  private static final String TEST_QUEUE_NAME = "test-queue";
+
+  @Rule
+  public TemporaryFolder workingDirectory = new TemporaryFolder();
+
+  private MuleContext mockMuleContext;
+
+  @Before
+  public void before() {
+    mockMuleContext = mock(MuleContext.class);
+    when(mockMuleContext.getExecutionClassLoader()).thenReturn(getClass().getClassLoader());
+    addJavaSerializerToMockMuleContext(mockMuleContext);
+  }
+
+  @Test
+  public void nameWithInvalidCharacters() throws Exception {
+    String[] testNames = new String[] {"test:/test", "test?test", "test|test", "seda.queue(post:\\Customer:ApiTest-config.1)"};
+
+    for (String testName : testNames) {
+      SegmentedFileQueueStoreDelegate queue =
+          new SegmentedFileQueueStoreDelegate(testName, workingDirectory.getRoot().getAbsolutePath(), mockMuleContext, 0);
+      queue.putNow("item");
+      queue.close();
+
+      queue = new SegmentedFileQueueStoreDelegate(testName, workingDirectory.getRoot().getAbsolutePath(), mockMuleContext, 0);
+      assertThat(queue.poll(0), is((Serializable) "item"));
+      queue.dispose();
+    }
+  }
+
+  @Test
+  public void readMessagesInOrderAcrossSegments() throws Exception {
+    MuleTestUtils.testWithSystemProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(MAXIMUM_NUMBER_OF_BYTES), () -> {
+      SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+      for (int i = 0; i < 20; i++) {
+        queueStore.putNow(createTestDataForIndex(i));
+      }
+      assertThat(countSegmentFiles() > 2, is(true));
+      for (int i = 0; i < 5; i++) {
+        assertThat(queueStore.poll(0), is((Serializable) createTestDataForIndex(i)));
+      }
+      queueStore.close();
+
+      queueStore = createTestQueueStore();
+      assertThat(queueStore.getSize(), is(15));
+      for (int i = 5; i < 20; i++) {
+        assertThat(queueStore.poll(0), is((Serializable) createTestDataForIndex(i)));
+      }
+      queueStore.dispose();
+    });
+  }
+
+  @Test
+  public void drainedSegmentsAreDeleted() throws Exception {
+    MuleTestUtils.testWithSystemProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(MAXIMUM_NUMBER_OF_BYTES), () -> {
+      SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+      for (int i = 0; i < 20; i++) {
+        queueStore.putNow(createTestDataForIndex(i));
+      }
+      while (queueStore.poll(0) != null);
+      queueStore.putNow("last");
+      assertThat(queueStore.poll(0), is((Serializable) "last"));
+
+      assertThat(countSegmentFiles(), is(1));
+      queueStore.dispose();
+    });
+  }
+
+  @Test
+  public void addAll() throws Exception {
+    SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.putNow("first");
+    queueStore.addAll(asList("second", "third"));
+    queueStore.untake("zero");
+
+    assertThat(queueStore.getSize(), is(4));
+    assertThat(queueStore.contains("third"), is(true));
+    assertThat(queueStore.poll(0), is((Serializable) "zero"));
+    assertThat(queueStore.poll(0), is((Serializable) "first"));
+    assertThat(queueStore.poll(0), is((Serializable) "second"));
+    assertThat(queueStore.poll(0), is((Serializable) "third"));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void removeAndContains() throws Exception {
+    SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.addAll(asList("first", "second", "third"));
+
+    queueStore.remove("second");
+    assertThat(queueStore.contains("second"), is(false));
+    assertThat(queueStore.contains("third"), is(true));
+    assertThat(queueStore.getSize(), is(2));
+    queueStore.dispose();
+  }
+
+  @Test
+  public void movesEntriesOfDualFileQueue() throws Exception {
+    DualRandomAccessFileQueueStoreDelegate legacyQueueStore =
+        new DualRandomAccessFileQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(),
+                                                   mockMuleContext, 0);
+    for (int i = 0; i < 5; i++) {
+      legacyQueueStore.putNow(createTestDataForIndex(i));
+    }
+    legacyQueueStore.close();
+
+    SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+    assertThat(DualRandomAccessFileQueueStoreDelegate.hasQueueFiles(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath()),
+               is(false));
+    assertThat(queueStore.getSize(), is(5));
+    for (int i = 0; i < 5; i++) {
+      assertThat(queueStore.poll(0), is((Serializable) createTestDataForIndex(i)));
+    }
+    queueStore.dispose();
+  }
+
+  @Test
+  public void concurrentProducersAreAllStored() throws Exception {
+    final int producers = 4;
+    final int itemsPerProducer = 50;
+    MuleTestUtils.testWithSystemProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(MAXIMUM_NUMBER_OF_BYTES), () -> {
+      SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+      ExecutorService executor = newFixedThreadPool(producers);
+      try {
+        List<Future<?>> futures = new ArrayList<>();
+        for (int producer = 0; producer < producers; producer++) {
+          final int offset = producer * itemsPerProducer;
+          futures.add(executor.submit(() -> {
+            for (int i = offset; i < offset + itemsPerProducer; i++) {
+              queueStore.putNow(createTestDataForIndex(i));
+            }
+          }));
+        }
+        for (Future<?> future : futures) {
+          future.get(10, SECONDS);
+        }
+      } finally {
+        executor.shutdownNow();
+      }
+      queueStore.close();
+
+      SegmentedFileQueueStoreDelegate reopenedQueueStore = createTestQueueStore();
+      Set<Serializable> items = new HashSet<>();
+      Serializable item;
+      while ((item = reopenedQueueStore.poll(0)) != null) {
+        items.add(item);
+      }
+      assertThat(items.size(), is(producers * itemsPerProducer));
+      reopenedQueueStore.dispose();
+    });
+  }
+
+  @Test
+  public void allFilesDeletedAfterDispose() {
+    SegmentedFileQueueStoreDelegate queueStore = createTestQueueStore();
+    queueStore.putNow("item");
+
+    File queueFolder = new File(workingDirectory.getRoot().getAbsolutePath() + "/queuestore");
+    assertThat(queueFilesExist(queueFolder), is(true));
+
+    queueStore.dispose();
+    assertThat(queueFilesExist(queueFolder), is(false));
+  }
+
+  private int countSegmentFiles() {
+    File queueFolder = new File(workingDirectory.getRoot().getAbsolutePath() + "/queuestore");
+    return queueFolder.listFiles((dir, name) -> name.startsWith(TEST_QUEUE_NAME + "-seg-") && !name.endsWith("crl")).length;
+  }
+
+  private boolean queueFilesExist(File queueFolder) {
+    for (File file : queueFolder.listFiles()) {
+      if (file.getName().contains(TEST_QUEUE_NAME)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private String createTestDataForIndex(int index) {
+    return "some value " + index;
+  }
+
+  private SegmentedFileQueueStoreDelegate createTestQueueStore() {
+    return new SegmentedFileQueueStoreDelegate(TEST_QUEUE_NAME, workingDirectory.getRoot().getAbsolutePath(), mockMuleContext, 0);
+  }
+}
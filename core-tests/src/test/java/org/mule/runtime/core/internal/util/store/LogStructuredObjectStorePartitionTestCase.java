@@ -0,0 +1,309 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.util.store;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.util.concurrent.Executors.newSingleThreadExecutor;
+import static org.apache.commons.lang3.StringUtils.repeat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.internal.util.store.LogStructuredObjectStorePartition.HINT_FILE;
+import static org.mule.runtime.core.internal.util.store.LogStructuredObjectStorePartition.SEGMENT_FILE_EXTENSION;
+import static org.mule.runtime.core.internal.util.store.LogStructuredObjectStorePartition.SEGMENT_FILE_PREFIX;
+import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
+import static org.mule.tck.SerializationTestUtils.addJavaSerializerToMockMuleContext;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.MuleConfiguration;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.runners.MockitoJUnitRunner;
+
+@SmallTest
+@RunWith(MockitoJUnitRunner.class)
+public class LogStructuredObjectStorePartitionTestCase extends AbstractMuleTestCase {
+
+  private static final long SMALL_SEGMENT_SIZE = 1024;
+
+  /**
+   * Big enough for a segment of {@link #SMALL_SEGMENT_SIZE} to be rolled after three records
+   */
+  private static final String BIG_VALUE = repeat("x", 400);
+
+  @Rule
+  public TemporaryFolder objectStoreFolder = new TemporaryFolder();
+
+  @Mock
+  private MuleContext muleContext;
+
+  @Mock
+  private MuleConfiguration muleConfiguration;
+
+  private LogStructuredObjectStorePartition<String> partition;
+
+  @Before
+  public void setUp() throws Exception {
+    when(muleContext.getExecutionClassLoader()).thenReturn(getClass().getClassLoader());
+    when(muleContext.getConfiguration()).thenReturn(muleConfiguration);
+    when(muleConfiguration.getWorkingDirectory()).thenReturn(objectStoreFolder.getRoot().getParentFile().getPath());
+    addJavaSerializerToMockMuleContext(muleContext);
+    partition = createPartition(SMALL_SEGMENT_SIZE);
+  }
+
+  @Test
+  public void storeRetrieveAndRemove() throws ObjectStoreException {
+    partition.store("key", "value");
+
+    assertTrue(partition.contains("key"));
+    assertThat(partition.retrieve("key"), is("value"));
+    assertThat(partition.remove("key"), is("value"));
+    assertFalse(partition.contains("key"));
+    assertThat(partition.allKeys(), is(empty()));
+  }
+
+  @Test
+  public void indicatesUnexistentKeyOnRetrieveError() throws ObjectStoreException {
+    try {
+      partition.retrieve("nonExistentKey");
+      fail("Supposed to thrown an exception as key is not valid");
+    } catch (ObjectDoesNotExistException e) {
+      assertTrue(e.getMessage().contains("nonExistentKey"));
+    }
+  }
+
+  @Test
+  public void restoresFromHintFile() throws Exception {
+    storeEntries(10);
+    partition.remove("key3");
+    partition.close();
+    assertTrue(new File(objectStoreFolder.getRoot(), HINT_FILE).exists());
+
+    // appended after the hint was written, so it has to be replayed
+    partition.store("key10", "value10");
+
+    LogStructuredObjectStorePartition<String> restored = createPartition(SMALL_SEGMENT_SIZE);
+    assertThat(restored.allKeys().size(), is(10));
+    assertFalse(restored.contains("key3"));
+    assertThat(restored.allKeys().get(9), is("key10"));
+    assertThat(restored.retrieve("key10"), is("value10"));
+    assertThat(restored.retrieve("key0"), is("value0"));
+  }
+
+  @Test
+  public void restoresWithoutHintFile() throws Exception {
+    storeEntries(10);
+    partition.remove("key3");
+    partition.close();
+    assertTrue(new File(objectStoreFolder.getRoot(), HINT_FILE).delete());
+
+    LogStructuredObjectStorePartition<String> restored = createPartition(SMALL_SEGMENT_SIZE);
+    assertThat(restored.allKeys().size(), is(9));
+    assertFalse(restored.contains("key3"));
+    assertThat(restored.retrieve("key9"), is("value9"));
+  }
+
+  @Test
+  public void expiresByMaxEntriesInInsertionOrder() throws Exception {
+    storeEntries(5);
+    partition.expire(UNBOUNDED, 2);
+
+    assertThat(partition.allKeys(), contains("key3", "key4"));
+    assertThat(restore().allKeys(), containsInAnyOrder("key3", "key4"));
+  }
+
+  @Test
+  public void expiresByTtl() throws Exception {
+    storeEntries(5);
+    Thread.sleep(200);
+    partition.store("fresh", "value");
+    partition.expire(100, UNBOUNDED);
+
+    assertThat(partition.allKeys(), contains("fresh"));
+  }
+
+  @Test
+  public void compactsOldestSegment() throws Exception {
+    storeEntries(100);
+    File oldestSegment = new File(objectStoreFolder.getRoot(), SEGMENT_FILE_PREFIX + 0 + SEGMENT_FILE_EXTENSION);
+    assertTrue(countSegments() > 2);
+
+    for (int i = 1; i <= 20; i++) {
+      partition.remove("key" + i);
+    }
+    partition.expire(UNBOUNDED, UNBOUNDED);
+
+    assertFalse(oldestSegment.exists());
+    assertThat(partition.allKeys().size(), is(80));
+    assertThat(partition.allKeys().get(0), is("key0"));
+    assertThat(partition.retrieve("key0"), is("value0"));
+    assertThat(partition.retrieve("key21"), is("value21"));
+    assertThat(partition.retrieve("key99"), is("value99"));
+
+    LogStructuredObjectStorePartition<String> restored = restore();
+    assertThat(restored.allKeys().size(), is(80));
+    assertThat(restored.allKeys().get(0), is("key0"));
+    assertThat(restored.retrieve("key0"), is("value0"));
+    assertFalse(restored.contains("key1"));
+  }
+
+  @Test
+  public void compactsSegmentWithLeastContentsToKeep() throws Exception {
+    partition.store("a0", BIG_VALUE);
+    partition.store("a1", BIG_VALUE);
+    partition.store("a2", BIG_VALUE);
+    partition.store("b0", BIG_VALUE);
+    partition.store("b1", BIG_VALUE);
+    partition.remove("a0");
+    partition.store("b2", BIG_VALUE);
+    partition.store("c0", BIG_VALUE);
+    partition.remove("b0");
+    partition.remove("b1");
+    partition.remove("b2");
+
+    partition.expire(UNBOUNDED, UNBOUNDED);
+
+    assertTrue(segmentFile(0).exists());
+    assertFalse(segmentFile(1).exists());
+    assertThat(partition.allKeys(), contains("a1", "a2", "c0"));
+
+    // the tombstone of a0 must have been carried over, otherwise a full replay would bring it back
+    partition.close();
+    assertTrue(new File(objectStoreFolder.getRoot(), HINT_FILE).delete());
+    assertThat(restore().allKeys(), contains("a1", "a2", "c0"));
+  }
+
+  @Test
+  public void hintedReplayKeepsOrderOfRelocatedKeys() throws Exception {
+    partition.store("a0", BIG_VALUE);
+    partition.store("a1", BIG_VALUE);
+    partition.store("a2", BIG_VALUE);
+    partition.store("b0", BIG_VALUE);
+    partition.close();
+
+    File hintFile = new File(objectStoreFolder.getRoot(), HINT_FILE);
+    File hintBackup = objectStoreFolder.newFile();
+    File segmentBackup = objectStoreFolder.newFile();
+    Files.copy(hintFile.toPath(), hintBackup.toPath(), REPLACE_EXISTING);
+    Files.copy(segmentFile(0).toPath(), segmentBackup.toPath(), REPLACE_EXISTING);
+
+    partition.remove("a0");
+    partition.remove("a1");
+    partition.expire(UNBOUNDED, UNBOUNDED);
+    assertFalse(segmentFile(0).exists());
+    partition.close();
+
+    // simulates a crash after the records were relocated but before the compacted segment was deleted
+    Files.copy(hintBackup.toPath(), hintFile.toPath(), REPLACE_EXISTING);
+    Files.copy(segmentBackup.toPath(), segmentFile(0).toPath(), REPLACE_EXISTING);
+
+    LogStructuredObjectStorePartition<String> restored = restore();
+    assertThat(restored.allKeys(), contains("a2", "b0"));
+    assertThat(restored.retrieve("a2"), is(BIG_VALUE));
+  }
+
+  @Test
+  public void truncatesTornRecords() throws Exception {
+    storeEntries(3);
+
+    File segment = new File(objectStoreFolder.getRoot(), SEGMENT_FILE_PREFIX + 0 + SEGMENT_FILE_EXTENSION);
+    try (RandomAccessFile file = new RandomAccessFile(segment, "rw")) {
+      file.setLength(file.length() - 3);
+    }
+
+    LogStructuredObjectStorePartition<String> restored = restore();
+    assertThat(restored.allKeys(), contains("key0", "key1"));
+
+    restored.store("key2", "value2");
+    assertThat(restore().retrieve("key2"), is("value2"));
+  }
+
+  @Test
+  public void clear() throws Exception {
+    storeEntries(10);
+    partition.clear();
+
+    assertThat(partition.allKeys(), is(empty()));
+    assertThat(countSegments(), is(0));
+    assertThat(restore().allKeys(), is(empty()));
+  }
+
+  @Test
+  public void clearWhileCompacting() throws Exception {
+    ExecutorService executor = newSingleThreadExecutor();
+    try {
+      for (int i = 0; i < 50; i++) {
+        storeEntries(100);
+        for (int j = 1; j <= 90; j++) {
+          partition.remove("key" + j);
+        }
+
+        Future<?> expiration = executor.submit(() -> {
+          partition.expire(UNBOUNDED, UNBOUNDED);
+          return null;
+        });
+        partition.clear();
+        expiration.get();
+
+        assertThat(partition.allKeys(), is(empty()));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    assertThat(restore().allKeys(), is(empty()));
+  }
+
+  private void storeEntries(int count) throws ObjectStoreException {
+    for (int i = 0; i < count; i++) {
+      partition.store("key" + i, "value" + i);
+    }
+  }
+
+  private File segmentFile(int id) {
+    return new File(objectStoreFolder.getRoot(), SEGMENT_FILE_PREFIX + id + SEGMENT_FILE_EXTENSION);
+  }
+
+  private int countSegments() {
+    return objectStoreFolder.getRoot().listFiles(file -> file.getName().startsWith(SEGMENT_FILE_PREFIX)).length;
+  }
+
+  private LogStructuredObjectStorePartition<String> restore() throws ObjectStoreException {
+    partition.close();
+    LogStructuredObjectStorePartition<String> restored = createPartition(SMALL_SEGMENT_SIZE);
+    partition = restored;
+    return restored;
+  }
+
+  private LogStructuredObjectStorePartition<String> createPartition(long maxSegmentSize) throws ObjectStoreException {
+    LogStructuredObjectStorePartition<String> newPartition =
+        new LogStructuredObjectStorePartition<>(muleContext, "test", objectStoreFolder.getRoot(), maxSegmentSize);
+    newPartition.open();
+    return newPartition;
+  }
+}
@@ -737,6 +737,19 @@ public class DefaultMessageProcessorChainTestCase extends AbstractReactiveProces
     process(builder.build(), getTestEventUsingFlow("0"));
   }
 
+  @Test
+  public void testExceptionBetweenNonIntercepting() throws Exception {
+    DefaultMessageProcessorChainBuilder builder = new DefaultMessageProcessorChainBuilder();
+    ReturnVoidMP lastMp = new ReturnVoidMP();
+    builder.chain(new TestNonIntercepting(), new ExceptionThrowingMessageProcessor(), lastMp);
+    expectedException.expect(IllegalStateException.class);
+    try {
+      process(builder.build(), getTestEventUsingFlow("0"));
+    } finally {
+      assertNull(lastMp.event);
+    }
+  }
+
   @Test
   public void testExceptionInResponse() throws Exception {
     DefaultMessageProcessorChainBuilder builder = new DefaultMessageProcessorChainBuilder();
@@ -0,0 +1,35 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.context.notification;
+
+/**
+ * Read only view of the metrics of the delivery of asynchronous notifications to a single {@link NotificationListener}.
+ *
+ * @since 4.0
+ */
+public interface NotificationListenerStatistics {
+
+  /**
+   * @return the listener these statistics refer to
+   */
+  NotificationListener getListener();
+
+  /**
+   * @return the number of notifications pending to be delivered
+   */
+  int getQueueDepth();
+
+  /**
+   * @return the number of notifications discarded because they could not be buffered or delivered
+   */
+  long getDroppedCount();
+
+  /**
+   * @return the number of notifications delivered to the listener
+   */
+  long getDeliveredCount();
+}
@@ -6,8 +6,17 @@
  */
 package org.mule.runtime.core.api.context.notification;
 
+import static java.lang.Integer.MAX_VALUE;
+import static java.lang.Integer.getInteger;
+import static java.lang.Long.getLong;
+import static java.lang.System.getProperty;
+import static java.lang.Thread.currentThread;
+import static java.util.Collections.unmodifiableCollection;
 import static java.util.Collections.unmodifiableMap;
 import static java.util.Collections.unmodifiableSet;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+import static org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy.BLOCK;
 import static org.slf4j.LoggerFactory.getLogger;
 
 import org.mule.runtime.api.lifecycle.InitialisationException;
@@ -16,12 +25,19 @@ import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.context.MuleContextAware;
 import org.mule.runtime.core.api.util.ClassUtils;
 import org.mule.runtime.core.internal.context.notification.Configuration;
+import org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer;
+import org.mule.runtime.core.internal.context.notification.NotificationListenerBuffer.OverflowPolicy;
 import org.mule.runtime.core.internal.context.notification.Policy;
 import org.mule.runtime.core.privileged.context.notification.OptimisedNotificationHandler;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
 import java.util.function.Predicate;
@@ -53,11 +69,29 @@ import org.slf4j.Logger;
  * <li>Disabling an event or interface disables all uses of that class or any subclass.</li>
  * <li>Enquiring whether an event is enabled returns true if any subclass is enabled.</li>
  * </ul>
+ *
+ * <p>
+ * Asynchronous notifications are not submitted to the schedulers one by one. Each listener has a buffer that is drained in
+ * batches, so the schedulers get one task per batch. The size of the batches is configured through the
+ * {@value #BATCH_SIZE_PROPERTY} system property. By default the buffers are not bounded, so no notification is discarded while
+ * the schedulers accept the batches. A bound is set through the {@value #BUFFER_SIZE_PROPERTY} system property. What to do with
+ * notifications fired for a listener whose buffer is full is configured through the {@value #OVERFLOW_POLICY_PROPERTY},
+ * {@value #SAMPLE_RATE_PROPERTY} and {@value #MAX_BLOCK_MILLIS_PROPERTY} system properties. By default, the firing thread waits
+ * for space. Discarding or sampling the notifications must be configured explicitly. The metrics of each buffer are available
+ * through {@link #getListenerStatistics()}.
  */
 public class ServerNotificationManager implements ServerNotificationHandler, MuleContextAware {
 
   private static final Logger logger = getLogger(ServerNotificationManager.class);
 
+  public static final String BUFFER_SIZE_PROPERTY = SYSTEM_PROPERTY_PREFIX + "notifications.bufferSize";
+  public static final String BATCH_SIZE_PROPERTY = SYSTEM_PROPERTY_PREFIX + "notifications.batchSize";
+  public static final String OVERFLOW_POLICY_PROPERTY = SYSTEM_PROPERTY_PREFIX + "notifications.overflowPolicy";
+  public static final String SAMPLE_RATE_PROPERTY = SYSTEM_PROPERTY_PREFIX + "notifications.sampleRate";
+  public static final String MAX_BLOCK_MILLIS_PROPERTY = SYSTEM_PROPERTY_PREFIX + "notifications.maxBlockMillis";
+
+  private static final long RESOLVE_THREAD_GROUP_TIMEOUT = 5;
+
   private boolean dynamic = false;
   private Configuration configuration = new Configuration();
   private ReentrantReadWriteLock disposeLock = new ReentrantReadWriteLock();
@@ -65,6 +99,17 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
   private MuleContext muleContext;
   private Scheduler notificationsLiteScheduler;
   private Scheduler notificationsIoScheduler;
+  private Predicate<Thread> nonBlockingThread = thread -> true;
+  private final ConcurrentMap<NotificationListener, NotificationListenerBuffer> listenerBuffers = new ConcurrentHashMap<>();
+  private final Collection<Runnable> configurationChangeCallbacks = new CopyOnWriteArrayList<>();
+  private final int bufferSize = getInteger(BUFFER_SIZE_PROPERTY, MAX_VALUE);
+  private final int batchSize = getInteger(BATCH_SIZE_PROPERTY, 64);
+  private final int sampleRate = getInteger(SAMPLE_RATE_PROPERTY, 10);
+  private final long maxBlockMillis = getLong(MAX_BLOCK_MILLIS_PROPERTY, 1000);
+  private final OverflowPolicy overflowPolicy =
+      OverflowPolicy.valueOf(getProperty(OVERFLOW_POLICY_PROPERTY, BLOCK.name()).toUpperCase());
+  // an unbounded buffer is never full, so offering to it never waits
+  private final boolean offerMayBlock = overflowPolicy == BLOCK && bufferSize != MAX_VALUE;
 
   @Override
   public boolean isNotificationDynamic() {
@@ -87,29 +132,63 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
   public void initialise() throws InitialisationException {
     notificationsLiteScheduler = muleContext.getSchedulerService().cpuLightScheduler();
     notificationsIoScheduler = muleContext.getSchedulerService().ioScheduler();
+    if (offerMayBlock) {
+      nonBlockingThread = resolveNonBlockingThreads();
+    }
+  }
+
+  /**
+   * The scheduler service runs each type of work in its own {@link ThreadGroup}, but doesn't tell the type of the current thread.
+   * So the groups of the {@code cpuLight} and {@code cpuIntensive} threads are taken from a task run by each scheduler. If they
+   * can't be determined, no thread waits for space in the buffers.
+   */
+  private Predicate<Thread> resolveNonBlockingThreads() {
+    Scheduler cpuIntensiveScheduler = muleContext.getSchedulerService().cpuIntensiveScheduler();
+    try {
+      ThreadGroup cpuLightGroup = getThreadGroup(notificationsLiteScheduler);
+      ThreadGroup cpuIntensiveGroup = getThreadGroup(cpuIntensiveScheduler);
+      return thread -> thread.getThreadGroup() == cpuLightGroup || thread.getThreadGroup() == cpuIntensiveGroup;
+    } catch (Exception e) {
+      if (e instanceof InterruptedException) {
+        currentThread().interrupt();
+      }
+      logger.warn("Could not determine the non blocking threads, notifications will not wait for space in the buffers", e);
+      return thread -> true;
+    } finally {
+      cpuIntensiveScheduler.stop();
+    }
+  }
+
+  private ThreadGroup getThreadGroup(Scheduler scheduler) throws Exception {
+    return scheduler.submit(() -> currentThread().getThreadGroup()).get(RESOLVE_THREAD_GROUP_TIMEOUT, SECONDS);
   }
 
   public void addInterfaceToType(Class<? extends NotificationListener> iface,
                                  Class<? extends Notification> event) {
     configuration.addInterfaceToType(iface, event);
+    configurationChanged();
   }
 
   public void setInterfaceToTypes(Map<Class<? extends NotificationListener>, Set<Class<? extends Notification>>> interfaceToEvents)
       throws ClassNotFoundException {
     configuration.addAllInterfaceToTypes(interfaceToEvents);
+    configurationChanged();
   }
 
   public void addListenerSubscriptionPair(ListenerSubscriptionPair pair) {
     configuration.addListenerSubscriptionPair(pair);
+    configurationChanged();
   }
 
   public void addListener(NotificationListener<?> listener) {
     configuration.addListenerSubscriptionPair(new ListenerSubscriptionPair(listener));
+    configurationChanged();
   }
 
   public <N extends Notification> void addListenerSubscription(NotificationListener<N> listener,
                                                                Predicate<N> selector) {
     configuration.addListenerSubscriptionPair(new ListenerSubscriptionPair(listener, selector));
+    configurationChanged();
   }
 
   /**
@@ -117,19 +196,58 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
    */
   public void removeListener(NotificationListener<?> listener) {
     configuration.removeListener(listener);
+    NotificationListenerBuffer buffer = listenerBuffers.remove(listener);
+    if (buffer != null) {
+      buffer.dispose();
+    }
+    configurationChanged();
   }
 
   public void disableInterface(Class<? extends NotificationListener> iface) {
     configuration.disableInterface(iface);
+    configurationChanged();
   }
 
   public void setDisabledInterfaces(Collection<Class<? extends NotificationListener>> interfaces)
       throws ClassNotFoundException {
     configuration.disabledAllInterfaces(interfaces);
+    configurationChanged();
   }
 
   public void disableType(Class<? extends Notification> type) {
     configuration.disableType(type);
+    configurationChanged();
+  }
+
+  /**
+   * Registers a callback to be run each time the listeners or the notification types handled by this manager change.
+   * <p>
+   * Components that check {@link #isNotificationEnabled(Class)} once, when assembling their processing, use this to assemble it
+   * again so that notifications enabled afterwards are fired.
+   *
+   * @param callback the callback to run on each change
+   */
+  public void addConfigurationChangeCallback(Runnable callback) {
+    configurationChangeCallbacks.add(callback);
+  }
+
+  /**
+   * Unregisters a callback previously registered with {@link #addConfigurationChangeCallback(Runnable)}.
+   *
+   * @param callback the callback to unregister
+   */
+  public void removeConfigurationChangeCallback(Runnable callback) {
+    configurationChangeCallbacks.remove(callback);
+  }
+
+  private void configurationChanged() {
+    for (Runnable callback : configurationChangeCallbacks) {
+      try {
+        callback.run();
+      } catch (Exception e) {
+        logger.warn("Notification configuration change callback failed", e);
+      }
+    }
   }
 
   @Override
@@ -144,6 +262,7 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
 
   @Override
   public void fireNotification(Notification notification) {
+    List<NotificationListenerBuffer> blockingBuffers = null;
     disposeLock.readLock().lock();
     try {
       if (disposed.get()) {
@@ -156,18 +275,57 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
       }
       if (notification.isSynchronous()) {
         notifyListeners(notification, (listener, nfn) -> listener.onNotification(nfn));
+      } else if (offerMayBlock) {
+        // offering may wait for space in the buffers, which must not be done while holding the lock that dispose needs
+        List<NotificationListenerBuffer> buffers = new ArrayList<>();
+        notifyListeners(notification, (listener, nfn) -> {
+          NotificationListenerBuffer buffer = getListenerBuffer(listener);
+          if (buffer != null) {
+            buffers.add(buffer);
+          }
+        });
+        blockingBuffers = buffers;
       } else {
         notifyListeners(notification, (listener, nfn) -> {
-          if (listener.isBlocking()) {
-            notificationsIoScheduler.submit(() -> listener.onNotification(nfn));
-          } else {
-            notificationsLiteScheduler.submit(() -> listener.onNotification(nfn));
+          NotificationListenerBuffer buffer = getListenerBuffer(listener);
+          if (buffer != null) {
+            buffer.offer(nfn);
           }
         });
       }
     } finally {
       disposeLock.readLock().unlock();
     }
+
+    if (blockingBuffers != null) {
+      for (NotificationListenerBuffer buffer : blockingBuffers) {
+        buffer.offer(notification);
+      }
+    }
+  }
+
+  /**
+   * @return the buffer of the given listener, or {@code null} if it was removed while the notification was being dispatched
+   */
+  private NotificationListenerBuffer getListenerBuffer(NotificationListener listener) {
+    NotificationListenerBuffer buffer = listenerBuffers.get(listener);
+    if (buffer == null) {
+      buffer = listenerBuffers.computeIfAbsent(listener, this::createListenerBuffer);
+    }
+    return buffer;
+  }
+
+  /**
+   * A notification dispatched with a policy taken before {@link #removeListener(NotificationListener)} may get here after its
+   * buffer was removed. The listener is checked while the map entry is being computed, so that either no buffer is created or
+   * {@link #removeListener(NotificationListener)} removes the created one.
+   */
+  private NotificationListenerBuffer createListenerBuffer(NotificationListener listener) {
+    if (!configuration.hasListener(listener)) {
+      return null;
+    }
+    return new NotificationListenerBuffer(listener, listener.isBlocking() ? notificationsIoScheduler : notificationsLiteScheduler,
+                                          bufferSize, batchSize, overflowPolicy, sampleRate, maxBlockMillis, nonBlockingThread);
   }
 
   protected void notifyListeners(Notification notification, NotifierCallback notifier) {
@@ -191,6 +349,10 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
    * died
    */
   public void dispose() {
+    // release any thread waiting for space in a buffer before waiting for the ones firing notifications
+    for (NotificationListenerBuffer buffer : listenerBuffers.values()) {
+      buffer.dispose();
+    }
     disposeLock.writeLock().lock();
     try {
       if (notificationsLiteScheduler != null) {
@@ -204,6 +366,10 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
 
       disposed.set(true);
       configuration = null;
+      for (NotificationListenerBuffer buffer : listenerBuffers.values()) {
+        buffer.dispose();
+      }
+      listenerBuffers.clear();
     } finally {
       disposeLock.writeLock().unlock();
     }
@@ -243,6 +409,35 @@ public class ServerNotificationManager implements ServerNotificationHandler, Mul
     return disposed.get();
   }
 
+  /**
+   * @return the number of asynchronous notifications pending to be delivered, across all listeners
+   */
+  public int getPendingNotificationsCount() {
+    int pending = 0;
+    for (NotificationListenerBuffer buffer : listenerBuffers.values()) {
+      pending += buffer.getQueueDepth();
+    }
+    return pending;
+  }
+
+  /**
+   * @return the number of asynchronous notifications discarded because they could not be buffered or delivered
+   */
+  public long getDroppedNotificationsCount() {
+    long dropped = 0;
+    for (NotificationListenerBuffer buffer : listenerBuffers.values()) {
+      dropped += buffer.getDroppedCount();
+    }
+    return dropped;
+  }
+
+  /**
+   * @return the metrics of the delivery of asynchronous notifications to each listener
+   */
+  public Collection<NotificationListenerStatistics> getListenerStatistics() {
+    return unmodifiableCollection(listenerBuffers.values());
+  }
+
   /**
    * @return a {@link ServerNotificationManager} with the default configuration for Mule notifications
    */
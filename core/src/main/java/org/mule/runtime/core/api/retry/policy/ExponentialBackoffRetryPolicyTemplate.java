@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.api.retry.policy;
+
+import static org.mule.runtime.core.api.retry.policy.SimpleRetryPolicyTemplate.DEFAULT_FREQUENCY;
+import static org.mule.runtime.core.api.retry.policy.SimpleRetryPolicyTemplate.DEFAULT_RETRY_COUNT;
+import org.mule.runtime.core.internal.retry.policies.ExponentialBackoffRetryPolicy;
+
+/**
+ * This policy allows the user to configure how many times a retry should be attempted and how the wait between retries grows
+ * exponentially, optionally with a random jitter.
+ * <p>
+ * Retries of non blocking operations are scheduled on a timer instead of parking a thread during the wait.
+ *
+ * @since 4.0
+ */
+public class ExponentialBackoffRetryPolicyTemplate extends AbstractPolicyTemplate {
+
+  public static final long DEFAULT_MAX_DELAY = 60000;
+  public static final int DEFAULT_MULTIPLIER = 2;
+
+  protected volatile int count = DEFAULT_RETRY_COUNT;
+  protected volatile long initialDelay = DEFAULT_FREQUENCY;
+  protected volatile long maxDelay = DEFAULT_MAX_DELAY;
+  protected volatile int multiplier = DEFAULT_MULTIPLIER;
+  protected volatile boolean jitter = true;
+
+  public ExponentialBackoffRetryPolicyTemplate() {
+    super();
+  }
+
+  public ExponentialBackoffRetryPolicyTemplate(long initialDelay, long maxDelay, int multiplier, boolean jitter, int retryCount) {
+    this.initialDelay = initialDelay;
+    this.maxDelay = maxDelay;
+    this.multiplier = multiplier;
+    this.jitter = jitter;
+    this.count = retryCount;
+  }
+
+  public long getInitialDelay() {
+    return initialDelay;
+  }
+
+  public void setInitialDelay(long initialDelay) {
+    this.initialDelay = initialDelay;
+  }
+
+  public long getMaxDelay() {
+    return maxDelay;
+  }
+
+  public void setMaxDelay(long maxDelay) {
+    this.maxDelay = maxDelay;
+  }
+
+  public int getMultiplier() {
+    return multiplier;
+  }
+
+  public void setMultiplier(int multiplier) {
+    this.multiplier = multiplier;
+  }
+
+  public boolean isJitter() {
+    return jitter;
+  }
+
+  public void setJitter(boolean jitter) {
+    this.jitter = jitter;
+  }
+
+  public int getCount() {
+    return count;
+  }
+
+  public void setCount(int count) {
+    this.count = count;
+  }
+
+  @Override
+  public RetryPolicy createRetryInstance() {
+    return new ExponentialBackoffRetryPolicy(initialDelay, maxDelay, multiplier, jitter, count);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder();
+    sb.append("ExponentialBackoffRetryPolicy");
+    sb.append("{initialDelay=").append(initialDelay);
+    sb.append(", maxDelay=").append(maxDelay);
+    sb.append(", multiplier=").append(multiplier);
+    sb.append(", jitter=").append(jitter);
+    sb.append(", retryCount=").append(count);
+    sb.append('}');
+
+    return sb.toString();
+  }
+}
@@ -6,6 +6,8 @@
  */
 package org.mule.runtime.core.api.streaming;
 
+import static java.lang.Boolean.getBoolean;
+import static org.mule.runtime.core.api.config.MuleProperties.MULE_STREAMING_DIRECT_BUFFERS;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.slf4j.LoggerFactory.getLogger;
@@ -14,12 +16,14 @@ import org.mule.runtime.api.lifecycle.Initialisable;
 import org.mule.runtime.api.lifecycle.InitialisationException;
 import org.mule.runtime.api.streaming.CursorProvider;
 import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.config.MuleProperties;
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.internal.streaming.CursorManager;
 import org.mule.runtime.core.internal.streaming.ManagedCursorProvider;
 import org.mule.runtime.core.internal.streaming.MutableStreamingStatistics;
 import org.mule.runtime.core.internal.streaming.bytes.DefaultByteStreamingManager;
+import org.mule.runtime.core.internal.streaming.bytes.DirectByteBufferManager;
 import org.mule.runtime.core.internal.streaming.bytes.PoolingByteBufferManager;
 import org.mule.runtime.core.internal.streaming.object.DefaultObjectStreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
@@ -51,7 +55,7 @@ public class DefaultStreamingManager implements StreamingManager, Initialisable,
     if (!initialised) {
       statistics = new MutableStreamingStatistics();
       cursorManager = new CursorManager(statistics);
-      bufferManager = new PoolingByteBufferManager();
+      bufferManager = createBufferManager();
       byteStreamingManager = createByteStreamingManager();
       objectStreamingManager = createObjectStreamingManager();
 
@@ -61,6 +65,14 @@ public class DefaultStreamingManager implements StreamingManager, Initialisable,
     }
   }
 
+  /**
+   * @return a {@link DirectByteBufferManager} if the {@link MuleProperties#MULE_STREAMING_DIRECT_BUFFERS} system property
+   * is set, a {@link PoolingByteBufferManager} otherwise
+   */
+  protected ByteBufferManager createBufferManager() {
+    return getBoolean(MULE_STREAMING_DIRECT_BUFFERS) ? new DirectByteBufferManager() : new PoolingByteBufferManager();
+  }
+
   protected ByteStreamingManager createByteStreamingManager() {
     return new DefaultByteStreamingManager(bufferManager, this);
   }
@@ -0,0 +1,445 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+import static java.lang.System.currentTimeMillis;
+import static java.lang.System.identityHashCode;
+import static java.lang.System.nanoTime;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.apache.commons.pool.impl.GenericObjectPool.WHEN_EXHAUSTED_FAIL;
+import static org.apache.commons.pool.impl.GenericObjectPool.WHEN_EXHAUSTED_GROW;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.config.PoolingProfile;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.commons.pool.BaseObjectPool;
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.slf4j.Logger;
+
+/**
+ * An {@link org.apache.commons.pool.ObjectPool} which doesn't synchronize borrowing and returning objects.
+ * <p>
+ * Each pooled object has an atomic state, and borrowing one is a matter of winning a compare and set over an idle one. Borrowers
+ * first look at the objects last returned by the same thread, which are likely to be idle and not contended, and then at all the
+ * objects in the pool. When the pool is exhausted and configured to wait, borrowers wait on a condition which is signalled each
+ * time an object is returned or a slot for a new one is freed. Returning an object never waits for a borrower to take it.
+ * <p>
+ * It honours the same {@link PoolingProfile} settings as {@link org.apache.commons.pool.impl.GenericObjectPool}: max active,
+ * max idle, max wait, exhausted action and idle eviction.
+ *
+ * @param <T> the generic type of the pooled objects
+ * @since 4.0
+ */
+final class ConcurrentObjectPool<T> extends BaseObjectPool<T> implements ConnectionPoolStatistics {
+
+  private static final Logger LOGGER = getLogger(ConcurrentObjectPool.class);
+
+  private static final int MAX_THREAD_LOCAL_ENTRIES = 16;
+
+  private static final int IN_USE = 0;
+  private static final int IDLE = 1;
+  private static final int REMOVED = 2;
+
+  private static final ScheduledExecutorService EVICTOR = newSingleThreadScheduledExecutor(r -> {
+    Thread thread = new Thread(r, "connection-pool-evictor");
+    thread.setDaemon(true);
+    return thread;
+  });
+
+  private final PoolableObjectFactory<T> factory;
+  private final int maxActive;
+  private final int maxIdle;
+  private final long maxWait;
+  private final int exhaustedAction;
+  private final long minEvictableIdleTimeMillis;
+
+  private final List<PoolEntry<T>> entries = new CopyOnWriteArrayList<>();
+  private final ConcurrentMap<IdentityKey, PoolEntry<T>> entriesByObject = new ConcurrentHashMap<>();
+  private final ThreadLocal<List<WeakReference<PoolEntry<T>>>> threadEntries = ThreadLocal.withInitial(ArrayList::new);
+  private final Lock waitersLock = new ReentrantLock();
+  private final Condition availability = waitersLock.newCondition();
+  // incremented each time an object becomes idle or a slot is freed while there are waiters
+  private final AtomicLong availabilityCount = new AtomicLong();
+
+  private final AtomicInteger waiters = new AtomicInteger();
+  private final AtomicInteger totalCount = new AtomicInteger();
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicLong borrowedCount = new AtomicLong();
+  private final AtomicLong borrowWaitTimeNanos = new AtomicLong();
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong destroyedCount = new AtomicLong();
+
+  private final ScheduledFuture<?> evictionTask;
+
+  /**
+   * Creates a new instance
+   *
+   * @param factory        the factory which creates and destroys the pooled objects
+   * @param poolingProfile the {@link PoolingProfile} which configures this pool
+   */
+  ConcurrentObjectPool(PoolableObjectFactory<T> factory, PoolingProfile poolingProfile) {
+    this.factory = factory;
+    this.maxActive = poolingProfile.getMaxActive();
+    this.maxIdle = poolingProfile.getMaxIdle();
+    this.maxWait = poolingProfile.getMaxWait();
+    this.exhaustedAction = poolingProfile.getExhaustedAction();
+    this.minEvictableIdleTimeMillis = poolingProfile.getMinEvictionMillis();
+
+    long evictionInterval = poolingProfile.getEvictionCheckIntervalMillis();
+    if (evictionInterval > 0 && minEvictableIdleTimeMillis > 0) {
+      evictionTask = EVICTOR.scheduleWithFixedDelay(this::evict, evictionInterval, evictionInterval, MILLISECONDS);
+    } else {
+      evictionTask = null;
+    }
+  }
+
+  @Override
+  public T borrowObject() throws Exception {
+    assertOpen();
+    final long start = nanoTime();
+    try {
+      PoolEntry<T> entry = acquire();
+      borrowedCount.incrementAndGet();
+      return entry.object;
+    } finally {
+      borrowWaitTimeNanos.addAndGet(nanoTime() - start);
+    }
+  }
+
+  private PoolEntry<T> acquire() throws Exception {
+    PoolEntry<T> entry = pollIdle();
+    if (entry == null) {
+      entry = tryCreate();
+    }
+    if (entry != null) {
+      return entry;
+    }
+
+    if (exhaustedAction == WHEN_EXHAUSTED_GROW) {
+      assertOpen();
+      totalCount.incrementAndGet();
+      return create();
+    } else if (exhaustedAction == WHEN_EXHAUSTED_FAIL) {
+      throw new NoSuchElementException("Pool exhausted");
+    } else {
+      return awaitEntry();
+    }
+  }
+
+  private PoolEntry<T> pollIdle() {
+    List<WeakReference<PoolEntry<T>>> localEntries = threadEntries.get();
+    for (int i = localEntries.size() - 1; i >= 0; i--) {
+      PoolEntry<T> entry = localEntries.remove(i).get();
+      if (entry != null && reserve(entry)) {
+        return entry;
+      }
+    }
+
+    for (PoolEntry<T> entry : entries) {
+      if (reserve(entry)) {
+        return entry;
+      }
+    }
+    return null;
+  }
+
+  private PoolEntry<T> tryCreate() throws Exception {
+    assertOpen();
+    for (;;) {
+      int total = totalCount.get();
+      if (maxActive >= 0 && total >= maxActive) {
+        return null;
+      }
+      if (totalCount.compareAndSet(total, total + 1)) {
+        return create();
+      }
+    }
+  }
+
+  /**
+   * Creates a new entry in use. The slot for it must have already been accounted in {@link #totalCount}.
+   */
+  private PoolEntry<T> create() throws Exception {
+    try {
+      PoolEntry<T> entry = new PoolEntry<>(factory.makeObject());
+      entries.add(entry);
+      entriesByObject.put(new IdentityKey(entry.object), entry);
+      createdCount.incrementAndGet();
+      return entry;
+    } catch (Exception e) {
+      totalCount.decrementAndGet();
+      signalAvailability();
+      throw e;
+    }
+  }
+
+  private PoolEntry<T> awaitEntry() throws Exception {
+    final long deadline = maxWait > 0 ? nanoTime() + MILLISECONDS.toNanos(maxWait) : 0;
+    waiters.incrementAndGet();
+    try {
+      for (;;) {
+        assertOpen();
+        // read before looking, so that an object returned after looking is noticed before waiting
+        final long availabilitySnapshot = availabilityCount.get();
+        PoolEntry<T> entry = pollIdle();
+        if (entry == null) {
+          entry = tryCreate();
+        }
+        if (entry != null) {
+          return entry;
+        }
+
+        waitersLock.lock();
+        try {
+          while (availabilityCount.get() == availabilitySnapshot && !isClosed()) {
+            if (maxWait > 0) {
+              long remaining = deadline - nanoTime();
+              if (remaining <= 0) {
+                throw new NoSuchElementException("Timeout waiting for idle object");
+              }
+              availability.awaitNanos(remaining);
+            } else {
+              availability.await();
+            }
+          }
+        } finally {
+          waitersLock.unlock();
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new NoSuchElementException("Interrupted while waiting for idle object");
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  @Override
+  public void returnObject(T object) throws Exception {
+    PoolEntry<T> entry = entriesByObject.get(new IdentityKey(object));
+    if (entry == null) {
+      throw new IllegalStateException("Returned object was not borrowed from this pool");
+    }
+
+    if (isClosed() || (maxIdle >= 0 && idleCount.get() >= maxIdle)) {
+      if (entry.remove()) {
+        destroy(entry);
+      }
+      return;
+    }
+
+    try {
+      factory.passivateObject(object);
+    } catch (Exception e) {
+      if (entry.remove()) {
+        destroy(entry);
+      }
+      throw e;
+    }
+
+    entry.lastReturned = currentTimeMillis();
+    release(entry);
+
+    if (waiters.get() > 0) {
+      signalAvailability();
+      return;
+    }
+
+    List<WeakReference<PoolEntry<T>>> localEntries = threadEntries.get();
+    if (localEntries.size() < MAX_THREAD_LOCAL_ENTRIES) {
+      localEntries.add(new WeakReference<>(entry));
+    }
+  }
+
+  @Override
+  public void invalidateObject(T object) throws Exception {
+    PoolEntry<T> entry = entriesByObject.get(new IdentityKey(object));
+    if (entry == null) {
+      factory.destroyObject(object);
+      destroyedCount.incrementAndGet();
+    } else if (entry.remove()) {
+      destroy(entry);
+    }
+  }
+
+  private void destroy(PoolEntry<T> entry) {
+    entries.remove(entry);
+    entriesByObject.remove(new IdentityKey(entry.object));
+    totalCount.decrementAndGet();
+    try {
+      factory.destroyObject(entry.object);
+    } catch (Exception e) {
+      LOGGER.warn("Exception found destroying pooled object", e);
+    } finally {
+      destroyedCount.incrementAndGet();
+    }
+    signalAvailability();
+  }
+
+  /**
+   * Wakes up a waiting borrower, if any, to look again for an idle object or a free slot. Another borrower may take it first, in
+   * which case the woken up one waits again.
+   */
+  private void signalAvailability() {
+    if (waiters.get() > 0) {
+      waitersLock.lock();
+      try {
+        availabilityCount.incrementAndGet();
+        availability.signal();
+      } finally {
+        waitersLock.unlock();
+      }
+    }
+  }
+
+  private void evict() {
+    long now = currentTimeMillis();
+    for (PoolEntry<T> entry : entries) {
+      if (now - entry.lastReturned >= minEvictableIdleTimeMillis && removeIdle(entry)) {
+        destroy(entry);
+      }
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (PoolEntry<T> entry : entries) {
+      if (removeIdle(entry)) {
+        destroy(entry);
+      }
+    }
+  }
+
+  /**
+   * Closes the pool, destroying the idle objects and failing the borrowers waiting for one. Objects borrowed at this moment are
+   * destroyed when returned.
+   */
+  @Override
+  public void close() throws Exception {
+    super.close();
+    if (evictionTask != null) {
+      evictionTask.cancel(false);
+    }
+    clear();
+
+    // wake up every waiting borrower, they will find the pool closed
+    waitersLock.lock();
+    try {
+      availabilityCount.incrementAndGet();
+      availability.signalAll();
+    } finally {
+      waitersLock.unlock();
+    }
+  }
+
+  @Override
+  public int getNumActive() {
+    return totalCount.get() - idleCount.get();
+  }
+
+  @Override
+  public int getNumIdle() {
+    return idleCount.get();
+  }
+
+  @Override
+  public long getBorrowedCount() {
+    return borrowedCount.get();
+  }
+
+  @Override
+  public long getBorrowWaitTimeNanos() {
+    return borrowWaitTimeNanos.get();
+  }
+
+  @Override
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  @Override
+  public long getDestroyedCount() {
+    return destroyedCount.get();
+  }
+
+  /**
+   * @return the number of borrowers waiting for an object to be returned to the exhausted pool
+   */
+  int getNumWaiters() {
+    return waiters.get();
+  }
+
+  private boolean reserve(PoolEntry<T> entry) {
+    if (entry.state.compareAndSet(IDLE, IN_USE)) {
+      idleCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private void release(PoolEntry<T> entry) {
+    idleCount.incrementAndGet();
+    entry.state.set(IDLE);
+  }
+
+  private boolean removeIdle(PoolEntry<T> entry) {
+    if (entry.state.compareAndSet(IDLE, REMOVED)) {
+      idleCount.decrementAndGet();
+      return true;
+    }
+    return false;
+  }
+
+  private static final class PoolEntry<E> {
+
+    private final E object;
+    private final AtomicInteger state = new AtomicInteger(IN_USE);
+    private volatile long lastReturned = currentTimeMillis();
+
+    private PoolEntry(E object) {
+      this.object = object;
+    }
+
+    private boolean remove() {
+      return state.compareAndSet(IN_USE, REMOVED);
+    }
+  }
+
+  private static final class IdentityKey {
+
+    private final Object object;
+
+    private IdentityKey(Object object) {
+      this.object = object;
+    }
+
+    @Override
+    public int hashCode() {
+      return identityHashCode(object);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      return obj instanceof IdentityKey && ((IdentityKey) obj).object == object;
+    }
+  }
+}
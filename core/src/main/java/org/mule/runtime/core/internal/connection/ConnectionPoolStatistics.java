@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.connection;
+
+/**
+ * Metrics of a pool of connections. Counters are cumulative since the pool was created, so rates can be obtained by sampling
+ * them periodically.
+ *
+ * @since 4.0
+ */
+public interface ConnectionPoolStatistics {
+
+  /**
+   * @return the number of connections currently borrowed from the pool
+   */
+  int getNumActive();
+
+  /**
+   * @return the number of connections currently idle in the pool
+   */
+  int getNumIdle();
+
+  /**
+   * @return the number of connections that have been borrowed from the pool
+   */
+  long getBorrowedCount();
+
+  /**
+   * @return the accumulated time, in nanoseconds, that borrowers spent waiting for a connection
+   */
+  long getBorrowWaitTimeNanos();
+
+  /**
+   * @return the number of connections that have been created by the pool
+   */
+  long getCreatedCount();
+
+  /**
+   * @return the number of connections that have been destroyed by the pool
+   */
+  long getDestroyedCount();
+}
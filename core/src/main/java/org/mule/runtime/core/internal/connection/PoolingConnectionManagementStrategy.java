@@ -18,12 +18,13 @@ import org.mule.runtime.core.api.MuleContext;
 
 import java.util.NoSuchElementException;
 
-import org.apache.commons.pool.ObjectPool;
 import org.apache.commons.pool.PoolableObjectFactory;
-import org.apache.commons.pool.impl.GenericObjectPool;
 
 /**
- * A {@link ConnectionManagementStrategy} which returns connections obtained from a {@link #pool}
+ * A {@link ConnectionManagementStrategy} which returns connections obtained from a {@link #pool}.
+ * <p>
+ * The pool is a {@link ConcurrentObjectPool}, so concurrent flows borrowing connections from the same config don't contend on a
+ * lock. Its metrics are available through {@link #getPoolStatistics()}.
  *
  * @param <C> the generic type of the connections to be managed
  * @since 4.0
@@ -31,7 +32,7 @@ import org.apache.commons.pool.impl.GenericObjectPool;
 final class PoolingConnectionManagementStrategy<C> extends ConnectionManagementStrategy<C> {
 
   private final PoolingProfile poolingProfile;
-  private final ObjectPool<C> pool;
+  private final ConcurrentObjectPool<C> pool;
   private final PoolingListener<C> poolingListener;
 
   /**
@@ -96,23 +97,21 @@ final class PoolingConnectionManagementStrategy<C> extends ConnectionManagementS
     }
   }
 
-  private ObjectPool<C> createPool() {
-    GenericObjectPool.Config config = new GenericObjectPool.Config();
-    config.maxIdle = poolingProfile.getMaxIdle();
-    config.maxActive = poolingProfile.getMaxActive();
-    config.maxWait = poolingProfile.getMaxWait();
-    config.whenExhaustedAction = (byte) poolingProfile.getExhaustedAction();
-    config.minEvictableIdleTimeMillis = poolingProfile.getMinEvictionMillis();
-    config.timeBetweenEvictionRunsMillis = poolingProfile.getEvictionCheckIntervalMillis();
-    GenericObjectPool genericPool = new GenericObjectPool(new ObjectFactoryAdapter(), config);
-
-    return genericPool;
+  private ConcurrentObjectPool<C> createPool() {
+    return new ConcurrentObjectPool<>(new ObjectFactoryAdapter(), poolingProfile);
   }
 
   public PoolingProfile getPoolingProfile() {
     return poolingProfile;
   }
 
+  /**
+   * @return the metrics of the connection pool
+   */
+  public ConnectionPoolStatistics getPoolStatistics() {
+    return pool;
+  }
+
   private class ObjectFactoryAdapter implements PoolableObjectFactory<C> {
 
     @Override
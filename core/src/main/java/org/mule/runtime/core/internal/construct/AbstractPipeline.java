@@ -17,7 +17,6 @@ import static org.mule.runtime.core.api.event.BaseEvent.builder;
 import static org.mule.runtime.core.api.exception.Errors.ComponentIdentifiers.Unhandleable.OVERLOAD;
 import static org.mule.runtime.core.api.source.MessageSource.BackPressureStrategy.DROP;
 import static org.mule.runtime.core.api.source.MessageSource.BackPressureStrategy.WAIT;
-import static org.mule.runtime.core.internal.util.rx.Operators.requestUnbounded;
 import static org.mule.runtime.core.privileged.processor.MessageProcessors.processToApply;
 import static reactor.core.Exceptions.propagate;
 import static reactor.core.publisher.Flux.empty;
@@ -35,8 +34,10 @@ import org.mule.runtime.core.api.config.MuleConfiguration;
 import org.mule.runtime.core.api.config.i18n.CoreMessages;
 import org.mule.runtime.core.api.connector.ConnectException;
 import org.mule.runtime.core.api.construct.Pipeline;
+import org.mule.runtime.core.api.context.notification.MessageProcessorNotification;
 import org.mule.runtime.core.api.context.notification.NotificationDispatcher;
 import org.mule.runtime.core.api.context.notification.PipelineMessageNotification;
+import org.mule.runtime.core.api.context.notification.ServerNotificationManager;
 import org.mule.runtime.core.api.event.BaseEvent;
 import org.mule.runtime.core.api.event.BaseEventContext;
 import org.mule.runtime.core.api.exception.MessagingException;
@@ -95,7 +96,11 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
 
   private volatile boolean canProcessMessage = false;
   private final Cache<String, EventContext> eventContextCache = CacheBuilder.newBuilder().weakValues().build();
-  private Sink sink;
+  private volatile Sink sink;
+  private Sink standbySink;
+  private final Object sinkLock = new Object();
+  private boolean messageProcessorNotificationsEnabled;
+  private final Runnable notificationConfigurationChangeCallback = this::reassembleIfNotificationsChanged;
   private final int maxConcurrency;
 
   public AbstractPipeline(String name, MuleContext muleContext, MessageSource source, List<Processor> processors,
@@ -214,7 +219,7 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
         public Publisher<BaseEvent> apply(Publisher<BaseEvent> publisher) {
           return from(publisher)
               .doOnNext(assertStarted())
-              .transform(dispatchToFlow(sink));
+              .transform(dispatchToFlow());
         }
       });
     }
@@ -229,13 +234,18 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
    * Processor that dispatches incoming source Events to the internal pipeline the Sink. The way in which the Event is dispatched
    * and how overload is handled depends on the Source back-pressure strategy.
    */
-  private ReactiveProcessor dispatchToFlow(Sink sink) {
+  private ReactiveProcessor dispatchToFlow() {
     if (source.getBackPressureStrategy() == WAIT) {
       // If back-pressure strategy is WAIT then use blocking `accept(Event event)` to dispatch Event
       return publisher -> from(publisher)
           .doOnNext(event -> {
+            Sink currentSink = sink;
+            if (currentSink == null) {
+              ((BaseEventContext) event.getContext()).error(createStoppedException(event));
+              return;
+            }
             try {
-              sink.accept(event);
+              currentSink.accept(event);
             } catch (RejectedExecutionException ree) {
               MessagingException me = new MessagingException(event, ree, this);
               ((BaseEventContext) event.getContext()).error(exceptionResolver.resolve(me, getMuleContext()));
@@ -245,7 +255,10 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
     } else {
       // If back-pressure strategy is FAIL/DROP then using back-pressure aware `accept(Event event)` to dispatch Event
       return publisher -> from(publisher).flatMap(event -> {
-        if (sink.emit(event)) {
+        Sink currentSink = sink;
+        if (currentSink == null) {
+          return error(createStoppedException(event));
+        } else if (currentSink.emit(event)) {
           return ((BaseEventContext) event.getContext()).getResponsePublisher();
         } else {
           if (source.getBackPressureStrategy() == DROP) {
@@ -299,7 +312,14 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
   protected void doStart() throws MuleException {
     super.doStart();
     startIfStartable(processingStrategy);
-    sink = processingStrategy.createSink(this, processFlowFunction());
+    synchronized (sinkLock) {
+      messageProcessorNotificationsEnabled = isMessageProcessorNotificationEnabled();
+      sink = processingStrategy.createSink(this, processFlowFunction());
+    }
+    ServerNotificationManager notificationManager = getMuleContext().getNotificationManager();
+    if (notificationManager != null) {
+      notificationManager.addConfigurationChangeCallback(notificationConfigurationChangeCallback);
+    }
     // TODO MULE-13360: PhaseErrorLifecycleInterceptor is not being applied when AbstractPipeline doStart fails
     try {
       startIfStartable(pipeline);
@@ -327,12 +347,19 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
   public Consumer<BaseEvent> assertStarted() {
     return event -> {
       if (!canProcessMessage) {
-        throw propagate(new MessagingException(event,
-                                               new LifecycleException(CoreMessages.isStopped(getName()), event.getMessage())));
+        throw propagate(createStoppedException(event));
       }
     };
   }
 
+  /**
+   * @param event the event that couldn't be processed
+   * @return the exception used to reject an event that reaches this flow while it is stopped
+   */
+  protected MessagingException createStoppedException(BaseEvent event) {
+    return new MessagingException(event, new LifecycleException(CoreMessages.isStopped(getName()), event.getMessage()));
+  }
+
   @Override
   protected void doStop() throws MuleException {
     try {
@@ -341,8 +368,16 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
       canProcessMessage = false;
     }
 
-    disposeIfDisposable(sink);
-    sink = null;
+    ServerNotificationManager notificationManager = getMuleContext().getNotificationManager();
+    if (notificationManager != null) {
+      notificationManager.removeConfigurationChangeCallback(notificationConfigurationChangeCallback);
+    }
+    synchronized (sinkLock) {
+      disposeIfDisposable(standbySink);
+      standbySink = null;
+      disposeIfDisposable(sink);
+      sink = null;
+    }
     stopIfStoppable(processingStrategy);
     stopIfStoppable(pipeline);
     super.doStop();
@@ -359,6 +394,41 @@ public abstract class AbstractPipeline extends AbstractFlowConstruct implements
     return sink;
   }
 
+  /**
+   * @return the sink assembled for the previous notifications configuration, if the pipeline was reassembled
+   */
+  Sink getStandbySink() {
+    synchronized (sinkLock) {
+      return standbySink;
+    }
+  }
+
+  /**
+   * Message processor chains only add the operators that fire {@link MessageProcessorNotification}s when they are assembled
+   * while there are listeners for them. When that changes, the pipeline is assembled again into a new {@link Sink} that takes the
+   * place of the current one.
+   * <p>
+   * The replaced sink is kept on standby rather than disposed, so the events already dispatched to it complete normally without
+   * the pipeline having to track them, and it becomes the current sink again if the notifications configuration changes back.
+   * Since there are only two possible assemblies, at most one standby sink exists, and it is disposed when the flow is stopped.
+   */
+  private void reassembleIfNotificationsChanged() {
+    synchronized (sinkLock) {
+      boolean notificationsEnabled = isMessageProcessorNotificationEnabled();
+      if (sink != null && notificationsEnabled != messageProcessorNotificationsEnabled) {
+        messageProcessorNotificationsEnabled = notificationsEnabled;
+        Sink replacedSink = sink;
+        sink = standbySink != null ? standbySink : processingStrategy.createSink(this, processFlowFunction());
+        standbySink = replacedSink;
+      }
+    }
+  }
+
+  private boolean isMessageProcessorNotificationEnabled() {
+    ServerNotificationManager notificationManager = getMuleContext().getNotificationManager();
+    return notificationManager != null && notificationManager.isNotificationEnabled(MessageProcessorNotification.class);
+  }
+
   @Override
   public Map<String, EventContext> getSerializationEventContextCache() {
     return eventContextCache.asMap();
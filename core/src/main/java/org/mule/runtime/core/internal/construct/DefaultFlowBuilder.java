@@ -32,6 +32,7 @@ import org.mule.runtime.core.api.exception.MessagingException;
 import org.mule.runtime.core.api.exception.MessagingExceptionHandler;
 import org.mule.runtime.core.api.management.stats.FlowConstructStatistics;
 import org.mule.runtime.core.api.processor.Processor;
+import org.mule.runtime.core.api.processor.Sink;
 import org.mule.runtime.core.api.processor.strategy.ProcessingStrategyFactory;
 import org.mule.runtime.core.api.source.MessageSource;
 import org.mule.runtime.core.api.util.MessagingExceptionResolver;
@@ -230,11 +231,16 @@ public class DefaultFlowBuilder implements Builder {
             BaseEvent request = createMuleEventForCurrentFlow((PrivilegedEvent) event);
             // Use sink and potentially shared stream in Flow by dispatching incoming event via sink and then using
             // response publisher to operate of the result of flow processing before returning
-            try {
-              getSink().accept(request);
-            } catch (RejectedExecutionException ree) {
-              MessagingException me = new MessagingException(event, ree, this);
-              ((BaseEventContext) request.getContext()).error(exceptionResolver.resolve(me, getMuleContext()));
+            Sink sink = getSink();
+            if (sink == null) {
+              ((BaseEventContext) request.getContext()).error(createStoppedException(request));
+            } else {
+              try {
+                sink.accept(request);
+              } catch (RejectedExecutionException ree) {
+                MessagingException me = new MessagingException(event, ree, this);
+                ((BaseEventContext) request.getContext()).error(exceptionResolver.resolve(me, getMuleContext()));
+              }
             }
             return Mono.from(((BaseEventContext) request.getContext()).getResponsePublisher())
                 .cast(PrivilegedEvent.class)
@@ -19,7 +19,8 @@ public class DefaultProcessorsTrace implements ProcessorsTrace {
 
   private static final long serialVersionUID = 5327053121687733907L;
 
-  private List<String> executedProcessors = Collections.synchronizedList(new ArrayList<String>());
+  // Only populated when flow tracing is enabled, so it is not created until a processor is added.
+  private volatile List<String> executedProcessors;
 
   /**
    * Adds a message processor path to the list of processors that were executed as part of the processing of this event.
@@ -27,12 +28,22 @@ public class DefaultProcessorsTrace implements ProcessorsTrace {
    * @param processorPath the path to mask as executed.
    */
   public void addExecutedProcessors(String processorPath) {
-    executedProcessors.add(processorPath);
+    List<String> processors = executedProcessors;
+    if (processors == null) {
+      synchronized (this) {
+        if (executedProcessors == null) {
+          executedProcessors = Collections.synchronizedList(new ArrayList<String>());
+        }
+        processors = executedProcessors;
+      }
+    }
+    processors.add(processorPath);
   }
 
   @Override
   public List<String> getExecutedProcessors() {
-    return new ArrayList<>(executedProcessors);
+    List<String> processors = executedProcessors;
+    return processors == null ? new ArrayList<>() : new ArrayList<>(processors);
   }
 
 }
@@ -0,0 +1,271 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.context.notification;
+
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.slf4j.LoggerFactory.getLogger;
+
+import org.mule.runtime.core.api.context.notification.Notification;
+import org.mule.runtime.core.api.context.notification.NotificationListener;
+import org.mule.runtime.core.api.context.notification.NotificationListenerStatistics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
+
+import org.slf4j.Logger;
+
+/**
+ * Buffer of the asynchronous notifications pending to be delivered to a single {@link NotificationListener}.
+ * <p>
+ * Any number of threads may {@link #offer(Notification) offer} notifications, but only one drain task per buffer is submitted to
+ * the {@link Executor} at any given time. That task delivers up to {@code batchSize} notifications in order and, if there are
+ * more pending, submits itself again so a busy listener doesn't hog the executor's threads. This way, the executor receives one
+ * task per batch instead of one per notification.
+ * <p>
+ * If the buffer is bounded and full, the configured {@link OverflowPolicy} decides what happens with new notifications. If the
+ * drain task cannot be submitted to the {@link Executor}, the pending notifications are discarded, since nothing would deliver
+ * them.
+ *
+ * @since 4.0
+ */
+public class NotificationListenerBuffer implements NotificationListenerStatistics {
+
+  private static final Logger LOGGER = getLogger(NotificationListenerBuffer.class);
+
+  private static final long BLOCK_SLICE_NANOS = MILLISECONDS.toNanos(10);
+
+  /**
+   * What to do with a notification fired for a listener whose buffer is full.
+   */
+  public enum OverflowPolicy {
+    /**
+     * The notification is discarded.
+     */
+    DROP,
+    /**
+     * The firing thread waits for space in the buffer, for up to the configured maximum time. The notification is discarded if
+     * there is still no space by then, if the buffer is disposed or if the firing thread must not block.
+     */
+    BLOCK,
+    /**
+     * Once the buffer is half full only one of every {@code sampleRate} notifications is buffered, the rest are discarded. If the
+     * buffer is full the notification is discarded.
+     */
+    SAMPLE
+  }
+
+  private final NotificationListener listener;
+  private final Executor executor;
+  private final BlockingQueue<Notification> queue;
+  private final int capacity;
+  private final int batchSize;
+  private final OverflowPolicy overflowPolicy;
+  private final int sampleRate;
+  private final long maxBlockNanos;
+  private final Predicate<Thread> nonBlockingThread;
+
+  private final AtomicBoolean drainScheduled = new AtomicBoolean(false);
+  private final AtomicLong sampleCounter = new AtomicLong();
+  private final AtomicLong dropped = new AtomicLong();
+  private final AtomicLong delivered = new AtomicLong();
+  private volatile boolean disposed = false;
+
+  /**
+   * @param listener       the listener the notifications are delivered to
+   * @param executor       where the batches of notifications are delivered
+   * @param capacity       the maximum number of notifications pending to be delivered, {@link Integer#MAX_VALUE} for no bound
+   * @param batchSize      the maximum number of notifications delivered by each task submitted to the {@code executor}
+   * @param overflowPolicy what to do with notifications fired when the buffer is full
+   * @param sampleRate     when using {@link OverflowPolicy#SAMPLE}, one of every how many notifications is kept
+   * @param maxBlockMillis when using {@link OverflowPolicy#BLOCK}, the maximum time the firing thread waits for space
+   * @param nonBlockingThread when using {@link OverflowPolicy#BLOCK}, tells the threads that must never wait for space, such as
+   *        the ones running non blocking work
+   */
+  public NotificationListenerBuffer(NotificationListener listener, Executor executor, int capacity, int batchSize,
+                                    OverflowPolicy overflowPolicy, int sampleRate, long maxBlockMillis,
+                                    Predicate<Thread> nonBlockingThread) {
+    if (capacity < 1 || batchSize < 1 || sampleRate < 1) {
+      throw new IllegalArgumentException("capacity, batchSize and sampleRate must be greater than zero");
+    }
+    if (maxBlockMillis < 0) {
+      throw new IllegalArgumentException("maxBlockMillis must not be negative");
+    }
+    this.listener = listener;
+    this.executor = executor;
+    this.queue = new LinkedBlockingQueue<>(capacity);
+    this.capacity = capacity;
+    this.batchSize = batchSize;
+    this.overflowPolicy = overflowPolicy;
+    this.sampleRate = sampleRate;
+    this.maxBlockNanos = MILLISECONDS.toNanos(maxBlockMillis);
+    this.nonBlockingThread = nonBlockingThread;
+  }
+
+  /**
+   * Buffers the given notification, applying the {@link OverflowPolicy} if needed, and makes sure a drain task is scheduled.
+   *
+   * @param notification the notification to deliver to the listener
+   * @return {@code true} if the notification was buffered, {@code false} if it was discarded
+   */
+  public boolean offer(Notification notification) {
+    if (disposed) {
+      dropped.incrementAndGet();
+      return false;
+    }
+
+    boolean accepted;
+    switch (overflowPolicy) {
+      case BLOCK:
+        accepted = put(notification);
+        break;
+      case SAMPLE:
+        accepted = queue.size() < capacity / 2 || sampleCounter.incrementAndGet() % sampleRate == 0
+            ? queue.offer(notification)
+            : false;
+        break;
+      default:
+        accepted = queue.offer(notification);
+    }
+
+    if (!accepted) {
+      dropped.incrementAndGet();
+      return false;
+    }
+    if (disposed) {
+      // the buffer was disposed while offering, don't leave the notification behind
+      discardPending();
+      return false;
+    }
+    return scheduleDrain();
+  }
+
+  private boolean put(Notification notification) {
+    if (queue.offer(notification)) {
+      return true;
+    }
+    if (maxBlockNanos == 0 || nonBlockingThread.test(currentThread())) {
+      return false;
+    }
+
+    // wait in slices so that a disposal or a rejected drain doesn't leave this thread waiting for space that will never come
+    final long deadline = nanoTime() + maxBlockNanos;
+    long remaining = maxBlockNanos;
+    try {
+      while (!disposed && remaining > 0) {
+        if (!scheduleDrain()) {
+          return false;
+        }
+        if (queue.offer(notification, Math.min(remaining, BLOCK_SLICE_NANOS), NANOSECONDS)) {
+          return true;
+        }
+        remaining = deadline - nanoTime();
+      }
+      return false;
+    } catch (InterruptedException e) {
+      currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /**
+   * Submits the drain task unless one is already submitted.
+   *
+   * @return {@code false} if the drain task could not be submitted, in which case the pending notifications were discarded
+   */
+  private boolean scheduleDrain() {
+    if (drainScheduled.compareAndSet(false, true)) {
+      try {
+        executor.execute(this::drain);
+      } catch (RejectedExecutionException e) {
+        drainScheduled.set(false);
+        int discarded = discardPending();
+        LOGGER.warn("Could not schedule delivery of notifications to listener {}, {} pending notifications were discarded: {}",
+                    listener, discarded, e.getMessage());
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private int discardPending() {
+    List<Notification> discarded = new ArrayList<>();
+    queue.drainTo(discarded);
+    dropped.addAndGet(discarded.size());
+    return discarded.size();
+  }
+
+  private void drain() {
+    // the flag is reset even if a listener throws an error, otherwise no drain task would be submitted again
+    try {
+      if (disposed) {
+        return;
+      }
+
+      List<Notification> batch = new ArrayList<>(batchSize);
+      queue.drainTo(batch, batchSize);
+      for (Notification notification : batch) {
+        try {
+          listener.onNotification(notification);
+        } catch (Exception e) {
+          // Exceptions from listeners do not affect the notification processing
+          if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("Listener " + listener + " failed to handle notification " + notification, e);
+          }
+        }
+        delivered.incrementAndGet();
+      }
+    } finally {
+      drainScheduled.set(false);
+      // a producer may have added a notification after drainTo but before the flag was reset
+      if (!queue.isEmpty() && !disposed) {
+        scheduleDrain();
+      }
+    }
+  }
+
+  /**
+   * Discards the pending notifications and makes any thread waiting for space in this buffer return. Notifications offered after
+   * this are discarded.
+   */
+  public void dispose() {
+    disposed = true;
+    discardPending();
+  }
+
+  @Override
+  public NotificationListener getListener() {
+    return listener;
+  }
+
+  @Override
+  public int getQueueDepth() {
+    return queue.size();
+  }
+
+  /**
+   * @return the number of notifications discarded because the buffer was full, could not be drained or was disposed
+   */
+  @Override
+  public long getDroppedCount() {
+    return dropped.get();
+  }
+
+  @Override
+  public long getDeliveredCount() {
+    return delivered.get();
+  }
+}
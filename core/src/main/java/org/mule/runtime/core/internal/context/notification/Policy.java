@@ -15,25 +15,32 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 
 /**
- * For a particular configuration, this describes what events should be delivered where. It is read-only and a lazy instance is
- * cached by the {@link Configuration}
+ * For a particular configuration, this describes what events should be delivered where. It is read-only and an instance is
+ * published by the {@link Configuration} each time it changes.
+ * <p>
+ * The senders that apply to each concrete notification class are resolved the first time that class is dispatched and kept in a
+ * dispatch table, so dispatching a notification is a single lookup followed by an iteration over an array, with no locking and
+ * no class hierarchy checks.
  */
 public class Policy {
 
+  private static final Sender[] NO_SENDERS = new Sender[0];
+
   // map from event to set of senders
-  private Map<Class<? extends Notification>, Collection<Sender>> eventToSenders =
-      new HashMap<>();
+  private final Map<Class<? extends Notification>, Collection<Sender>> eventToSenders = new HashMap<>();
+
+  // dispatch table from concrete notification class to the senders it has to be delivered to
+  private final ConcurrentMap<Class, Sender[]> dispatchTable = new ConcurrentHashMap<>();
 
-  // these are cumulative - set values should never change, they are just a cache of known info
-  // they are co and contra-variant wrt to exact event type (see code below).
-  private ConcurrentMap knownEventsExact = new ConcurrentHashMap();
-  private ConcurrentMap knownEventsSuper = new ConcurrentHashMap();
+  // whether a notification class or any of its subclasses would be delivered to any sender
+  private final ConcurrentMap<Class, Boolean> enabledNotifications = new ConcurrentHashMap<>();
 
   /**
    * For each listener, we check each interface and see what events can be delivered.
@@ -50,8 +57,6 @@ public class Policy {
             Set<Class<? extends Notification>> events = interfaceToEvents.get(iface);
             for (Class<? extends Notification> event : events) {
               if (notASubclassOfAnyClassInSet(disabledEvents, event)) {
-                knownEventsExact.put(event, Boolean.TRUE);
-                knownEventsSuper.put(event, Boolean.TRUE);
                 if (!eventToSenders.containsKey(event)) {
                   // use a collection with predictable iteration order
                   eventToSenders.put(event, new ArrayList<Sender>());
@@ -87,33 +92,28 @@ public class Policy {
 
   public void dispatch(Notification notification, NotifierCallback notifier) {
     if (null != notification) {
-      Class notfnClass = notification.getClass();
-      // search if we don't know about this event, or if we do know it is used
-      if (!knownEventsExact.containsKey(notfnClass)) {
-        boolean found = doDispatch(notification, notfnClass, notifier);
-        knownEventsExact.put(notfnClass, Boolean.valueOf(found));
-      } else if (((Boolean) knownEventsExact.get(notfnClass)).booleanValue()) {
-        boolean found = doDispatch(notification, notfnClass, notifier);
-        // reduce contention on the map by not writing the same value over and over again.
-        if (!found) {
-          knownEventsExact.put(notfnClass, Boolean.valueOf(found));
-        }
+      for (Sender sender : getSenders(notification.getClass())) {
+        sender.dispatch(notification, notifier);
       }
     }
   }
 
-  protected boolean doDispatch(Notification notification, Class<? extends Notification> notfnClass,
-                               NotifierCallback notifier) {
-    boolean found = false;
-    for (Class<? extends Notification> event : eventToSenders.keySet()) {
-      if (event.isAssignableFrom(notfnClass)) {
-        found = true;
-        for (Sender sender : eventToSenders.get(event)) {
-          sender.dispatch(notification, notifier);
-        }
+  private Sender[] getSenders(Class notfnClass) {
+    Sender[] senders = dispatchTable.get(notfnClass);
+    if (senders == null) {
+      senders = dispatchTable.computeIfAbsent(notfnClass, this::resolveSenders);
+    }
+    return senders;
+  }
+
+  private Sender[] resolveSenders(Class notfnClass) {
+    List<Sender> senders = new ArrayList<>();
+    for (Map.Entry<Class<? extends Notification>, Collection<Sender>> entry : eventToSenders.entrySet()) {
+      if (entry.getKey().isAssignableFrom(notfnClass)) {
+        senders.addAll(entry.getValue());
       }
     }
-    return found;
+    return senders.isEmpty() ? NO_SENDERS : senders.toArray(new Sender[senders.size()]);
   }
 
   /**
@@ -125,26 +125,20 @@ public class Policy {
    * @return false if there is no need to dispatch the notification
    */
   public boolean isNotificationEnabled(Class notfnClass) {
-    if (!knownEventsSuper.containsKey(notfnClass)) {
-      boolean found = false;
-      // this is exhaustive because we initialise to include all events handled.
-      for (Iterator events = knownEventsSuper.keySet().iterator(); events.hasNext() && !found;) {
-        Class event = (Class) events.next();
-        found = ((Boolean) knownEventsSuper.get(event)).booleanValue() && notfnClass.isAssignableFrom(event);
-      }
-      knownEventsSuper.put(notfnClass, Boolean.valueOf(found));
+    Boolean enabled = enabledNotifications.get(notfnClass);
+    if (enabled == null) {
+      enabled = enabledNotifications.computeIfAbsent(notfnClass, this::resolveEnabled);
     }
-    if (!knownEventsExact.containsKey(notfnClass)) {
-      boolean found = false;
-      for (Iterator events = eventToSenders.keySet().iterator(); events.hasNext() && !found;) {
-        Class event = (Class) events.next();
-        found = event.isAssignableFrom(notfnClass);
-      }
-      knownEventsExact.put(notfnClass, Boolean.valueOf(found));
+    return enabled;
+  }
 
+  private Boolean resolveEnabled(Class notfnClass) {
+    for (Class<? extends Notification> event : eventToSenders.keySet()) {
+      if (notfnClass.isAssignableFrom(event) || event.isAssignableFrom(notfnClass)) {
+        return true;
+      }
     }
-    return ((Boolean) knownEventsSuper.get(notfnClass)).booleanValue()
-        || ((Boolean) knownEventsExact.get(notfnClass)).booleanValue();
+    return false;
   }
 
 }
@@ -24,6 +24,9 @@ import static org.mule.runtime.core.api.util.ObjectUtils.getInt;
 import static org.mule.runtime.core.api.util.ObjectUtils.getLong;
 import static org.mule.runtime.core.api.util.ObjectUtils.getShort;
 import static org.mule.runtime.core.api.util.ObjectUtils.getString;
+import static org.mule.runtime.core.internal.serialization.CursorStreamChunks.chunksInputStream;
+import static org.mule.runtime.core.internal.serialization.CursorStreamChunks.readChunks;
+import static org.mule.runtime.core.internal.serialization.CursorStreamChunks.writeChunks;
 import static org.mule.runtime.core.privileged.event.PrivilegedEvent.getCurrentEvent;
 
 import org.mule.runtime.api.exception.MuleException;
@@ -31,15 +34,18 @@ import org.mule.runtime.api.metadata.DataType;
 import org.mule.runtime.api.metadata.DataTypeBuilder;
 import org.mule.runtime.api.metadata.MediaType;
 import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.api.util.CaseInsensitiveMapWrapper;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.api.config.i18n.CoreMessages;
 import org.mule.runtime.core.api.message.ExceptionPayload;
+import org.mule.runtime.core.api.streaming.StreamingManager;
 import org.mule.runtime.core.privileged.store.DeserializationPostInitialisable;
 import org.mule.runtime.core.api.transformer.Transformer;
 import org.mule.runtime.core.api.transformer.TransformerException;
 import org.mule.runtime.core.internal.message.InternalMessage.CollectionBuilder;
 import org.mule.runtime.core.internal.metadata.DefaultCollectionDataType;
+import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -342,6 +348,11 @@ public class DefaultMessageBuilder
 
     private static final String NOT_SET = "<not set>";
 
+    /**
+     * Written in place of the length of a non {@link Serializable} value to signal that its content follows as chunks
+     */
+    private static final int STREAMED_VALUE_LENGTH = -1;
+
     private static final long serialVersionUID = 1541720810851984845L;
     private static final Logger logger = LoggerFactory.getLogger(MessageImplementation.class);
 
@@ -547,6 +558,11 @@ public class DefaultMessageBuilder
         out.writeBoolean(true);
         out.writeObject(typedValue.getValue());
         out.writeObject(typedValue.getDataType());
+      } else if (typedValue.getValue() instanceof CursorStreamProvider) {
+        out.writeBoolean(false);
+        out.writeInt(STREAMED_VALUE_LENGTH);
+        writeChunks((CursorStreamProvider) typedValue.getValue(), out);
+        out.writeObject(typedValue.getDataType());
       } else {
         out.writeBoolean(false);
         // TODO MULE-10013 remove this logic from here
@@ -563,12 +579,30 @@ public class DefaultMessageBuilder
         return in.readObject();
       } else {
         int length = in.readInt();
+        if (length == STREAMED_VALUE_LENGTH) {
+          return deserializeStreamedValue(in);
+        }
         byte[] valueAsByteArray = new byte[length];
         new DataInputStream(in).readFully(valueAsByteArray);
         return valueAsByteArray;
       }
     }
 
+    /**
+     * Streamed values are buffered into a {@link CursorStreamProvider} bound to the current event. If there's none, there's
+     * nothing to tie the resources of such a provider to, so the content is read into a {@code byte[]} instead.
+     */
+    private Object deserializeStreamedValue(ObjectInputStream in) throws Exception {
+      // TODO MULE-10013 remove this logic from here
+      PrivilegedEvent event = getCurrentEvent();
+      if (event == null) {
+        return org.apache.commons.io.IOUtils.toByteArray(chunksInputStream(in));
+      }
+
+      MuleContext muleContext = ((InternalEvent) event).getMuleContext();
+      return readChunks(in, muleContext.getRegistry().lookupObject(StreamingManager.class), event);
+    }
+
     private Map<String, DataHandler> deserializeAttachments(Map<String, SerializedDataHandler> attachments) throws IOException {
       Map<String, DataHandler> toReturn;
       if (attachments == null) {
@@ -585,7 +619,12 @@ public class DefaultMessageBuilder
 
     private void readObject(ObjectInputStream in) throws Exception {
       in.defaultReadObject();
-      typedValue = new TypedValue(deserializeValue(in), (DataType) in.readObject());
+      Object value = deserializeValue(in);
+      DataType dataType = (DataType) in.readObject();
+      if (value instanceof byte[] && !dataType.getType().isInstance(value)) {
+        dataType = builder(dataType).type(byte[].class).build();
+      }
+      typedValue = new TypedValue(value, dataType);
       inboundAttachments = deserializeAttachments((Map<String, SerializedDataHandler>) in.readObject());
       outboundAttachments = deserializeAttachments((Map<String, SerializedDataHandler>) in.readObject());
     }
@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.retry.policies;
+
+import static java.lang.Math.max;
+import static java.lang.Math.min;
+import static java.time.Duration.ofMillis;
+import static org.mule.runtime.core.api.retry.policy.SimpleRetryPolicyTemplate.RETRY_COUNT_FOREVER;
+import static org.mule.runtime.core.api.rx.Exceptions.unwrap;
+import static org.mule.runtime.core.api.transaction.TransactionCoordination.isTransactionActive;
+import static org.mule.runtime.core.internal.retry.reactor.Retry.onlyIf;
+import static org.slf4j.LoggerFactory.getLogger;
+import static reactor.core.publisher.Mono.error;
+import static reactor.core.publisher.Mono.from;
+import org.mule.runtime.core.api.retry.policy.PolicyStatus;
+import org.mule.runtime.core.api.retry.policy.RetryPolicy;
+import org.mule.runtime.core.internal.retry.reactor.Backoff;
+import org.mule.runtime.core.internal.retry.reactor.Jitter;
+import org.mule.runtime.core.internal.retry.reactor.Retry;
+import org.mule.runtime.core.internal.retry.reactor.RetryExhaustedException;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Retries with a delay that grows exponentially from {@code initialDelay} by {@code multiplier} on each attempt, up to
+ * {@code maxDelay}.
+ * <p>
+ * If {@code jitter} is enabled the delays are decorrelated: each one is a random value between {@code initialDelay} and
+ * {@code multiplier} times the previous one, capped at {@code maxDelay}. This keeps many clients that lost the same server from
+ * reconnecting in lockstep.
+ * <p>
+ * When applied to a {@link Publisher} the delays are scheduled on a timer, so no thread is parked while waiting for the next
+ * attempt, and the state of the attempts belongs to each subscription. The only exception is retrying within an active
+ * transaction, which has to happen in the thread bound to it.
+ *
+ * @since 4.0
+ */
+public class ExponentialBackoffRetryPolicy implements RetryPolicy {
+
+  private static final Logger LOGGER = getLogger(ExponentialBackoffRetryPolicy.class);
+  private static final Scheduler TRANSACTIONAL_RETRY_SCHEDULER = new TransactionalRetryScheduler();
+
+  private final Duration initialDelay;
+  private final Duration maxDelay;
+  private final int multiplier;
+  private final boolean jitter;
+  private final int count;
+
+  // state of the blocking attempts, each policy instance is used for a single retry context
+  private int attempts = 0;
+  private Duration lastDelay;
+
+  public ExponentialBackoffRetryPolicy(long initialDelay, long maxDelay, int multiplier, boolean jitter, int retryCount) {
+    if (initialDelay <= 0) {
+      throw new IllegalArgumentException("initialDelay must be greater than zero");
+    }
+    if (maxDelay < initialDelay) {
+      throw new IllegalArgumentException("maxDelay must be greater than or equal to initialDelay");
+    }
+    if (multiplier < 1) {
+      throw new IllegalArgumentException("multiplier must be greater than zero");
+    }
+    this.initialDelay = ofMillis(initialDelay);
+    this.maxDelay = ofMillis(maxDelay);
+    this.multiplier = multiplier;
+    this.jitter = jitter;
+    this.count = retryCount;
+  }
+
+  @Override
+  public <T> Publisher<T> applyPolicy(Publisher<T> publisher,
+                                      Predicate<Throwable> shouldRetry,
+                                      Consumer<Throwable> onExhausted,
+                                      Function<Throwable, Throwable> errorFunction) {
+    Retry<T> retry = (Retry<T>) onlyIf(ctx -> shouldRetry.test(unwrap(ctx.exception())))
+        .backoff(createBackoff())
+        .jitter(jitter ? Jitter.random() : Jitter.noJitter())
+        .retryMax(count == RETRY_COUNT_FOREVER ? Integer.MAX_VALUE : count);
+
+    if (isTransactionActive()) {
+      retry = retry.withBackoffScheduler(TRANSACTIONAL_RETRY_SCHEDULER);
+    }
+
+    return from(publisher)
+        .retryWhen(retry)
+        .onErrorResume(e -> {
+          Throwable cause = unwrap(e instanceof RetryExhaustedException ? e.getCause() : e);
+          onExhausted.accept(cause);
+          return error(errorFunction.apply(cause));
+        });
+  }
+
+  private Backoff createBackoff() {
+    if (maxDelay.equals(initialDelay) || multiplier == 1) {
+      return Backoff.fixed(initialDelay);
+    }
+    // based on the previous delay so the jitter applied to it carries over and the delay never overflows
+    return Backoff.exponential(initialDelay, maxDelay, multiplier, true);
+  }
+
+  @Override
+  public PolicyStatus applyPolicy(Throwable cause) {
+    if (count != RETRY_COUNT_FOREVER && attempts >= count) {
+      return PolicyStatus.policyExhausted(cause);
+    }
+
+    Duration delay = nextDelay();
+    if (LOGGER.isInfoEnabled()) {
+      LOGGER.info("Waiting for " + delay.toMillis() + "ms before reconnecting. Failed attempt " + (attempts + 1) + " of "
+          + (count != RETRY_COUNT_FOREVER ? String.valueOf(count) : "unlimited"));
+    }
+
+    try {
+      attempts++;
+      Thread.sleep(delay.toMillis());
+      return PolicyStatus.policyOk();
+    } catch (InterruptedException e) {
+      // If we get an interrupt exception, some one is telling us to stop
+      return PolicyStatus.policyExhausted(e);
+    }
+  }
+
+  private Duration nextDelay() {
+    long initialMillis = initialDelay.toMillis();
+    long previousMillis = lastDelay == null ? 0 : lastDelay.toMillis();
+    long nextMillis = max(initialMillis, min(maxDelay.toMillis(), previousMillis * multiplier));
+    if (jitter && nextMillis > initialMillis) {
+      nextMillis = ThreadLocalRandom.current().nextLong(initialMillis, nextMillis + 1);
+    }
+    lastDelay = ofMillis(nextMillis);
+    return lastDelay;
+  }
+}
@@ -25,7 +25,6 @@ import org.mule.runtime.core.internal.retry.reactor.Retry;
 import org.mule.runtime.core.internal.retry.reactor.RetryExhaustedException;
 
 import java.time.Duration;
-import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -33,10 +32,8 @@ import java.util.function.Predicate;
 
 import org.reactivestreams.Publisher;
 import org.slf4j.Logger;
-import reactor.core.Cancellation;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Scheduler;
-import reactor.core.scheduler.Schedulers;
 
 /**
  * Allows to configure how many times a retry should be attempted and how long to wait between retries.
@@ -148,60 +145,4 @@ public class SimpleRetryPolicy implements RetryPolicy {
       return new AtomicInteger(0);
     }
   }
-
-  private static class TransactionalRetryScheduler implements Scheduler {
-
-    private final Scheduler delegate = Schedulers.immediate();
-
-    @Override
-    public Cancellation schedule(Runnable task) {
-      return delegate.schedule(task);
-    }
-
-    @Override
-    public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
-      try {
-        Thread.sleep(unit.toMillis(delay));
-      } catch (InterruptedException e) {
-        throw new RuntimeException(e);
-      }
-      return schedule(task);
-    }
-
-    @Override
-    public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
-      return delegate.schedulePeriodically(task, initialDelay, period, unit);
-    }
-
-    @Override
-    public long now(TimeUnit unit) {
-      return delegate.now(unit);
-    }
-
-    @Override
-    public Worker createWorker() {
-      return delegate.createWorker();
-    }
-
-    @Override
-    public void dispose() {
-      delegate.dispose();
-    }
-
-    @Override
-    public void start() {
-      delegate.start();
-    }
-
-    @Override
-    @Deprecated
-    public void shutdown() {
-      delegate.shutdown();
-    }
-
-    @Override
-    public boolean isDisposed() {
-      return delegate.isDisposed();
-    }
-  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.retry.policies;
+
+import java.util.concurrent.TimeUnit;
+
+import reactor.core.Cancellation;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * {@link Scheduler} that runs delayed tasks in the calling thread after waiting for the delay. Used to retry within an active
+ * transaction, which is bound to the thread that started it.
+ */
+class TransactionalRetryScheduler implements Scheduler {
+
+  private final Scheduler delegate = Schedulers.immediate();
+
+  @Override
+  public Cancellation schedule(Runnable task) {
+    return delegate.schedule(task);
+  }
+
+  @Override
+  public Cancellation schedule(Runnable task, long delay, TimeUnit unit) {
+    try {
+      Thread.sleep(unit.toMillis(delay));
+    } catch (InterruptedException e) {
+      throw new RuntimeException(e);
+    }
+    return schedule(task);
+  }
+
+  @Override
+  public Cancellation schedulePeriodically(Runnable task, long initialDelay, long period, TimeUnit unit) {
+    return delegate.schedulePeriodically(task, initialDelay, period, unit);
+  }
+
+  @Override
+  public long now(TimeUnit unit) {
+    return delegate.now(unit);
+  }
+
+  @Override
+  public Worker createWorker() {
+    return delegate.createWorker();
+  }
+
+  @Override
+  public void dispose() {
+    delegate.dispose();
+  }
+
+  @Override
+  public void start() {
+    delegate.start();
+  }
+
+  @Override
+  @Deprecated
+  public void shutdown() {
+    delegate.shutdown();
+  }
+
+  @Override
+  public boolean isDisposed() {
+    return delegate.isDisposed();
+  }
+}
@@ -26,6 +26,7 @@ import org.mule.runtime.core.privileged.event.PrivilegedEvent;
 import org.apache.commons.collections.IteratorUtils;
 
 import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Comparator;
 import java.util.Iterator;
@@ -35,6 +36,11 @@ import java.util.Optional;
 /**
  * <code>EventGroup</code> is a holder over events grouped by a common group Id. This can be used by components such as routers to
  * managed related events.
+ * <p>
+ * Events are kept in an object store partition, but each instance also keeps track of the keys of the events in the group in
+ * their arrival order. That way, getting the size of the group doesn't require listing the partition and getting its events
+ * doesn't require sorting them. The keys are loaded from the object store the first time they are needed by an instance which
+ * didn't add the events itself (i.e., one which was deserialized from a persistent store).
  */
 // @ThreadSafe
 public class EventGroup implements Comparable<EventGroup>, Serializable, DeserializationPostInitialisable {
@@ -57,6 +63,11 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   transient private MuleContext muleContext;
   private int arrivalOrderCounter = 0;
 
+  // @GuardedBy this
+  private transient List<String> eventKeys;
+  // @GuardedBy this
+  private transient boolean eventKeysInArrivalOrder;
+
   public static final String DEFAULT_STORE_PREFIX = "DEFAULT_STORE";
 
   public EventGroup(Object groupId, MuleContext muleContext) {
@@ -163,7 +174,7 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   @SuppressWarnings("unchecked")
   public Iterator<BaseEvent> iterator(boolean sortByArrival) throws ObjectStoreException {
     synchronized (this) {
-      if (eventsObjectStore.allKeys(eventsPartitionKey).isEmpty()) {
+      if (getEventKeys().isEmpty()) {
         return IteratorUtils.emptyIterator();
       } else {
         return IteratorUtils.arrayIterator(this.toArray(sortByArrival));
@@ -190,21 +201,53 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
    */
   public PrivilegedEvent[] toArray(boolean sortByArrival) throws ObjectStoreException {
     synchronized (this) {
-      if (eventsObjectStore.allKeys(eventsPartitionKey).isEmpty()) {
+      List<String> keys = getEventKeys();
+      if (keys.isEmpty()) {
         return EMPTY_EVENTS_ARRAY;
       }
-      List<String> keys = eventsObjectStore.allKeys(eventsPartitionKey);
       PrivilegedEvent[] eventArray = new PrivilegedEvent[keys.size()];
       for (int i = 0; i < keys.size(); i++) {
         eventArray[i] = (PrivilegedEvent) eventsObjectStore.retrieve(keys.get(i), eventsPartitionKey);
       }
-      if (sortByArrival) {
-        Arrays.sort(eventArray, new ArrivalOrderEventComparator());
+      if (sortByArrival && !eventKeysInArrivalOrder) {
+        sortByArrivalOrder(keys, eventArray);
       }
       return eventArray;
     }
   }
 
+  /**
+   * Sorts the given events by their arrival order, and the keys along with them, so that they don't need to be sorted again.
+   */
+  private void sortByArrivalOrder(List<String> keys, PrivilegedEvent[] eventArray) {
+    Integer[] positions = new Integer[eventArray.length];
+    for (int i = 0; i < positions.length; i++) {
+      positions[i] = i;
+    }
+    final ArrivalOrderEventComparator comparator = new ArrivalOrderEventComparator();
+    Arrays.sort(positions, (p1, p2) -> comparator.compare(eventArray[p1], eventArray[p2]));
+
+    PrivilegedEvent[] unsortedEvents = eventArray.clone();
+    List<String> sortedKeys = new ArrayList<>(keys.size());
+    for (int i = 0; i < positions.length; i++) {
+      eventArray[i] = unsortedEvents[positions[i]];
+      sortedKeys.add(keys.get(positions[i]));
+    }
+    eventKeys = sortedKeys;
+    eventKeysInArrivalOrder = true;
+  }
+
+  /**
+   * @return the keys of the events in this group, loading them from the object store if this instance doesn't have them yet
+   */
+  private List<String> getEventKeys() throws ObjectStoreException {
+    if (eventKeys == null) {
+      eventKeys = new ArrayList<>(eventsObjectStore.allKeys(eventsPartitionKey));
+      eventKeysInArrivalOrder = eventKeys.size() <= 1;
+    }
+    return eventKeys;
+  }
+
   /**
    * Add the given event to this group.
    *
@@ -213,11 +256,13 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
    */
   public void addEvent(BaseEvent event) throws ObjectStoreException {
     synchronized (this) {
+      List<String> keys = getEventKeys();
       event = BaseEvent.builder(event).addVariable(MULE_ARRIVAL_ORDER_PROPERTY, ++arrivalOrderCounter).build();
       // Using both event ID and CorrelationSequence since in certain instances
       // when an event is split up, the same event IDs are used.
       String key = getEventKey(event);
       eventsObjectStore.store(key, event, eventsPartitionKey);
+      keys.add(key);
     }
   }
 
@@ -247,7 +292,7 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
   public int size() {
     synchronized (this) {
       try {
-        return eventsObjectStore.allKeys(eventsPartitionKey).size();
+        return getEventKeys().size();
       } catch (ObjectStoreException e) {
         // TODO Check if this is ok.
         return -1;
@@ -273,6 +318,8 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
     synchronized (this) {
       eventsObjectStore.clear(eventsPartitionKey);
       eventsObjectStore.close(eventsPartitionKey);
+      eventKeys = new ArrayList<>();
+      eventKeysInArrivalOrder = true;
     }
   }
 
@@ -288,13 +335,13 @@ public class EventGroup implements Comparable<EventGroup>, Serializable, Deseria
       synchronized (this) {
         int currentSize;
 
-        currentSize = eventsObjectStore.allKeys(eventsPartitionKey).size();
+        currentSize = getEventKeys().size();
 
         buf.append(", current events=").append(currentSize);
 
         if (currentSize > 0) {
           buf.append(" [");
-          Iterator<String> i = eventsObjectStore.allKeys(eventsPartitionKey).iterator();
+          Iterator<String> i = getEventKeys().iterator();
           while (i.hasNext()) {
             String id = i.next();
             buf.append(eventsObjectStore.retrieve(id, eventsPartitionKey).getCorrelationId());
@@ -6,8 +6,10 @@
  */
 package org.mule.runtime.core.internal.routing;
 
+import static java.lang.String.format;
 import static java.util.Collections.singletonList;
 import static java.util.stream.Collectors.toList;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.metadata.DataType.OBJECT;
 import static org.mule.runtime.core.api.event.BaseEvent.builder;
 import static org.mule.runtime.core.internal.routing.ExpressionSplittingStrategy.DEFAULT_SPLIT_EXPRESSION;
@@ -60,6 +62,9 @@ import reactor.core.publisher.Flux;
  * <p>
  * Defining a groupSize greater than one, allows iterating over collections of elements of the specified size.
  * <p>
+ * Defining a maxConcurrency greater than one, allows processing that many elements at the same time, without changing the order
+ * of the results.
+ * <p>
  * The {@link BaseEvent} sent to the next message processor is the same that arrived to foreach.
  */
 public class Foreach extends AbstractMessageProcessorOwner implements Initialisable, Scope {
@@ -72,6 +77,7 @@ public class Foreach extends AbstractMessageProcessorOwner implements Initialisa
   private List<Processor> messageProcessors;
   private String expression = DEFAULT_SPLIT_EXPRESSION;
   private int batchSize = 1;
+  private int maxConcurrency = 1;
   private SplittingStrategy<BaseEvent, Iterator<TypedValue<?>>> splittingStrategy;
   private String rootMessageVariableName = DEFAULT_ROOT_MESSAGE_VARIABLE;
   private String counterVariableName = DEFAULT_COUNTER_VARIABLE;
@@ -147,22 +153,9 @@ public class Foreach extends AbstractMessageProcessorOwner implements Initialisa
                         () -> splitRequest(request))
                             // If batchSize > 1 then buffer sequence into List<TypedValue<T>> and convert to TypedValue<List<T>>.
                             .transform(p -> batchSize > 1 ? from(p).buffer(batchSize).map(typedValueListToTypedValue()) : p)
-                            // For each TypedValue part process the nested chain using the event from the previous part.
-                            .concatMap(typedValue -> {
-                              Builder partEventBuilder = builder(currentEvent.get());
-                              if (typedValue.getValue() instanceof EventBuilderConfigurer) {
-                                // Support EventBuilderConfigurer currently used by Batch Module
-                                ((EventBuilderConfigurer) typedValue.getValue()).configure(partEventBuilder);
-                              } else if (typedValue.getValue() instanceof Message) {
-                                // If value is a Message then use it directly conserving attributes and properties.
-                                partEventBuilder.message((Message) typedValue.getValue());
-                              } else {
-                                // Otherwise create a new message
-                                partEventBuilder.message(Message.builder().payload(typedValue).build());
-                              }
-                              return just(partEventBuilder.addVariable(counterVariableName, count.incrementAndGet()).build())
-                                  .transform(nestedChain).doOnNext(result -> currentEvent.set(BaseEvent.builder(result).build()));
-                            })
+                            // Process each TypedValue part through the nested chain, sequentially or concurrently.
+                            .transform(p -> maxConcurrency > 1 ? processConcurrently(p, request, count, currentEvent)
+                                : processSequentially(p, count, currentEvent))
                             // This can potentially be improved but simplest way currently to determine if split results in empty
                             // iterator is to check atomic count
                             .switchIfEmpty(defer(() -> {
@@ -178,6 +171,42 @@ public class Foreach extends AbstractMessageProcessorOwner implements Initialisa
                             .map(s -> BaseEvent.builder(currentEvent.get()).message(request.getMessage()).build());
   }
 
+  /*
+   * Processes each part using the event resulting from the previous part.
+   */
+  private Flux<BaseEvent> processSequentially(Flux<TypedValue<?>> parts, AtomicInteger count,
+                                              AtomicReference<BaseEvent> currentEvent) {
+    return parts.concatMap(typedValue -> just(createPartEvent(currentEvent.get(), typedValue, count.incrementAndGet()))
+        .transform(nestedChain).doOnNext(result -> currentEvent.set(BaseEvent.builder(result).build())));
+  }
+
+  /*
+   * Processes up to maxConcurrency parts at a time, each one using the request event. Results are emitted in the order of the
+   * parts, so the last result is the one from the last part. Parts are requested from the split iterator as processing slots
+   * become available.
+   */
+  private Flux<BaseEvent> processConcurrently(Flux<TypedValue<?>> parts, BaseEvent request, AtomicInteger count,
+                                              AtomicReference<BaseEvent> currentEvent) {
+    return parts.map(typedValue -> createPartEvent(request, typedValue, count.incrementAndGet()))
+        .flatMapSequential(partEvent -> just(partEvent).transform(nestedChain), maxConcurrency)
+        .doOnNext(result -> currentEvent.set(BaseEvent.builder(result).build()));
+  }
+
+  private BaseEvent createPartEvent(BaseEvent baseEvent, TypedValue<?> typedValue, int counter) {
+    Builder partEventBuilder = builder(baseEvent);
+    if (typedValue.getValue() instanceof EventBuilderConfigurer) {
+      // Support EventBuilderConfigurer currently used by Batch Module
+      ((EventBuilderConfigurer) typedValue.getValue()).configure(partEventBuilder);
+    } else if (typedValue.getValue() instanceof Message) {
+      // If value is a Message then use it directly conserving attributes and properties.
+      partEventBuilder.message((Message) typedValue.getValue());
+    } else {
+      // Otherwise create a new message
+      partEventBuilder.message(Message.builder().payload(typedValue).build());
+    }
+    return partEventBuilder.addVariable(counterVariableName, counter).build();
+  }
+
   private Iterator<TypedValue<?>> splitRequest(BaseEvent request) {
     Object payloadValue = request.getMessage().getPayload().getValue();
     if (DEFAULT_SPLIT_EXPRESSION.equals(expression) && payloadValue instanceof EventBuilderConfigurerList) {
@@ -223,6 +252,12 @@ public class Foreach extends AbstractMessageProcessorOwner implements Initialisa
 
   @Override
   public void initialise() throws InitialisationException {
+    if (maxConcurrency < 1) {
+      throw new InitialisationException(createStaticMessage(format("'maxConcurrency' must be at least 1 but was %d",
+                                                                   maxConcurrency)),
+                                        this);
+    }
+
     Optional<ProcessingStrategy> processingStrategy = getProcessingStrategy(muleContext, getRootContainerName());
     nestedChain = newChain(processingStrategy, messageProcessors);
     splittingStrategy = new ExpressionSplittingStrategy(muleContext.getExpressionManager(), expression);
@@ -237,6 +272,15 @@ public class Foreach extends AbstractMessageProcessorOwner implements Initialisa
     this.batchSize = batchSize;
   }
 
+  /**
+   * @param maxConcurrency the maximum number of parts processed at the same time. When greater than one, each part is processed
+   *        with the event that arrived to foreach instead of the one resulting from the previous part, so variables set while
+   *        processing a part are not visible to the others. The resulting event is still the one from the last part.
+   */
+  public void setMaxConcurrency(int maxConcurrency) {
+    this.maxConcurrency = maxConcurrency;
+  }
+
   public void setRootMessageVariableName(String rootMessageVariableName) {
     this.rootMessageVariableName = rootMessageVariableName;
   }
@@ -49,7 +49,9 @@ import org.mule.runtime.core.internal.routing.EventGroup;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.Lock;
 
+import com.google.common.util.concurrent.Striped;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -64,9 +66,14 @@ public class EventCorrelator implements Startable, Stoppable {
 
   private static final long DELAY_TIME = 10;
 
-  protected final Object groupsLock = new Object();
+  private static final int GROUP_LOCK_STRIPES = 1024;
+
+  /**
+   * Locks which ensure that only one thread at a time evaluates a given group. Groups are mapped to a fixed number of stripes,
+   * so events for different groups can be aggregated in parallel.
+   */
+  protected final Striped<Lock> groupLocks = Striped.lazyWeakLock(GROUP_LOCK_STRIPES);
 
-  // @GuardedBy groupsLock
   protected ObjectStore<Long> processedGroups = null;
 
   private long timeout = -1; // undefined
@@ -166,6 +173,7 @@ public class EventCorrelator implements Startable, Stoppable {
 
       // check for an existing group first
       EventGroup group;
+      boolean groupCreated = false;
       try {
         group = this.getEventGroup(groupId);
       } catch (ObjectStoreException e) {
@@ -179,13 +187,29 @@ public class EventCorrelator implements Startable, Stoppable {
           EventGroup eventGroup = callback.createEventGroup(event, groupId);
           eventGroup.initEventsStore(correlatorStore);
           group = this.addEventGroup(eventGroup);
+          groupCreated = group == eventGroup;
         } catch (ObjectStoreException e) {
           throw new RoutingException(timeoutMessageProcessor, e);
         }
       }
 
       // ensure that only one thread at a time evaluates this EventGroup
-      synchronized (groupsLock) {
+      final Lock groupLock = getGroupLock(groupId);
+      groupLock.lock();
+      try {
+        // the group may have been aggregated or expired while waiting for the lock, in which case the event is handled as
+        // if it arrived after that
+        try {
+          if (isGroupAlreadyProcessed(groupId)) {
+            if (groupCreated) {
+              discardEventGroup(group);
+            }
+            continue;
+          }
+        } catch (ObjectStoreException e) {
+          throw new RoutingException(timeoutMessageProcessor, e);
+        }
+
         if (logger.isDebugEnabled()) {
           logger.debug("Adding event to aggregator group: " + groupId);
         }
@@ -225,10 +249,20 @@ public class EventCorrelator implements Startable, Stoppable {
         } else {
           return null;
         }
+      } finally {
+        groupLock.unlock();
       }
     }
   }
 
+  /**
+   * @param groupId the id of a group
+   * @return the {@link Lock} which guards the evaluation of the given group
+   */
+  protected Lock getGroupLock(Object groupId) {
+    return groupLocks.get(groupId);
+  }
+
   protected EventGroup getEventGroup(String groupId) throws ObjectStoreException {
     try {
       EventGroup eventGroup = (EventGroup) correlatorStore.retrieve(groupId, getEventGroupsPartitionKey());
@@ -257,24 +291,36 @@ public class EventCorrelator implements Startable, Stoppable {
 
   protected void removeEventGroup(EventGroup group) throws ObjectStoreException {
     final Object groupId = group.getGroupId();
-    synchronized (groupsLock) {
+    final Lock groupLock = getGroupLock(groupId);
+    groupLock.lock();
+    try {
       if (!isGroupAlreadyProcessed(groupId)) {
         correlatorStore.remove((String) groupId, getEventGroupsPartitionKey());
         addProcessedGroup(groupId);
       }
+    } finally {
+      groupLock.unlock();
     }
   }
 
-  protected void addProcessedGroup(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
-      processedGroups.store((String) id, currentTimeMillis());
+  /**
+   * Removes a group which was created for an id that got processed before any event was added to the group, so that it isn't
+   * left in the store until it expires.
+   */
+  private void discardEventGroup(EventGroup group) throws ObjectStoreException {
+    final String groupId = (String) group.getGroupId();
+    if (correlatorStore.contains(groupId, getEventGroupsPartitionKey())) {
+      correlatorStore.remove(groupId, getEventGroupsPartitionKey());
     }
+    group.clear();
+  }
+
+  protected void addProcessedGroup(Object id) throws ObjectStoreException {
+    processedGroups.store((String) id, currentTimeMillis());
   }
 
   protected boolean isGroupAlreadyProcessed(Object id) throws ObjectStoreException {
-    synchronized (groupsLock) {
-      return processedGroups.contains((String) id);
-    }
+    return processedGroups.contains((String) id);
   }
 
   public boolean isFailOnTimeout() {
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static org.mule.runtime.core.internal.message.DefaultMessageBuilder.getMessageImplementationClass;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.core.internal.message.InternalMessage;
+import org.mule.runtime.core.internal.metadata.SimpleDataType;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * {@link ObjectOutputStream} which replaces messages, {@link TypedValue typed values} and {@link DataType data types} with
+ * compact {@link java.io.Externalizable} forms while they are written.
+ * <p>
+ * Because the replacements resolve back into the original types when read, the written content can be read by a plain
+ * {@link java.io.ObjectInputStream}. Instances which can't be represented in the compact forms are written as usual.
+ *
+ * @since 4.0
+ */
+final class CompactObjectOutputStream extends ObjectOutputStream {
+
+  CompactObjectOutputStream(OutputStream out) throws IOException {
+    super(out);
+    enableReplaceObject(true);
+  }
+
+  @Override
+  protected Object replaceObject(Object obj) throws IOException {
+    if (obj != null && obj.getClass() == TypedValue.class) {
+      // Subclasses might carry state or behaviour which would be lost if rebuilt as a plain TypedValue
+      return new SerializedTypedValue((TypedValue<?>) obj);
+    } else if (obj != null && obj.getClass() == SimpleDataType.class && ((DataType) obj).getMediaType() != null) {
+      // Collection, map and function data types extend SimpleDataType. Only exact instances can be rebuilt from their type and
+      // media type alone
+      return new SerializedDataType((DataType) obj);
+    } else if (obj != null && obj.getClass() == getMessageImplementationClass() && isCompactable((InternalMessage) obj)) {
+      return new SerializedMessage((InternalMessage) obj);
+    }
+
+    return obj;
+  }
+
+  /**
+   * Messages with attachments or non {@link Serializable} payloads need the conversions performed by their own serialization
+   * methods.
+   */
+  private boolean isCompactable(InternalMessage message) {
+    Object payload = message.getPayload().getValue();
+    return (payload == null || payload instanceof Serializable)
+        && message.getInboundAttachmentNames().isEmpty()
+        && message.getOutboundAttachmentNames().isEmpty();
+  }
+}
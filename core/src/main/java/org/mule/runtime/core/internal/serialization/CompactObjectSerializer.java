@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.context.MuleContextAware;
+
+/**
+ * {@link ObjectSerializer} which writes events and messages in a more compact form than {@link JavaObjectSerializer}, while
+ * still relying on Java serialization for any other type.
+ * <p>
+ * Since both serializers can read each other's output, an application can switch between them without losing any content
+ * that was already persisted. It can be set through the {@code defaultObjectSerializer-ref} attribute of the
+ * {@code configuration} element.
+ *
+ * @see CompactSerializationProtocol
+ * @since 4.0
+ */
+public class CompactObjectSerializer implements ObjectSerializer, MuleContextAware {
+
+  private final CompactSerializationProtocol serializationProtocol = new CompactSerializationProtocol();
+
+  @Override
+  public SerializationProtocol getInternalProtocol() {
+    return serializationProtocol;
+  }
+
+  @Override
+  public SerializationProtocol getExternalProtocol() {
+    return serializationProtocol;
+  }
+
+  @Override
+  public void setMuleContext(MuleContext context) {
+    serializationProtocol.setMuleContext(context);
+  }
+}
@@ -0,0 +1,30 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import org.mule.runtime.api.serialization.SerializationProtocol;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+/**
+ * {@link SerializationProtocol} which writes messages, typed values and data types in a compact binary form, and any other
+ * object through Java serialization.
+ * <p>
+ * Content written by this protocol can be read by {@link JavaExternalSerializerProtocol} and vice versa.
+ *
+ * @see CompactObjectOutputStream
+ * @since 4.0
+ */
+public class CompactSerializationProtocol extends JavaExternalSerializerProtocol {
+
+  @Override
+  protected ObjectOutputStream createObjectOutputStream(OutputStream out) throws IOException {
+    return new CompactObjectOutputStream(out);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static java.lang.Math.min;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.core.internal.streaming.bytes.FileStoreCursorStreamConfig.getDefault;
+import org.mule.runtime.api.streaming.bytes.CursorStream;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.streaming.StreamingManager;
+import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
+import org.mule.runtime.core.internal.streaming.bytes.DefaultByteStreamingManager;
+import org.mule.runtime.core.internal.streaming.bytes.FileStoreCursorStreamProvider;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Utilities to write the content of a {@link CursorStreamProvider} as a sequence of length-prefixed chunks terminated by a
+ * zero length, and to read it back into a repeatable stream, so that the content never needs to be fully loaded into memory.
+ *
+ * @since 4.0
+ */
+public final class CursorStreamChunks {
+
+  private static final int CHUNK_SIZE = KB.toBytes(32);
+
+  private CursorStreamChunks() {}
+
+  /**
+   * Writes the content of the given {@code provider} as chunks
+   *
+   * @param provider the provider which content is to be written
+   * @param out      the output to write to
+   * @throws IOException if the content could not be read or written
+   */
+  public static void writeChunks(CursorStreamProvider provider, DataOutput out) throws IOException {
+    try (CursorStream cursor = provider.openCursor()) {
+      byte[] chunk = new byte[CHUNK_SIZE];
+      int read;
+      while ((read = cursor.read(chunk)) != -1) {
+        if (read > 0) {
+          out.writeInt(read);
+          out.write(chunk, 0, read);
+        }
+      }
+
+      out.writeInt(0);
+    }
+  }
+
+  /**
+   * Reads content written through {@link #writeChunks(CursorStreamProvider, DataOutput)} into a
+   * {@link FileStoreCursorStreamProvider}. The content is fully consumed before returning, so that {@code in} can keep
+   * being read afterwards.
+   * <p>
+   * If an {@code event} is given, the returned provider is managed by the {@code streamingManager} and its resources are
+   * released once the event completes. Otherwise, the caller owns it and its resources are released as soon as it's closed.
+   *
+   * @param in               the input to read from
+   * @param streamingManager the {@link StreamingManager} used to buffer the content
+   * @param event            the event the returned provider is bound to. Might be {@code null}
+   * @return a {@link CursorStreamProvider} over the read content
+   * @throws IOException if the content could not be read
+   */
+  public static CursorStreamProvider readChunks(DataInput in, StreamingManager streamingManager, BaseEvent event)
+      throws IOException {
+    InputStream content = chunksInputStream(in);
+    ByteStreamingManager byteStreamingManager = streamingManager.forBytes();
+
+    CursorStreamProvider provider;
+    if (event != null) {
+      provider = (CursorStreamProvider) (byteStreamingManager instanceof DefaultByteStreamingManager
+          ? ((DefaultByteStreamingManager) byteStreamingManager).getFileStoreCursorProviderFactory(getDefault())
+          : byteStreamingManager.getDefaultCursorProviderFactory()).of(event, content);
+    } else if (byteStreamingManager instanceof DefaultByteStreamingManager) {
+      provider = ((DefaultByteStreamingManager) byteStreamingManager).getDetachedFileStoreCursorProvider(content, getDefault());
+    } else {
+      throw new IOException("Cannot buffer a cursor stream outside of an event");
+    }
+
+    try (CursorStream cursor = provider.openCursor()) {
+      byte[] discard = new byte[CHUNK_SIZE];
+      while (cursor.read(discard) != -1) {
+        // the provider keeps the consumed content
+      }
+    } catch (IOException | RuntimeException e) {
+      provider.close();
+      provider.releaseResources();
+      throw e;
+    }
+
+    return provider;
+  }
+
+  /**
+   * @param in the input to read from
+   * @return an {@link InputStream} over the content of the chunks read from {@code in}. It reaches its end when the
+   *         terminating chunk is found. Closing it does not close {@code in}.
+   */
+  public static InputStream chunksInputStream(DataInput in) {
+    return new ChunksInputStream(in);
+  }
+
+  private static class ChunksInputStream extends InputStream {
+
+    private final DataInput in;
+    private int remaining = 0;
+    private boolean finished = false;
+
+    private ChunksInputStream(DataInput in) {
+      this.in = in;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] b = new byte[1];
+      return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (len == 0) {
+        return 0;
+      }
+
+      if (remaining == 0 && !nextChunk()) {
+        return -1;
+      }
+
+      int count = min(len, remaining);
+      in.readFully(b, off, count);
+      remaining -= count;
+      return count;
+    }
+
+    private boolean nextChunk() throws IOException {
+      if (finished) {
+        return false;
+      }
+
+      int length = in.readInt();
+      if (length < 0) {
+        throw new IOException("Invalid cursor stream chunk length: " + length);
+      }
+
+      remaining = length;
+      finished = length == 0;
+      return !finished;
+    }
+  }
+}
@@ -6,34 +6,56 @@
  */
 package org.mule.runtime.core.internal.serialization;
 
+import static java.nio.ByteBuffer.wrap;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
 import static org.mule.runtime.api.util.Preconditions.checkArgument;
-import static org.mule.runtime.core.api.util.IOUtils.toByteArray;
-import org.mule.runtime.api.streaming.bytes.CursorStream;
+import static org.mule.runtime.core.internal.serialization.CursorStreamChunks.readChunks;
+import static org.mule.runtime.core.internal.serialization.CursorStreamChunks.writeChunks;
+import static org.mule.runtime.core.privileged.event.PrivilegedEvent.getCurrentEvent;
 import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
 import org.mule.runtime.api.serialization.SerializationException;
 import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.streaming.StreamingManager;
+import org.mule.runtime.core.internal.streaming.bytes.FileStoreCursorStreamProvider;
 import org.mule.runtime.core.internal.util.SerializationUtils;
 
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.ObjectOutputStream;
 import java.io.OutputStream;
+import java.io.PushbackInputStream;
 import java.io.Serializable;
 
 /**
  * Implementation of {@link SerializationProtocol} that uses Java's default serialization mechanism. This means
  * that exceptions will come from serializing objects that do not implement {@link Serializable}
+ * <p>
+ * {@link CursorStreamProvider} instances are not Java serialized. Instead, their content is written as a header followed
+ * by a sequence of length-prefixed chunks, so that the stream never needs to be fully loaded into memory. When such content
+ * is deserialized, the chunks are buffered into a {@link FileStoreCursorStreamProvider}. If there's an event being processed,
+ * that provider is managed by the {@link StreamingManager} and released once the event completes. Otherwise, the caller owns it
+ * and its resources are released when it's closed.
  */
 public class JavaExternalSerializerProtocol extends AbstractSerializationProtocol {
 
+  /**
+   * Marks content written by {@link #serializeCursorStream(CursorStreamProvider, OutputStream)}. Java serialization streams
+   * always start with {@code 0xACED}, so both formats can be told apart by peeking the first bytes.
+   */
+  private static final int CURSOR_STREAM_HEADER = 0x4D435331;
+  private static final int HEADER_LENGTH = 4;
+
   /**
    * {@inheritDoc}
    */
   @Override
   public void serialize(Object object, OutputStream out) throws SerializationException {
     if (object instanceof CursorStreamProvider) {
-      try (CursorStream cursor = ((CursorStreamProvider) object).openCursor()) {
-        doSerialize(toByteArray(cursor), out);
+      try {
+        serializeCursorStream((CursorStreamProvider) object, out);
       } catch (IOException e) {
         throw new SerializationException(createStaticMessage("Could not serialize cursor stream"), e);
       }
@@ -44,7 +66,24 @@ public class JavaExternalSerializerProtocol extends AbstractSerializationProtoco
 
   private void doSerialize(Object object, OutputStream out) {
     validateForSerialization(object);
-    org.apache.commons.lang3.SerializationUtils.serialize((Serializable) object, out);
+    try (ObjectOutputStream objectOut = createObjectOutputStream(out)) {
+      objectOut.writeObject(object);
+    } catch (IOException e) {
+      throw new org.apache.commons.lang3.SerializationException(e);
+    }
+  }
+
+  /**
+   * Creates the {@link ObjectOutputStream} through which objects other than {@link CursorStreamProvider cursor streams} are
+   * written. Subclasses may override it to customize how some types are written, as long as the result can still be read by a
+   * plain {@link java.io.ObjectInputStream}.
+   *
+   * @param out the stream to write to
+   * @return a new {@link ObjectOutputStream}
+   * @throws IOException if the stream header could not be written
+   */
+  protected ObjectOutputStream createObjectOutputStream(OutputStream out) throws IOException {
+    return new ObjectOutputStream(out);
   }
 
   /**
@@ -52,14 +91,14 @@ public class JavaExternalSerializerProtocol extends AbstractSerializationProtoco
    */
   @Override
   protected byte[] doSerialize(Object object) throws Exception {
-    //TODO: MULE-11939
     if (object instanceof CursorStreamProvider) {
-      try (CursorStream cursor = ((CursorStreamProvider) object).openCursor()) {
-        return org.apache.commons.lang3.SerializationUtils.serialize(toByteArray(cursor));
-      }
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      serializeCursorStream((CursorStreamProvider) object, out);
+      return out.toByteArray();
     }
-    validateForSerialization(object);
-    return org.apache.commons.lang3.SerializationUtils.serialize((Serializable) object);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+    doSerialize(object, out);
+    return out.toByteArray();
   }
 
   /**
@@ -70,7 +109,41 @@ public class JavaExternalSerializerProtocol extends AbstractSerializationProtoco
     checkArgument(inputStream != null, "Cannot deserialize a null stream");
     checkArgument(classLoader != null, "Cannot deserialize with a null classloader");
 
-    return (T) SerializationUtils.deserialize(inputStream, classLoader, muleContext);
+    PushbackInputStream in = new PushbackInputStream(inputStream, HEADER_LENGTH);
+    if (isCursorStream(in)) {
+      return (T) deserializeCursorStream(in);
+    }
+
+    return (T) SerializationUtils.deserialize(in, classLoader, muleContext);
+  }
+
+  private void serializeCursorStream(CursorStreamProvider provider, OutputStream out) throws IOException {
+    try (DataOutputStream dataOut = new DataOutputStream(out)) {
+      dataOut.writeInt(CURSOR_STREAM_HEADER);
+      writeChunks(provider, dataOut);
+    }
+  }
+
+  private boolean isCursorStream(PushbackInputStream in) throws IOException {
+    byte[] header = new byte[HEADER_LENGTH];
+    int read = 0;
+    while (read < HEADER_LENGTH) {
+      int count = in.read(header, read, HEADER_LENGTH - read);
+      if (count == -1) {
+        break;
+      }
+      read += count;
+    }
+
+    in.unread(header, 0, read);
+    return read == HEADER_LENGTH && wrap(header).getInt() == CURSOR_STREAM_HEADER;
+  }
+
+  private CursorStreamProvider deserializeCursorStream(InputStream inputStream) throws Exception {
+    DataInputStream in = new DataInputStream(inputStream);
+    in.readInt();
+
+    return readChunks(in, muleContext.getRegistry().lookupObject(StreamingManager.class), getCurrentEvent());
   }
 
   @Override
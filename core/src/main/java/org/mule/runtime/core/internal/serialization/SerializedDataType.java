@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import org.mule.runtime.api.metadata.DataType;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Compact serialized form of a simple {@link DataType}, written by {@link CompactObjectOutputStream}. Only the type and the
+ * media type are written, and the {@link DataType} is built again from them when read.
+ * <p>
+ * This class is public only because {@link Externalizable} requires it. It's not meant to be used directly.
+ *
+ * @since 4.0
+ */
+public final class SerializedDataType implements Externalizable {
+
+  private static final long serialVersionUID = 6287540624466934829L;
+
+  private Class<?> type;
+  private String mediaType;
+
+  /**
+   * Constructor required for deserialization
+   */
+  public SerializedDataType() {}
+
+  SerializedDataType(DataType dataType) {
+    type = dataType.getType();
+    mediaType = dataType.getMediaType().toRfcString();
+  }
+
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException {
+    out.writeObject(type);
+    out.writeUTF(mediaType);
+  }
+
+  @Override
+  public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+    type = (Class<?>) in.readObject();
+    mediaType = in.readUTF();
+  }
+
+  private Object readResolve() {
+    return DataType.builder().type(type).mediaType(mediaType).build();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static org.mule.runtime.core.internal.serialization.SerializedTypedValue.readValue;
+import static org.mule.runtime.core.internal.serialization.SerializedTypedValue.writeValue;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+import org.mule.runtime.core.api.message.ExceptionPayload;
+import org.mule.runtime.core.internal.message.InternalMessage;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Compact serialized form of a message without attachments, written by {@link CompactObjectOutputStream}.
+ * <p>
+ * The payload, attributes and exception payload are written followed by the count and the entries of each property scope,
+ * so the property maps are not serialized along with their implementation details.
+ * <p>
+ * This class is public only because {@link Externalizable} requires it. It's not meant to be used directly.
+ *
+ * @since 4.0
+ */
+public final class SerializedMessage implements Externalizable {
+
+  private static final long serialVersionUID = -4425323557203719604L;
+
+  private InternalMessage message;
+
+  private TypedValue<?> payload;
+  private TypedValue<?> attributes;
+  private ExceptionPayload exceptionPayload;
+  private final List<Property> inboundProperties = new ArrayList<>();
+  private final List<Property> outboundProperties = new ArrayList<>();
+
+  /**
+   * Constructor required for deserialization
+   */
+  public SerializedMessage() {}
+
+  SerializedMessage(InternalMessage message) {
+    this.message = message;
+  }
+
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException {
+    out.writeObject(message.getPayload());
+    out.writeObject(message.getAttributes());
+    out.writeObject(message.getExceptionPayload());
+    writeProperties(out, message.getInboundPropertyNames(), message::getInboundProperty, message::getInboundPropertyDataType);
+    writeProperties(out, message.getOutboundPropertyNames(), message::getOutboundProperty,
+                    message::getOutboundPropertyDataType);
+  }
+
+  private void writeProperties(ObjectOutput out, Set<String> names, Function<String, Serializable> valueResolver,
+                               Function<String, DataType> dataTypeResolver)
+      throws IOException {
+    out.writeInt(names.size());
+    for (String name : names) {
+      out.writeUTF(name);
+      writeValue(valueResolver.apply(name), out);
+      out.writeObject(dataTypeResolver.apply(name));
+    }
+  }
+
+  @Override
+  public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+    payload = (TypedValue<?>) in.readObject();
+    attributes = (TypedValue<?>) in.readObject();
+    exceptionPayload = (ExceptionPayload) in.readObject();
+    readProperties(in, inboundProperties);
+    readProperties(in, outboundProperties);
+  }
+
+  private void readProperties(ObjectInput in, List<Property> properties) throws IOException, ClassNotFoundException {
+    int size = in.readInt();
+    for (int i = 0; i < size; i++) {
+      properties.add(new Property(in.readUTF(), (Serializable) readValue(in), (DataType) in.readObject()));
+    }
+  }
+
+  private Object readResolve() {
+    InternalMessage.Builder builder = InternalMessage.builder().payload(payload).exceptionPayload(exceptionPayload);
+    if (attributes != null) {
+      builder.attributes(attributes);
+    }
+    inboundProperties.forEach(p -> builder.addInboundProperty(p.name, p.value, p.dataType));
+    outboundProperties.forEach(p -> builder.addOutboundProperty(p.name, p.value, p.dataType));
+
+    return builder.build();
+  }
+
+  private static final class Property {
+
+    private final String name;
+    private final Serializable value;
+    private final DataType dataType;
+
+    private Property(String name, Serializable value, DataType dataType) {
+      this.name = name;
+      this.value = value;
+      this.dataType = dataType;
+    }
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import org.mule.runtime.api.metadata.DataType;
+import org.mule.runtime.api.metadata.TypedValue;
+
+import java.io.Externalizable;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Optional;
+
+/**
+ * Compact serialized form of a {@link TypedValue}, written by {@link CompactObjectOutputStream}.
+ * <p>
+ * Values of the most common primitive wrapper types are written as a tag followed by their binary representation. Any other
+ * value is written through regular serialization, after a tag which indicates so. The length of the value, if known, is
+ * written along with it so that it's not lost for values it can't be computed from.
+ * <p>
+ * This class is public only because {@link Externalizable} requires it. It's not meant to be used directly.
+ *
+ * @since 4.0
+ */
+public final class SerializedTypedValue implements Externalizable {
+
+  private static final long serialVersionUID = -2816301426540946353L;
+
+  private static final byte NULL = 0;
+  private static final byte OBJECT = 1;
+  private static final byte INTEGER = 2;
+  private static final byte LONG = 3;
+  private static final byte BOOLEAN = 4;
+  private static final byte DOUBLE = 5;
+
+  private Object value;
+  private DataType dataType;
+  private Optional<Long> length;
+
+  /**
+   * Constructor required for deserialization
+   */
+  public SerializedTypedValue() {}
+
+  SerializedTypedValue(TypedValue<?> typedValue) {
+    value = typedValue.getValue();
+    dataType = typedValue.getDataType();
+    length = typedValue.getLength();
+  }
+
+  @Override
+  public void writeExternal(ObjectOutput out) throws IOException {
+    writeValue(value, out);
+    out.writeObject(dataType);
+    out.writeBoolean(length.isPresent());
+    if (length.isPresent()) {
+      out.writeLong(length.get());
+    }
+  }
+
+  @Override
+  public void readExternal(ObjectInput in) throws IOException, ClassNotFoundException {
+    value = readValue(in);
+    dataType = (DataType) in.readObject();
+    length = in.readBoolean() ? of(in.readLong()) : empty();
+  }
+
+  private Object readResolve() {
+    return new TypedValue<>(value, dataType, length);
+  }
+
+  /**
+   * Writes the given {@code value} preceded by a tag which indicates how it was written
+   *
+   * @param value the value to write
+   * @param out   the output to write into
+   * @throws IOException if the value could not be written
+   */
+  static void writeValue(Object value, ObjectOutput out) throws IOException {
+    if (value == null) {
+      out.writeByte(NULL);
+    } else if (value.getClass() == Integer.class) {
+      out.writeByte(INTEGER);
+      out.writeInt((Integer) value);
+    } else if (value.getClass() == Long.class) {
+      out.writeByte(LONG);
+      out.writeLong((Long) value);
+    } else if (value.getClass() == Boolean.class) {
+      out.writeByte(BOOLEAN);
+      out.writeBoolean((Boolean) value);
+    } else if (value.getClass() == Double.class) {
+      out.writeByte(DOUBLE);
+      out.writeDouble((Double) value);
+    } else {
+      out.writeByte(OBJECT);
+      out.writeObject(value);
+    }
+  }
+
+  /**
+   * Reads a value written by {@link #writeValue(Object, ObjectOutput)}
+   *
+   * @param in the input to read from
+   * @return the read value
+   * @throws IOException            if the value could not be read
+   * @throws ClassNotFoundException if the class of the value could not be found
+   */
+  static Object readValue(ObjectInput in) throws IOException, ClassNotFoundException {
+    byte tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case INTEGER:
+        return in.readInt();
+      case LONG:
+        return in.readLong();
+      case BOOLEAN:
+        return in.readBoolean();
+      case DOUBLE:
+        return in.readDouble();
+      case OBJECT:
+        return in.readObject();
+      default:
+        throw new IOException("Unknown value tag " + tag);
+    }
+  }
+}
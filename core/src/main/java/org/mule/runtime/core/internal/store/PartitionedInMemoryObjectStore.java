@@ -21,6 +21,7 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,7 +32,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
   private static final Logger LOGGER = LoggerFactory.getLogger(PartitionedInMemoryObjectStore.class);
 
   private ConcurrentMap<String, ConcurrentMap<String, T>> partitions = new ConcurrentHashMap<>();
-  private ConcurrentMap<String, ConcurrentLinkedQueue<ExpiryEntry>> expiryInfoPartition = new ConcurrentHashMap<>();
+  private ConcurrentMap<String, ExpiryIndex> expiryInfoPartition = new ConcurrentHashMap<>();
 
   @Override
   public boolean isPersistent() {
@@ -53,7 +54,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     if (oldValue != null) {
       throw new ObjectAlreadyExistsException();
     }
-    getExpiryInfoPartition(partitionName).add(new ExpiryEntry(getCurrentNanoTime(), key));
+    getExpiryInfoPartition(partitionName).add(key, getCurrentNanoTime());
   }
 
   @Override
@@ -72,14 +73,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
       throw new ObjectDoesNotExistException();
     }
 
-    Iterator<ExpiryEntry> iterator = getExpiryInfoPartition(partitionName).iterator();
-    while (iterator.hasNext()) {
-      ExpiryEntry entry = iterator.next();
-      if (key.equals(entry.getKey())) {
-        iterator.remove();
-        break;
-      }
-    }
+    getExpiryInfoPartition(partitionName).remove(key);
 
     return removedValue;
   }
@@ -92,6 +86,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
   @Override
   public void clear(String partitionName) throws ObjectStoreException {
     getPartition(partitionName).clear();
+    getExpiryInfoPartition(partitionName).clear();
   }
 
   @Override
@@ -111,11 +106,11 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     return partition;
   }
 
-  private ConcurrentLinkedQueue<ExpiryEntry> getExpiryInfoPartition(String partitionName) {
-    ConcurrentLinkedQueue<ExpiryEntry> partition = expiryInfoPartition.get(partitionName);
+  private ExpiryIndex getExpiryInfoPartition(String partitionName) {
+    ExpiryIndex partition = expiryInfoPartition.get(partitionName);
     if (partition == null) {
-      partition = new ConcurrentLinkedQueue<>();
-      ConcurrentLinkedQueue<ExpiryEntry> previous = expiryInfoPartition.putIfAbsent(partitionName, partition);
+      partition = new ExpiryIndex();
+      ExpiryIndex previous = expiryInfoPartition.putIfAbsent(partitionName, partition);
       if (previous != null) {
         partition = previous;
       }
@@ -143,7 +138,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     final long now = getCurrentNanoTime();
     int expiredEntries = 0;
     ExpiryEntry oldestEntry;
-    ConcurrentLinkedQueue<ExpiryEntry> store = getExpiryInfoPartition(partitionName);
+    ExpiryIndex store = getExpiryInfoPartition(partitionName);
     ConcurrentMap<String, T> partition = getPartition(partitionName);
 
     trimToMaxSize(store, maxEntries, partition);
@@ -154,9 +149,10 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
 
     while ((oldestEntry = store.peek()) != null) {
       if (NANOSECONDS.toMillis(now - oldestEntry.getTime()) >= entryTTL) {
-        oldestEntry = store.remove();
-        partition.remove(oldestEntry.getKey());
-        expiredEntries++;
+        if (store.remove(oldestEntry)) {
+          partition.remove(oldestEntry.getKey());
+          expiredEntries++;
+        }
       } else {
         break;
       }
@@ -167,7 +163,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     }
   }
 
-  private void trimToMaxSize(ConcurrentLinkedQueue<ExpiryEntry> store, int maxEntries, ConcurrentMap<String, T> partition) {
+  private void trimToMaxSize(ExpiryIndex store, int maxEntries, ConcurrentMap<String, T> partition) {
     if (maxEntries == UNBOUNDED) {
       return;
     }
@@ -175,10 +171,12 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
     int currentSize = store.size();
     int excess = (currentSize - maxEntries);
     if (excess > 0) {
-      while (currentSize > maxEntries) {
-        ExpiryEntry toRemove = store.remove();
-        partition.remove(toRemove.getKey());
-        currentSize--;
+      ExpiryEntry toRemove;
+      while (currentSize > maxEntries && (toRemove = store.peek()) != null) {
+        if (store.remove(toRemove)) {
+          partition.remove(toRemove.getKey());
+          currentSize--;
+        }
       }
 
       if (LOGGER.isDebugEnabled()) {
@@ -194,7 +192,7 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
       partition.clear();
     }
 
-    ConcurrentLinkedQueue<ExpiryEntry> entries = expiryInfoPartition.remove(partitionName);
+    ExpiryIndex entries = expiryInfoPartition.remove(partitionName);
     if (entries != null) {
       entries.clear();
     }
@@ -207,9 +205,9 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
   private static class ExpiryEntry {
 
     private final long time;
-    private final Serializable key;
+    private final String key;
 
-    public ExpiryEntry(long time, Serializable key) {
+    public ExpiryEntry(long time, String key) {
       this.time = time;
       this.key = key;
     }
@@ -218,8 +216,100 @@ public class PartitionedInMemoryObjectStore<T extends Serializable> extends Abst
       return time;
     }
 
-    public Serializable getKey() {
+    public String getKey() {
       return key;
     }
   }
+
+  /**
+   * Keeps track of the insertion order of the entries in a partition.
+   * <p>
+   * Entries are indexed by key, so removing them is O(1): the entry is dropped from the index and left in the
+   * insertion order queue, to be discarded the next time it reaches the head. Because such stale entries are
+   * purged once they outnumber the live ones, memory stays proportional to the partition size and sweeps cost
+   * O(expired) amortized.
+   * <p>
+   * Additions and removals by key are lock free. Consuming the head of the queue is synchronized so that only
+   * one sweeper at a time discards entries.
+   */
+  private static class ExpiryIndex {
+
+    private final ConcurrentLinkedQueue<ExpiryEntry> insertionOrder = new ConcurrentLinkedQueue<>();
+    private final ConcurrentMap<String, ExpiryEntry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger staleEntries = new AtomicInteger(0);
+
+    private void add(String key, long time) {
+      ExpiryEntry entry = new ExpiryEntry(time, key);
+      if (entries.put(key, entry) != null) {
+        staleEntries.incrementAndGet();
+      }
+      insertionOrder.add(entry);
+    }
+
+    private void remove(String key) {
+      if (entries.remove(key) != null && staleEntries.incrementAndGet() > entries.size()) {
+        purgeStaleEntries();
+      }
+    }
+
+    /**
+     * Removes the given {@code entry}, provided it's still the current one for its key
+     *
+     * @return whether the entry was removed
+     */
+    private boolean remove(ExpiryEntry entry) {
+      if (entries.remove(entry.getKey(), entry)) {
+        staleEntries.incrementAndGet();
+        return true;
+      }
+
+      return false;
+    }
+
+    /**
+     * @return the oldest live entry, or {@code null} if there's none
+     */
+    private synchronized ExpiryEntry peek() {
+      ExpiryEntry entry;
+      while ((entry = insertionOrder.peek()) != null && entries.get(entry.getKey()) != entry) {
+        insertionOrder.poll();
+        staleEntries.decrementAndGet();
+      }
+
+      return entry;
+    }
+
+    private int size() {
+      return entries.size();
+    }
+
+    /**
+     * Drains the insertion order queue, removing the live entries from the index. Only the stale entries actually
+     * drained are discounted, so that concurrent additions and removals are still accounted for.
+     */
+    private synchronized void clear() {
+      int purged = 0;
+      ExpiryEntry entry;
+      while ((entry = insertionOrder.poll()) != null) {
+        if (!entries.remove(entry.getKey(), entry)) {
+          purged++;
+        }
+      }
+      staleEntries.addAndGet(-purged);
+    }
+
+    private synchronized void purgeStaleEntries() {
+      if (staleEntries.get() > entries.size()) {
+        int purged = 0;
+        for (Iterator<ExpiryEntry> iterator = insertionOrder.iterator(); iterator.hasNext();) {
+          ExpiryEntry entry = iterator.next();
+          if (entries.get(entry.getKey()) != entry) {
+            iterator.remove();
+            purged++;
+          }
+        }
+        staleEntries.addAndGet(-purged);
+      }
+    }
+  }
 }
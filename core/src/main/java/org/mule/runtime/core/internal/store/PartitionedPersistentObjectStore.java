@@ -16,6 +16,8 @@ import org.mule.runtime.core.api.config.i18n.CoreMessages;
 import org.mule.runtime.core.api.context.MuleContextAware;
 import org.mule.runtime.core.api.util.FileUtils;
 import org.mule.runtime.core.api.util.UUID;
+import org.mule.runtime.core.internal.util.store.AbstractPersistentObjectStorePartition;
+import org.mule.runtime.core.internal.util.store.LogStructuredObjectStorePartition;
 import org.mule.runtime.core.internal.util.store.PersistentObjectStorePartition;
 
 import java.io.File;
@@ -36,7 +38,7 @@ public class PartitionedPersistentObjectStore<T extends Serializable> extends Ab
 
   private MuleContext muleContext;
   private File storeDirectory;
-  private Map<String, PersistentObjectStorePartition> partitionsByName = new HashMap<>();
+  private Map<String, AbstractPersistentObjectStorePartition> partitionsByName = new HashMap<>();
   private boolean initialized = false;
 
   public PartitionedPersistentObjectStore() {
@@ -73,11 +75,13 @@ public class PartitionedPersistentObjectStore<T extends Serializable> extends Ab
   }
 
   @Override
-  public void close(String partitionName) throws ObjectStoreException {}
+  public void close(String partitionName) throws ObjectStoreException {
+    getPartitionObjectStore(partitionName).close();
+  }
 
   private void createPartition(String partitionName) throws ObjectStoreException {
-    PersistentObjectStorePartition persistentObjectStorePartition =
-        new PersistentObjectStorePartition(muleContext, partitionName, getNewPartitionDirectory());
+    AbstractPersistentObjectStorePartition persistentObjectStorePartition =
+        new LogStructuredObjectStorePartition(muleContext, partitionName, getNewPartitionDirectory());
     persistentObjectStorePartition.open();
     partitionsByName.put(partitionName, persistentObjectStorePartition);
   }
@@ -121,7 +125,7 @@ public class PartitionedPersistentObjectStore<T extends Serializable> extends Ab
     getPartitionObjectStore(partitionName).clear();
   }
 
-  private PersistentObjectStorePartition<T> getPartitionObjectStore(String partitionName) throws ObjectStoreException {
+  private AbstractPersistentObjectStorePartition<T> getPartitionObjectStore(String partitionName) throws ObjectStoreException {
     if (!partitionsByName.containsKey(partitionName)) {
       throw new ObjectStoreException(CoreMessages.createStaticMessage("No partition named: " + partitionName));
     }
@@ -176,8 +180,11 @@ public class PartitionedPersistentObjectStore<T extends Serializable> extends Ab
     }
     for (File partitionDirectory : directories) {
       try {
-        PersistentObjectStorePartition persistentObjectStorePartition =
-            new PersistentObjectStorePartition(muleContext, partitionDirectory);
+        // partitions created by previous versions keep one file per entry
+        AbstractPersistentObjectStorePartition persistentObjectStorePartition =
+            PersistentObjectStorePartition.containsEntryFiles(partitionDirectory)
+                ? new PersistentObjectStorePartition(muleContext, partitionDirectory)
+                : new LogStructuredObjectStorePartition(muleContext, partitionDirectory);
         persistentObjectStorePartition.open();
         partitionsByName.put(persistentObjectStorePartition.getPartitionName(), persistentObjectStorePartition);
       } catch (Exception e) {
@@ -8,7 +8,6 @@ package org.mule.runtime.core.internal.streaming.bytes;
 
 import static java.lang.Math.min;
 import static java.lang.Math.toIntExact;
-import static java.lang.System.arraycopy;
 import static java.nio.channels.Channels.newChannel;
 import static org.mule.runtime.api.util.Preconditions.checkState;
 import org.mule.runtime.api.util.LazyValue;
@@ -169,18 +168,28 @@ public abstract class AbstractInputStreamBuffer extends AbstractStreamingBuffer
   protected abstract boolean canDoSoftCopy();
 
   private ByteBuffer softCopy(long position, int length) {
-    final int offset = toIntExact(position);
-    final ByteBuffer b = buffer.get();
-    return ByteBuffer.wrap(b.array(), offset, min(length, b.limit() - offset)).slice();
+    return view(position, length).slice();
   }
 
   private ByteBuffer hardCopy(long position, int length) {
+    final ByteBuffer view = view(position, length);
+    final ByteBuffer b = ByteBuffer.allocate(view.remaining());
+    b.put(view);
+    b.flip();
+
+    return b;
+  }
+
+  /**
+   * Works over a duplicate of the {@link #buffer} so that it works with both heap and direct buffers,
+   * without altering the buffer's own position and limit
+   */
+  private ByteBuffer view(long position, int length) {
     final int offset = toIntExact(position);
-    final ByteBuffer bf = buffer.get();
-    length = min(length, bf.limit() - offset);
+    final ByteBuffer view = buffer.get().duplicate();
+    view.limit(offset + min(length, view.limit() - offset));
+    view.position(offset);
 
-    byte[] b = new byte[length];
-    arraycopy(bf.array(), offset, b, 0, length);
-    return ByteBuffer.wrap(b);
+    return view;
   }
 }
@@ -8,11 +8,15 @@ package org.mule.runtime.core.internal.streaming.bytes;
 
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.streaming.bytes.factory.InMemoryCursorStreamProviderFactory;
+import org.mule.runtime.core.internal.streaming.bytes.factory.FileStoreCursorStreamProviderFactory;
 import org.mule.runtime.core.internal.streaming.bytes.factory.NullCursorStreamProviderFactory;
 import org.mule.runtime.core.api.streaming.StreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.ByteStreamingManager;
 import org.mule.runtime.core.api.streaming.bytes.CursorStreamProviderFactory;
 import org.mule.runtime.core.api.streaming.bytes.InMemoryCursorStreamConfig;
+import org.mule.runtime.api.streaming.bytes.CursorStreamProvider;
+
+import java.io.InputStream;
 
 /**
  * Default implementation of {@link ByteStreamingManager}
@@ -37,6 +41,37 @@ public class DefaultByteStreamingManager implements ByteStreamingManager {
     return new InMemoryCursorStreamProviderFactory(bufferManager, config, streamingManager);
   }
 
+  /**
+   * Creates a {@link CursorStreamProviderFactory} which buffers in memory up to a threshold and then
+   * overflows into a temporal file
+   *
+   * @param config the configuration for the produced {@link CursorStreamProviderFactory} instances
+   * @return a new {@link CursorStreamProviderFactory}
+   */
+  public CursorStreamProviderFactory getFileStoreCursorProviderFactory(FileStoreCursorStreamConfig config) {
+    return new FileStoreCursorStreamProviderFactory(bufferManager, config, streamingManager);
+  }
+
+  /**
+   * Creates a {@link FileStoreCursorStreamProvider} which is not tracked by the {@link StreamingManager}, for the cases in
+   * which there's no event to bind its lifecycle to. The caller owns the returned provider, which releases its resources
+   * as soon as it's closed.
+   *
+   * @param stream the stream to buffer from
+   * @param config the config of the generated buffer
+   * @return a new {@link CursorStreamProvider}
+   */
+  public CursorStreamProvider getDetachedFileStoreCursorProvider(InputStream stream, FileStoreCursorStreamConfig config) {
+    return new FileStoreCursorStreamProvider(stream, config, bufferManager) {
+
+      @Override
+      public void close() {
+        super.close();
+        releaseResources();
+      }
+    };
+  }
+
   /**
    * {@inheritDoc}
    */
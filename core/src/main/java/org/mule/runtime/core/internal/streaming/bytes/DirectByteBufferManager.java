@@ -0,0 +1,467 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.Math.max;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.mule.runtime.api.config.PoolingProfile.DEFAULT_MAX_POOL_WAIT;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.api.util.DataUnit.MB;
+import static org.mule.runtime.core.internal.streaming.bytes.PoolingByteBufferManager.calculateMaxStreamingMemory;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
+import org.mule.runtime.core.internal.streaming.MemoryManager;
+
+import com.google.common.collect.MapMaker;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+
+/**
+ * {@link ByteBufferManager} implementation which hands out direct (off-heap) buffers.
+ * <p>
+ * Requested capacities are rounded up to power of two size classes. Each size class is backed by an arena
+ * which carves slots out of large direct slabs, so that direct memory is requested to the JVM in big chunks
+ * instead of once per buffer. Returned buffers are views of exactly the requested capacity over those slots.
+ * <p>
+ * Free slots of small size classes are cached in per thread magazines, so that a thread which allocates and
+ * deallocates buffers repeatedly (the common case when consuming a stream) recycles slots without contending
+ * with other threads. Magazine overflow and larger size classes go into a shared depot. Neither the magazines
+ * nor the depot take locks to exchange slots; only carving new slots out of a slab does. Magazines
+ * are also kept in a registry, so that the slots cached by other threads, including threads which already
+ * died, can be released when memory is exhausted or the manager is disposed.
+ * <p>
+ * Just like {@link PoolingByteBufferManager}, this manager is exhausted in terms of retained memory, which is
+ * capped by {@link PoolingByteBufferManager#calculateMaxStreamingMemory(MemoryManager)}. Retained memory is
+ * accounted in terms of carved slots. When exhausted, idle slots of other size classes are released and
+ * invocations to {@link #allocate(int)} block until enough memory becomes available. If blocked for more than
+ * {@link #waitTimeoutMillis} milliseconds, then a {@link MaxStreamingMemoryExceededException} is thrown.
+ * <p>
+ * Disposing releases the memory of idle slots only. Buffers still leased remain accounted until they are
+ * deallocated, at which point their memory is released instead of being pooled.
+ *
+ * @since 4.0
+ */
+public class DirectByteBufferManager implements ByteBufferManager, Disposable {
+
+  private static final Logger LOGGER = getLogger(DirectByteBufferManager.class);
+
+  private static final int MIN_SIZE_CLASS_SHIFT = 6;
+  private static final int MAX_SIZE_CLASS_SHIFT = 30;
+  private static final int SIZE_CLASSES = MAX_SIZE_CLASS_SHIFT - MIN_SIZE_CLASS_SHIFT + 1;
+  private static final int SLAB_SIZE = MB.toBytes(4);
+  private static final int MAX_MAGAZINE_SLOT_SIZE = KB.toBytes(64);
+  private static final int MAGAZINE_SIZE = 8;
+  private static final int UNPOOLED = -1;
+  private static final int MAGAZINE_SIZE_CLASSES = sizeClassOf(MAX_MAGAZINE_SLOT_SIZE) + 1;
+
+  private final AtomicLong streamingMemory = new AtomicLong(0);
+  private final long maxStreamingMemory;
+  private final long waitTimeoutMillis;
+
+  private final Arena[] arenas = new Arena[SIZE_CLASSES];
+  private final Queue<ThreadMagazines> magazineRegistry = new ConcurrentLinkedQueue<>();
+  private final ThreadLocal<ThreadMagazines> magazines = ThreadLocal.withInitial(this::registerMagazines);
+
+  /**
+   * Maps each handed out buffer to the slot backing it. Weak keys are compared by identity
+   */
+  private final ConcurrentMap<ByteBuffer, Lease> leases = new MapMaker().weakKeys().makeMap();
+
+  private final Lock lock = new ReentrantLock();
+  private final Condition memoryReleased = lock.newCondition();
+  private final AtomicInteger waiters = new AtomicInteger(0);
+  private volatile boolean disposed = false;
+
+  /**
+   * Creates a new instance which allows the arenas to grow up to 50% of the runtime's max memory and has a wait
+   * timeout of 10 seconds. The definition of max memory is that of {@link MemoryManager#getMaxMemory()}
+   */
+  public DirectByteBufferManager() {
+    this(new DefaultMemoryManager(), DEFAULT_MAX_POOL_WAIT);
+  }
+
+  /**
+   * Creates a new instance which allows the arenas to grow up to 50% of calling {@link MemoryManager#getMaxMemory()}
+   * on the given {@code memoryManager}, and has {@code waitTimeoutMillis} as wait timeout.
+   *
+   * @param memoryManager     a {@link MemoryManager} used to determine the runtime's max memory
+   * @param waitTimeoutMillis how long to wait when the memory is exhausted
+   */
+  public DirectByteBufferManager(MemoryManager memoryManager, long waitTimeoutMillis) {
+    maxStreamingMemory = calculateMaxStreamingMemory(memoryManager);
+    this.waitTimeoutMillis = waitTimeoutMillis;
+    for (int i = 0; i < SIZE_CLASSES; i++) {
+      arenas[i] = new Arena(1 << (i + MIN_SIZE_CLASS_SHIFT));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public ByteBuffer allocate(int capacity) {
+    final int sizeClass = sizeClassOf(capacity);
+    final ByteBuffer slot;
+    try {
+      slot = obtainSlot(sizeClass, capacity);
+    } catch (Exception e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not allocate byte buffer. " + e.getMessage()), e);
+    }
+
+    slot.clear();
+    ByteBuffer buffer = slot;
+    if (slot.capacity() != capacity) {
+      ByteBuffer view = slot.duplicate();
+      view.limit(capacity);
+      buffer = view.slice();
+    }
+
+    leases.put(buffer, new Lease(slot, sizeClass));
+    return buffer;
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public void deallocate(ByteBuffer byteBuffer) {
+    Lease lease = leases.remove(byteBuffer);
+    if (lease == null) {
+      return;
+    }
+
+    if (lease.sizeClass == UNPOOLED || disposed) {
+      release(lease.slot.capacity());
+    } else {
+      Arena arena = arenas[lease.sizeClass];
+      if (waiters.get() > 0 || streamingMemory.get() + arena.slotSize > maxStreamingMemory) {
+        // memory is exhausted, so the slot needs to be visible to all threads
+        arena.depot.offer(lease.slot);
+        signalMemoryReleased();
+      } else if (arena.slotSize > MAX_MAGAZINE_SLOT_SIZE || !magazine(lease.sizeClass).push(lease.slot)) {
+        arena.depot.offer(lease.slot);
+      }
+    }
+  }
+
+  /**
+   * Releases the memory of all idle slots. Buffers which are still leased are not released, their memory
+   * remains accounted until they are {@link #deallocate(ByteBuffer) deallocated}.
+   */
+  @Override
+  public void dispose() {
+    disposed = true;
+    for (Arena arena : arenas) {
+      arena.reset();
+      releaseSlots(arena.depot, arena.slotSize);
+    }
+    // magazines of live threads stay registered, in case their owner is deallocating a buffer right now
+    for (Iterator<ThreadMagazines> iterator = magazineRegistry.iterator(); iterator.hasNext();) {
+      ThreadMagazines threadMagazines = iterator.next();
+      boolean ownerAlive = threadMagazines.isOwnerAlive();
+      releaseMagazines(threadMagazines, UNPOOLED);
+      if (!ownerAlive) {
+        iterator.remove();
+      }
+    }
+
+    if (!leases.isEmpty() && LOGGER.isWarnEnabled()) {
+      LOGGER.warn("Disposing direct buffer manager while {} buffers are still leased, their memory will be released once "
+          + "they are deallocated", leases.size());
+    }
+    signalMemoryReleased();
+  }
+
+  private ByteBuffer obtainSlot(int sizeClass, int capacity) throws InterruptedException {
+    ByteBuffer slot = sizeClass == UNPOOLED ? null : takeFreeSlot(sizeClass);
+    if (slot != null) {
+      return slot;
+    }
+
+    final int slotSize = sizeClass == UNPOOLED ? capacity : arenas[sizeClass].slotSize;
+    if (reserve(slotSize)) {
+      return createSlot(sizeClass, slotSize);
+    }
+
+    final long deadline = nanoTime() + MILLISECONDS.toNanos(waitTimeoutMillis);
+    waiters.incrementAndGet();
+    lock.lock();
+    try {
+      while (true) {
+        if (sizeClass != UNPOOLED && (slot = arenas[sizeClass].depot.poll()) != null) {
+          return slot;
+        }
+
+        releaseIdleSlots(sizeClass);
+        if (reserve(slotSize)) {
+          return createSlot(sizeClass, slotSize);
+        }
+
+        long remaining = deadline - nanoTime();
+        if (remaining <= 0) {
+          throw new MaxStreamingMemoryExceededException(createStaticMessage(format(
+                                                                                   "Max streaming memory limit of %d bytes was exceeded",
+                                                                                   maxStreamingMemory)));
+        }
+        memoryReleased.awaitNanos(remaining);
+      }
+    } finally {
+      lock.unlock();
+      waiters.decrementAndGet();
+    }
+  }
+
+  private ByteBuffer takeFreeSlot(int sizeClass) {
+    Arena arena = arenas[sizeClass];
+    if (arena.slotSize <= MAX_MAGAZINE_SLOT_SIZE) {
+      ByteBuffer slot = magazine(sizeClass).pop();
+      if (slot != null) {
+        return slot;
+      }
+    }
+
+    return arena.depot.poll();
+  }
+
+  private ByteBuffer createSlot(int sizeClass, int slotSize) {
+    try {
+      return sizeClass == UNPOOLED ? ByteBuffer.allocateDirect(slotSize) : arenas[sizeClass].carve();
+    } catch (OutOfMemoryError e) {
+      release(slotSize);
+      throw e;
+    }
+  }
+
+  /**
+   * Releases the memory accounted to the idle slots of all size classes other than the given one, both in the
+   * depots and in the magazines of every thread. The slots of the given size class cached by threads which
+   * died are moved to the depot so they can be reused. Slab memory is reclaimed by the garbage collector once
+   * none of its slots is referenced anymore.
+   */
+  private void releaseIdleSlots(int exceptSizeClass) {
+    for (int i = 0; i < SIZE_CLASSES; i++) {
+      if (i != exceptSizeClass) {
+        releaseSlots(arenas[i].depot, arenas[i].slotSize);
+      }
+    }
+
+    for (Iterator<ThreadMagazines> iterator = magazineRegistry.iterator(); iterator.hasNext();) {
+      ThreadMagazines threadMagazines = iterator.next();
+      boolean ownerAlive = threadMagazines.isOwnerAlive();
+      releaseMagazines(threadMagazines, exceptSizeClass);
+      if (!ownerAlive) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Releases the slots cached in the given magazines, except the ones of the given size class which are moved
+   * to its depot.
+   */
+  private void releaseMagazines(ThreadMagazines threadMagazines, int exceptSizeClass) {
+    for (int i = 0; i < MAGAZINE_SIZE_CLASSES; i++) {
+      Queue<ByteBuffer> slots = threadMagazines.magazines[i].takeAll();
+      if (i == exceptSizeClass) {
+        arenas[i].depot.addAll(slots);
+      } else {
+        releaseSlots(slots, arenas[i].slotSize);
+      }
+    }
+  }
+
+  private void releaseSlots(Queue<ByteBuffer> slots, int slotSize) {
+    while (slots.poll() != null) {
+      streamingMemory.addAndGet(-slotSize);
+    }
+  }
+
+  private boolean reserve(long size) {
+    if (streamingMemory.addAndGet(size) <= maxStreamingMemory) {
+      return true;
+    }
+
+    streamingMemory.addAndGet(-size);
+    return false;
+  }
+
+  private void release(long size) {
+    streamingMemory.addAndGet(-size);
+    if (waiters.get() > 0) {
+      signalMemoryReleased();
+    }
+  }
+
+  private void signalMemoryReleased() {
+    lock.lock();
+    try {
+      memoryReleased.signalAll();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private Magazine magazine(int sizeClass) {
+    return magazines.get().magazines[sizeClass];
+  }
+
+  private ThreadMagazines registerMagazines() {
+    // threads are seldom created, so this is a good time to release the magazines of the ones which died
+    for (Iterator<ThreadMagazines> iterator = magazineRegistry.iterator(); iterator.hasNext();) {
+      ThreadMagazines registered = iterator.next();
+      if (!registered.isOwnerAlive()) {
+        releaseMagazines(registered, UNPOOLED);
+        iterator.remove();
+      }
+    }
+    if (waiters.get() > 0) {
+      signalMemoryReleased();
+    }
+
+    ThreadMagazines threadMagazines = new ThreadMagazines(currentThread());
+    magazineRegistry.add(threadMagazines);
+    return threadMagazines;
+  }
+
+  private static int sizeClassOf(int capacity) {
+    if (capacity > 1 << MAX_SIZE_CLASS_SHIFT) {
+      return UNPOOLED;
+    }
+
+    int shift = 32 - numberOfLeadingZeros(max(capacity, 1 << MIN_SIZE_CLASS_SHIFT) - 1);
+    return shift - MIN_SIZE_CLASS_SHIFT;
+  }
+
+  /**
+   * Carves slots of a fixed size out of direct slabs. Size classes bigger than a slab get one direct buffer per slot.
+   */
+  private static class Arena {
+
+    private final int slotSize;
+    private final Queue<ByteBuffer> depot = new ConcurrentLinkedQueue<>();
+    private ByteBuffer currentSlab;
+
+    private Arena(int slotSize) {
+      this.slotSize = slotSize;
+    }
+
+    private synchronized void reset() {
+      currentSlab = null;
+    }
+
+    private synchronized ByteBuffer carve() {
+      if (slotSize >= SLAB_SIZE) {
+        return ByteBuffer.allocateDirect(slotSize);
+      }
+
+      if (currentSlab == null || currentSlab.remaining() < slotSize) {
+        currentSlab = ByteBuffer.allocateDirect(SLAB_SIZE);
+      }
+
+      ByteBuffer slot = currentSlab.slice();
+      slot.limit(slotSize);
+      currentSlab.position(currentSlab.position() + slotSize);
+
+      return slot.slice();
+    }
+  }
+
+  /**
+   * The magazines of a thread, one per size class small enough to be cached in magazines
+   */
+  private static class ThreadMagazines {
+
+    private final WeakReference<Thread> owner;
+    private final Magazine[] magazines = new Magazine[MAGAZINE_SIZE_CLASSES];
+
+    private ThreadMagazines(Thread owner) {
+      this.owner = new WeakReference<>(owner);
+      for (int i = 0; i < MAGAZINE_SIZE_CLASSES; i++) {
+        magazines[i] = new Magazine();
+      }
+    }
+
+    private boolean isOwnerAlive() {
+      Thread thread = owner.get();
+      return thread != null && thread.isAlive();
+    }
+  }
+
+  /**
+   * A small stack of free slots. It is only pushed to and popped from by its owner thread, while other threads only take its
+   * slots to release them. Every access swaps single array elements atomically, so none of them takes a lock.
+   */
+  private static class Magazine {
+
+    private final AtomicReferenceArray<ByteBuffer> slots = new AtomicReferenceArray<>(MAGAZINE_SIZE);
+
+    private ByteBuffer pop() {
+      for (int i = MAGAZINE_SIZE - 1; i >= 0; i--) {
+        if (slots.get(i) != null) {
+          ByteBuffer slot = slots.getAndSet(i, null);
+          if (slot != null) {
+            return slot;
+          }
+        }
+      }
+      return null;
+    }
+
+    private boolean push(ByteBuffer slot) {
+      for (int i = 0; i < MAGAZINE_SIZE; i++) {
+        if (slots.get(i) == null && slots.compareAndSet(i, null, slot)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private Queue<ByteBuffer> takeAll() {
+      Queue<ByteBuffer> taken = new ArrayDeque<>(MAGAZINE_SIZE);
+      for (int i = 0; i < MAGAZINE_SIZE; i++) {
+        ByteBuffer slot = slots.getAndSet(i, null);
+        if (slot != null) {
+          taken.add(slot);
+        }
+      }
+      return taken;
+    }
+  }
+
+  private static class Lease {
+
+    private final ByteBuffer slot;
+    private final int sizeClass;
+
+    private Lease(ByteBuffer slot, int sizeClass) {
+      this.slot = slot;
+      this.sizeClass = sizeClass;
+    }
+  }
+}
@@ -18,6 +18,7 @@ import org.mule.runtime.api.util.DataSize;
 public final class FileStoreCursorStreamConfig {
 
   private final DataSize maxInMemorySize;
+  private final DataSize memoryMappedSegmentSize;
 
   /**
    * @return A new instance configured with default settings
@@ -28,11 +29,22 @@ public final class FileStoreCursorStreamConfig {
   }
 
   /**
-   * Creates a new instance
+   * Creates a new instance which doesn't memory map the buffer file
    * @param maxInMemorySize the maximum amount of data to be held in memory
    */
   public FileStoreCursorStreamConfig(DataSize maxInMemorySize) {
+    this(maxInMemorySize, null);
+  }
+
+  /**
+   * Creates a new instance
+   * @param maxInMemorySize the maximum amount of data to be held in memory
+   * @param memoryMappedSegmentSize the size of the buffer file segments which are memory mapped once fully
+   *                                written. {@code null} or zero to disable memory mapping
+   */
+  public FileStoreCursorStreamConfig(DataSize maxInMemorySize, DataSize memoryMappedSegmentSize) {
     this.maxInMemorySize = maxInMemorySize;
+    this.memoryMappedSegmentSize = memoryMappedSegmentSize;
   }
 
   /**
@@ -41,4 +53,18 @@ public final class FileStoreCursorStreamConfig {
   public DataSize getMaxInMemorySize() {
     return maxInMemorySize;
   }
+
+  /**
+   * @return The size of the memory mapped segments of the buffer file, or {@code null} if memory mapping is disabled
+   */
+  public DataSize getMemoryMappedSegmentSize() {
+    return memoryMappedSegmentSize;
+  }
+
+  /**
+   * @return whether fully written segments of the buffer file should be memory mapped
+   */
+  public boolean isMemoryMapped() {
+    return memoryMappedSegmentSize != null && memoryMappedSegmentSize.toBytes() > 0;
+  }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.streaming.bytes;
+
+import static java.lang.Math.min;
+import static java.lang.Math.toIntExact;
+import static java.nio.channels.FileChannel.MapMode.READ_ONLY;
+import static java.util.UUID.randomUUID;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.core.internal.streaming.TempBufferFileUtils.createBufferFile;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.util.LazyValue;
+import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An implementation of {@link AbstractInputStreamBuffer} which holds up to
+ * {@link FileStoreCursorStreamConfig#getMaxInMemorySize()} bytes in a memory buffer and
+ * overflows the rest of the stream into a temporal file.
+ * <p>
+ * The memory buffer is allocated only once and never expanded, so the heap footprint of
+ * this buffer remains constant no matter how big the stream is. Data that was spilled
+ * to disk is read back through positional reads on a {@link FileChannel}, which allows
+ * many cursors to randomly access the file concurrently without moving a shared position.
+ * <p>
+ * If {@link FileStoreCursorStreamConfig#isMemoryMapped()}, the buffer file is logically split into
+ * segments of {@link FileStoreCursorStreamConfig#getMemoryMappedSegmentSize()} bytes. Each segment is
+ * mapped into memory as soon as it has been fully written (the last one, once the stream is fully
+ * consumed), and reads over it are served as read-only slices of the mapping. That way, any number of
+ * cursors can read the spilled data without copying it into the heap.
+ * <p>
+ * The temporal file is only created if the stream is bigger than the memory buffer, and
+ * it's deleted when this buffer is closed.
+ *
+ * @since 4.0
+ */
+public class FileStoreInputStreamBuffer extends AbstractInputStreamBuffer {
+
+  private static final int FILE_WRITE_BUFFER_SIZE = KB.toBytes(32);
+
+  private final int maxInMemorySize;
+  private final LazyValue<ByteBuffer> fileWriteBuffer;
+  private final int mappedSegmentSize;
+  private final List<MappedByteBuffer> mappedSegments = new ArrayList<>();
+
+  private File bufferFile;
+  private RandomAccessFile randomAccessFile;
+  private FileChannel fileChannel;
+  private long bufferTip = 0;
+
+  /**
+   * Creates a new instance
+   *
+   * @param stream        the stream to be buffered
+   * @param config        this buffer's configuration
+   * @param bufferManager the {@link ByteBufferManager} that will be used to allocate all buffers
+   */
+  public FileStoreInputStreamBuffer(InputStream stream, FileStoreCursorStreamConfig config, ByteBufferManager bufferManager) {
+    super(stream, bufferManager, config.getMaxInMemorySize().toBytes());
+    maxInMemorySize = config.getMaxInMemorySize().toBytes();
+    mappedSegmentSize = config.isMemoryMapped() ? config.getMemoryMappedSegmentSize().toBytes() : 0;
+    fileWriteBuffer = new LazyValue<>(() -> bufferManager.allocate(FILE_WRITE_BUFFER_SIZE));
+  }
+
+  @Override
+  protected ByteBuffer doGet(long position, int length) {
+    return doGet(position, length, true);
+  }
+
+  private ByteBuffer doGet(long position, int length, boolean consumeStreamIfNecessary) {
+    return withReadLock(releaser -> {
+
+      ByteBuffer presentRead = getFromCurrentData(position, length);
+      if (presentRead != null) {
+        return presentRead;
+      }
+
+      if (consumeStreamIfNecessary) {
+        releaser.release();
+        return withWriteLock(() -> {
+
+          ByteBuffer refetch;
+          refetch = getFromCurrentData(position, length);
+          if (refetch != null) {
+            return refetch;
+          }
+
+          final long requiredUpperBound = position + length;
+          while (!isStreamFullyConsumed() && bufferTip < requiredUpperBound) {
+            try {
+              final int read = consumeForwardData();
+              if (read > 0) {
+                refetch = getFromCurrentData(position, min(length, read));
+                if (refetch != null) {
+                  return refetch;
+                }
+              } else {
+                streamFullyConsumed();
+              }
+            } catch (IOException e) {
+              throw new MuleRuntimeException(createStaticMessage("Could not read stream"), e);
+            }
+          }
+
+          return doGet(position, length, false);
+        });
+      } else {
+        return getFromCurrentData(position, length);
+      }
+    });
+  }
+
+  private ByteBuffer getFromCurrentData(long position, int length) {
+    if (position >= bufferTip) {
+      return null;
+    }
+
+    length = min(length, toIntExact(min(Integer.MAX_VALUE, bufferTip - position)));
+    if (position < maxInMemorySize) {
+      return copy(position, min(length, toIntExact(maxInMemorySize - position)));
+    }
+
+    final long filePosition = position - maxInMemorySize;
+    if (mappedSegmentSize > 0) {
+      ByteBuffer mapped = getFromMappedSegment(filePosition, length);
+      if (mapped != null) {
+        return mapped;
+      }
+    }
+
+    return readFromFile(filePosition, length);
+  }
+
+  private ByteBuffer getFromMappedSegment(long filePosition, int length) {
+    final int segmentIndex = toIntExact(filePosition / mappedSegmentSize);
+    if (segmentIndex >= mappedSegments.size()) {
+      return null;
+    }
+
+    ByteBuffer segment = mappedSegments.get(segmentIndex).asReadOnlyBuffer();
+    final int offset = toIntExact(filePosition % mappedSegmentSize);
+    if (offset >= segment.limit()) {
+      return null;
+    }
+
+    segment.position(offset);
+    segment.limit(min(segment.limit(), offset + length));
+    return segment.slice();
+  }
+
+  /**
+   * Reads data which was already spilled to the buffer file. Because {@link FileChannel#read(ByteBuffer, long)}
+   * doesn't alter the channel's position, this method is safe to be invoked concurrently by many readers.
+   *
+   * @param filePosition the position in the file from which to read
+   * @param length       how many bytes to read
+   * @return a new {@link ByteBuffer} with the read data
+   */
+  private ByteBuffer readFromFile(long filePosition, int length) {
+    ByteBuffer dest = ByteBuffer.allocate(length);
+    try {
+      while (dest.hasRemaining()) {
+        int read = fileChannel.read(dest, filePosition + dest.position());
+        if (read < 0) {
+          break;
+        }
+      }
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not read from file store buffer " + bufferFile), e);
+    }
+
+    dest.flip();
+    return dest;
+  }
+
+  /**
+   * {@inheritDoc}
+   * While the memory buffer has remaining capacity, data is consumed into it. Once it's full, new data is
+   * read into an auxiliary buffer and appended to the buffer file, which is created on demand.
+   */
+  @Override
+  public int consumeForwardData() throws IOException {
+    ByteBuffer b = buffer.get();
+    if (b.hasRemaining()) {
+      int read = consumeStream(b);
+      if (read > 0) {
+        bufferTip += read;
+      }
+      return read;
+    }
+
+    ByteBuffer writeBuffer = fileWriteBuffer.get();
+    writeBuffer.clear();
+    int read = consumeStream(writeBuffer);
+    if (read > 0) {
+      writeBuffer.flip();
+      FileChannel channel = getFileChannel();
+      long filePosition = bufferTip - maxInMemorySize;
+      while (writeBuffer.hasRemaining()) {
+        filePosition += channel.write(writeBuffer, filePosition);
+      }
+      bufferTip += read;
+      mapWrittenSegments(false);
+    }
+
+    return read;
+  }
+
+  /**
+   * {@inheritDoc}
+   * Maps the last, partially filled segment of the buffer file, if any.
+   */
+  @Override
+  protected void streamFullyConsumed() {
+    super.streamFullyConsumed();
+    try {
+      mapWrittenSegments(true);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not memory map file store buffer " + bufferFile), e);
+    }
+  }
+
+  /**
+   * Maps all the segments which have been completely written and not yet mapped.
+   *
+   * @param includeTail whether to also map a trailing segment which is smaller than the segment size
+   */
+  private void mapWrittenSegments(boolean includeTail) throws IOException {
+    if (mappedSegmentSize <= 0 || fileChannel == null) {
+      return;
+    }
+
+    final long fileTip = bufferTip - maxInMemorySize;
+    long segmentStart = (long) mappedSegments.size() * mappedSegmentSize;
+    while (segmentStart < fileTip) {
+      long segmentLength = min(mappedSegmentSize, fileTip - segmentStart);
+      if (segmentLength < mappedSegmentSize && !includeTail) {
+        break;
+      }
+
+      mappedSegments.add(fileChannel.map(READ_ONLY, segmentStart, segmentLength));
+      segmentStart += segmentLength;
+    }
+  }
+
+  private FileChannel getFileChannel() throws IOException {
+    if (fileChannel == null) {
+      bufferFile = createBufferFile(randomUUID().toString());
+      randomAccessFile = new RandomAccessFile(bufferFile, "rw");
+      fileChannel = randomAccessFile.getChannel();
+    }
+
+    return fileChannel;
+  }
+
+  /**
+   * {@inheritDoc}
+   * Closes and deletes the buffer file, if one was created
+   */
+  @Override
+  public void doClose() {
+    fileWriteBuffer.ifComputed(this::deallocate);
+    mappedSegments.clear();
+
+    if (fileChannel != null) {
+      closeSafely(fileChannel::close);
+    }
+
+    if (randomAccessFile != null) {
+      closeSafely(randomAccessFile::close);
+    }
+
+    if (bufferFile != null) {
+      closeSafely(() -> bufferFile.delete());
+    }
+  }
+
+  /**
+   * The memory buffer is never reallocated, so it's always safe to share it
+   *
+   * @return {@code true}
+   */
+  @Override
+  protected boolean canDoSoftCopy() {
+    return true;
+  }
+}
@@ -18,6 +18,7 @@ import static org.mule.runtime.core.internal.util.ConcurrencyUtils.withLock;
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.lifecycle.Disposable;
+import org.mule.runtime.core.api.config.MuleProperties;
 import org.mule.runtime.core.api.streaming.bytes.ByteBufferManager;
 import org.mule.runtime.core.api.util.func.CheckedRunnable;
 import org.mule.runtime.core.internal.streaming.DefaultMemoryManager;
@@ -112,7 +113,15 @@ public class PoolingByteBufferManager implements ByteBufferManager, Disposable {
     this.waitTimeoutMillis = waitTimeoutMillis;
   }
 
-  private long calculateMaxStreamingMemory(MemoryManager memoryManager) {
+  /**
+   * Calculates the maximum amount of memory that can be retained by streaming buffers. That is the value of the
+   * {@link MuleProperties#MULE_STREAMING_MAX_MEMORY} system property if present, or 50% of the {@code memoryManager}'s
+   * max memory otherwise.
+   *
+   * @param memoryManager a {@link MemoryManager} used to determine the runtime's max memory
+   * @return the maximum streaming memory, in bytes
+   */
+  static long calculateMaxStreamingMemory(MemoryManager memoryManager) {
     String maxMemoryProperty = getProperty(MULE_STREAMING_MAX_MEMORY);
     if (maxMemoryProperty == null) {
       return round(memoryManager.getMaxMemory() * 0.5);
@@ -28,6 +28,7 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
       add(o);
       this.notifyAll();
     }
+    afterModification();
   }
 
   @Override
@@ -58,13 +59,15 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
         add(o);
       }
       this.notifyAll();
-      return true;
     }
+    afterModification();
+    return true;
   }
 
   @Override
   public final Serializable poll(long timeout) throws InterruptedException {
     checkInterrupted();
+    Serializable o;
     synchronized (this) {
       long l1 = timeout > 0L ? System.currentTimeMillis() : 0L;
       long l2 = timeout;
@@ -76,10 +79,11 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
         l2 = timeout - (System.currentTimeMillis() - l1);
       }
 
-      Serializable o = removeFirst();
+      o = removeFirst();
       this.notifyAll();
-      return o;
     }
+    afterModification();
+    return o;
   }
 
   @Override
@@ -101,6 +105,7 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
       addFirst(item);
       this.notifyAll();
     }
+    afterModification();
   }
 
   @Override
@@ -109,15 +114,18 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
     synchronized (this) {
       doClear();
     }
+    afterModification();
   }
 
   @Override
   public final boolean addAll(Collection<? extends Serializable> items) {
+    boolean result;
     synchronized (this) {
-      boolean result = doAddAll(items);
+      result = doAddAll(items);
       this.notifyAll();
-      return result;
     }
+    afterModification();
+    return result;
   }
 
   private void checkInterrupted() throws InterruptedException {
@@ -133,6 +141,12 @@ public abstract class AbstractQueueStoreDelegate implements QueueStoreDelegate {
     }
   }
 
+  /**
+   * Invoked after each operation which modifies the queue, once the lock of this delegate has been released. Implementations
+   * may wait here for the modification to be durable without blocking other operations on the queue in the meantime.
+   */
+  protected void afterModification() {}
+
   /**
    * @return the number of elements in the queue
    */
@@ -95,6 +95,15 @@ public class DualRandomAccessFileQueueStoreDelegate extends AbstractQueueStoreDe
     return new File(getQueuesDirectory(workingDirectory), queueName + QUEUE_STORE_1_SUFFIX);
   }
 
+  /**
+   * @param queueName        the name of the queue
+   * @param workingDirectory the working directory of the application
+   * @return whether the files of a queue stored by this delegate exist
+   */
+  static boolean hasQueueFiles(String queueName, String workingDirectory) {
+    return QueueFileProvider.exists(getQueuesDirectory(workingDirectory), queueName + QUEUE_DATA_CONTROL_SUFFIX);
+  }
+
   @Override
   protected void addFirst(Serializable item) throws InterruptedException {
     switchWriteFileIfFull();
@@ -24,12 +24,25 @@ import java.math.BigInteger;
 public class QueueFileProvider {
 
   private static final String OPEN_FILE_OPTIONS = "rws";
+  private static final String UNSYNCHRONIZED_OPEN_FILE_OPTIONS = "rw";
 
   private final boolean newFile;
+  private final String openFileOptions;
   private File file;
-  private RandomAccessFile queueFile;
+  private volatile RandomAccessFile queueFile;
 
   public QueueFileProvider(File storeDirectory, String fileName) {
+    this(storeDirectory, fileName, true);
+  }
+
+  /**
+   * @param storeDirectory    the directory in which the file is located
+   * @param fileName          the name of the file
+   * @param synchronousWrites whether every write to the file must be synchronously written to the storage device. If
+   *                          {@code false}, it's up to the user of the file to force the writes when needed.
+   */
+  public QueueFileProvider(File storeDirectory, String fileName, boolean synchronousWrites) {
+    this.openFileOptions = synchronousWrites ? OPEN_FILE_OPTIONS : UNSYNCHRONIZED_OPEN_FILE_OPTIONS;
     this.file = new File(storeDirectory, fileName);
     newFile = !this.file.exists();
     try {
@@ -56,7 +69,7 @@ public class QueueFileProvider {
     if (!file.exists()) {
       file.createNewFile();
     }
-    queueFile = new RandomAccessFile(file, OPEN_FILE_OPTIONS);
+    queueFile = new RandomAccessFile(file, openFileOptions);
   }
 
   private static String toHex(String filename) {
@@ -68,6 +81,25 @@ public class QueueFileProvider {
     }
   }
 
+  /**
+   * Checks whether a file with the given name was already created in the given directory by a {@link QueueFileProvider},
+   * without creating it.
+   *
+   * @param storeDirectory the directory in which the file is located
+   * @param fileName       the name of the file
+   * @return true if the file exists, false otherwise
+   */
+  public static boolean exists(File storeDirectory, String fileName) {
+    try {
+      if (new File(storeDirectory, fileName).exists()) {
+        return true;
+      }
+    } catch (Exception e) {
+      // invalid file name, look for the hex representation
+    }
+    return new File(storeDirectory, toHex(fileName)).exists();
+  }
+
   /**
    * @return file descriptor for the underlying file
    */
@@ -6,13 +6,22 @@
  */
 package org.mule.runtime.core.internal.util.queue;
 
+import static java.util.Collections.singletonList;
 import org.mule.runtime.api.exception.MuleRuntimeException;
 
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
 import java.io.EOFException;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.ClosedByInterruptException;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
@@ -21,6 +30,14 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Basic queueing functionality with file storage.
+ * <p/>
+ * All file access is done through positional reads and writes on the file's {@link FileChannel}. The position of each
+ * element in the file is kept in memory in queue order, so that reading, removing or searching elements never requires
+ * scanning the file.
+ * <p/>
+ * Elements added through {@link #addAll(Collection)} are written with a single write operation. If {@code forceWrites} is
+ * enabled, each write operation is followed by a single {@link FileChannel#force(boolean)}, so the cost of syncing the file is
+ * paid once per batch instead of once per element.
  */
 class RandomAccessFileQueueStore {
 
@@ -30,12 +47,22 @@ class RandomAccessFileQueueStore {
   private static final byte NOT_REMOVED = 0;
   private static final byte REMOVED = 1;
   private final QueueFileProvider queueFileProvider;
+  private final boolean forceWrites;
 
   private LinkedList<Long> orderedKeys = new LinkedList<>();
   private long fileTotalSpace = 0;
 
   public RandomAccessFileQueueStore(QueueFileProvider queueFileProvider) {
+    this(queueFileProvider, false);
+  }
+
+  /**
+   * @param queueFileProvider provider of the file in which the elements are stored
+   * @param forceWrites       whether to force each write operation to the storage device
+   */
+  public RandomAccessFileQueueStore(QueueFileProvider queueFileProvider, boolean forceWrites) {
     this.queueFileProvider = queueFileProvider;
+    this.forceWrites = forceWrites;
     initialise();
   }
 
@@ -52,8 +79,7 @@ class RandomAccessFileQueueStore {
    * @param element element to add
    */
   public synchronized void addLast(byte[] element) {
-    long filePointer = writeData(element);
-    orderedKeys.addLast(filePointer);
+    orderedKeys.addAll(writeData(singletonList(element)));
   }
 
   /**
@@ -68,9 +94,8 @@ class RandomAccessFileQueueStore {
         return null;
       }
       Long filePosition = orderedKeys.getFirst();
-      queueFileProvider.getRandomAccessFile().seek(filePosition);
-      queueFileProvider.getRandomAccessFile().writeByte(RandomAccessFileQueueStore.REMOVED);
-      byte[] data = readDataInCurrentPosition();
+      byte[] data = readData(filePosition);
+      markRemoved(filePosition);
       orderedKeys.removeFirst();
       return data;
     } catch (IOException e) {
@@ -95,7 +120,7 @@ class RandomAccessFileQueueStore {
    * @throws InterruptedException
    */
   public synchronized void addFirst(byte[] item) throws InterruptedException {
-    orderedKeys.addFirst(writeData(item));
+    orderedKeys.addFirst(writeData(singletonList(item)).get(0));
   }
 
   /**
@@ -120,14 +145,14 @@ class RandomAccessFileQueueStore {
   }
 
   /**
-   * Adds a collection of elements at the end of the queue.
+   * Adds a collection of elements at the end of the queue, using a single write operation.
    *
    * @param items collection of elements to add.
    * @return true if it were able to add them all, false otherwise.
    */
   public synchronized boolean addAll(Collection<? extends byte[]> items) {
-    for (byte[] item : items) {
-      addLast(item);
+    if (!items.isEmpty()) {
+      orderedKeys.addAll(writeData(items));
     }
     return true;
   }
@@ -140,14 +165,8 @@ class RandomAccessFileQueueStore {
   public synchronized Collection<byte[]> allElements() {
     List<byte[]> elements = new LinkedList<>();
     try {
-      queueFileProvider.getRandomAccessFile().seek(0);
-      while (true) {
-        boolean removed = queueFileProvider.getRandomAccessFile().readBoolean();
-        if (!removed) {
-          elements.add(readDataInCurrentPosition());
-        } else {
-          moveFilePointerToNextData();
-        }
+      for (Long filePosition : orderedKeys) {
+        elements.add(readData(filePosition));
       }
     } catch (IOException e) {
       if (logger.isDebugEnabled()) {
@@ -173,24 +192,15 @@ class RandomAccessFileQueueStore {
    */
   public synchronized boolean remove(RawDataSelector rawDataSelector) {
     try {
-      queueFileProvider.getRandomAccessFile().seek(0);
-      while (true) {
-        long currentPosition = queueFileProvider.getRandomAccessFile().getFilePointer();
-        byte removed = queueFileProvider.getRandomAccessFile().readByte();
-        if (removed == 0) {
-          byte[] data = readDataInCurrentPosition();
-          if (rawDataSelector.isSelectedData(data)) {
-            queueFileProvider.getRandomAccessFile().seek(currentPosition);
-            queueFileProvider.getRandomAccessFile().writeByte(REMOVED);
-            orderedKeys.remove(currentPosition);
-            return true;
-          }
+      Iterator<Long> iterator = orderedKeys.iterator();
+      while (iterator.hasNext()) {
+        Long filePosition = iterator.next();
+        if (rawDataSelector.isSelectedData(readData(filePosition))) {
+          markRemoved(filePosition);
+          iterator.remove();
+          return true;
         }
       }
-    } catch (EOFException e) {
-      if (logger.isDebugEnabled()) {
-        logger.debug("Error removing queue element", e);
-      }
       return false;
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -217,6 +227,25 @@ class RandomAccessFileQueueStore {
     }
   }
 
+  /**
+   * Forces the writes done so far to the storage device, regardless of {@code forceWrites}. Does nothing once this queue has
+   * been {@link #close() closed}.
+   * <p>
+   * Not synchronized, so that forcing the file doesn't hold back the threads adding or removing elements meanwhile.
+   */
+  public void force() {
+    try {
+      getChannel().force(false);
+    } catch (ClosedByInterruptException e) {
+      // the writes may not have been forced
+      throw new MuleRuntimeException(e);
+    } catch (ClosedChannelException e) {
+      // closed meanwhile, nothing left to force
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+  }
+
   /**
    * Deletes the files backing this queue. This method must only be invoked after {@link #close()} has been executed on
    * {@code this} instance
@@ -225,78 +254,128 @@ class RandomAccessFileQueueStore {
     queueFileProvider.delete();
   }
 
-  private byte[] readDataInCurrentPosition() throws IOException {
-    int serializedValueSize = queueFileProvider.getRandomAccessFile().readInt();
-    byte[] data = new byte[serializedValueSize];
-    queueFileProvider.getRandomAccessFile().read(data, 0, serializedValueSize);
-    return data;
+  private FileChannel getChannel() {
+    return queueFileProvider.getRandomAccessFile().getChannel();
+  }
+
+  private byte[] readData(long filePosition) throws IOException {
+    ByteBuffer sizeBuffer = ByteBuffer.allocate(CONTROL_DATA_SIZE - 1);
+    readFully(sizeBuffer, filePosition + 1);
+    ByteBuffer data = ByteBuffer.allocate(sizeBuffer.getInt(0));
+    readFully(data, filePosition + CONTROL_DATA_SIZE);
+    return data.array();
+  }
+
+  private void readFully(ByteBuffer buffer, long position) throws IOException {
+    FileChannel channel = getChannel();
+    while (buffer.hasRemaining()) {
+      int read = channel.read(buffer, position);
+      if (read < 0) {
+        throw new EOFException("Unexpected end of queue file " + getFile().getAbsolutePath());
+      }
+      position += read;
+    }
+  }
+
+  private void markRemoved(long filePosition) throws IOException {
+    FileChannel channel = getChannel();
+    channel.write(ByteBuffer.wrap(new byte[] {REMOVED}), filePosition);
+    if (forceWrites) {
+      channel.force(false);
+    }
   }
 
-  private long writeData(byte[] data) {
+  /**
+   * Appends the given elements at the end of the file in a single write operation
+   *
+   * @param elements the elements to write
+   * @return the position in the file of each written element
+   */
+  private List<Long> writeData(Collection<? extends byte[]> elements) {
     try {
-      if (getSize() > 0) {
-        queueFileProvider.getRandomAccessFile().seek(fileTotalSpace);
+      int totalBytesRequired = 0;
+      for (byte[] data : elements) {
+        totalBytesRequired += CONTROL_DATA_SIZE + data.length;
       }
-      long filePointer = queueFileProvider.getRandomAccessFile().getFilePointer();
-      int totalBytesRequired = CONTROL_DATA_SIZE + data.length;
+
+      List<Long> filePointers = new ArrayList<>(elements.size());
       ByteBuffer byteBuffer = ByteBuffer.allocate(totalBytesRequired);
-      byteBuffer.put(NOT_REMOVED);
-      byteBuffer.putInt(data.length);
-      byteBuffer.put(data);
-      queueFileProvider.getRandomAccessFile().write(byteBuffer.array());
+      for (byte[] data : elements) {
+        filePointers.add(fileTotalSpace + byteBuffer.position());
+        byteBuffer.put(NOT_REMOVED);
+        byteBuffer.putInt(data.length);
+        byteBuffer.put(data);
+      }
+      byteBuffer.flip();
+
+      FileChannel channel = getChannel();
+      long position = fileTotalSpace;
+      while (byteBuffer.hasRemaining()) {
+        position += channel.write(byteBuffer, position);
+      }
+      if (forceWrites) {
+        channel.force(false);
+      }
       fileTotalSpace += totalBytesRequired;
-      return filePointer;
+      return filePointers;
     } catch (IOException e) {
       throw new MuleRuntimeException(e);
     }
   }
 
+  /**
+   * Scans the file to find the elements which were not removed. If the last record is incomplete (i.e., the process died while
+   * writing it), the file is truncated at the end of the last complete record.
+   */
   private void initialise() {
-    try {
-      queueFileProvider.getRandomAccessFile().seek(0);
-      while (true) {
-        long position = queueFileProvider.getRandomAccessFile().getFilePointer();
-        byte removed = queueFileProvider.getRandomAccessFile().readByte();
+    long position = 0;
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(getFile())))) {
+      final long fileLength = getChannel().size();
+      while (fileLength - position >= CONTROL_DATA_SIZE) {
+        byte removed = input.readByte();
+        int serializedValueSize = input.readInt();
+        if (serializedValueSize < 0 || fileLength - position - CONTROL_DATA_SIZE < serializedValueSize) {
+          break;
+        }
         if (removed == NOT_REMOVED) {
           orderedKeys.add(position);
-          moveFilePointerToNextData();
-        } else {
-          moveFilePointerToNextData();
         }
+        skipFully(input, serializedValueSize);
+        position += CONTROL_DATA_SIZE + serializedValueSize;
       }
-    } catch (EOFException e) {
-      try {
-        fileTotalSpace = queueFileProvider.getRandomAccessFile().length();
-      } catch (IOException ioe) {
-        throw new MuleRuntimeException(e);
-      }
-      if (logger.isDebugEnabled()) {
-        logger.debug("Error initializing queue store", e);
+
+      if (position < fileLength) {
+        logger.warn("Found incomplete data at the end of queue file {}. It will be discarded", getFile().getAbsolutePath());
+        getChannel().truncate(position);
       }
+      fileTotalSpace = position;
     } catch (Exception e) {
       throw new MuleRuntimeException(e);
     }
   }
 
+  private void skipFully(DataInputStream input, int length) throws IOException {
+    int skipped = 0;
+    while (skipped < length) {
+      int count = input.skipBytes(length - skipped);
+      if (count <= 0) {
+        throw new EOFException();
+      }
+      skipped += count;
+    }
+  }
+
   private byte[] readFirstValue() {
     try {
       if (orderedKeys.isEmpty()) {
         return null;
       }
-      Long filePointer = orderedKeys.getFirst();
-      queueFileProvider.getRandomAccessFile().seek(filePointer);
-      queueFileProvider.getRandomAccessFile().readByte(); // Always true since it's a key
-      return readDataInCurrentPosition();
+      return readData(orderedKeys.getFirst());
     } catch (IOException e) {
       throw new MuleRuntimeException(e);
     }
   }
 
-  private void moveFilePointerToNextData() throws IOException {
-    int serializedValueSize = queueFileProvider.getRandomAccessFile().readInt();
-    queueFileProvider.getRandomAccessFile().seek(queueFileProvider.getRandomAccessFile().getFilePointer() + serializedValueSize);
-  }
-
   /**
    * @return the length of the file in bytes.
    */
@@ -312,22 +391,11 @@ class RandomAccessFileQueueStore {
    */
   public synchronized boolean contains(RawDataSelector rawDataSelector) {
     try {
-      queueFileProvider.getRandomAccessFile().seek(0);
-      while (true) {
-        byte removed = queueFileProvider.getRandomAccessFile().readByte();
-        if (removed == NOT_REMOVED) {
-          byte[] data = readDataInCurrentPosition();
-          if (rawDataSelector.isSelectedData(data)) {
-            return true;
-          }
-        } else {
-          moveFilePointerToNextData();
+      for (Long filePosition : orderedKeys) {
+        if (rawDataSelector.isSelectedData(readData(filePosition))) {
+          return true;
         }
       }
-    } catch (EOFException e) {
-      if (logger.isDebugEnabled()) {
-        logger.debug("Cannot determine if element is contained in the queue store", e);
-      }
       return false;
     } catch (IOException e) {
       throw new RuntimeException(e);
@@ -0,0 +1,466 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.util.queue;
+
+import static java.lang.Boolean.parseBoolean;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.lang.System.getProperty;
+import static org.mule.runtime.core.internal.util.queue.DualRandomAccessFileQueueStoreDelegate.MAX_LENGTH_PER_FILE_PROPERTY_KEY;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.util.Preconditions;
+import org.mule.runtime.core.api.MuleContext;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * {@link TransactionalQueueStoreDelegate} implementation which stores the queue data in a sequence of segment files.
+ * <p/>
+ * Entries are appended to the last segment until it reaches {@link DualRandomAccessFileQueueStoreDelegate#MAX_LENGTH_PER_FILE_PROPERTY_KEY}
+ * bytes, in which case a new segment is started. Entries are consumed from the first segment, which is deleted as soon as all
+ * its entries have been consumed. Segments are numbered sequentially and the number of the first one is kept in a control file,
+ * so the queue can be restored by opening the segments from that number on.
+ * <p/>
+ * Segment files are not synchronously written. Instead, unless {@link #FORCE_WRITES_PROPERTY_KEY} is set to {@code false}, each
+ * operation which modifies the queue waits, once the lock of the queue has been released, until its writes are forced to the
+ * storage device. Forcing is done through group commit: the first waiting thread forces every segment written since the last
+ * time, which covers the writes of all the threads waiting along with it, while further writes keep being done in the
+ * meantime. That way, concurrent producers and consumers share syncs instead of paying one each, and adding many items at once
+ * through {@link #addAll(Collection)} only syncs the file once.
+ * <p/>
+ * If the files of a queue stored by a {@link DualRandomAccessFileQueueStoreDelegate} are found, its entries are moved into the
+ * segments and the old files are deleted.
+ *
+ * @since 4.0
+ */
+public class SegmentedFileQueueStoreDelegate extends AbstractQueueStoreDelegate implements TransactionalQueueStoreDelegate {
+
+  public static final String FORCE_WRITES_PROPERTY_KEY = "mule.queue.forceWrites";
+  private static final int ONE_MEGABYTE = 1024 * 1024;
+  private static final String QUEUE_STORE_DIRECTORY = "queuestore";
+  private static final String SEGMENT_SUFFIX = "-seg-";
+  private static final String QUEUE_DATA_CONTROL_SUFFIX = "-seg-crl";
+
+  protected final Logger logger = LoggerFactory.getLogger(this.getClass());
+  private final String queueName;
+  private final File queuesDirectory;
+  private final ObjectSerializer serializer;
+  private final long maxSegmentLength;
+  private final boolean forceWrites;
+  private final QueueFileProvider controlFileProvider;
+  private final Deque<RandomAccessFileQueueStore> segments = new ArrayDeque<>();
+  private long firstSegmentNumber;
+
+  // segments written since they were last forced, and the number of writes done so far, both guarded by this delegate's lock
+  private final Set<RandomAccessFileQueueStore> unforcedSegments = new HashSet<>();
+  private volatile long writeSequence = 0;
+
+  // the number of writes known to be forced and whether a thread is currently forcing, both guarded by the commit lock
+  private final Object commitLock = new Object();
+  private long forcedSequence = 0;
+  private boolean forcing = false;
+
+  public SegmentedFileQueueStoreDelegate(String queueName, String workingDirectory, MuleContext muleContext, int capacity) {
+    super(capacity);
+    this.queueName = queueName;
+    serializer = muleContext.getObjectSerializer();
+    maxSegmentLength = parseInt(getProperty(MAX_LENGTH_PER_FILE_PROPERTY_KEY, String.valueOf(ONE_MEGABYTE)));
+    forceWrites = parseBoolean(getProperty(FORCE_WRITES_PROPERTY_KEY, "true"));
+    queuesDirectory = getQueuesDirectory(workingDirectory);
+    if (!queuesDirectory.exists()) {
+      Preconditions.checkState(queuesDirectory.mkdirs(),
+                               "Could not create queue store directory " + queuesDirectory.getAbsolutePath());
+    }
+
+    controlFileProvider = new QueueFileProvider(queuesDirectory, queueName + QUEUE_DATA_CONTROL_SUFFIX);
+    firstSegmentNumber = readFirstSegmentNumber();
+    openSegments();
+
+    if (DualRandomAccessFileQueueStoreDelegate.hasQueueFiles(queueName, workingDirectory)) {
+      moveEntriesFrom(new DualRandomAccessFileQueueStoreDelegate(queueName, workingDirectory, muleContext, capacity));
+    }
+
+    if (logger.isDebugEnabled()) {
+      logger.debug(format("Queue %s has %s messages in %s segments", queueName, size(), segments.size()));
+    }
+  }
+
+  private static File getQueuesDirectory(String workingDirectory) {
+    return new File(workingDirectory + File.separator + QUEUE_STORE_DIRECTORY);
+  }
+
+  public static File getFirstQueueFileForTesting(String queueName, String workingDirectory) {
+    return new File(getQueuesDirectory(workingDirectory), queueName + SEGMENT_SUFFIX + 0);
+  }
+
+  private long readFirstSegmentNumber() {
+    if (controlFileProvider.isNewFile()) {
+      writeFirstSegmentNumber(0);
+      return 0;
+    }
+
+    try {
+      controlFileProvider.getRandomAccessFile().seek(0);
+      return controlFileProvider.getRandomAccessFile().readLong();
+    } catch (IOException e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug("failure reading queue control data from file " + controlFileProvider.getFile().getAbsolutePath(), e);
+      }
+      // perhaps mule crashed while this file was written. Start from the lowest numbered segment found.
+      long segmentNumber = findLowestSegmentNumber();
+      writeFirstSegmentNumber(segmentNumber);
+      return segmentNumber;
+    }
+  }
+
+  private long findLowestSegmentNumber() {
+    final String segmentPrefix = queueName + SEGMENT_SUFFIX;
+    long lowestSegmentNumber = -1;
+    File[] files = queuesDirectory.listFiles((dir, name) -> name.startsWith(segmentPrefix));
+    if (files != null) {
+      for (File file : files) {
+        try {
+          long segmentNumber = parseLong(file.getName().substring(segmentPrefix.length()));
+          if (lowestSegmentNumber < 0 || segmentNumber < lowestSegmentNumber) {
+            lowestSegmentNumber = segmentNumber;
+          }
+        } catch (NumberFormatException e) {
+          // not a segment of this queue
+        }
+      }
+    }
+    return lowestSegmentNumber < 0 ? 0 : lowestSegmentNumber;
+  }
+
+  private void writeFirstSegmentNumber(long segmentNumber) {
+    try {
+      controlFileProvider.getRandomAccessFile().seek(0);
+      controlFileProvider.getRandomAccessFile().writeLong(segmentNumber);
+      firstSegmentNumber = segmentNumber;
+    } catch (IOException e) {
+      throw new MuleRuntimeException(e);
+    }
+  }
+
+  private void openSegments() {
+    // a crash right after updating the control data may have left the previous segment behind
+    if (firstSegmentNumber > 0 && segmentExists(firstSegmentNumber - 1)) {
+      RandomAccessFileQueueStore drainedSegment = createSegment(firstSegmentNumber - 1);
+      drainedSegment.close();
+      drainedSegment.delete();
+    }
+
+    long segmentNumber = firstSegmentNumber;
+    do {
+      segments.addLast(createSegment(segmentNumber++));
+    } while (segmentExists(segmentNumber));
+  }
+
+  private boolean segmentExists(long segmentNumber) {
+    return QueueFileProvider.exists(queuesDirectory, getSegmentName(segmentNumber));
+  }
+
+  private String getSegmentName(long segmentNumber) {
+    return queueName + SEGMENT_SUFFIX + segmentNumber;
+  }
+
+  private RandomAccessFileQueueStore createSegment(long segmentNumber) {
+    return new RandomAccessFileQueueStore(new QueueFileProvider(queuesDirectory, getSegmentName(segmentNumber), false));
+  }
+
+  private void moveEntriesFrom(DualRandomAccessFileQueueStoreDelegate legacyQueue) {
+    try {
+      // entries are removed from the old queue once they are stored in the new one, so none is lost in case of a crash
+      while (!legacyQueue.isEmpty()) {
+        add(legacyQueue.getFirst());
+        afterModification();
+        legacyQueue.removeFirst();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MuleRuntimeException(e);
+    }
+    legacyQueue.dispose();
+  }
+
+  private RandomAccessFileQueueStore getLastSegment() {
+    RandomAccessFileQueueStore lastSegment = segments.getLast();
+    if (lastSegment.getLength() >= maxSegmentLength) {
+      lastSegment = createSegment(firstSegmentNumber + segments.size());
+      segments.addLast(lastSegment);
+      if (logger.isDebugEnabled()) {
+        logger.debug(format("Queue %s started segment %s", queueName, lastSegment.getFile().getName()));
+      }
+    }
+    return lastSegment;
+  }
+
+  /**
+   * Deletes the first segments for as long as they are empty and there's a following segment.
+   *
+   * @return the first segment
+   */
+  private RandomAccessFileQueueStore getFirstSegment() {
+    while (segments.size() > 1 && segments.getFirst().isEmpty()) {
+      RandomAccessFileQueueStore drainedSegment = segments.removeFirst();
+      writeFirstSegmentNumber(firstSegmentNumber + 1);
+      deleteSegment(drainedSegment);
+    }
+    return segments.getFirst();
+  }
+
+  private void deleteSegment(RandomAccessFileQueueStore segment) {
+    unforcedSegments.remove(segment);
+    segment.close();
+    segment.delete();
+  }
+
+  private void written(RandomAccessFileQueueStore segment) {
+    if (forceWrites) {
+      unforcedSegments.add(segment);
+      writeSequence++;
+    }
+  }
+
+  /**
+   * Waits until all the writes done so far are forced to the storage device, forcing them if no other thread is already doing
+   * so.
+   */
+  @Override
+  protected void afterModification() {
+    if (!forceWrites) {
+      return;
+    }
+
+    long sequence = writeSequence;
+    boolean interrupted = false;
+    try {
+      synchronized (commitLock) {
+        while (forcedSequence < sequence && forcing) {
+          try {
+            commitLock.wait();
+          } catch (InterruptedException e) {
+            interrupted = true;
+          }
+        }
+        if (forcedSequence >= sequence) {
+          return;
+        }
+        forcing = true;
+      }
+
+      forceWrittenSegments();
+    } finally {
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+
+  private void forceWrittenSegments() {
+    long sequence;
+    List<RandomAccessFileQueueStore> segmentsToForce;
+    synchronized (this) {
+      sequence = writeSequence;
+      segmentsToForce = new ArrayList<>(unforcedSegments);
+      unforcedSegments.clear();
+    }
+
+    boolean forced = false;
+    try {
+      segmentsToForce.forEach(RandomAccessFileQueueStore::force);
+      forced = true;
+    } finally {
+      if (!forced) {
+        synchronized (this) {
+          unforcedSegments.addAll(segmentsToForce);
+        }
+      }
+      synchronized (commitLock) {
+        if (forced && sequence > forcedSequence) {
+          forcedSequence = sequence;
+        }
+        forcing = false;
+        commitLock.notifyAll();
+      }
+    }
+  }
+
+  @Override
+  protected void addFirst(Serializable item) throws InterruptedException {
+    RandomAccessFileQueueStore segment = getFirstSegment();
+    segment.addFirst(serializer.getInternalProtocol().serialize(item));
+    written(segment);
+  }
+
+  @Override
+  protected void add(Serializable item) {
+    RandomAccessFileQueueStore segment = getLastSegment();
+    segment.addLast(serializer.getInternalProtocol().serialize(item));
+    written(segment);
+  }
+
+  @Override
+  protected boolean doAddAll(Collection<? extends Serializable> items) {
+    List<byte[]> serializedItems = new ArrayList<>(items.size());
+    for (Serializable item : items) {
+      serializedItems.add(serializer.getInternalProtocol().serialize(item));
+    }
+    RandomAccessFileQueueStore segment = getLastSegment();
+    boolean added = segment.addAll(serializedItems);
+    written(segment);
+    return added;
+  }
+
+  @Override
+  protected Serializable removeFirst() throws InterruptedException {
+    if (isEmpty()) {
+      return null;
+    }
+    RandomAccessFileQueueStore segment = getFirstSegment();
+    byte[] data = segment.removeFirst();
+    written(segment);
+    return deserialize(data);
+  }
+
+  @Override
+  protected Serializable getFirst() throws InterruptedException {
+    if (isEmpty()) {
+      return null;
+    }
+    return deserialize(getFirstSegment().getFirst());
+  }
+
+  @Override
+  public synchronized int size() {
+    int size = 0;
+    for (RandomAccessFileQueueStore segment : segments) {
+      size += segment.getSize();
+    }
+    return size;
+  }
+
+  @Override
+  protected synchronized boolean isEmpty() {
+    for (RandomAccessFileQueueStore segment : segments) {
+      if (!segment.isEmpty()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized void doClear() {
+    while (segments.size() > 1) {
+      RandomAccessFileQueueStore segment = segments.removeFirst();
+      writeFirstSegmentNumber(firstSegmentNumber + 1);
+      deleteSegment(segment);
+    }
+    segments.getFirst().clear();
+  }
+
+  public synchronized Collection<Serializable> allElements() {
+    List<Serializable> elements = new LinkedList<>();
+    for (RandomAccessFileQueueStore segment : segments) {
+      for (byte[] valueAsBytes : segment.allElements()) {
+        try {
+          elements.add(deserialize(valueAsBytes));
+        } catch (Exception e) {
+          logger.warn("Failure trying to deserialize value " + e.getMessage());
+          if (logger.isDebugEnabled()) {
+            logger.debug("Failure trying to deserialize value", e);
+          }
+        }
+      }
+    }
+    return elements;
+  }
+
+  private Serializable deserialize(byte[] valuesAsBytes) {
+    return serializer.getInternalProtocol().deserialize(valuesAsBytes);
+  }
+
+  @Override
+  public void remove(Serializable value) {
+    RawDataSelector rawDataSelector = createDataSelector(value);
+    synchronized (this) {
+      for (RandomAccessFileQueueStore segment : segments) {
+        if (segment.remove(rawDataSelector)) {
+          written(segment);
+          break;
+        }
+      }
+    }
+    afterModification();
+  }
+
+  private RawDataSelector createDataSelector(final Serializable value) {
+    return data -> deserialize(data).equals(value);
+  }
+
+  @Override
+  public synchronized boolean contains(Serializable value) {
+    RawDataSelector rawDataSelector = createDataSelector(value);
+    for (RandomAccessFileQueueStore segment : segments) {
+      if (segment.contains(rawDataSelector)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  @Override
+  public synchronized void close() {
+    for (RandomAccessFileQueueStore segment : segments) {
+      segment.close();
+    }
+    closeControlFile();
+  }
+
+  private void closeControlFile() {
+    try {
+      controlFileProvider.close();
+    } catch (IOException e) {
+      logger.warn("failure closing queue data control file: " + e.getMessage());
+      if (logger.isDebugEnabled()) {
+        logger.debug("Failure closing queue data control file", e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   */
+  @Override
+  public synchronized void dispose() {
+    close();
+    Iterator<RandomAccessFileQueueStore> iterator = segments.iterator();
+    while (iterator.hasNext()) {
+      iterator.next().delete();
+      iterator.remove();
+    }
+    unforcedSegments.clear();
+    controlFileProvider.delete();
+  }
+}
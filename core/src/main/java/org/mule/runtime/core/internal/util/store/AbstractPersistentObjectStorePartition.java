@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.util.store;
+
+import static org.apache.commons.io.FileUtils.readFileToString;
+import static org.mule.runtime.core.api.config.i18n.CoreMessages.failedToCreate;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.serialization.ObjectSerializer;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
+import org.mule.runtime.api.store.TemplateObjectStore;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.internal.store.ExpirableObjectStore;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Serializable;
+
+/**
+ * Base class for partitions of a {@link org.mule.runtime.core.internal.store.PartitionedPersistentObjectStore}.
+ * <p>
+ * Each partition lives in its own directory, which contains a descriptor file holding the partition's name. How the
+ * partition's entries are laid out in that directory is up to each implementation.
+ *
+ * @since 4.0
+ */
+public abstract class AbstractPersistentObjectStorePartition<T extends Serializable> extends TemplateObjectStore<T>
+    implements ExpirableObjectStore<T> {
+
+  protected static final String PARTITION_DESCRIPTOR_FILE = "partition-descriptor";
+
+  protected final MuleContext muleContext;
+  protected final ObjectSerializer serializer;
+  protected final File partitionDirectory;
+  private String partitionName;
+
+  /**
+   * Creates a new partition
+   *
+   * @param muleContext        the owning {@link MuleContext}
+   * @param partitionName      the name of the partition
+   * @param partitionDirectory the directory in which the partition is stored
+   */
+  protected AbstractPersistentObjectStorePartition(MuleContext muleContext, String partitionName, File partitionDirectory) {
+    this.muleContext = muleContext;
+    serializer = muleContext.getObjectSerializer();
+    this.partitionName = partitionName;
+    this.partitionDirectory = partitionDirectory;
+  }
+
+  /**
+   * Restores a partition which was previously stored in the given {@code partitionDirectory}
+   *
+   * @param muleContext        the owning {@link MuleContext}
+   * @param partitionDirectory the directory in which the partition is stored
+   * @throws ObjectStoreNotAvailableException if the partition descriptor cannot be read
+   */
+  protected AbstractPersistentObjectStorePartition(MuleContext muleContext, File partitionDirectory)
+      throws ObjectStoreNotAvailableException {
+    this.muleContext = muleContext;
+    serializer = muleContext.getObjectSerializer();
+    this.partitionDirectory = partitionDirectory;
+    this.partitionName = readPartitionFileName(partitionDirectory);
+  }
+
+  private String readPartitionFileName(File partitionDirectory) throws ObjectStoreNotAvailableException {
+    File partitionDescriptorFile = new File(partitionDirectory, PARTITION_DESCRIPTOR_FILE);
+    try {
+      return readFileToString(partitionDescriptorFile);
+    } catch (IOException e) {
+      throw new ObjectStoreNotAvailableException(e);
+    }
+  }
+
+  @Override
+  public synchronized void open() throws ObjectStoreException {
+    createDirectory(partitionDirectory);
+    createOrRetrievePartitionDescriptorFile();
+  }
+
+  @Override
+  public boolean isPersistent() {
+    return true;
+  }
+
+  protected void createDirectory(File directory) throws ObjectStoreException {
+    try {
+      // To support concurrency we need to check if directory exists again
+      // inside
+      // synchronized method
+      if (!directory.exists() && !directory.mkdirs()) {
+        throw new MuleRuntimeException(failedToCreate("object store directory " + directory.getAbsolutePath()));
+      }
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  protected File createOrRetrievePartitionDescriptorFile() throws ObjectStoreException {
+    try {
+      File partitionDescriptorFile = new File(partitionDirectory, PARTITION_DESCRIPTOR_FILE);
+      if (partitionDescriptorFile.exists()) {
+        this.partitionName = readPartitionFileName(partitionDirectory);
+        return partitionDescriptorFile;
+      }
+      FileWriter fileWriter = new FileWriter(partitionDescriptorFile.getAbsolutePath(), false);
+      try {
+        fileWriter.write(partitionName);
+        fileWriter.flush();
+      } finally {
+        fileWriter.close();
+      }
+      return partitionDescriptorFile;
+    } catch (Exception e) {
+      throw new ObjectStoreException(e);
+    }
+  }
+
+  public String getPartitionName() {
+    return partitionName;
+  }
+}
@@ -0,0 +1,974 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+
+package org.mule.runtime.core.internal.util.store;
+
+import static java.lang.Long.parseLong;
+import static java.lang.String.format;
+import static java.lang.System.currentTimeMillis;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+import static java.util.Collections.unmodifiableList;
+import static java.util.Comparator.comparingLong;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.api.util.DataUnit.KB;
+import static org.mule.runtime.api.util.DataUnit.MB;
+import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
+import static org.slf4j.LoggerFactory.getLogger;
+import org.mule.runtime.api.store.ObjectAlreadyExistsException;
+import org.mule.runtime.api.store.ObjectDoesNotExistException;
+import org.mule.runtime.api.store.ObjectStoreException;
+import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
+import org.mule.runtime.core.api.MuleContext;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+
+/**
+ * A persistent partition which stores its entries in append-only segment files, instead of using one file per entry.
+ * <p>
+ * Every store appends a record with the entry's key and serialized value to the active segment, and every removal
+ * appends a tombstone. Once the active segment reaches its maximum size, a new one is started. An in-memory index
+ * maps each live key to the location of its value and the time in which it was stored, kept in insertion order, so
+ * that retrieving a value is a single positional read and expiring entries only touches the entries being expired.
+ * <p>
+ * Each time {@link #expire(long, int)} is invoked (which the object store monitor does in the background), the sealed
+ * segment with the lowest ratio of contents that still need to be kept is compacted, provided that ratio is below one
+ * half: its live records are copied into the active segment in batches and the file is deleted. The tombstones of the
+ * oldest segment can be discarded, since there's no older record they could be shadowing. Those of any other segment
+ * are carried over along with the live records, and count as contents to be kept.
+ * <p>
+ * On compaction and on {@link #close()}, the index is persisted into a hint file, in insertion order. On startup, the
+ * hint file is loaded and only the records appended after it was written are replayed, so that recovery doesn't need to
+ * read every segment. Records relocated by a compaction keep the position of the key they replace. If the hint file is
+ * missing or stale, all segments are replayed. Torn records at the tail of a segment (i.e., left by a crash in the
+ * middle of a write) are detected through a checksum and truncated.
+ * <p>
+ * Writes are forced to the storage device at batch boundaries: after each batch of tombstones or relocated records, and
+ * before the hint file is written. Single stores and removals are not forced.
+ *
+ * @since 4.0
+ */
+public class LogStructuredObjectStorePartition<T extends Serializable> extends AbstractPersistentObjectStorePartition<T> {
+
+  private static final Logger LOGGER = getLogger(LogStructuredObjectStorePartition.class);
+
+  static final String SEGMENT_FILE_PREFIX = "segment-";
+  static final String SEGMENT_FILE_EXTENSION = ".log";
+  static final String HINT_FILE = "index.hint";
+
+  private static final long DEFAULT_MAX_SEGMENT_SIZE = MB.toBytes(64);
+  private static final int WRITE_BATCH_SIZE = KB.toBytes(64);
+  private static final double COMPACTION_THRESHOLD = 0.5;
+  private static final int HINT_VERSION = 2;
+
+  private static final byte PUT = 1;
+  private static final byte DELETE = 2;
+
+  /**
+   * checksum (int) + type (byte) + timestamp (long) + key length (int) + value length (int)
+   */
+  private static final int RECORD_HEADER_SIZE = 4 + 1 + 8 + 4 + 4;
+
+  private final long maxSegmentSize;
+  private final ReadWriteLock readWriteLock = new ReentrantReadWriteLock();
+  private final Lock readLock = readWriteLock.readLock();
+  private final Lock writeLock = readWriteLock.writeLock();
+  private final AtomicBoolean compacting = new AtomicBoolean(false);
+
+  private final LinkedHashMap<String, IndexEntry> index = new LinkedHashMap<>();
+  private final TreeMap<Long, Segment> segments = new TreeMap<>();
+  private Segment activeSegment;
+  private volatile boolean loaded = false;
+
+  public LogStructuredObjectStorePartition(MuleContext muleContext, String partitionName, File partitionDirectory) {
+    this(muleContext, partitionName, partitionDirectory, DEFAULT_MAX_SEGMENT_SIZE);
+  }
+
+  LogStructuredObjectStorePartition(MuleContext muleContext, String partitionName, File partitionDirectory,
+                                    long maxSegmentSize) {
+    super(muleContext, partitionName, partitionDirectory);
+    this.maxSegmentSize = maxSegmentSize;
+  }
+
+  public LogStructuredObjectStorePartition(MuleContext muleContext, File partitionDirectory)
+      throws ObjectStoreNotAvailableException {
+    super(muleContext, partitionDirectory);
+    maxSegmentSize = DEFAULT_MAX_SEGMENT_SIZE;
+  }
+
+  /**
+   * Persists the index into the hint file and releases all open files. The partition can still be used afterwards,
+   * in which case it will be transparently reloaded.
+   */
+  @Override
+  public void close() throws ObjectStoreException {
+    writeLock.lock();
+    try {
+      if (loaded) {
+        writeHint();
+        closeSegments();
+        index.clear();
+        segments.clear();
+        activeSegment = null;
+        loaded = false;
+      }
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public List<String> allKeys() throws ObjectStoreException {
+    assureLoaded();
+
+    readLock.lock();
+    try {
+      return unmodifiableList(new ArrayList<>(index.keySet()));
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  protected boolean doContains(String key) throws ObjectStoreException {
+    assureLoaded();
+
+    readLock.lock();
+    try {
+      return index.containsKey(key);
+    } finally {
+      readLock.unlock();
+    }
+  }
+
+  @Override
+  protected void doStore(String key, T value) throws ObjectStoreException {
+    assureLoaded();
+    final byte[] serializedValue = serializer.getInternalProtocol().serialize(value);
+
+    writeLock.lock();
+    try {
+      if (index.containsKey(key)) {
+        throw new ObjectAlreadyExistsException();
+      }
+
+      index.put(key, append(PUT, key, serializedValue, currentTimeMillis()));
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not store key " + key), e);
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  protected T doRetrieve(String key) throws ObjectStoreException {
+    assureLoaded();
+
+    final byte[] serializedValue;
+    readLock.lock();
+    try {
+      serializedValue = readValue(getIndexEntry(key));
+    } finally {
+      readLock.unlock();
+    }
+
+    return serializer.getInternalProtocol().deserialize(serializedValue);
+  }
+
+  @Override
+  protected T doRemove(String key) throws ObjectStoreException {
+    assureLoaded();
+
+    final byte[] serializedValue;
+    writeLock.lock();
+    try {
+      IndexEntry entry = getIndexEntry(key);
+      serializedValue = readValue(entry);
+      append(DELETE, key, new byte[0], currentTimeMillis());
+      removeFromIndex(key);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not remove key " + key), e);
+    } finally {
+      writeLock.unlock();
+    }
+
+    return serializer.getInternalProtocol().deserialize(serializedValue);
+  }
+
+  @Override
+  public void clear() throws ObjectStoreException {
+    assureLoaded();
+
+    writeLock.lock();
+    try {
+      closeSegments();
+      for (Segment segment : segments.values()) {
+        deleteFile(segment.file);
+      }
+      deleteFile(new File(partitionDirectory, HINT_FILE));
+
+      index.clear();
+      segments.clear();
+      activeSegment = null;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  @Override
+  public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
+    assureLoaded();
+
+    int expired = 0;
+    writeLock.lock();
+    try {
+      final long now = currentTimeMillis();
+      int excess = maxEntries == UNBOUNDED ? 0 : index.size() - maxEntries;
+      ByteArrayOutputStream tombstones = new ByteArrayOutputStream();
+
+      Iterator<Map.Entry<String, IndexEntry>> iterator = index.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<String, IndexEntry> oldest = iterator.next();
+        if (excess <= 0 && (entryTTL == UNBOUNDED || now - oldest.getValue().timestamp < entryTTL)) {
+          break;
+        }
+
+        tombstones.write(encode(DELETE, oldest.getKey(), new byte[0], now).array());
+        if (tombstones.size() >= WRITE_BATCH_SIZE) {
+          appendTombstones(tombstones);
+        }
+
+        IndexEntry entry = oldest.getValue();
+        entry.segment.liveBytes -= entry.recordLength;
+        iterator.remove();
+        excess--;
+        expired++;
+      }
+
+      appendTombstones(tombstones);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not expire entries of partition " + getPartitionName()), e);
+    } finally {
+      writeLock.unlock();
+    }
+
+    if (LOGGER.isDebugEnabled()) {
+      LOGGER.debug("Expired " + expired + " entries");
+    }
+
+    compact();
+  }
+
+  private IndexEntry getIndexEntry(String key) throws ObjectDoesNotExistException {
+    IndexEntry entry = index.get(key);
+    if (entry == null) {
+      throw new ObjectDoesNotExistException(createStaticMessage("Key does not exist: " + key));
+    }
+
+    return entry;
+  }
+
+  private void removeFromIndex(String key) {
+    IndexEntry entry = index.remove(key);
+    if (entry != null) {
+      entry.segment.liveBytes -= entry.recordLength;
+    }
+  }
+
+  private void assureLoaded() throws ObjectStoreException {
+    if (!loaded) {
+      writeLock.lock();
+      try {
+        /*
+         * by re-checking this condition here we can avoid contention in {@link #assureLoaded}. The amount of times that this
+         * condition should evaluate to {@code true} is really limited, which provides better performance in the long run
+         */
+        if (!loaded) {
+          load();
+          loaded = true;
+        }
+      } catch (IOException e) {
+        closeSegments();
+        index.clear();
+        segments.clear();
+        throw new ObjectStoreException(createStaticMessage(format("Could not restore object store data from %1s",
+                                                                  partitionDirectory.getAbsolutePath())),
+                                       e);
+      } finally {
+        writeLock.unlock();
+      }
+    }
+  }
+
+  private void load() throws IOException {
+    File[] files = partitionDirectory
+        .listFiles(file -> file.getName().startsWith(SEGMENT_FILE_PREFIX) && file.getName().endsWith(SEGMENT_FILE_EXTENSION));
+    if (files != null) {
+      for (File file : files) {
+        long id = parseLong(file.getName().substring(SEGMENT_FILE_PREFIX.length(),
+                                                     file.getName().length() - SEGMENT_FILE_EXTENSION.length()));
+        segments.put(id, openSegment(id, file));
+      }
+    }
+
+    Position replayFrom = readHint();
+    if (replayFrom == null) {
+      index.clear();
+      for (Segment segment : segments.values()) {
+        segment.liveBytes = 0;
+        segment.tombstoneBytes = 0;
+        replay(segment, 0);
+      }
+      sortIndexByTimestamp();
+    } else {
+      for (Segment segment : segments.tailMap(replayFrom.segmentId, true).values()) {
+        replay(segment, segment.id == replayFrom.segmentId ? replayFrom.offset : 0);
+      }
+    }
+
+    activeSegment = segments.isEmpty() ? null : segments.lastEntry().getValue();
+  }
+
+  /**
+   * Since keys cannot be overwritten, a put for a key which is already in the index can only be a record relocated by a
+   * compaction. The index entry is replaced in place, so that the key keeps its insertion order.
+   */
+  private void replay(Segment segment, long offset) throws IOException {
+    try (RecordReader reader = new RecordReader(segment.file, offset)) {
+      while (reader.next()) {
+        if (reader.type == PUT) {
+          IndexEntry previous = index.get(reader.key);
+          if (previous != null) {
+            previous.segment.liveBytes -= previous.recordLength;
+          }
+          segment.liveBytes += reader.recordLength;
+          index.put(reader.key, new IndexEntry(segment, reader.valueOffset, reader.value.length, reader.recordLength,
+                                               reader.timestamp));
+        } else {
+          segment.tombstoneBytes += reader.recordLength;
+          removeFromIndex(reader.key);
+        }
+      }
+
+      if (reader.position < segment.size) {
+        LOGGER.warn(format("Found incomplete or corrupted record at position %d of object store segment '%s'. "
+            + "Segment will be truncated", reader.position, segment.file.getAbsolutePath()));
+        segment.channel.truncate(reader.position);
+        segment.size = reader.position;
+      }
+    }
+  }
+
+  /**
+   * When replaying all the segments, records moved by compactions appear after newer ones, so the insertion order
+   * needs to be restored from the records' timestamps.
+   */
+  private void sortIndexByTimestamp() {
+    List<Map.Entry<String, IndexEntry>> entries = new ArrayList<>(index.entrySet());
+    entries.sort(comparingLong(entry -> entry.getValue().timestamp));
+    index.clear();
+    for (Map.Entry<String, IndexEntry> entry : entries) {
+      index.put(entry.getKey(), entry.getValue());
+    }
+  }
+
+  private IndexEntry append(byte type, String key, byte[] value, long timestamp) throws IOException {
+    ByteBuffer record = encode(type, key, value, timestamp);
+    final int recordLength = record.remaining();
+    Segment segment = getActiveSegment();
+    final long position = segment.size;
+
+    write(segment, record);
+    IndexEntry entry = new IndexEntry(segment, position + recordLength - value.length, value.length, recordLength, timestamp);
+    if (type == PUT) {
+      segment.liveBytes += recordLength;
+    } else {
+      segment.tombstoneBytes += recordLength;
+    }
+
+    rollIfNeeded();
+    return entry;
+  }
+
+  private void appendTombstones(ByteArrayOutputStream tombstones) throws IOException {
+    if (tombstones.size() > 0) {
+      Segment segment = getActiveSegment();
+      write(segment, ByteBuffer.wrap(tombstones.toByteArray()));
+      segment.tombstoneBytes += tombstones.size();
+      tombstones.reset();
+      force();
+      rollIfNeeded();
+    }
+  }
+
+  private void write(Segment segment, ByteBuffer data) throws IOException {
+    long position = segment.size;
+    while (data.hasRemaining()) {
+      position += segment.channel.write(data, position);
+    }
+    segment.size = position;
+    segment.dirty = true;
+  }
+
+  /**
+   * Forces all the data written so far to the storage device
+   */
+  private void force() throws IOException {
+    for (Segment segment : segments.values()) {
+      if (segment.dirty) {
+        segment.channel.force(false);
+        segment.dirty = false;
+      }
+    }
+  }
+
+  private Segment getActiveSegment() throws IOException {
+    if (activeSegment == null) {
+      long id = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+      activeSegment = openSegment(id, new File(partitionDirectory, SEGMENT_FILE_PREFIX + id + SEGMENT_FILE_EXTENSION));
+      segments.put(id, activeSegment);
+    }
+
+    return activeSegment;
+  }
+
+  private void rollIfNeeded() {
+    if (activeSegment != null && activeSegment.size >= maxSegmentSize) {
+      activeSegment = null;
+    }
+  }
+
+  private Segment openSegment(long id, File file) throws IOException {
+    FileChannel channel = FileChannel.open(file.toPath(), CREATE, READ, WRITE);
+    return new Segment(id, file, channel, channel.size());
+  }
+
+  private byte[] readValue(IndexEntry entry) throws ObjectStoreException {
+    ByteBuffer value = ByteBuffer.allocate(entry.valueLength);
+    try {
+      long position = entry.valueOffset;
+      while (value.hasRemaining()) {
+        int read = entry.segment.channel.read(value, position);
+        if (read < 0) {
+          throw new EOFException("Unexpected end of object store segment " + entry.segment.file.getAbsolutePath());
+        }
+        position += read;
+      }
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not read value from object store segment"), e);
+    }
+
+    return value.array();
+  }
+
+  /**
+   * Compacts the sealed segment with the lowest ratio of contents to be kept, provided that ratio is below
+   * {@link #COMPACTION_THRESHOLD}. The segment is read without holding any lock, since it's no longer written to. The
+   * lock is only taken to relocate each batch of records.
+   * <p>
+   * Since the lock is released between batches, the partition may be cleared or closed while compacting. In that case,
+   * the compaction is abandoned.
+   */
+  private void compact() throws ObjectStoreException {
+    if (!compacting.compareAndSet(false, true)) {
+      return;
+    }
+
+    try {
+      Segment candidate;
+      writeLock.lock();
+      try {
+        candidate = selectCompactionCandidate();
+        if (candidate == null) {
+          return;
+        }
+      } finally {
+        writeLock.unlock();
+      }
+
+      try {
+        if (!relocateRecords(candidate)) {
+          return;
+        }
+      } catch (IOException e) {
+        writeLock.lock();
+        try {
+          if (!isCurrent(candidate)) {
+            return;
+          }
+        } finally {
+          writeLock.unlock();
+        }
+        throw e;
+      }
+
+      writeLock.lock();
+      try {
+        if (isCurrent(candidate)) {
+          segments.remove(candidate.id);
+          closeSafely(candidate);
+          deleteFile(candidate.file);
+          writeHint();
+        }
+      } finally {
+        writeLock.unlock();
+      }
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not compact partition " + getPartitionName()), e);
+    } finally {
+      compacting.set(false);
+    }
+  }
+
+  /**
+   * @return {@code false} if the {@code candidate} was discarded by {@link #clear()} or {@link #close()} before all of
+   *         its records were relocated.
+   */
+  private boolean relocateRecords(Segment candidate) throws IOException {
+    List<RecordCopy> batch = new ArrayList<>();
+    long batchSize = 0;
+    try (RecordReader reader = new RecordReader(candidate.file, 0)) {
+      while (reader.next()) {
+        batch.add(new RecordCopy(reader));
+        batchSize += reader.recordLength;
+        if (batchSize >= WRITE_BATCH_SIZE) {
+          if (!relocate(candidate, batch)) {
+            return false;
+          }
+          batch.clear();
+          batchSize = 0;
+        }
+      }
+    }
+    return relocate(candidate, batch);
+  }
+
+  /**
+   * Must be invoked holding the write lock.
+   *
+   * @return whether the given segment still belongs to this partition, i.e. it was not discarded by {@link #clear()} or
+   *         {@link #close()}.
+   */
+  private boolean isCurrent(Segment segment) {
+    return segments.get(segment.id) == segment;
+  }
+
+  private Segment selectCompactionCandidate() {
+    if (segments.isEmpty()) {
+      return null;
+    }
+
+    Segment oldest = segments.firstEntry().getValue();
+    Segment candidate = null;
+    double lowestRatio = COMPACTION_THRESHOLD;
+    for (Segment segment : segments.values()) {
+      if (segment == activeSegment || segment.size == 0) {
+        continue;
+      }
+
+      long retained = segment.liveBytes + (segment == oldest ? 0 : segment.tombstoneBytes);
+      double ratio = (double) retained / segment.size;
+      if (ratio < lowestRatio) {
+        candidate = segment;
+        lowestRatio = ratio;
+      }
+    }
+
+    return candidate;
+  }
+
+  /**
+   * Appends the records of the given batch which still need to be kept to the active segment in a single write, and
+   * forces it before updating the index.
+   *
+   * @return {@code false} if the {@code candidate} was discarded by {@link #clear()} or {@link #close()}, in which case
+   *         nothing is relocated.
+   */
+  private boolean relocate(Segment candidate, List<RecordCopy> records) throws IOException {
+    writeLock.lock();
+    try {
+      if (!isCurrent(candidate)) {
+        return false;
+      }
+
+      boolean keepTombstones = segments.firstEntry().getValue() != candidate;
+      Segment target = getActiveSegment();
+      ByteArrayOutputStream batch = new ByteArrayOutputStream();
+      Map<String, IndexEntry> relocated = new LinkedHashMap<>();
+      long tombstoneBytes = 0;
+
+      for (RecordCopy record : records) {
+        if (record.type == PUT) {
+          IndexEntry entry = index.get(record.key);
+          if (entry != null && entry.segment == candidate && entry.valueOffset == record.valueOffset) {
+            ByteBuffer encoded = encode(PUT, record.key, record.value, entry.timestamp);
+            int recordLength = encoded.remaining();
+            long position = target.size + batch.size();
+            batch.write(encoded.array());
+            relocated.put(record.key, new IndexEntry(target, position + recordLength - record.value.length,
+                                                     record.value.length, recordLength, entry.timestamp));
+          }
+        } else if (keepTombstones && !index.containsKey(record.key)) {
+          byte[] tombstone = encode(DELETE, record.key, new byte[0], record.timestamp).array();
+          batch.write(tombstone);
+          tombstoneBytes += tombstone.length;
+        }
+      }
+
+      if (batch.size() == 0) {
+        return true;
+      }
+
+      write(target, ByteBuffer.wrap(batch.toByteArray()));
+      force();
+
+      target.tombstoneBytes += tombstoneBytes;
+      for (Map.Entry<String, IndexEntry> entry : relocated.entrySet()) {
+        candidate.liveBytes -= index.put(entry.getKey(), entry.getValue()).recordLength;
+        target.liveBytes += entry.getValue().recordLength;
+      }
+
+      rollIfNeeded();
+      return true;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private void writeHint() throws ObjectStoreException {
+    if (segments.isEmpty()) {
+      return;
+    }
+
+    try {
+      force();
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not write index of partition " + getPartitionName()), e);
+    }
+
+    File hintFile = new File(partitionDirectory, HINT_FILE);
+    File tempFile = new File(partitionDirectory, HINT_FILE + ".tmp");
+    CRC32 checksum = new CRC32();
+    try (FileOutputStream fileOut = new FileOutputStream(tempFile);
+        DataOutputStream out = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOut), checksum))) {
+      out.writeInt(HINT_VERSION);
+      out.writeInt(segments.size());
+      for (Segment segment : segments.values()) {
+        out.writeLong(segment.id);
+        out.writeLong(segment.tombstoneBytes);
+      }
+
+      Segment tip = segments.lastEntry().getValue();
+      out.writeLong(tip.id);
+      out.writeLong(tip.size);
+
+      out.writeInt(index.size());
+      for (Map.Entry<String, IndexEntry> entry : index.entrySet()) {
+        byte[] key = entry.getKey().getBytes(UTF_8);
+        IndexEntry indexEntry = entry.getValue();
+        out.writeInt(key.length);
+        out.write(key);
+        out.writeLong(indexEntry.segment.id);
+        out.writeLong(indexEntry.valueOffset);
+        out.writeInt(indexEntry.valueLength);
+        out.writeInt(indexEntry.recordLength);
+        out.writeLong(indexEntry.timestamp);
+      }
+
+      out.flush();
+      out.writeLong(checksum.getValue());
+      out.flush();
+      fileOut.getFD().sync();
+    } catch (IOException e) {
+      deleteFile(tempFile);
+      throw new ObjectStoreException(createStaticMessage("Could not write index of partition " + getPartitionName()), e);
+    }
+
+    try {
+      Files.move(tempFile.toPath(), hintFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new ObjectStoreException(createStaticMessage("Could not write index of partition " + getPartitionName()), e);
+    }
+  }
+
+  /**
+   * Loads the index from the hint file.
+   *
+   * @return the position from which records need to be replayed, or {@code null} if the hint file is missing, corrupted
+   *         or refers to segments which no longer exist.
+   */
+  private Position readHint() {
+    File hintFile = new File(partitionDirectory, HINT_FILE);
+    if (!hintFile.exists()) {
+      return null;
+    }
+
+    CRC32 checksum = new CRC32();
+    try (DataInputStream in =
+        new DataInputStream(new CheckedInputStream(new BufferedInputStream(new FileInputStream(hintFile)), checksum))) {
+      if (in.readInt() != HINT_VERSION) {
+        return null;
+      }
+
+      int segmentCount = in.readInt();
+      Map<Long, Long> tombstoneBytes = new HashMap<>();
+      for (int i = 0; i < segmentCount; i++) {
+        tombstoneBytes.put(in.readLong(), in.readLong());
+      }
+      if (!segments.keySet().containsAll(tombstoneBytes.keySet())) {
+        return null;
+      }
+
+      Position tip = new Position(in.readLong(), in.readLong());
+      Segment tipSegment = segments.get(tip.segmentId);
+      if (tipSegment == null || tipSegment.size < tip.offset) {
+        return null;
+      }
+
+      int entryCount = in.readInt();
+      for (int i = 0; i < entryCount; i++) {
+        byte[] key = new byte[in.readInt()];
+        in.readFully(key);
+        Segment segment = segments.get(in.readLong());
+        IndexEntry entry = new IndexEntry(segment, in.readLong(), in.readInt(), in.readInt(), in.readLong());
+        if (segment == null) {
+          index.clear();
+          return null;
+        }
+        segment.liveBytes += entry.recordLength;
+        index.put(new String(key, UTF_8), entry);
+      }
+
+      long expectedChecksum = checksum.getValue();
+      if (in.readLong() != expectedChecksum) {
+        index.clear();
+        return null;
+      }
+
+      tombstoneBytes.forEach((id, bytes) -> segments.get(id).tombstoneBytes = bytes);
+      return tip;
+    } catch (IOException e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not read index hint file of partition " + getPartitionName() + ". All segments will be replayed", e);
+      }
+      index.clear();
+      return null;
+    }
+  }
+
+  private void closeSegments() {
+    for (Segment segment : segments.values()) {
+      closeSafely(segment);
+    }
+  }
+
+  private void closeSafely(Segment segment) {
+    try {
+      segment.channel.close();
+    } catch (IOException e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not close object store segment " + segment.file.getAbsolutePath(), e);
+      }
+    }
+  }
+
+  private void deleteFile(File file) {
+    if (file.exists() && !file.delete()) {
+      LOGGER.warn("Could not delete object store file " + file.getAbsolutePath());
+    }
+  }
+
+  private static ByteBuffer encode(byte type, String key, byte[] value, long timestamp) {
+    byte[] keyBytes = key.getBytes(UTF_8);
+    ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_SIZE + keyBytes.length + value.length);
+    record.position(4);
+    record.put(type);
+    record.putLong(timestamp);
+    record.putInt(keyBytes.length);
+    record.putInt(value.length);
+    record.put(keyBytes);
+    record.put(value);
+
+    CRC32 checksum = new CRC32();
+    checksum.update(record.array(), 4, record.capacity() - 4);
+    record.putInt(0, (int) checksum.getValue());
+    record.rewind();
+
+    return record;
+  }
+
+  /**
+   * Sequentially reads the records of a segment, stopping at the first one which is incomplete or corrupted
+   */
+  private static class RecordReader implements AutoCloseable {
+
+    private final DataInputStream in;
+    private final long size;
+    private long position;
+
+    private byte type;
+    private long timestamp;
+    private String key;
+    private byte[] value;
+    private long valueOffset;
+    private int recordLength;
+
+    private RecordReader(File file, long offset) throws IOException {
+      size = file.length();
+      InputStream fileStream = new FileInputStream(file);
+      long skipped = 0;
+      while (skipped < offset) {
+        skipped += fileStream.skip(offset - skipped);
+      }
+      in = new DataInputStream(new BufferedInputStream(fileStream));
+      position = offset;
+    }
+
+    private boolean next() throws IOException {
+      if (size - position < RECORD_HEADER_SIZE) {
+        return false;
+      }
+
+      int expectedChecksum = in.readInt();
+      byte recordType = in.readByte();
+      long recordTimestamp = in.readLong();
+      int keyLength = in.readInt();
+      int valueLength = in.readInt();
+      if ((recordType != PUT && recordType != DELETE) || keyLength < 0 || valueLength < 0
+          || size - position < (long) RECORD_HEADER_SIZE + keyLength + valueLength) {
+        return false;
+      }
+
+      byte[] keyBytes = new byte[keyLength];
+      byte[] valueBytes = new byte[valueLength];
+      in.readFully(keyBytes);
+      in.readFully(valueBytes);
+
+      CRC32 checksum = new CRC32();
+      ByteBuffer header = ByteBuffer.allocate(RECORD_HEADER_SIZE - 4);
+      header.put(recordType).putLong(recordTimestamp).putInt(keyLength).putInt(valueLength);
+      checksum.update(header.array());
+      checksum.update(keyBytes);
+      checksum.update(valueBytes);
+      if ((int) checksum.getValue() != expectedChecksum) {
+        return false;
+      }
+
+      type = recordType;
+      timestamp = recordTimestamp;
+      key = new String(keyBytes, UTF_8);
+      value = valueBytes;
+      recordLength = RECORD_HEADER_SIZE + keyLength + valueLength;
+      valueOffset = position + RECORD_HEADER_SIZE + keyLength;
+      position += recordLength;
+
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+
+  private static class Segment {
+
+    private final long id;
+    private final File file;
+    private final FileChannel channel;
+    private long size;
+    private long liveBytes = 0;
+    private long tombstoneBytes = 0;
+    private boolean dirty = false;
+
+    private Segment(long id, File file, FileChannel channel, long size) {
+      this.id = id;
+      this.file = file;
+      this.channel = channel;
+      this.size = size;
+    }
+  }
+
+  private static class RecordCopy {
+
+    private final byte type;
+    private final long timestamp;
+    private final String key;
+    private final byte[] value;
+    private final long valueOffset;
+
+    private RecordCopy(RecordReader reader) {
+      type = reader.type;
+      timestamp = reader.timestamp;
+      key = reader.key;
+      value = reader.value;
+      valueOffset = reader.valueOffset;
+    }
+  }
+
+  private static class IndexEntry {
+
+    private final Segment segment;
+    private final long valueOffset;
+    private final int valueLength;
+    private final int recordLength;
+    private final long timestamp;
+
+    private IndexEntry(Segment segment, long valueOffset, int valueLength, int recordLength, long timestamp) {
+      this.segment = segment;
+      this.valueOffset = valueOffset;
+      this.valueLength = valueLength;
+      this.recordLength = recordLength;
+      this.timestamp = timestamp;
+    }
+  }
+
+  private static class Position {
+
+    private final long segmentId;
+    private final long offset;
+
+    private Position(long segmentId, long offset) {
+      this.segmentId = segmentId;
+      this.offset = offset;
+    }
+  }
+}
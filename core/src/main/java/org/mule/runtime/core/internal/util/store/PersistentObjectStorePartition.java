@@ -10,22 +10,17 @@ package org.mule.runtime.core.internal.util.store;
 import static java.lang.String.format;
 import static java.util.Collections.unmodifiableList;
 import static org.apache.commons.io.FileUtils.moveFileToDirectory;
-import static org.apache.commons.io.FileUtils.readFileToString;
 import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
-import static org.mule.runtime.core.api.config.i18n.CoreMessages.failedToCreate;
 import static org.mule.runtime.core.api.util.FileUtils.cleanDirectory;
 import static org.mule.runtime.core.api.util.FileUtils.newFile;
 import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
 import org.mule.runtime.api.exception.MuleRuntimeException;
-import org.mule.runtime.api.serialization.ObjectSerializer;
 import org.mule.runtime.api.store.ObjectAlreadyExistsException;
 import org.mule.runtime.api.store.ObjectDoesNotExistException;
 import org.mule.runtime.api.store.ObjectStoreException;
 import org.mule.runtime.api.store.ObjectStoreNotAvailableException;
-import org.mule.runtime.api.store.TemplateObjectStore;
 import org.mule.runtime.core.api.MuleContext;
 import org.mule.runtime.core.privileged.store.DeserializationPostInitialisable;
-import org.mule.runtime.core.internal.store.ExpirableObjectStore;
 import org.mule.runtime.core.api.util.UUID;
 
 import java.io.BufferedInputStream;
@@ -34,7 +29,6 @@ import java.io.File;
 import java.io.FileFilter;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
@@ -48,52 +42,33 @@ import org.apache.commons.collections.bidimap.TreeBidiMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class PersistentObjectStorePartition<T extends Serializable> extends TemplateObjectStore<T>
-    implements ExpirableObjectStore<T> {
+public class PersistentObjectStorePartition<T extends Serializable> extends AbstractPersistentObjectStorePartition<T> {
 
   private static final String OBJECT_FILE_EXTENSION = ".obj";
-  private static final String PARTITION_DESCRIPTOR_FILE = "partition-descriptor";
   public static final String CORRUPTED_FOLDER = "corrupted-files";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(PersistentObjectStorePartition.class);
 
-  private final MuleContext muleContext;
-  private final ObjectSerializer serializer;
-
   private boolean loaded = false;
 
-  private File partitionDirectory;
-  private String partitionName;
   private final BidiMap realKeyToUUIDIndex = new TreeBidiMap();
 
   public PersistentObjectStorePartition(MuleContext muleContext, String partitionName, File partitionDirectory) {
-    this.muleContext = muleContext;
-    serializer = muleContext.getObjectSerializer();
-    this.partitionName = partitionName;
-    this.partitionDirectory = partitionDirectory;
+    super(muleContext, partitionName, partitionDirectory);
   }
 
   public PersistentObjectStorePartition(MuleContext muleContext, File partitionDirectory)
       throws ObjectStoreNotAvailableException {
-    this.muleContext = muleContext;
-    serializer = muleContext.getObjectSerializer();
-    this.partitionDirectory = partitionDirectory;
-    this.partitionName = readPartitionFileName(partitionDirectory);
+    super(muleContext, partitionDirectory);
   }
 
-  private String readPartitionFileName(File partitionDirectory) throws ObjectStoreNotAvailableException {
-    File partitionDescriptorFile = new File(partitionDirectory, PARTITION_DESCRIPTOR_FILE);
-    try {
-      return readFileToString(partitionDescriptorFile);
-    } catch (IOException e) {
-      throw new ObjectStoreNotAvailableException(e);
-    }
-  }
-
-  @Override
-  public synchronized void open() throws ObjectStoreException {
-    createDirectory(partitionDirectory);
-    createOrRetrievePartitionDescriptorFile();
+  /**
+   * @param partitionDirectory a partition's directory
+   * @return whether the given directory holds entries stored in the one file per entry format of this class
+   */
+  public static boolean containsEntryFiles(File partitionDirectory) {
+    String[] entryFiles = partitionDirectory.list((dir, name) -> name.endsWith(OBJECT_FILE_EXTENSION));
+    return entryFiles != null && entryFiles.length > 0;
   }
 
   @Override
@@ -169,11 +144,6 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     }
   }
 
-  @Override
-  public boolean isPersistent() {
-    return true;
-  }
-
   @Override
   public void expire(long entryTTL, int maxEntries) throws ObjectStoreException {
     assureLoaded();
@@ -264,19 +234,6 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     return files;
   }
 
-  protected void createDirectory(File directory) throws ObjectStoreException {
-    try {
-      // To support concurrency we need to check if directory exists again
-      // inside
-      // synchronized method
-      if (!directory.exists() && !directory.mkdirs()) {
-        throw new MuleRuntimeException(failedToCreate("object store directory " + directory.getAbsolutePath()));
-      }
-    } catch (Exception e) {
-      throw new ObjectStoreException(e);
-    }
-  }
-
   private File getValueFile(String filename) {
     return new File(partitionDirectory, filename);
   }
@@ -290,26 +247,6 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     }
   }
 
-  protected File createOrRetrievePartitionDescriptorFile() throws ObjectStoreException {
-    try {
-      File partitionDescriptorFile = new File(partitionDirectory, PARTITION_DESCRIPTOR_FILE);
-      if (partitionDescriptorFile.exists()) {
-        this.partitionName = readPartitionFileName(partitionDirectory);
-        return partitionDescriptorFile;
-      }
-      FileWriter fileWriter = new FileWriter(partitionDescriptorFile.getAbsolutePath(), false);
-      try {
-        fileWriter.write(partitionName);
-        fileWriter.flush();
-      } finally {
-        fileWriter.close();
-      }
-      return partitionDescriptorFile;
-    } catch (Exception e) {
-      throw new ObjectStoreException(e);
-    }
-  }
-
   protected void serialize(File outputFile, StoreValue<T> storeValue) throws ObjectStoreException {
     try (ObjectOutputStream objectOutputStream =
         new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(outputFile)))) {
@@ -359,10 +296,6 @@ public class PersistentObjectStorePartition<T extends Serializable> extends Temp
     return expired;
   }
 
-  public String getPartitionName() {
-    return partitionName;
-  }
-
   public static class StoreValue<T> implements Serializable {
 
     private Serializable key;
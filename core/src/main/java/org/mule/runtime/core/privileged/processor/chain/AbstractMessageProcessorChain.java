@@ -15,6 +15,8 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.disposeIfNeeded
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.setMuleContextIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.core.api.processor.ReactiveProcessor.ProcessingType.CPU_LITE;
+import static org.mule.runtime.core.api.rx.Exceptions.propagateWrappingFatal;
 import static org.mule.runtime.core.api.util.StreamingUtils.updateEventForStreaming;
 import static org.mule.runtime.core.api.util.StringUtils.isBlank;
 import static org.mule.runtime.core.privileged.event.PrivilegedEvent.setCurrentEvent;
@@ -66,6 +68,18 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
 
   private static final Logger LOGGER = getLogger(AbstractMessageProcessorChain.class);
 
+  private static final ClassValue<Boolean> USES_DEFAULT_APPLY = new ClassValue<Boolean>() {
+
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      try {
+        return type.getMethod("apply", Publisher.class).getDeclaringClass() == Processor.class;
+      } catch (NoSuchMethodException e) {
+        return false;
+      }
+    }
+  };
+
   private final String name;
   private final List<Processor> processors;
   private ProcessingStrategy processingStrategy;
@@ -86,16 +100,110 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
 
   @Override
   public Publisher<BaseEvent> apply(Publisher<BaseEvent> publisher) {
-    List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptors = resolveInterceptors();
+    boolean notificationsEnabled = isMessageProcessorNotificationEnabled();
+    List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptors = resolveInterceptors(notificationsEnabled);
     Flux<BaseEvent> stream = from(publisher);
+    List<Processor> fusedProcessors = new ArrayList<>();
     for (Processor processor : getProcessorsToExecute()) {
+      if (isFusable(processor)) {
+        fusedProcessors.add(processor);
+        continue;
+      }
+      if (!fusedProcessors.isEmpty()) {
+        stream = stream.transform(fuse(fusedProcessors, notificationsEnabled));
+        fusedProcessors = new ArrayList<>();
+      }
       // Perform assembly for processor chain by transforming the existing publisher with a publisher function for each processor
       // along with the interceptors that decorate it.
       stream = stream.transform(applyInterceptors(interceptors, processor));
     }
+    if (!fusedProcessors.isEmpty()) {
+      stream = stream.transform(fuse(fusedProcessors, notificationsEnabled));
+    }
     return stream;
   }
 
+  /**
+   * Processors that are {@link ReactiveProcessor.ProcessingType#CPU_LITE} and rely on the default
+   * {@link Processor#apply(Publisher)} just invoke {@link Processor#process(BaseEvent)} on the thread they receive the event on.
+   * When no processor interceptors are configured, runs of such processors are executed in a single operator rather than through
+   * the operators added by each interceptor.
+   */
+  private boolean isFusable(Processor processor) {
+    return additionalInterceptors.isEmpty() && processor.getProcessingType() == CPU_LITE
+        && USES_DEFAULT_APPLY.get(processor.getClass());
+  }
+
+  /**
+   * Creates a single {@link ReactiveProcessor} that invokes the given processors one after the other for each event, with the
+   * same outcome the interceptors in {@link #resolveInterceptors()} would have for each of them: the current event is updated,
+   * notifications are fired, errors are resolved and routed to the event context, and returned cursor providers are managed.
+   */
+  private ReactiveProcessor fuse(List<Processor> fusedProcessors, boolean notificationsEnabled) {
+    Function<BaseEvent, BaseEvent> streamingUpdater = updateEventForStreaming(streamingManager);
+    ReactiveProcessor fused = new ReactiveProcessor() {
+
+      @Override
+      public Publisher<BaseEvent> apply(Publisher<BaseEvent> publisher) {
+        return from(publisher).handle((event, sink) -> {
+          BaseEvent result = processFused(fusedProcessors, event, streamingUpdater, notificationsEnabled);
+          if (result != null) {
+            sink.next(result);
+          }
+        });
+      }
+
+      @Override
+      public ProcessingType getProcessingType() {
+        return CPU_LITE;
+      }
+    };
+
+    if (processingStrategy == null) {
+      return fused;
+    }
+    ReactiveProcessor scheduledFused = processingStrategy.onProcessor(fused);
+    return stream -> from(stream)
+        .transform(scheduledFused)
+        .doOnNext(result -> setCurrentEvent((PrivilegedEvent) result));
+  }
+
+  private BaseEvent processFused(List<Processor> fusedProcessors, BaseEvent event,
+                                 Function<BaseEvent, BaseEvent> streamingUpdater, boolean notificationsEnabled) {
+    BaseEvent current = event;
+    for (Processor processor : fusedProcessors) {
+      setCurrentEvent((PrivilegedEvent) current);
+      if (notificationsEnabled) {
+        preNotification(processor, (PrivilegedEvent) current);
+      }
+
+      BaseEvent result;
+      try {
+        result = processor.process(current);
+      } catch (MessagingException e) {
+        MessagingException resolved = resolveMessagingException(processor).apply(e);
+        if (notificationsEnabled) {
+          errorNotification(processor, resolved);
+        }
+        ((BaseEventContext) current.getContext()).error(resolved);
+        return null;
+      } catch (Throwable t) {
+        throw propagateWrappingFatal(t);
+      }
+
+      if (result == null) {
+        ((BaseEventContext) current.getContext()).success();
+        return null;
+      }
+      setCurrentEvent((PrivilegedEvent) result);
+      if (notificationsEnabled) {
+        postNotification(processor, (PrivilegedEvent) result);
+      }
+      current = streamingUpdater.apply(result);
+    }
+    return current;
+  }
+
   private ReactiveProcessor applyInterceptors(List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptorsToBeExecuted,
                                               Processor processor) {
     ReactiveProcessor interceptorWrapperProcessorFunction = processor;
@@ -106,7 +214,16 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
     return interceptorWrapperProcessorFunction;
   }
 
-  private List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> resolveInterceptors() {
+  /**
+   * Whether there are listeners for {@link MessageProcessorNotification}s. When there are none, the operators that fire them are
+   * not assembled at all. Flows assemble their pipeline again when this changes.
+   */
+  private boolean isMessageProcessorNotificationEnabled() {
+    ServerNotificationManager notificationManager = muleContext != null ? muleContext.getNotificationManager() : null;
+    return notificationManager != null && notificationManager.isNotificationEnabled(MessageProcessorNotification.class);
+  }
+
+  private List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> resolveInterceptors(boolean notificationsEnabled) {
     List<BiFunction<Processor, ReactiveProcessor, ReactiveProcessor>> interceptors =
         new ArrayList<>();
 
@@ -149,16 +266,18 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
         .doOnNext(result -> setCurrentEvent(result))
         .cast(BaseEvent.class));
 
-    // #5 Fire MessageProcessor notifications before and after processor execution.
-    interceptors.add((processor, next) -> stream -> from(stream)
-        .cast(PrivilegedEvent.class)
-        .doOnNext(preNotification(processor))
-        .cast(BaseEvent.class)
-        .transform(next)
-        .cast(PrivilegedEvent.class)
-        .doOnNext(postNotification(processor))
-        .doOnError(MessagingException.class, errorNotification(processor))
-        .cast(BaseEvent.class));
+    // #5 Fire MessageProcessor notifications before and after processor execution, only if anyone listens to them.
+    if (notificationsEnabled) {
+      interceptors.add((processor, next) -> stream -> from(stream)
+          .cast(PrivilegedEvent.class)
+          .doOnNext(preNotification(processor))
+          .cast(BaseEvent.class)
+          .transform(next)
+          .cast(PrivilegedEvent.class)
+          .doOnNext(postNotification(processor))
+          .doOnError(MessagingException.class, errorNotification(processor))
+          .cast(BaseEvent.class));
+    }
 
     // #6 If the processor returns a CursorProvider, then have the StreamingManager manage it
     interceptors.add((processor, next) -> stream -> from(stream)
@@ -201,31 +320,36 @@ abstract class AbstractMessageProcessorChain extends AbstractExecutableComponent
   }
 
   private Consumer<PrivilegedEvent> preNotification(Processor processor) {
-    return event -> {
-      if (event.isNotificationsEnabled()) {
-        fireNotification(muleContext.getNotificationManager(), event, processor, null,
-                         MESSAGE_PROCESSOR_PRE_INVOKE);
-      }
-    };
+    return event -> preNotification(processor, event);
+  }
+
+  private void preNotification(Processor processor, PrivilegedEvent event) {
+    if (event.isNotificationsEnabled()) {
+      fireNotification(muleContext.getNotificationManager(), event, processor, null,
+                       MESSAGE_PROCESSOR_PRE_INVOKE);
+    }
   }
 
   private Consumer<PrivilegedEvent> postNotification(Processor processor) {
-    return event -> {
-      if (event.isNotificationsEnabled()) {
-        fireNotification(muleContext.getNotificationManager(), event, processor, null,
-                         MESSAGE_PROCESSOR_POST_INVOKE);
+    return event -> postNotification(processor, event);
+  }
 
-      }
-    };
+  private void postNotification(Processor processor, PrivilegedEvent event) {
+    if (event.isNotificationsEnabled()) {
+      fireNotification(muleContext.getNotificationManager(), event, processor, null,
+                       MESSAGE_PROCESSOR_POST_INVOKE);
+    }
   }
 
   private Consumer<MessagingException> errorNotification(Processor processor) {
-    return exception -> {
-      if (((PrivilegedEvent) exception.getEvent()).isNotificationsEnabled()) {
-        fireNotification(muleContext.getNotificationManager(), exception.getEvent(), processor, exception,
-                         MESSAGE_PROCESSOR_POST_INVOKE);
-      }
-    };
+    return exception -> errorNotification(processor, exception);
+  }
+
+  private void errorNotification(Processor processor, MessagingException exception) {
+    if (((PrivilegedEvent) exception.getEvent()).isNotificationsEnabled()) {
+      fireNotification(muleContext.getNotificationManager(), exception.getEvent(), processor, exception,
+                       MESSAGE_PROCESSOR_POST_INVOKE);
+    }
   }
 
   private void fireNotification(ServerNotificationManager serverNotificationManager, BaseEvent event, Processor processor,
@@ -8,7 +8,7 @@
 package org.mule.runtime.core.privileged.util.queue;
 
 import org.mule.runtime.core.api.util.FileUtils;
-import org.mule.runtime.core.internal.util.queue.DualRandomAccessFileQueueStoreDelegate;
+import org.mule.runtime.core.internal.util.queue.SegmentedFileQueueStoreDelegate;
 
 import java.io.File;
 import java.io.IOException;
@@ -32,7 +32,7 @@ public class QueueManagerUtils {
    * @throws IOException if there is any problem creating the file.
    */
   public static File getFirstQueueFileForTesting(File workingFolder, String queueName) throws IOException {
-    File firstQueueFile = DualRandomAccessFileQueueStoreDelegate
+    File firstQueueFile = SegmentedFileQueueStoreDelegate
         .getFirstQueueFileForTesting(queueName, workingFolder.getAbsolutePath());
     return FileUtils.createFile(firstQueueFile.getAbsolutePath());
   }
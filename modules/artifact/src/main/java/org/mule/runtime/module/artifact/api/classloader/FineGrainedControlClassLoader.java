@@ -14,17 +14,26 @@ import static org.mule.runtime.core.api.config.MuleProperties.MULE_LOG_VERBOSE_C
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.runtime.core.api.util.ClassUtils;
 import org.mule.runtime.module.artifact.api.classloader.exception.CompositeClassNotFoundException;
+import org.mule.runtime.module.artifact.internal.util.FileJarExplorer;
+import org.mule.runtime.module.artifact.internal.util.JarExplorer;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.File;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.net.JarURLConnection;
+import java.net.URISyntaxException;
 import java.net.URL;
 import java.net.URLClassLoader;
 import java.net.URLStreamHandler;
 import java.net.URLStreamHandlerFactory;
 import java.util.ArrayList;
 import java.util.Enumeration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import sun.misc.CompoundEnumeration;
@@ -35,6 +44,15 @@ import sun.net.www.protocol.jar.Handler;
  * <p/>
  * By using a {@link ClassLoaderLookupPolicy} this classLoader can use parent-first, parent-only or child-first classloading
  * lookup mode per package.
+ * <p/>
+ * Class lookups are optimized for the misses, which are frequent when libraries probe for optional classes:
+ * <ul>
+ * <li>The packages contained in the classloader's URLs are indexed the first time a class is looked for locally, so classes
+ * from other packages are discarded without searching the URLs.</li>
+ * <li>Classes that couldn't be found in this classloader are remembered, so looking for them again with any
+ * {@link LookupStrategy} doesn't search the URLs. Misses in other classloaders are not remembered, since what those can load
+ * may change independently of this classloader. Up to 1024 misses are kept, discarding the least recently used ones.</li>
+ * </ul>
  */
 public class FineGrainedControlClassLoader extends URLClassLoader
     implements DisposableClassLoader, ClassLoaderLookupPolicyProvider {
@@ -45,9 +63,17 @@ public class FineGrainedControlClassLoader extends URLClassLoader
 
   private static final Logger LOGGER = getLogger(FineGrainedControlClassLoader.class);
 
+  private static final int MAX_NOT_FOUND_CLASSES = 1024;
+
   private final ClassLoaderLookupPolicy lookupPolicy;
   private final boolean verboseLogging;
 
+  private final Cache<String, ClassNotFoundException> notFoundLocalClasses =
+      CacheBuilder.newBuilder().maximumSize(MAX_NOT_FOUND_CLASSES).build();
+  private final Object localPackagesLock = new Object();
+  private volatile Set<String> localPackages;
+  private volatile boolean localPackagesIndexable = true;
+
   public FineGrainedControlClassLoader(URL[] urls, ClassLoader parent, ClassLoaderLookupPolicy lookupPolicy) {
     super(urls, parent, new NonCachingURLStreamHandlerFactory());
     checkArgument(lookupPolicy != null, "Lookup policy cannot be null");
@@ -80,10 +106,11 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     // troubleshooting information in case of throwing a ClassNotFoundException.
 
     List<ClassNotFoundException> exceptions = new ArrayList<>();
-    for (ClassLoader classLoader : lookupStrategy.getClassLoaders(this)) {
+    final List<ClassLoader> classLoaders = lookupStrategy.getClassLoaders(this);
+    for (ClassLoader classLoader : classLoaders) {
       try {
         if (classLoader == this) {
-          result = findLocalClass(name);
+          result = findLocalClassIfNotMissing(name);
           break;
         } else {
           result = findParentClass(name, classLoader);
@@ -130,6 +157,20 @@ public class FineGrainedControlClassLoader extends URLClassLoader
     }
   }
 
+  private Class<?> findLocalClassIfNotMissing(String name) throws ClassNotFoundException {
+    ClassNotFoundException notFound = notFoundLocalClasses.getIfPresent(name);
+    if (notFound != null) {
+      throw notFound;
+    }
+
+    try {
+      return findLocalClass(name);
+    } catch (ClassNotFoundException e) {
+      notFoundLocalClasses.put(name, e);
+      throw e;
+    }
+  }
+
   protected Class<?> findParentClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
     if (classLoader != null) {
       return classLoader.loadClass(name);
@@ -166,10 +207,84 @@ public class FineGrainedControlClassLoader extends URLClassLoader
         return result;
       }
 
+      if (!mayContainLocalClass(name)) {
+        throw new ClassNotFoundException(name);
+      }
+
       return super.findClass(name);
     }
   }
 
+  @Override
+  protected void addURL(URL url) {
+    super.addURL(url);
+    synchronized (localPackagesLock) {
+      localPackages = null;
+    }
+    notFoundLocalClasses.invalidateAll();
+  }
+
+  /**
+   * @param name the name of a class
+   * @return {@code false} if the package index built from the URLs of this classloader shows that the class cannot be found
+   *         locally
+   */
+  private boolean mayContainLocalClass(String name) {
+    if (!localPackagesIndexable) {
+      return true;
+    }
+
+    Set<String> packages = localPackages;
+    if (packages == null) {
+      synchronized (localPackagesLock) {
+        packages = localPackages;
+        if (packages == null) {
+          packages = indexLocalPackages();
+          if (packages == null) {
+            localPackagesIndexable = false;
+            return true;
+          }
+          localPackages = packages;
+        }
+      }
+    }
+
+    final int lastDot = name.lastIndexOf('.');
+    return packages.contains(lastDot == -1 ? "" : name.substring(0, lastDot));
+  }
+
+  /**
+   * @return the packages with classes in the URLs of this classloader, or {@code null} if some URL cannot be explored
+   */
+  private Set<String> indexLocalPackages() {
+    final JarExplorer jarExplorer = new FileJarExplorer();
+    final Set<String> packages = new HashSet<>();
+
+    for (URL url : getURLs()) {
+      if (!"file".equals(url.getProtocol())) {
+        return null;
+      }
+
+      try {
+        final File file = new File(url.toURI());
+        if (!file.exists()) {
+          continue;
+        }
+        if (!file.isDirectory() && !file.getName().toLowerCase().endsWith(".jar")) {
+          return null;
+        }
+        packages.addAll(jarExplorer.explore(file.toURI()).getPackages());
+      } catch (URISyntaxException | RuntimeException e) {
+        if (LOGGER.isDebugEnabled()) {
+          LOGGER.debug(format("Unable to index the packages of '%s' from %s", url, this), e);
+        }
+        return null;
+      }
+    }
+
+    return packages;
+  }
+
   @Override
   public ClassLoaderLookupPolicy getClassLoaderLookupPolicy() {
     return lookupPolicy;
@@ -10,6 +10,7 @@ package org.mule.runtime.module.artifact.api.classloader;
 import static java.lang.Integer.toHexString;
 import static java.lang.String.format;
 import static java.lang.System.identityHashCode;
+import static java.util.Collections.emptyEnumeration;
 import static java.util.Collections.emptyList;
 import static java.util.stream.Collectors.toList;
 import static org.apache.commons.lang3.ClassUtils.getPackageName;
@@ -26,9 +27,9 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
 
+import com.google.common.collect.ImmutableMap;
 import org.slf4j.Logger;
 import sun.misc.CompoundEnumeration;
 
@@ -47,6 +48,9 @@ import sun.misc.CompoundEnumeration;
  * <p/>
  * Only a region member can export a given package, but same resources can be exported by many members. The order in which the
  * resources are found will depend on the order in which the class loaders were added to the region.
+ * <p/>
+ * Class and resource lookups are routed through an immutable {@link RoutingTable} which is rebuilt each time the members of the
+ * region change. Lookups don't need to lock, and only ask the members which export the requested package or resource.
  */
 public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
 
@@ -58,13 +62,12 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
 
   private static final Logger LOGGER = getLogger(RegionClassLoader.class);
 
-  private final ReadWriteLock innerStateRWLock = new ReentrantReadWriteLock();
-  private final Lock innerStateReadLock = innerStateRWLock.readLock();
-  private final Lock innerStateWriteLock = innerStateRWLock.writeLock();
+  private final Lock innerStateWriteLock = new ReentrantLock();
 
   private final List<RegionMemberClassLoader> registeredClassLoaders = new ArrayList<>();
   private final Map<String, ArtifactClassLoader> packageMapping = new HashMap<>();
   private final Map<String, List<ArtifactClassLoader>> resourceMapping = new HashMap<>();
+  private volatile RoutingTable routingTable = new RoutingTable(packageMapping, resourceMapping);
   private ArtifactClassLoader ownerClassLoader;
 
   /**
@@ -131,6 +134,7 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
         classLoaders.add(artifactClassLoader);
       }
     } finally {
+      routingTable = new RoutingTable(packageMapping, resourceMapping);
       innerStateWriteLock.unlock();
     }
   }
@@ -197,29 +201,24 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
 
   @Override
   public Class<?> findLocalClass(String name) throws ClassNotFoundException {
-    innerStateReadLock.lock();
-    try {
-      final String packageName = getPackageName(name);
-
-      final ArtifactClassLoader artifactClassLoader = packageMapping.get(packageName);
-      if (artifactClassLoader != null) {
-        try {
-          return artifactClassLoader.findLocalClass(name);
-        } catch (ClassNotFoundException e) {
-          throw new ClassNotFoundInRegionException(name, getArtifactId(), artifactClassLoader.getArtifactId(), e);
-        }
-      } else {
-        throw new ClassNotFoundInRegionException(name, getArtifactId());
+    final String packageName = getPackageName(name);
+
+    final ArtifactClassLoader artifactClassLoader = routingTable.packageMapping.get(packageName);
+    if (artifactClassLoader != null) {
+      try {
+        return artifactClassLoader.findLocalClass(name);
+      } catch (ClassNotFoundException e) {
+        throw new ClassNotFoundInRegionException(name, getArtifactId(), artifactClassLoader.getArtifactId(), e);
       }
-    } finally {
-      innerStateReadLock.unlock();
+    } else {
+      throw new ClassNotFoundInRegionException(name, getArtifactId());
     }
   }
 
   @Override
   public final URL findResource(final String name) {
     URL resource = null;
-    final List<ArtifactClassLoader> artifactClassLoaders = resourceMapping.get(name);
+    final ArtifactClassLoader[] artifactClassLoaders = routingTable.resourceMapping.get(name);
     if (artifactClassLoaders != null) {
       for (ArtifactClassLoader artifactClassLoader : artifactClassLoaders) {
         resource = artifactClassLoader.findResource(name);
@@ -234,16 +233,16 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
 
   @Override
   public final Enumeration<URL> findResources(final String name) throws IOException {
-    final List<ArtifactClassLoader> artifactClassLoaders = resourceMapping.get(name);
-    List<Enumeration<URL>> enumerations = new ArrayList<>(registeredClassLoaders.size());
-
-    if (artifactClassLoaders != null) {
-      for (ArtifactClassLoader artifactClassLoader : artifactClassLoaders) {
+    final ArtifactClassLoader[] artifactClassLoaders = routingTable.resourceMapping.get(name);
+    if (artifactClassLoaders == null) {
+      return emptyEnumeration();
+    }
 
-        final Enumeration<URL> partialResources = artifactClassLoader.findResources(name);
-        if (partialResources.hasMoreElements()) {
-          enumerations.add(partialResources);
-        }
+    List<Enumeration<URL>> enumerations = new ArrayList<>(artifactClassLoaders.length);
+    for (ArtifactClassLoader artifactClassLoader : artifactClassLoaders) {
+      final Enumeration<URL> partialResources = artifactClassLoader.findResources(name);
+      if (partialResources.hasMoreElements()) {
+        enumerations.add(partialResources);
       }
     }
 
@@ -302,6 +301,25 @@ public class RegionClassLoader extends MuleDeployableArtifactClassLoader {
     return "Region already contains classloader for artifact:" + artifactId;
   }
 
+  /**
+   * Immutable snapshot of the package and resource mappings of the region, used to route the lookups to the members.
+   */
+  private static final class RoutingTable {
+
+    final Map<String, ArtifactClassLoader> packageMapping;
+    final Map<String, ArtifactClassLoader[]> resourceMapping;
+
+    private RoutingTable(Map<String, ArtifactClassLoader> packageMapping,
+                         Map<String, List<ArtifactClassLoader>> resourceMapping) {
+      this.packageMapping = ImmutableMap.copyOf(packageMapping);
+
+      ImmutableMap.Builder<String, ArtifactClassLoader[]> resourceMappingBuilder = ImmutableMap.builder();
+      resourceMapping.forEach((resource, classLoaders) -> resourceMappingBuilder
+          .put(resource, classLoaders.toArray(new ArtifactClassLoader[classLoaders.size()])));
+      this.resourceMapping = resourceMappingBuilder.build();
+    }
+  }
+
   private static class RegionMemberClassLoader {
 
     final ArtifactClassLoader unfilteredClassLoader;
@@ -11,14 +11,14 @@ import static org.apache.commons.io.FileUtils.listFiles;
 import static org.apache.commons.lang3.ClassUtils.getPackageName;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.net.URI;
 import java.util.Collection;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Set;
 import java.util.zip.ZipEntry;
-import java.util.zip.ZipInputStream;
+import java.util.zip.ZipFile;
 
 import org.apache.commons.io.filefilter.TrueFileFilter;
 
@@ -55,8 +55,10 @@ public class FileJarExplorer implements JarExplorer {
       } else {
         if (libraryFile.getName().toLowerCase().endsWith(".jar")) {
 
-          try (ZipInputStream zip = new ZipInputStream(new FileInputStream(libraryFile))) {
-            for (ZipEntry entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+          // Reads only the central directory, without inflating the entries
+          try (ZipFile zip = new ZipFile(libraryFile)) {
+            for (Enumeration<? extends ZipEntry> entries = zip.entries(); entries.hasMoreElements();) {
+              final ZipEntry entry = entries.nextElement();
               if (entry.isDirectory()) {
                 continue;
               }
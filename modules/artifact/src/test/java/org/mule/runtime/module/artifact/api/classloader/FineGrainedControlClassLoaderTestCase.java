@@ -12,10 +12,15 @@ import static org.hamcrest.CoreMatchers.sameInstance;
 import static org.hamcrest.CoreMatchers.startsWith;
 import static org.hamcrest.Matchers.contains;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mule.runtime.module.artifact.api.classloader.ChildFirstLookupStrategy.CHILD_FIRST;
+import static org.mule.runtime.module.artifact.api.classloader.ChildOnlyLookupStrategy.CHILD_ONLY;
 import static org.mule.runtime.module.artifact.api.classloader.ParentFirstLookupStrategy.PARENT_FIRST;
 import static org.mule.runtime.module.artifact.api.classloader.ParentOnlyLookupStrategy.PARENT_ONLY;
 import static org.mule.tck.junit4.matcher.FunctionExpressionMatcher.expressionMatches;
@@ -31,6 +36,7 @@ import org.mule.tck.size.SmallTest;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.junit.Rule;
 import org.junit.Test;
@@ -174,6 +180,126 @@ public class FineGrainedControlClassLoaderTestCase extends AbstractMuleTestCase
     invokeTestClassMethod(ext);
   }
 
+  @Test
+  public void notFoundClassThroughOtherClassLoadersIsNotRemembered() throws Exception {
+    ClassLoader parent = mock(ClassLoader.class);
+    final ClassNotFoundException thrownException = new ClassNotFoundException("ERROR");
+    when(parent.loadClass(TEST_CLASS_NAME)).thenThrow(thrownException);
+
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(TEST_CLASS_NAME)).thenReturn(PARENT_ONLY);
+
+    FineGrainedControlClassLoader ext =
+        new FineGrainedControlClassLoader(new URL[] {getChildFileResource()}, parent, lookupPolicy);
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        ext.loadClass(TEST_CLASS_NAME);
+        fail("Class should not be found");
+      } catch (CompositeClassNotFoundException e) {
+        assertThat(e.getClassName(), is(TEST_CLASS_NAME));
+        assertThat(e.getExceptions(), contains(sameInstance(thrownException)));
+      }
+    }
+
+    verify(parent, times(2)).loadClass(TEST_CLASS_NAME);
+  }
+
+  @Test
+  public void notFoundLocalOnlyClassIsRemembered() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(TEST_CLASS_NAME)).thenReturn(CHILD_ONLY);
+    final AtomicInteger localLookups = new AtomicInteger();
+
+    FineGrainedControlClassLoader ext =
+        new FineGrainedControlClassLoader(new URL[0], Thread.currentThread().getContextClassLoader(), lookupPolicy) {
+
+          @Override
+          public Class<?> findLocalClass(String name) throws ClassNotFoundException {
+            localLookups.incrementAndGet();
+            return super.findLocalClass(name);
+          }
+        };
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        ext.loadClass(TEST_CLASS_NAME);
+        fail("Class should not be found");
+      } catch (CompositeClassNotFoundException e) {
+        assertThat(e.getClassName(), is(TEST_CLASS_NAME));
+      }
+    }
+    assertThat(localLookups.get(), is(1));
+
+    ext.addURL(getChildFileResource());
+    assertThat(ext.loadClass(TEST_CLASS_NAME).getName(), is(TEST_CLASS_NAME));
+  }
+
+  @Test
+  public void notFoundLocalClassIsRememberedForChildFirstLookup() throws Exception {
+    ClassLoader parent = mock(ClassLoader.class);
+    final ClassNotFoundException thrownException = new ClassNotFoundException("ERROR");
+    when(parent.loadClass(TEST_CLASS_NAME)).thenThrow(thrownException);
+
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(TEST_CLASS_NAME)).thenReturn(CHILD_FIRST);
+    final AtomicInteger localLookups = new AtomicInteger();
+
+    FineGrainedControlClassLoader ext = new FineGrainedControlClassLoader(new URL[0], parent, lookupPolicy) {
+
+      @Override
+      public Class<?> findLocalClass(String name) throws ClassNotFoundException {
+        localLookups.incrementAndGet();
+        return super.findLocalClass(name);
+      }
+    };
+
+    for (int i = 0; i < 2; i++) {
+      try {
+        ext.loadClass(TEST_CLASS_NAME);
+        fail("Class should not be found");
+      } catch (CompositeClassNotFoundException e) {
+        assertThat(e.getClassName(), is(TEST_CLASS_NAME));
+        assertThat(e.getExceptions().get(1), sameInstance(thrownException));
+      }
+    }
+    assertThat(localLookups.get(), is(1));
+    verify(parent, times(2)).loadClass(TEST_CLASS_NAME);
+  }
+
+  @Test
+  public void localClassOutsideIndexedPackagesIsNotFound() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(Object.class.getName())).thenReturn(PARENT_ONLY);
+    FineGrainedControlClassLoader ext = new FineGrainedControlClassLoader(new URL[] {getChildFileResource()},
+                                                                          Thread.currentThread().getContextClassLoader(),
+                                                                          lookupPolicy);
+
+    assertThat(ext.findLocalClass(TEST_CLASS_NAME).getName(), is(TEST_CLASS_NAME));
+
+    expected.expect(ClassNotFoundException.class);
+    expected.expectMessage(is("otherpackage.MyClass"));
+    ext.findLocalClass("otherpackage.MyClass");
+  }
+
+  @Test
+  public void addedUrlIsIndexed() throws Exception {
+    final ClassLoaderLookupPolicy lookupPolicy = mock(ClassLoaderLookupPolicy.class);
+    when(lookupPolicy.getClassLookupStrategy(Object.class.getName())).thenReturn(PARENT_ONLY);
+    FineGrainedControlClassLoader ext =
+        new FineGrainedControlClassLoader(new URL[0], Thread.currentThread().getContextClassLoader(), lookupPolicy);
+
+    try {
+      ext.findLocalClass(TEST_CLASS_NAME);
+      fail("Class should not be found");
+    } catch (ClassNotFoundException e) {
+      // expected
+    }
+
+    ext.addURL(getChildFileResource());
+    assertThat(ext.findLocalClass(TEST_CLASS_NAME).getName(), is(TEST_CLASS_NAME));
+  }
+
   protected FineGrainedControlClassLoader buildFineGrainedControlClassLoader(ClassLoader parent,
                                                                              final ClassLoaderLookupPolicy lookupPolicy) {
     return new FineGrainedControlClassLoader(new URL[0], parent, lookupPolicy) {
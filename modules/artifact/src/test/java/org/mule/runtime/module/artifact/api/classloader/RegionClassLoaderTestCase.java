@@ -206,6 +206,19 @@ public class RegionClassLoaderTestCase extends AbstractMuleTestCase {
     Assert.assertThat(resources, EnumerationMatcher.equalTo(expectedResources));
   }
 
+  @Test
+  public void findsNoResourcesWhenIsNotExportedByAnyRegionMember() throws Exception {
+    RegionClassLoader regionClassLoader =
+        new RegionClassLoader(ARTIFACT_ID, artifactDescriptor, mock(ClassLoader.class), lookupPolicy);
+    createClassLoaders(regionClassLoader);
+
+    regionClassLoader.addClassLoader(appClassLoader, NULL_CLASSLOADER_FILTER);
+    appClassLoader.addResource(RESOURCE_NAME, APP_LOADED_RESOURCE);
+
+    assertThat(regionClassLoader.findResources(RESOURCE_NAME).hasMoreElements(), is(false));
+    assertThat(regionClassLoader.findResource(RESOURCE_NAME), is(CoreMatchers.nullValue()));
+  }
+
   @Test
   public void disposesClassLoaders() throws Exception {
     when(lookupPolicy.getClassLookupStrategy(anyString())).thenReturn(PARENT_FIRST);
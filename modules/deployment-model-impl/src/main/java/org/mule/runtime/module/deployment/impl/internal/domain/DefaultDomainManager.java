@@ -10,15 +10,18 @@ package org.mule.runtime.module.deployment.impl.internal.domain;
 import static java.lang.String.format;
 import org.mule.runtime.deployment.model.api.domain.Domain;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
  * Manages {@link Domain} instances created on the container.
+ * <p>
+ * Domains may be deployed in parallel, and applications look up their domains while others are being added, so this class is
+ * thread safe.
  */
 public class DefaultDomainManager implements DomainRepository, DomainManager {
 
-  private Map<String, Domain> domains = new HashMap();
+  private final ConcurrentMap<String, Domain> domains = new ConcurrentHashMap<>();
 
   @Override
   public Domain getDomain(String name) {
@@ -27,10 +30,9 @@ public class DefaultDomainManager implements DomainRepository, DomainManager {
 
   @Override
   public void addDomain(Domain domain) {
-    if (domains.containsKey(domain.getArtifactName())) {
+    if (domains.putIfAbsent(domain.getArtifactName(), domain) != null) {
       throw new IllegalArgumentException(format("Domain '%s' already exists", domain.getArtifactName()));
     }
-    domains.put(domain.getArtifactName(), domain);
   }
 
   @Override
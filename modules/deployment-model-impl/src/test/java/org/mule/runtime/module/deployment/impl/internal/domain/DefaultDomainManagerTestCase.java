@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.deployment.impl.internal.domain;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import org.mule.runtime.deployment.model.api.domain.Domain;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import org.junit.Test;
+
+@SmallTest
+public class DefaultDomainManagerTestCase extends AbstractMuleTestCase {
+
+  private static final int DOMAINS = 200;
+  private static final int THREADS = 8;
+
+  private final DefaultDomainManager domainManager = new DefaultDomainManager();
+
+  @Test
+  public void addsDomainsConcurrently() throws Exception {
+    List<Domain> domains = new ArrayList<>();
+    for (int i = 0; i < DOMAINS; ++i) {
+      domains.add(createDomain("domain" + i));
+    }
+
+    ExecutorService executor = newFixedThreadPool(THREADS);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<?>> additions = new ArrayList<>();
+      for (int thread = 0; thread < THREADS; ++thread) {
+        int first = thread;
+        additions.add(executor.submit(() -> {
+          start.await();
+          for (int i = first; i < DOMAINS; i += THREADS) {
+            domainManager.addDomain(domains.get(i));
+            // look up domains while others are being added, as applications do
+            domainManager.getDomain("domain" + (DOMAINS - 1 - i));
+          }
+          return null;
+        }));
+      }
+      start.countDown();
+      for (Future<?> addition : additions) {
+        addition.get(10, SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    for (Domain domain : domains) {
+      assertThat(domainManager.getDomain(domain.getArtifactName()), is(sameInstance(domain)));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void failsToAddExistingDomain() {
+    domainManager.addDomain(createDomain("domain"));
+    domainManager.addDomain(createDomain("domain"));
+  }
+
+  private static Domain createDomain(String name) {
+    Domain domain = mock(Domain.class);
+    when(domain.getArtifactName()).thenReturn(name);
+    return domain;
+  }
+}
@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.deployment.internal;
+
+import static java.lang.System.nanoTime;
+import static java.util.Optional.ofNullable;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.runtime.api.util.Preconditions.checkArgument;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Runs the deployment of a set of artifacts in parallel, starting the deployment of each artifact as soon as the deployments it
+ * depends on have finished, and keeps the outcome and duration of each deployment.
+ * <p>
+ * A deployment starts even if one of its dependencies failed, so that it fails and is tracked the same way it would be if the
+ * artifacts were deployed one after another.
+ *
+ * @since 4.0
+ */
+public class ArtifactDeploymentScheduler {
+
+  /**
+   * A deployment action which may fail.
+   */
+  @FunctionalInterface
+  public interface Deployment {
+
+    void deploy() throws Exception;
+  }
+
+  private final Map<String, DeploymentTask> tasks = new LinkedHashMap<>();
+
+  /**
+   * Adds a deployment to run.
+   *
+   * @param artifactId identifies the deployed artifact. Non empty.
+   * @param deployment the deployment action
+   * @param dependencies the ids of the artifacts that have to be deployed before this one. Ids of artifacts not added to this
+   *        scheduler are ignored.
+   */
+  public void addDeployment(String artifactId, Deployment deployment, Collection<String> dependencies) {
+    checkArgument(!tasks.containsKey(artifactId), "Artifact " + artifactId + " was already added");
+    tasks.put(artifactId, new DeploymentTask(artifactId, deployment, dependencies));
+  }
+
+  /**
+   * Runs the added deployments, never running more than {@code maxConcurrentDeployments} at the same time. New deployments are
+   * only submitted from the calling thread, which waits for all of them to finish.
+   *
+   * @param executor the executor to run the deployments on
+   * @param maxConcurrentDeployments maximum number of deployments to run at the same time
+   * @return the result of each deployment, in the order in which they were added
+   * @throws InterruptedException if the calling thread is interrupted while waiting for the deployments. Running deployments are
+   *         not cancelled.
+   */
+  public List<DeploymentResult> run(ExecutorService executor, int maxConcurrentDeployments) throws InterruptedException {
+    checkArgument(maxConcurrentDeployments > 0, "maxConcurrentDeployments must be greater than zero");
+
+    Deque<DeploymentTask> ready = new ArrayDeque<>();
+    for (DeploymentTask task : tasks.values()) {
+      for (String dependency : task.dependencies) {
+        DeploymentTask dependencyTask = tasks.get(dependency);
+        if (dependencyTask != null && dependencyTask != task) {
+          dependencyTask.dependents.add(task);
+          task.pendingDependencies++;
+        }
+      }
+    }
+    for (DeploymentTask task : tasks.values()) {
+      if (task.pendingDependencies == 0) {
+        ready.add(task);
+      }
+    }
+
+    CompletionService<DeploymentTask> completionService = new ExecutorCompletionService<>(executor);
+    int running = 0;
+    int finished = 0;
+    while (finished < tasks.size()) {
+      while (running < maxConcurrentDeployments && !ready.isEmpty()) {
+        DeploymentTask task = ready.poll();
+        completionService.submit(task::run, task);
+        running++;
+      }
+      if (running == 0) {
+        throw new IllegalStateException("Artifact deployments have circular dependencies");
+      }
+
+      DeploymentTask task;
+      try {
+        task = completionService.take().get();
+      } catch (ExecutionException e) {
+        // DeploymentTask#run catches any failure of the deployment
+        throw new IllegalStateException(e.getCause());
+      }
+      running--;
+      finished++;
+      for (DeploymentTask dependent : task.dependents) {
+        if (--dependent.pendingDependencies == 0) {
+          ready.add(dependent);
+        }
+      }
+    }
+
+    List<DeploymentResult> results = new ArrayList<>(tasks.size());
+    for (DeploymentTask task : tasks.values()) {
+      results.add(new DeploymentResult(task.artifactId, task.durationMillis, task.failure));
+    }
+    return results;
+  }
+
+  private static final class DeploymentTask {
+
+    private final String artifactId;
+    private final Deployment deployment;
+    private final Collection<String> dependencies;
+    private final List<DeploymentTask> dependents = new ArrayList<>();
+    private int pendingDependencies;
+
+    private volatile long durationMillis;
+    private volatile Throwable failure;
+
+    private DeploymentTask(String artifactId, Deployment deployment, Collection<String> dependencies) {
+      this.artifactId = artifactId;
+      this.deployment = deployment;
+      this.dependencies = dependencies;
+    }
+
+    private void run() {
+      long start = nanoTime();
+      try {
+        deployment.deploy();
+      } catch (Throwable t) {
+        failure = t;
+      } finally {
+        durationMillis = NANOSECONDS.toMillis(nanoTime() - start);
+      }
+    }
+  }
+
+  /**
+   * Outcome of the deployment of an artifact.
+   */
+  public static final class DeploymentResult {
+
+    private final String artifactId;
+    private final long durationMillis;
+    private final Throwable failure;
+
+    private DeploymentResult(String artifactId, long durationMillis, Throwable failure) {
+      this.artifactId = artifactId;
+      this.durationMillis = durationMillis;
+      this.failure = failure;
+    }
+
+    /**
+     * @return the id of the deployed artifact
+     */
+    public String getArtifactId() {
+      return artifactId;
+    }
+
+    /**
+     * @return how long the deployment took
+     */
+    public long getDurationMillis() {
+      return durationMillis;
+    }
+
+    /**
+     * @return the error that made the deployment fail, or {@link Optional#empty()} if it was successful
+     */
+    public Optional<Throwable> getFailure() {
+      return ofNullable(failure);
+    }
+  }
+}
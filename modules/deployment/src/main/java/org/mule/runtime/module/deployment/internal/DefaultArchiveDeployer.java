@@ -31,6 +31,7 @@ import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.beanutils.BeanPropertyValueEqualsPredicate;
 import org.apache.commons.beanutils.BeanToPropertyValueTransformer;
@@ -49,7 +50,7 @@ public class DefaultArchiveDeployer<T extends DeployableArtifact> implements Arc
 
   private final ArtifactDeployer<T> deployer;
   private final ArtifactArchiveInstaller artifactArchiveInstaller;
-  private final Map<String, ZombieArtifact> artifactZombieMap = new HashMap<String, ZombieArtifact>();
+  private final Map<String, ZombieArtifact> artifactZombieMap = new ConcurrentHashMap<>();
   private final File artifactDir;
   private final ObservableList<T> artifacts;
   private final ArtifactDeploymentTemplate deploymentTemplate;
@@ -200,13 +201,12 @@ public class DefaultArchiveDeployer<T extends DeployableArtifact> implements Arc
   @Override
   public Map<String, Map<URI, Long>> getArtifactsZombieMap() {
     Map<String, Map<URI, Long>> result = new HashMap<>();
-    for (String artifact : artifactZombieMap.keySet()) {
+    for (Map.Entry<String, ZombieArtifact> artifact : artifactZombieMap.entrySet()) {
       Map<URI, Long> tmpMap = new HashMap<>();
-      ZombieArtifact zombieArtifact = artifactZombieMap.get(artifact);
-      for (Map.Entry<File, Long> file : zombieArtifact.initialResourceFiles.entrySet()) {
+      for (Map.Entry<File, Long> file : artifact.getValue().initialResourceFiles.entrySet()) {
         tmpMap.put(file.getKey().toURI(), file.getValue());
       }
-      result.put(artifact, tmpMap);
+      result.put(artifact.getKey(), tmpMap);
     }
     return result;
   }
@@ -339,7 +339,6 @@ public class DefaultArchiveDeployer<T extends DeployableArtifact> implements Arc
   }
 
   private void addZombieFile(String artifactName, File marker) {
-    // no sync required as deploy operations are single-threaded
     if (marker == null) {
       return;
     }
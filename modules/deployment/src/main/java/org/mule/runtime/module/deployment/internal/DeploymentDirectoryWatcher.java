@@ -72,7 +72,7 @@ public class DeploymentDirectoryWatcher implements Runnable {
   protected transient final Logger logger = LoggerFactory.getLogger(getClass());
 
   private final ReentrantLock deploymentLock;
-  private final ArchiveDeployer<Domain> domainArchiveDeployer;
+  protected final ArchiveDeployer<Domain> domainArchiveDeployer;
   protected final ArchiveDeployer<Application> applicationArchiveDeployer;
   protected final Supplier<SchedulerService> schedulerServiceSupplier;
   private final ArtifactTimestampListener<Application> applicationTimestampListener;
@@ -135,35 +135,8 @@ public class DeploymentDirectoryWatcher implements Runnable {
       String[] explodedDomains = domainsDir.list(DirectoryFileFilter.DIRECTORY);
       String[] packagedDomains = domainsDir.list(ZIP_ARTIFACT_FILTER);
 
-      deployPackedDomains(packagedDomains);
-      deployExplodedDomains(explodedDomains);
-
-      if (appString == null) {
-        String[] explodedApps = appsDir.list(DirectoryFileFilter.DIRECTORY);
-        String[] packagedApps = appsDir.list(ZIP_ARTIFACT_FILTER);
-
-        deployPackedApps(packagedApps);
-        deployExplodedApps(explodedApps);
-      } else {
-        String[] apps = appString.split(":");
-        apps = removeDuplicateAppNames(apps);
-
-        for (String app : apps) {
-          try {
-            File applicationFile = new File(appsDir, app + JAR_FILE_SUFFIX);
-
-            if (applicationFile.exists() && applicationFile.isFile()) {
-              applicationArchiveDeployer.deployPackagedArtifact(app + JAR_FILE_SUFFIX);
-            } else {
-              if (applicationArchiveDeployer.isUpdatedZombieArtifact(app)) {
-                applicationArchiveDeployer.deployExplodedArtifact(app);
-              }
-            }
-          } catch (Exception e) {
-            // Ignore and continue
-          }
-        }
-      }
+      deployArtifactsOnStartup(packagedDomains, explodedDomains,
+                               appString == null ? null : removeDuplicateAppNames(appString.split(":")));
     } finally {
       if (deploymentLock.isHeldByCurrentThread()) {
         deploymentLock.unlock();
@@ -181,6 +154,53 @@ public class DeploymentDirectoryWatcher implements Runnable {
     }
   }
 
+  /**
+   * Deploys the domains and applications found in the deployment directories when the container starts.
+   *
+   * @param packedDomains the file names of the packed domains
+   * @param explodedDomains the names of the exploded domains
+   * @param selectedApps the names of the applications to deploy, in the order they have to be deployed, or {@code null} to
+   *        deploy every application in the deployment directory
+   */
+  protected void deployArtifactsOnStartup(String[] packedDomains, String[] explodedDomains, String[] selectedApps) {
+    deployPackedDomains(packedDomains);
+    deployExplodedDomains(explodedDomains);
+
+    if (selectedApps == null) {
+      String[] explodedApps = appsDir.list(DirectoryFileFilter.DIRECTORY);
+      String[] packagedApps = appsDir.list(ZIP_ARTIFACT_FILTER);
+
+      deployPackedApps(packagedApps);
+      deployExplodedApps(explodedApps);
+    } else {
+      for (String app : selectedApps) {
+        try {
+          deploySelectedApp(app);
+        } catch (Exception e) {
+          // Ignore and continue
+        }
+      }
+    }
+  }
+
+  /**
+   * Deploys an application selected to be deployed on startup, either packed or exploded.
+   *
+   * @param app name of the application
+   * @throws DeploymentException if the application cannot be deployed
+   */
+  protected void deploySelectedApp(String app) throws DeploymentException {
+    File applicationFile = new File(appsDir, app + JAR_FILE_SUFFIX);
+
+    if (applicationFile.exists() && applicationFile.isFile()) {
+      applicationArchiveDeployer.deployPackagedArtifact(app + JAR_FILE_SUFFIX);
+    } else {
+      if (applicationArchiveDeployer.isUpdatedZombieArtifact(app)) {
+        applicationArchiveDeployer.deployExplodedArtifact(app);
+      }
+    }
+  }
+
   /**
    * Stops the deployment scan service.
    */
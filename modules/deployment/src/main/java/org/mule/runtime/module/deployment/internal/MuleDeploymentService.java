@@ -16,7 +16,6 @@ import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.api.service.Service;
 import org.mule.runtime.api.util.Preconditions;
 import org.mule.runtime.api.scheduler.SchedulerService;
-import org.mule.runtime.core.internal.config.StartupContext;
 import org.mule.runtime.deployment.model.api.DeploymentException;
 import org.mule.runtime.deployment.model.api.application.Application;
 import org.mule.runtime.deployment.model.api.domain.Domain;
@@ -49,11 +48,11 @@ import static java.lang.System.getProperties;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.apache.commons.io.FileUtils.copyDirectory;
 import static org.apache.commons.io.FileUtils.toFile;
-import static org.apache.commons.lang3.StringUtils.isEmpty;
 import static org.mule.runtime.container.api.MuleFoldersUtil.getAppsFolder;
 import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
 import static org.mule.runtime.module.deployment.internal.ArtifactDeploymentTemplate.NOP_ARTIFACT_DEPLOYMENT_TEMPLATE;
 import static org.mule.runtime.module.deployment.internal.DefaultArchiveDeployer.JAR_FILE_SUFFIX;
+import static org.mule.runtime.module.deployment.internal.ParallelDeploymentDirectoryWatcher.DEFAULT_MAX_CONCURRENT_DEPLOYMENTS;
 
 public class MuleDeploymentService implements DeploymentService {
 
@@ -99,14 +98,11 @@ public class MuleDeploymentService implements DeploymentService {
     this.domainDeployer.setDeploymentListener(domainDeploymentListener);
 
     if (useParallelDeployment()) {
-      if (isDeployingSelectedAppsInOrder()) {
-        throw new IllegalArgumentException("Deployment parameters 'app' and '" + PARALLEL_DEPLOYMENT_PROPERTY
-            + "' cannot be used together");
-      }
-      logger.info("Using parallel deployment");
+      int maxConcurrentDeployments = getMaxConcurrentDeployments();
+      logger.info("Using parallel deployment with up to {} concurrent deployments", maxConcurrentDeployments);
       this.deploymentDirectoryWatcher =
           new ParallelDeploymentDirectoryWatcher(domainDeployer, applicationDeployer, domains, applications,
-                                                 schedulerServiceSupplier, deploymentLock);
+                                                 schedulerServiceSupplier, deploymentLock, maxConcurrentDeployments);
     } else {
       this.deploymentDirectoryWatcher =
           new DeploymentDirectoryWatcher(domainDeployer, applicationDeployer, domains, applications, schedulerServiceSupplier,
@@ -118,11 +114,21 @@ public class MuleDeploymentService implements DeploymentService {
     return getProperties().containsKey(PARALLEL_DEPLOYMENT_PROPERTY);
   }
 
-  private boolean isDeployingSelectedAppsInOrder() {
-    final Map<String, Object> options = StartupContext.get().getStartupOptions();
-    String appString = (String) options.get("app");
-
-    return !isEmpty(appString);
+  /**
+   * @return the maximum number of concurrent deployments, from the value of {@link #PARALLEL_DEPLOYMENT_PROPERTY} if it is a
+   *         positive number, or {@link ParallelDeploymentDirectoryWatcher#DEFAULT_MAX_CONCURRENT_DEPLOYMENTS} otherwise.
+   */
+  private int getMaxConcurrentDeployments() {
+    String value = getProperties().getProperty(PARALLEL_DEPLOYMENT_PROPERTY);
+    try {
+      int maxConcurrentDeployments = Integer.parseInt(value.trim());
+      if (maxConcurrentDeployments > 0) {
+        return maxConcurrentDeployments;
+      }
+    } catch (NumberFormatException e) {
+      // Use the default
+    }
+    return DEFAULT_MAX_CONCURRENT_DEPLOYMENTS;
   }
 
   @Override
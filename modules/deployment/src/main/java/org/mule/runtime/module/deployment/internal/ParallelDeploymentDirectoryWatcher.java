@@ -7,36 +7,195 @@
 
 package org.mule.runtime.module.deployment.internal;
 
+import static java.io.File.separatorChar;
+import static java.lang.String.format;
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyList;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.apache.commons.lang3.StringUtils.removeEndIgnoreCase;
 import static org.mule.runtime.api.scheduler.SchedulerConfig.config;
-
+import static org.mule.runtime.deployment.model.api.domain.DomainDescriptor.DEFAULT_DOMAIN_NAME;
+import static org.mule.runtime.module.artifact.api.descriptor.ArtifactDescriptor.MULE_ARTIFACT_JSON_DESCRIPTOR_LOCATION;
+import static org.mule.runtime.module.deployment.internal.DefaultArchiveDeployer.JAR_FILE_SUFFIX;
+import org.mule.runtime.api.deployment.persistence.MuleApplicationModelJsonSerializer;
 import org.mule.runtime.api.scheduler.Scheduler;
 import org.mule.runtime.api.scheduler.SchedulerService;
 import org.mule.runtime.deployment.model.api.application.Application;
 import org.mule.runtime.deployment.model.api.domain.Domain;
+import org.mule.runtime.module.deployment.internal.ArtifactDeploymentScheduler.DeploymentResult;
 import org.mule.runtime.module.deployment.internal.util.ObservableList;
 
+import java.io.File;
+import java.io.InputStream;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.concurrent.Callable;
-import java.util.concurrent.ExecutionException;
-import java.util.concurrent.Future;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.filefilter.DirectoryFileFilter;
 
 /**
- * Provides parallel deployment of Mule applications.
+ * Provides parallel deployment of Mule domains and applications.
+ * <p>
+ * On startup, domains are deployed in parallel, and each application is deployed as soon as the domain it belongs to has been
+ * deployed. When the applications to deploy are selected, each one is deployed after the previous one, preserving the requested
+ * order. The outcome and duration of each deployment is logged once all of them have finished.
  *
  * @since 3.8.2
  */
 public class ParallelDeploymentDirectoryWatcher extends DeploymentDirectoryWatcher {
 
-  private Scheduler threadPoolExecutor;
+  /**
+   * Default maximum number of artifacts deployed at the same time.
+   */
+  public static final int DEFAULT_MAX_CONCURRENT_DEPLOYMENTS = 20;
+
+  private static final String APPLICATION_DESCRIPTOR_ENTRY = MULE_ARTIFACT_JSON_DESCRIPTOR_LOCATION.replace(separatorChar, '/');
+
+  private final int maxConcurrentDeployments;
 
   public ParallelDeploymentDirectoryWatcher(ArchiveDeployer<Domain> domainArchiveDeployer,
                                             ArchiveDeployer<Application> applicationArchiveDeployer,
                                             ObservableList<Domain> domains, ObservableList<Application> applications,
                                             Supplier<SchedulerService> schedulerServiceSupplier, ReentrantLock deploymentLock) {
+    this(domainArchiveDeployer, applicationArchiveDeployer, domains, applications, schedulerServiceSupplier, deploymentLock,
+         DEFAULT_MAX_CONCURRENT_DEPLOYMENTS);
+  }
+
+  public ParallelDeploymentDirectoryWatcher(ArchiveDeployer<Domain> domainArchiveDeployer,
+                                            ArchiveDeployer<Application> applicationArchiveDeployer,
+                                            ObservableList<Domain> domains, ObservableList<Application> applications,
+                                            Supplier<SchedulerService> schedulerServiceSupplier, ReentrantLock deploymentLock,
+                                            int maxConcurrentDeployments) {
     super(domainArchiveDeployer, applicationArchiveDeployer, domains, applications, schedulerServiceSupplier, deploymentLock);
+    this.maxConcurrentDeployments = maxConcurrentDeployments;
+  }
+
+  @Override
+  protected void deployArtifactsOnStartup(String[] packedDomains, String[] explodedDomains, String[] selectedApps) {
+    runDeployments(createStartupDeployments(packedDomains, explodedDomains, selectedApps));
+  }
+
+  /**
+   * Creates the deployments of the domains and applications found on startup, with the dependencies between them.
+   *
+   * @param packedDomains the file names of the packed domains
+   * @param explodedDomains the names of the exploded domains
+   * @param selectedApps the names of the applications to deploy, in the order they have to be deployed, or {@code null} to
+   *        deploy every application in the deployment directory
+   * @return a scheduler with the deployments to run
+   */
+  ArtifactDeploymentScheduler createStartupDeployments(String[] packedDomains, String[] explodedDomains,
+                                                       String[] selectedApps) {
+    ArtifactDeploymentScheduler scheduler = new ArtifactDeploymentScheduler();
+
+    Set<String> domainNames = new LinkedHashSet<>();
+    for (String zip : packedDomains) {
+      String domainName = removeEndIgnoreCase(zip, JAR_FILE_SUFFIX);
+      domainNames.add(domainName);
+      scheduler.addDeployment(getDomainId(domainName), () -> domainArchiveDeployer.deployPackagedArtifact(zip), emptyList());
+    }
+    for (String domainName : explodedDomains) {
+      // A packed domain is exploded when deployed, so it doesn't need to be deployed again
+      if (domainNames.add(domainName)) {
+        scheduler.addDeployment(getDomainId(domainName), () -> {
+          if (domainArchiveDeployer.isUpdatedZombieArtifact(domainName)) {
+            domainArchiveDeployer.deployExplodedArtifact(domainName);
+          }
+        }, emptyList());
+      }
+    }
+
+    File appsDir = applicationArchiveDeployer.getDeploymentDirectory();
+    Map<String, String> packedApps = new LinkedHashMap<>();
+    for (String zip : appsDir.list(ZIP_ARTIFACT_FILTER)) {
+      packedApps.put(removeEndIgnoreCase(zip, JAR_FILE_SUFFIX), zip);
+    }
+
+    if (selectedApps == null) {
+      Set<String> appNames = new LinkedHashSet<>(packedApps.keySet());
+      for (String appName : appsDir.list(DirectoryFileFilter.DIRECTORY)) {
+        appNames.add(appName);
+      }
+      for (String appName : appNames) {
+        String zip = packedApps.get(appName);
+        scheduler.addDeployment(getAppId(appName), () -> {
+          if (zip != null) {
+            applicationArchiveDeployer.deployPackagedArtifact(zip);
+          } else if (applicationArchiveDeployer.isUpdatedZombieArtifact(appName)) {
+            applicationArchiveDeployer.deployExplodedArtifact(appName);
+          }
+        }, getDomainDependencies(appsDir, appName, packedApps.get(appName), domainNames));
+      }
+    } else {
+      String previousApp = null;
+      for (String appName : selectedApps) {
+        List<String> dependencies =
+            new ArrayList<>(getDomainDependencies(appsDir, appName, packedApps.get(appName), domainNames));
+        if (previousApp != null) {
+          dependencies.add(getAppId(previousApp));
+        }
+        scheduler.addDeployment(getAppId(appName), () -> deploySelectedApp(appName), dependencies);
+        previousApp = appName;
+      }
+    }
+
+    return scheduler;
+  }
+
+  /**
+   * Finds the domain an application belongs to from its descriptor, without deploying it.
+   *
+   * @return the id of the domain of the application or, if the descriptor of the application cannot be read, the ids of every
+   *         domain.
+   */
+  private Collection<String> getDomainDependencies(File appsDir, String appName, String zip, Set<String> domainNames) {
+    try {
+      String descriptor = null;
+      if (zip != null) {
+        try (ZipFile zipFile = new ZipFile(new File(appsDir, zip))) {
+          ZipEntry descriptorEntry = zipFile.getEntry(APPLICATION_DESCRIPTOR_ENTRY);
+          if (descriptorEntry != null) {
+            try (InputStream descriptorStream = zipFile.getInputStream(descriptorEntry)) {
+              descriptor = IOUtils.toString(descriptorStream, UTF_8);
+            }
+          }
+        }
+      } else {
+        File descriptorFile = new File(new File(appsDir, appName), MULE_ARTIFACT_JSON_DESCRIPTOR_LOCATION);
+        if (descriptorFile.exists()) {
+          descriptor = FileUtils.readFileToString(descriptorFile, UTF_8);
+        }
+      }
+
+      if (descriptor != null) {
+        String domainName = new MuleApplicationModelJsonSerializer().deserialize(descriptor).getDomain()
+            .orElse(DEFAULT_DOMAIN_NAME);
+        List<String> dependencies = new ArrayList<>(1);
+        dependencies.add(getDomainId(domainName));
+        return dependencies;
+      }
+    } catch (Exception e) {
+      if (logger.isDebugEnabled()) {
+        logger.debug(format("Could not read the domain of application '%s', it will be deployed after every domain", appName), e);
+      }
+    }
+
+    List<String> dependencies = new ArrayList<>(domainNames.size());
+    for (String domainName : domainNames) {
+      dependencies.add(getDomainId(domainName));
+    }
+    return dependencies;
   }
 
   @Override
@@ -45,62 +204,75 @@ public class ParallelDeploymentDirectoryWatcher extends DeploymentDirectoryWatch
       return;
     }
 
-    List<Callable<Object>> tasks = new ArrayList<>(zips.length);
+    ArtifactDeploymentScheduler scheduler = new ArtifactDeploymentScheduler();
     for (final String zip : zips) {
-      tasks.add(() -> {
-        try {
-          applicationArchiveDeployer.deployPackagedArtifact(zip);
-        } catch (Exception e) {
-          // Ignore and continue
-        }
-        return null;
-      });
+      scheduler.addDeployment(getAppId(removeEndIgnoreCase(zip, JAR_FILE_SUFFIX)),
+                              () -> applicationArchiveDeployer.deployPackagedArtifact(zip), emptyList());
     }
 
-    waitForTasksToFinish(tasks);
+    runDeployments(scheduler);
   }
 
-
   @Override
   protected void deployExplodedApps(String[] apps) {
-    List<Callable<Object>> tasks = new ArrayList<>(apps.length);
+    ArtifactDeploymentScheduler scheduler = new ArtifactDeploymentScheduler();
+    boolean deploying = false;
 
     for (final String addedApp : apps) {
       if (applicationArchiveDeployer.isUpdatedZombieArtifact(addedApp)) {
-        tasks.add(() -> {
-          try {
-            applicationArchiveDeployer.deployExplodedArtifact(addedApp);
-          } catch (Exception e) {
-            // Ignore and continue
-          }
-          return null;
-        });
+        scheduler.addDeployment(getAppId(addedApp), () -> applicationArchiveDeployer.deployExplodedArtifact(addedApp),
+                                emptyList());
+        deploying = true;
       }
     }
 
-    if (!tasks.isEmpty()) {
-      waitForTasksToFinish(tasks);
+    if (deploying) {
+      runDeployments(scheduler);
     }
   }
 
-  private void waitForTasksToFinish(List<Callable<Object>> tasks) {
-    this.threadPoolExecutor =
-        schedulerServiceSupplier.get().ioScheduler(config().withName("parallelDeployment").withMaxConcurrentTasks(20));
+  private void runDeployments(ArtifactDeploymentScheduler scheduler) {
+    Scheduler threadPoolExecutor = schedulerServiceSupplier.get()
+        .ioScheduler(config().withName("parallelDeployment").withMaxConcurrentTasks(maxConcurrentDeployments));
+    long start = nanoTime();
     try {
-      final List<Future<Object>> futures = threadPoolExecutor.invokeAll(tasks);
-
-      for (Future<Object> future : futures) {
-        try {
-          future.get();
-        } catch (ExecutionException e) {
-          // Ignore and continue with the next one
-        }
-      }
-
+      logResults(scheduler.run(threadPoolExecutor, maxConcurrentDeployments), NANOSECONDS.toMillis(nanoTime() - start));
     } catch (InterruptedException e) {
       Thread.currentThread().interrupt();
     } finally {
       threadPoolExecutor.stop();
     }
   }
+
+  private void logResults(List<DeploymentResult> results, long durationMillis) {
+    boolean failed = results.stream().anyMatch(result -> result.getFailure().isPresent());
+    if (!failed && !logger.isInfoEnabled()) {
+      return;
+    }
+
+    StringBuilder summary = new StringBuilder(format("Parallel deployment of %d artifacts finished in %d ms:", results.size(),
+                                                     durationMillis));
+    for (DeploymentResult result : results) {
+      if (result.getFailure().isPresent()) {
+        summary.append(format("%n  %s failed after %d ms: %s", result.getArtifactId(), result.getDurationMillis(),
+                              result.getFailure().get().getMessage()));
+      } else {
+        summary.append(format("%n  %s finished in %d ms", result.getArtifactId(), result.getDurationMillis()));
+      }
+    }
+
+    if (failed) {
+      logger.warn(summary.toString());
+    } else {
+      logger.info(summary.toString());
+    }
+  }
+
+  private static String getDomainId(String domainName) {
+    return format("domain '%s'", domainName);
+  }
+
+  private static String getAppId(String appName) {
+    return format("application '%s'", appName);
+  }
 }
@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.deployment.internal;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import org.mule.runtime.module.deployment.internal.ArtifactDeploymentScheduler.DeploymentResult;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+@SmallTest
+public class ArtifactDeploymentSchedulerTestCase extends AbstractMuleTestCase {
+
+  private static final String DOMAIN = "domain";
+  private static final String APP_1 = "app1";
+  private static final String APP_2 = "app2";
+
+  private final ExecutorService executor = newFixedThreadPool(4);
+  private final ArtifactDeploymentScheduler scheduler = new ArtifactDeploymentScheduler();
+  private final List<String> deployed = new CopyOnWriteArrayList<>();
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void deploysAfterDependencies() throws Exception {
+    scheduler.addDeployment(APP_1, () -> deployed.add(APP_1), singletonList(DOMAIN));
+    scheduler.addDeployment(DOMAIN, () -> {
+      Thread.sleep(10);
+      deployed.add(DOMAIN);
+    }, emptyList());
+    scheduler.addDeployment(APP_2, () -> deployed.add(APP_2), asList(DOMAIN, APP_1));
+
+    scheduler.run(executor, 4);
+
+    assertThat(deployed, contains(DOMAIN, APP_1, APP_2));
+  }
+
+  @Test
+  public void limitsConcurrentDeployments() throws Exception {
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    for (int i = 0; i < 10; ++i) {
+      scheduler.addDeployment("app" + i, () -> {
+        maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+        Thread.sleep(10);
+        running.decrementAndGet();
+      }, emptyList());
+    }
+
+    scheduler.run(executor, 2);
+
+    assertThat(maxRunning.get(), lessThanOrEqualTo(2));
+  }
+
+  @Test
+  public void reportsFailuresAndDeploysDependents() throws Exception {
+    Exception failure = new Exception("Domain failed");
+    scheduler.addDeployment(DOMAIN, () -> {
+      throw failure;
+    }, emptyList());
+    scheduler.addDeployment(APP_1, () -> deployed.add(APP_1), singletonList(DOMAIN));
+
+    List<DeploymentResult> results = scheduler.run(executor, 4);
+
+    assertThat(deployed, contains(APP_1));
+    assertThat(results.get(0).getArtifactId(), is(DOMAIN));
+    assertThat(results.get(0).getFailure().get(), sameInstance(failure));
+    assertThat(results.get(1).getArtifactId(), is(APP_1));
+    assertThat(results.get(1).getFailure().isPresent(), is(false));
+  }
+}
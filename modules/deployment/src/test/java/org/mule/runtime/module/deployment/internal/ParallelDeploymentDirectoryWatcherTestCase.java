@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.deployment.internal;
+
+import static java.util.concurrent.Executors.newFixedThreadPool;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.apache.commons.io.FileUtils.copyFile;
+import static org.apache.commons.lang3.StringUtils.removeEnd;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mule.runtime.core.api.util.FileUtils.unzip;
+import static org.mule.runtime.deployment.model.api.application.ApplicationDescriptor.PROPERTY_DOMAIN;
+import static org.mule.runtime.module.deployment.internal.DefaultArchiveDeployer.JAR_FILE_SUFFIX;
+import org.mule.runtime.deployment.model.api.application.Application;
+import org.mule.runtime.deployment.model.api.domain.Domain;
+import org.mule.runtime.module.deployment.impl.internal.builder.ApplicationFileBuilder;
+import org.mule.runtime.module.deployment.internal.util.ObservableList;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+@SmallTest
+public class ParallelDeploymentDirectoryWatcherTestCase extends AbstractMuleTestCase {
+
+  private static final String DOMAIN_1 = "domain1";
+  private static final String DOMAIN_2 = "domain2";
+  private static final String DOMAIN_3 = "domain3";
+  private static final String PACKED_APP = "packed-app";
+  private static final String EXPLODED_APP = "exploded-app";
+  private static final String NO_DESCRIPTOR_APP = "no-descriptor-app";
+
+  @Rule
+  public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private final ArchiveDeployer<Domain> domainDeployer = mock(ArchiveDeployer.class);
+  private final ArchiveDeployer<Application> applicationDeployer = mock(ArchiveDeployer.class);
+  private final ExecutorService executor = newFixedThreadPool(4);
+  private final List<String> deployed = new CopyOnWriteArrayList<>();
+  private final CountDownLatch explodedAppDeployed = new CountDownLatch(1);
+
+  private ParallelDeploymentDirectoryWatcher watcher;
+
+  @Before
+  public void before() throws Exception {
+    File domainsDir = temporaryFolder.newFolder("domains");
+    File appsDir = temporaryFolder.newFolder("apps");
+
+    copyFile(new ApplicationFileBuilder(PACKED_APP).definedBy("empty-config.xml").deployedWith(PROPERTY_DOMAIN, DOMAIN_1)
+        .getArtifactFile(), new File(appsDir, PACKED_APP + JAR_FILE_SUFFIX));
+    unzip(new ApplicationFileBuilder(EXPLODED_APP).definedBy("empty-config.xml").deployedWith(PROPERTY_DOMAIN, DOMAIN_2)
+        .getArtifactFile(), new File(appsDir, EXPLODED_APP));
+    new File(appsDir, NO_DESCRIPTOR_APP).mkdir();
+
+    when(domainDeployer.getDeploymentDirectory()).thenReturn(domainsDir);
+    when(domainDeployer.isUpdatedZombieArtifact(anyString())).thenReturn(true);
+    when(domainDeployer.deployPackagedArtifact(anyString())).thenAnswer(invocation -> {
+      // the exploded app doesn't belong to this domain, so it must not wait for it
+      explodedAppDeployed.await(10, SECONDS);
+      deployed.add(removeEnd((String) invocation.getArguments()[0], JAR_FILE_SUFFIX));
+      return null;
+    });
+    when(domainDeployer.deployExplodedArtifact(anyString())).thenAnswer(invocation -> {
+      deployed.add((String) invocation.getArguments()[0]);
+      return null;
+    });
+
+    when(applicationDeployer.getDeploymentDirectory()).thenReturn(appsDir);
+    when(applicationDeployer.isUpdatedZombieArtifact(anyString())).thenReturn(true);
+    when(applicationDeployer.deployPackagedArtifact(anyString())).thenAnswer(invocation -> {
+      deployed.add(removeEnd((String) invocation.getArguments()[0], JAR_FILE_SUFFIX));
+      return null;
+    });
+    when(applicationDeployer.deployExplodedArtifact(anyString())).thenAnswer(invocation -> {
+      String appName = (String) invocation.getArguments()[0];
+      deployed.add(appName);
+      if (EXPLODED_APP.equals(appName)) {
+        explodedAppDeployed.countDown();
+      }
+      return null;
+    });
+
+    watcher = new ParallelDeploymentDirectoryWatcher(domainDeployer, applicationDeployer, new ObservableList<>(),
+                                                     new ObservableList<>(), () -> null, new ReentrantLock());
+  }
+
+  @After
+  public void after() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void deploysApplicationsAfterTheirDomain() throws Exception {
+    watcher.createStartupDeployments(new String[] {DOMAIN_1 + JAR_FILE_SUFFIX}, new String[] {DOMAIN_1, DOMAIN_2, DOMAIN_3},
+                                     null)
+        .run(executor, 4);
+
+    assertThat(deployed, containsInAnyOrder(DOMAIN_1, DOMAIN_2, DOMAIN_3, PACKED_APP, EXPLODED_APP, NO_DESCRIPTOR_APP));
+    assertDeployedBefore(DOMAIN_1, PACKED_APP);
+    assertDeployedBefore(DOMAIN_2, EXPLODED_APP);
+    assertDeployedBefore(EXPLODED_APP, DOMAIN_1);
+    // the domain of an application without a readable descriptor is unknown
+    assertDeployedBefore(DOMAIN_1, NO_DESCRIPTOR_APP);
+    assertDeployedBefore(DOMAIN_2, NO_DESCRIPTOR_APP);
+    assertDeployedBefore(DOMAIN_3, NO_DESCRIPTOR_APP);
+  }
+
+  @Test
+  public void deploysSelectedApplicationsInOrder() throws Exception {
+    explodedAppDeployed.countDown();
+
+    watcher.createStartupDeployments(new String[] {DOMAIN_1 + JAR_FILE_SUFFIX}, new String[] {DOMAIN_2},
+                                     new String[] {NO_DESCRIPTOR_APP, PACKED_APP})
+        .run(executor, 4);
+
+    assertThat(deployed.subList(2, deployed.size()), contains(NO_DESCRIPTOR_APP, PACKED_APP));
+  }
+
+  private void assertDeployedBefore(String first, String second) {
+    assertThat(first + " deployed before " + second, deployed.indexOf(first), lessThan(deployed.indexOf(second)));
+  }
+}
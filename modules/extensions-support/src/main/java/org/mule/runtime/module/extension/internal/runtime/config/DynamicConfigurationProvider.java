@@ -14,7 +14,6 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.initialiseIfNee
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
-import static org.mule.runtime.api.util.collection.Collectors.toImmutableList;
 import static org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolvingContext.from;
 import static org.slf4j.LoggerFactory.getLogger;
 import org.mule.runtime.api.connection.ConnectionProvider;
@@ -38,12 +37,21 @@ import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSet;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ResolverSetResult;
 import org.mule.runtime.module.extension.internal.runtime.resolver.ValueResolver;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalNotification;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.collect.ImmutableList;
+
+import java.util.Iterator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReadWriteLock;
-import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Predicate;
 
 import org.slf4j.Logger;
 
@@ -55,23 +63,40 @@ import org.slf4j.Logger;
  * {@link #resolverSet#resolve(Object)}, the resulting {@link ResolverSetResult} might not end up generating a new instance. This
  * is so because {@link ResolverSetResult} instances are put in a cache to guarantee that equivalent evaluations of the
  * {@code resolverSet} return the same instance.
+ * <p>
+ * The cache doesn't use a global lock. Hits only read the cached entry, and a configuration is created at most once per key,
+ * only blocking other requests for that same key. When {@link #MAX_INSTANCES_PROPERTY} is set, the cache evicts the least
+ * recently used configurations as it grows past that size, without walking the whole cache. Since an evicted configuration
+ * might still be in use, it's handed over to the expiration monitor through {@link #getExpired()} only once it has stayed idle
+ * for a whole expiration run.
  *
  * @since 4.0.0
  */
 public final class DynamicConfigurationProvider extends LifecycleAwareConfigurationProvider
     implements ExpirableConfigurationProvider {
 
+  /**
+   * System property to set the maximum amount of configuration instances that each dynamic configuration keeps cached. Not
+   * bounded by default.
+   */
+  public static final String MAX_INSTANCES_PROPERTY = "mule.extensions.dynamicConfig.maxInstances";
+
   private static final Logger LOGGER = getLogger(DynamicConfigurationProvider.class);
 
+  private static final int ACTIVE = 0;
+  private static final int EVICTING = 1;
+  private static final int EVICTED = 2;
+
   private final ConfigurationInstanceFactory configurationInstanceFactory;
   private final ResolverSet resolverSet;
   private final ConnectionProviderValueResolver connectionProviderResolver;
   private final ExpirationPolicy expirationPolicy;
 
-  private final Map<Pair<ResolverSetResult, ResolverSetResult>, ConfigurationInstance> cache = new ConcurrentHashMap<>();
-  private final ReadWriteLock cacheLock = new ReentrantReadWriteLock();
-  private final Lock cacheReadLock = cacheLock.readLock();
-  private final Lock cacheWriteLock = cacheLock.writeLock();
+  private final Cache<Pair<ResolverSetResult, ResolverSetResult>, CacheEntry> cache;
+  private final Queue<EvictedConfiguration> evicted = new ConcurrentLinkedQueue<>();
+  private final AtomicLong cacheHits = new AtomicLong();
+  private final AtomicLong cacheMisses = new AtomicLong();
+  private final AtomicLong cacheEvictions = new AtomicLong();
 
   /**
    * Creates a new instance
@@ -90,12 +115,41 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
                                       ConnectionProviderValueResolver connectionProviderResolver,
                                       ExpirationPolicy expirationPolicy,
                                       MuleContext muleContext) {
+    this(name, extensionModel, configurationModel, resolverSet, connectionProviderResolver, expirationPolicy,
+         Integer.getInteger(MAX_INSTANCES_PROPERTY, 0), muleContext);
+  }
+
+  /**
+   * Creates a new instance
+   *
+   * @param name                       this provider's name
+   * @param extensionModel             the model that owns the {@code configurationModel}
+   * @param configurationModel         the model for the returned configurations
+   * @param resolverSet                the {@link ResolverSet} that provides the configuration's parameter values
+   * @param connectionProviderResolver a {@link ValueResolver} used to obtain a {@link ConnectionProvider}
+   * @param expirationPolicy           the {@link ExpirationPolicy} for the unused instances
+   * @param maxInstances               the maximum amount of cached instances. Not bounded if lower than 1
+   */
+  public DynamicConfigurationProvider(String name,
+                                      ExtensionModel extensionModel,
+                                      ConfigurationModel configurationModel,
+                                      ResolverSet resolverSet,
+                                      ConnectionProviderValueResolver connectionProviderResolver,
+                                      ExpirationPolicy expirationPolicy,
+                                      int maxInstances,
+                                      MuleContext muleContext) {
     super(name, extensionModel, configurationModel, muleContext);
     configurationInstanceFactory =
         new ConfigurationInstanceFactory<>(extensionModel, configurationModel, resolverSet, muleContext);
     this.resolverSet = resolverSet;
     this.connectionProviderResolver = connectionProviderResolver;
     this.expirationPolicy = expirationPolicy;
+
+    CacheBuilder<Object, Object> cacheBuilder = CacheBuilder.newBuilder();
+    if (maxInstances > 0) {
+      cacheBuilder.maximumSize(maxInstances);
+    }
+    cache = cacheBuilder.removalListener(this::onRemoval).build();
   }
 
   /**
@@ -120,39 +174,86 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
   private ConfigurationInstance getConfiguration(Pair<ResolverSetResult, ResolverSetResult> resolverSetResult,
                                                  BaseEvent event)
       throws Exception {
-    ConfigurationInstance configuration;
-    cacheReadLock.lock();
-    try {
-      configuration = cache.get(resolverSetResult);
-      if (configuration != null) {
-        // important to account between the boundaries of the lock to prevent race condition
-        updateUsageStatistic(configuration);
+    for (;;) {
+      CacheEntry entry = cache.getIfPresent(resolverSetResult);
+      final boolean hit = entry != null;
+      if (!hit) {
+        entry = getOrCreate(resolverSetResult, event);
+      }
+
+      // update the usage before checking the state, so that an eviction in course sees this configuration is not idle
+      ConfigurationInstance configuration = entry.configuration;
+      MutableConfigurationStats stats = getMutableStatistics(configuration);
+      stats.updateLastUsed();
+      if (entry.state.get() == ACTIVE) {
+        if (hit) {
+          stats.addCacheHit();
+          cacheHits.incrementAndGet();
+        }
         return configuration;
       }
-    } finally {
-      cacheReadLock.unlock();
+
+      // it's being evicted. Yield until the eviction is either completed or rolled back
+      Thread.yield();
     }
+  }
 
-    cacheWriteLock.lock();
+  private CacheEntry getOrCreate(Pair<ResolverSetResult, ResolverSetResult> resolverSetResult, BaseEvent event)
+      throws Exception {
     try {
-      // re-check in case some other thread beat us to it...
-      configuration = cache.get(resolverSetResult);
-      if (configuration == null) {
-        configuration = createConfiguration(resolverSetResult, event);
-        cache.put(resolverSetResult, configuration);
+      return cache.get(resolverSetResult, () -> {
+        cacheMisses.incrementAndGet();
+        return new CacheEntry(createConfiguration(resolverSetResult, event));
+      });
+    } catch (ExecutionException | UncheckedExecutionException e) {
+      if (e.getCause() instanceof Exception) {
+        throw (Exception) e.getCause();
       }
+      throw e;
+    }
+  }
 
-      // accounting here for the same reasons as above
-      updateUsageStatistic(configuration);
-      return configuration;
-    } finally {
-      cacheWriteLock.unlock();
+  private MutableConfigurationStats getMutableStatistics(ConfigurationInstance configuration) {
+    return (MutableConfigurationStats) configuration.getStatistics();
+  }
+
+  /**
+   * Configurations evicted because the cache exceeded its maximum size are kept until they've been idle for a whole expiration
+   * run, since they might have been obtained right before being evicted.
+   */
+  private void onRemoval(RemovalNotification<Pair<ResolverSetResult, ResolverSetResult>, CacheEntry> notification) {
+    if (notification.wasEvicted()) {
+      CacheEntry entry = notification.getValue();
+      entry.state.set(EVICTED);
+      cacheEvictions.incrementAndGet();
+      evicted.add(new EvictedConfiguration(entry.configuration));
     }
   }
 
-  private void updateUsageStatistic(ConfigurationInstance configuration) {
-    MutableConfigurationStats stats = (MutableConfigurationStats) configuration.getStatistics();
-    stats.updateLastUsed();
+  /**
+   * Removes the given {@code entry} from the cache if its configuration is {@code evictable}.
+   * <p>
+   * The entry is first marked as being evicted and then the condition is checked again. Since requests update the usage of the
+   * configuration before checking that mark, either the request sees the mark and looks again, or the second check sees the
+   * updated usage and the eviction is rolled back.
+   *
+   * @return whether the entry was evicted
+   */
+  private boolean evict(Pair<ResolverSetResult, ResolverSetResult> key, CacheEntry entry,
+                        Predicate<ConfigurationInstance> evictable) {
+    ConfigurationInstance configuration = entry.configuration;
+    if (!evictable.test(configuration) || !entry.state.compareAndSet(ACTIVE, EVICTING)) {
+      return false;
+    }
+
+    if (!evictable.test(configuration)) {
+      entry.state.set(ACTIVE);
+      return false;
+    }
+
+    entry.state.set(EVICTED);
+    cache.asMap().remove(key, entry);
+    return true;
   }
 
   private ConfigurationInstance createConfiguration(Pair<ResolverSetResult, ResolverSetResult> values, BaseEvent event)
@@ -216,15 +317,28 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
 
   @Override
   public List<ConfigurationInstance> getExpired() {
-    cacheWriteLock.lock();
-    try {
-      return cache.entrySet().stream().filter(entry -> isExpired(entry.getValue())).map(entry -> {
-        cache.remove(entry.getKey());
-        return entry.getValue();
-      }).collect(toImmutableList());
-    } finally {
-      cacheWriteLock.unlock();
+    ImmutableList.Builder<ConfigurationInstance> expired = ImmutableList.builder();
+    for (Entry<Pair<ResolverSetResult, ResolverSetResult>, CacheEntry> cacheEntry : cache.asMap().entrySet()) {
+      if (evict(cacheEntry.getKey(), cacheEntry.getValue(), this::isExpired)) {
+        expired.add(cacheEntry.getValue().configuration);
+      }
+    }
+
+    // evicted configurations are disposed once they have stayed idle since the previous run, in case they were obtained
+    // right before being evicted and the operation is yet to begin
+    for (Iterator<EvictedConfiguration> iterator = evicted.iterator(); iterator.hasNext();) {
+      EvictedConfiguration evictedConfiguration = iterator.next();
+      ConfigurationStats stats = evictedConfiguration.configuration.getStatistics();
+      long lastUsed = stats.getLastUsedMillis();
+      if (stats.getInflightOperations() == 0 && lastUsed == evictedConfiguration.lastUsed) {
+        expired.add(evictedConfiguration.configuration);
+        iterator.remove();
+      } else {
+        evictedConfiguration.lastUsed = lastUsed;
+      }
     }
+
+    return expired.build();
   }
 
   private boolean isExpired(ConfigurationInstance configuration) {
@@ -247,4 +361,45 @@ public final class DynamicConfigurationProvider extends LifecycleAwareConfigurat
     super.start();
     startIfNeeded(connectionProviderResolver);
   }
+
+  /**
+   * @return how many times a configuration was reused from the cache
+   */
+  public long getCacheHits() {
+    return cacheHits.get();
+  }
+
+  /**
+   * @return how many times a configuration had to be created because there was none cached for the resolved values
+   */
+  public long getCacheMisses() {
+    return cacheMisses.get();
+  }
+
+  /**
+   * @return how many configurations were evicted because the cache exceeded its maximum size
+   */
+  public long getCacheEvictions() {
+    return cacheEvictions.get();
+  }
+
+  private static final class CacheEntry {
+
+    private final AtomicInteger state = new AtomicInteger(ACTIVE);
+    private final ConfigurationInstance configuration;
+
+    private CacheEntry(ConfigurationInstance configuration) {
+      this.configuration = configuration;
+    }
+  }
+
+  private static final class EvictedConfiguration {
+
+    private final ConfigurationInstance configuration;
+    private long lastUsed = -1;
+
+    private EvictedConfiguration(ConfigurationInstance configuration) {
+      this.configuration = configuration;
+    }
+  }
 }
@@ -35,4 +35,17 @@ public interface MutableConfigurationStats extends ConfigurationStats {
    * @return the new value
    */
   int discountInflightOperation();
+
+  /**
+   * Increments the return value of {@link #getCacheHits()} by one
+   *
+   * @return the new value
+   */
+  long addCacheHit();
+
+  /**
+   * @return how many times {@code this} configuration was reused from a cache of dynamic configurations instead of creating a
+   *         new one
+   */
+  long getCacheHits();
 }
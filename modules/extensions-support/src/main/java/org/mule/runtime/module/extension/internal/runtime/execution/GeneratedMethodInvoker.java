@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.execution;
+
+import static java.lang.String.format;
+import static java.lang.invoke.MethodHandles.lookup;
+import static java.lang.invoke.MethodType.methodType;
+import static java.lang.reflect.Modifier.isStatic;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.springframework.util.ReflectionUtils.makeAccessible;
+import org.mule.runtime.api.exception.MuleRuntimeException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.cglib.reflect.FastMethod;
+
+/**
+ * Invokes a given {@link Method} on a given instance without going through reflection.
+ * <p>
+ * When this invoker is created, a {@link FastClass} is generated for the class declaring the method, in that class'
+ * {@link ClassLoader}, and reused for every other method of the same class. The generated class calls each method directly,
+ * so the JIT can inline the target method into it. Methods that can't be called from the generated class, like private ones,
+ * are invoked through a {@link MethodHandle} bound to the instance instead.
+ * <p>
+ * Exceptions thrown by the method are propagated the same way as
+ * {@link org.springframework.util.ReflectionUtils#invokeMethod(Method, Object, Object...)} does: unchecked exceptions and
+ * errors are rethrown as is, while checked ones are wrapped into an {@link UndeclaredThrowableException}.
+ *
+ * @since 4.0
+ */
+public final class GeneratedMethodInvoker {
+
+  private final Object instance;
+  private final int parameterCount;
+  private final FastMethod fastMethod;
+  private final MethodHandle methodHandle;
+
+  /**
+   * Creates a new instance
+   *
+   * @param method   the {@link Method} to invoke
+   * @param instance the instance on which the {@code method} is invoked. Ignored if the {@code method} is static
+   */
+  public GeneratedMethodInvoker(Method method, Object instance) {
+    this.instance = isStatic(method.getModifiers()) ? null : instance;
+    parameterCount = method.getParameterCount();
+
+    FastMethod generatedMethod = generateMethod(method);
+    if (generatedMethod != null) {
+      fastMethod = generatedMethod;
+      methodHandle = null;
+    } else {
+      fastMethod = null;
+      methodHandle = bindMethod(method, this.instance);
+    }
+  }
+
+  private static FastMethod generateMethod(Method method) {
+    Class<?> declaringClass = method.getDeclaringClass();
+    FastClass.Generator generator = new FastClass.Generator();
+    generator.setType(declaringClass);
+    generator.setClassLoader(declaringClass.getClassLoader());
+
+    FastClass fastClass = generator.create();
+    if (fastClass.getIndex(method.getName(), method.getParameterTypes()) < 0) {
+      return null;
+    }
+    return fastClass.getMethod(method);
+  }
+
+  private static MethodHandle bindMethod(Method method, Object instance) {
+    try {
+      makeAccessible(method);
+      MethodHandle handle = lookup().unreflect(method);
+      if (!isStatic(method.getModifiers())) {
+        handle = handle.bindTo(instance);
+      }
+      return handle.asSpreader(Object[].class, method.getParameterCount())
+          .asType(methodType(Object.class, Object[].class));
+    } catch (IllegalAccessException e) {
+      throw new MuleRuntimeException(createStaticMessage("Could not access method " + method.toGenericString()), e);
+    }
+  }
+
+  /**
+   * Invokes the method with the given {@code args}
+   *
+   * @param args the arguments for the method. Its length has to match the method's parameter count
+   * @return the value returned by the method, or {@code null} if it's {@code void}
+   */
+  public Object invoke(Object[] args) {
+    if (args.length != parameterCount) {
+      throw new IllegalArgumentException(format("Expected %d arguments but got %d", parameterCount, args.length));
+    }
+
+    try {
+      if (fastMethod != null) {
+        return fastMethod.invoke(instance, args);
+      }
+      return (Object) methodHandle.invokeExact(args);
+    } catch (InvocationTargetException e) {
+      throw propagate(e.getCause());
+    } catch (Throwable t) {
+      throw propagate(t);
+    }
+  }
+
+  private static RuntimeException propagate(Throwable t) {
+    if (t instanceof RuntimeException) {
+      throw (RuntimeException) t;
+    } else if (t instanceof Error) {
+      throw (Error) t;
+    }
+    return new UndeclaredThrowableException(t);
+  }
+}
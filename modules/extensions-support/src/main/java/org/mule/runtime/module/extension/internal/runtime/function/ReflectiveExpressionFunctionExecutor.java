@@ -13,7 +13,6 @@ import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.startIfNeeded;
 import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
 import static org.slf4j.LoggerFactory.getLogger;
-import static org.springframework.util.ReflectionUtils.invokeMethod;
 
 import org.mule.runtime.api.el.BindingContext;
 import org.mule.runtime.api.exception.MuleException;
@@ -23,6 +22,7 @@ import org.mule.runtime.api.meta.model.function.FunctionModel;
 import org.mule.runtime.api.metadata.DataType;
 import org.mule.runtime.api.metadata.FunctionParameter;
 import org.mule.runtime.extension.api.runtime.operation.ExecutionContext;
+import org.mule.runtime.module.extension.internal.runtime.execution.GeneratedMethodInvoker;
 
 import java.lang.reflect.Method;
 import java.util.List;
@@ -31,7 +31,8 @@ import java.util.Optional;
 import org.slf4j.Logger;
 
 /**
- * Executes a task associated to a {@link ExecutionContext} by invoking a given {@link Method}
+ * Executes a task associated to a {@link ExecutionContext} by invoking a given {@link Method} through a
+ * {@link GeneratedMethodInvoker}
  *
  * @since 4.0
  */
@@ -43,6 +44,7 @@ public class ReflectiveExpressionFunctionExecutor implements Lifecycle, Function
   private final FunctionModel model;
   private final DataType returnType;
   private final Object componentInstance;
+  private final GeneratedMethodInvoker invoker;
   private final ClassLoader extensionClassLoader;
   private final List<FunctionParameter> functionParameters;
 
@@ -53,13 +55,14 @@ public class ReflectiveExpressionFunctionExecutor implements Lifecycle, Function
     this.method = method;
     this.returnType = returnType;
     this.componentInstance = componentInstance;
+    this.invoker = new GeneratedMethodInvoker(method, componentInstance);
     this.functionParameters = functionParameters;
     this.extensionClassLoader = method.getDeclaringClass().getClassLoader();
   }
 
   @Override
   public Object call(Object[] parameters, BindingContext context) {
-    return withContextClassLoader(extensionClassLoader, () -> invokeMethod(method, componentInstance, parameters));
+    return withContextClassLoader(extensionClassLoader, () -> invoker.invoke(parameters));
   }
 
   @Override
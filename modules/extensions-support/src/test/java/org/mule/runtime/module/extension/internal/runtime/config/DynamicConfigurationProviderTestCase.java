@@ -13,6 +13,7 @@ import static java.util.concurrent.TimeUnit.MINUTES;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsInAnyOrder;
 import static org.junit.Assert.assertThat;
 import static org.junit.internal.matchers.ThrowableMessageMatcher.hasMessage;
@@ -199,6 +200,74 @@ public class DynamicConfigurationProviderTestCase extends AbstractConfigurationP
     assertThat(configs, containsInAnyOrder(instance1, instance2));
   }
 
+  @Test
+  public void cacheStatistics() throws Exception {
+    ConfigurationInstance configuration = provider.get(event);
+    provider.get(event);
+    provider.get(event);
+
+    DynamicConfigurationProvider dynamicProvider = (DynamicConfigurationProvider) provider;
+    assertThat(dynamicProvider.getCacheMisses(), is(1L));
+    assertThat(dynamicProvider.getCacheHits(), is(2L));
+    assertThat(dynamicProvider.getCacheEvictions(), is(0L));
+    assertThat(((MutableConfigurationStats) configuration.getStatistics()).getCacheHits(), is(2L));
+  }
+
+  @Test
+  public void evictLeastRecentlyUsed() throws Exception {
+    provider.stop();
+    provider.dispose();
+    provider = new DynamicConfigurationProvider(CONFIG_NAME, extensionModel, configurationModel, resolverSet,
+                                                connectionProviderResolver, expirationPolicy, 1, muleContext);
+    muleContext.getInjector().inject(provider);
+    provider.initialise();
+    provider.start();
+
+    ConfigurationInstance evictedConfiguration = provider.get(event);
+    timeSupplier.move(1, MINUTES);
+    HeisenbergExtension instance2 = makeAlternateInstance();
+
+    DynamicConfigurationProvider dynamicProvider = (DynamicConfigurationProvider) provider;
+    assertThat(dynamicProvider.getCacheEvictions(), is(1L));
+    assertThat(dynamicProvider.get(event).getValue(), is(sameInstance(instance2)));
+
+    // evicted configurations are only expired once they've been idle for a whole run
+    assertThat(dynamicProvider.getExpired().isEmpty(), is(true));
+    assertThat(dynamicProvider.getExpired(), contains(sameInstance(evictedConfiguration)));
+    assertThat(dynamicProvider.getExpired().isEmpty(), is(true));
+
+    mockConfigurationInstance(configurationModel, MODULE_CLASS.newInstance());
+    when(resolverSet.resolve(from(event))).thenReturn(resolverSetResult);
+    assertThat(dynamicProvider.get(event), is(not(sameInstance(evictedConfiguration))));
+    assertThat(dynamicProvider.getCacheMisses(), is(3L));
+    assertThat(dynamicProvider.getCacheEvictions(), is(2L));
+  }
+
+  @Test
+  public void evictedInflightConfigurationIsNotExpired() throws Exception {
+    provider.stop();
+    provider.dispose();
+    provider = new DynamicConfigurationProvider(CONFIG_NAME, extensionModel, configurationModel, resolverSet,
+                                                connectionProviderResolver, expirationPolicy, 1, muleContext);
+    muleContext.getInjector().inject(provider);
+    provider.initialise();
+    provider.start();
+
+    ConfigurationInstance configuration = provider.get(event);
+    MutableConfigurationStats stats = (MutableConfigurationStats) configuration.getStatistics();
+    stats.addInflightOperation();
+    makeAlternateInstance();
+
+    DynamicConfigurationProvider dynamicProvider = (DynamicConfigurationProvider) provider;
+    assertThat(dynamicProvider.getCacheEvictions(), is(1L));
+    assertThat(dynamicProvider.getExpired().isEmpty(), is(true));
+    assertThat(dynamicProvider.getExpired().isEmpty(), is(true));
+
+    stats.discountInflightOperation();
+    assertThat(dynamicProvider.getExpired().isEmpty(), is(true));
+    assertThat(dynamicProvider.getExpired(), contains(sameInstance(configuration)));
+  }
+
   private HeisenbergExtension makeAlternateInstance() throws Exception {
     ResolverSetResult alternateResult = mock(ResolverSetResult.class, Mockito.RETURNS_DEEP_STUBS);
     when(alternateResult.asMap()).thenReturn(new HashMap<>());
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.execution;
+
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+import org.mule.tck.size.SmallTest;
+
+import java.io.IOException;
+import java.lang.reflect.UndeclaredThrowableException;
+
+import org.junit.Test;
+
+@SmallTest
+public class GeneratedMethodInvokerTestCase extends AbstractMuleTestCase {
+
+  private final TestComponent component = new TestComponent();
+
+  @Test
+  public void invokeOnInstance() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("concat", String.class, int.class);
+    assertThat(invoker.invoke(new Object[] {"value", 3}), is("value3"));
+  }
+
+  @Test
+  public void invokeStatic() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("sum", int.class, int.class);
+    assertThat(invoker.invoke(new Object[] {1, 2}), is(3));
+  }
+
+  @Test
+  public void invokeVoid() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("touch");
+    assertThat(invoker.invoke(new Object[] {}), is(nullValue()));
+    assertThat(component.touched, is(true));
+  }
+
+  @Test
+  public void invokeNonPublic() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("hidden");
+    assertThat(invoker.invoke(new Object[] {}), is("hidden"));
+  }
+
+  @Test
+  public void invokePackagePrivate() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("packagePrivate");
+    assertThat(invoker.invoke(new Object[] {}), is("packagePrivate"));
+  }
+
+  @Test
+  public void runtimeExceptionIsPropagated() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("failUnchecked");
+    try {
+      invoker.invoke(new Object[] {});
+      fail("was expecting an exception");
+    } catch (IllegalStateException e) {
+      assertThat(e, is(sameInstance(TestComponent.UNCHECKED)));
+    }
+  }
+
+  @Test
+  public void checkedExceptionIsWrapped() throws Exception {
+    GeneratedMethodInvoker invoker = invoker("failChecked");
+    try {
+      invoker.invoke(new Object[] {});
+      fail("was expecting an exception");
+    } catch (UndeclaredThrowableException e) {
+      assertThat(e.getCause(), is(instanceOf(IOException.class)));
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void wrongArgumentCount() throws Exception {
+    invoker("sum", int.class, int.class).invoke(new Object[] {1});
+  }
+
+  private GeneratedMethodInvoker invoker(String name, Class<?>... parameterTypes) throws Exception {
+    return new GeneratedMethodInvoker(TestComponent.class.getDeclaredMethod(name, parameterTypes), component);
+  }
+
+  private static class TestComponent {
+
+    private static final IllegalStateException UNCHECKED = new IllegalStateException();
+
+    private boolean touched = false;
+
+    public String concat(String value, int count) {
+      return value + count;
+    }
+
+    public static int sum(int a, int b) {
+      return a + b;
+    }
+
+    public void touch() {
+      touched = true;
+    }
+
+    private String hidden() {
+      return "hidden";
+    }
+
+    String packagePrivate() {
+      return "packagePrivate";
+    }
+
+    public void failUnchecked() {
+      throw UNCHECKED;
+    }
+
+    public void failChecked() throws IOException {
+      throw new IOException();
+    }
+  }
+}
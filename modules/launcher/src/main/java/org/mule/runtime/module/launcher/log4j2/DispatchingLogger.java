@@ -11,6 +11,9 @@ import static org.reflections.ReflectionUtils.getAllMethods;
 import static org.reflections.ReflectionUtils.withName;
 import static org.reflections.ReflectionUtils.withParameters;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 import java.lang.reflect.Method;
 import java.util.Collection;
 import java.util.Iterator;
@@ -41,6 +44,10 @@ import org.apache.logging.log4j.spi.ExtendedLogger;
  * Because this class is a fix for issues in static loggers, it must not hold any reference to any {@link java.lang.ClassLoader}
  * since otherwise that class loader would be GC unreachable. For that reason, it uses {@link #ownerClassLoaderHash} instead of
  * the real reference
+ * <p/>
+ * The logger resolved for each context {@link ClassLoader} is cached, so that logging from a class loader other than the
+ * owner's doesn't need to walk the class loader hierarchy and query the {@link ContextSelector} on every call. Both the class
+ * loaders and the resolved loggers are weakly referenced by that cache, so it doesn't prevent any of them from being collected.
  *
  * @since 3.6.0
  */
@@ -50,6 +57,7 @@ abstract class DispatchingLogger extends Logger {
   private Method updateConfigurationMethod = null;
   private final ContextSelector contextSelector;
   private final int ownerClassLoaderHash;
+  private final Cache<ClassLoader, Logger> loggerCache = CacheBuilder.newBuilder().weakKeys().weakValues().build();
 
   DispatchingLogger(Logger originalLogger, int ownerClassLoaderHash, LoggerContext loggerContext, ContextSelector contextSelector,
                     MessageFactory messageFactory) {
@@ -61,7 +69,22 @@ abstract class DispatchingLogger extends Logger {
 
 
   private Logger getLogger() {
-    final ClassLoader currentClassLoader = resolveLoggerContextClassLoader(Thread.currentThread().getContextClassLoader());
+    final ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+    if (contextClassLoader == null) {
+      return resolveLogger(null);
+    }
+
+    Logger logger = loggerCache.getIfPresent(contextClassLoader);
+    if (logger == null || isStopped(logger)) {
+      logger = resolveLogger(contextClassLoader);
+      loggerCache.put(contextClassLoader, logger);
+    }
+
+    return logger;
+  }
+
+  private Logger resolveLogger(ClassLoader contextClassLoader) {
+    final ClassLoader currentClassLoader = resolveLoggerContextClassLoader(contextClassLoader);
     if (useThisLoggerContextClassLoader(currentClassLoader)) {
       return originalLogger;
     }
@@ -72,6 +95,19 @@ abstract class DispatchingLogger extends Logger {
     return contextSelector.getContext(getName(), currentClassLoader, true).getLogger(getName(), getMessageFactory());
   }
 
+  /**
+   * @param logger a previously resolved logger
+   * @return true if the logger context of the given {@code logger} was stopped, in which case it has to be resolved again
+   */
+  private boolean isStopped(Logger logger) {
+    if (logger == originalLogger) {
+      return false;
+    }
+
+    LoggerContext loggerContext = logger.getContext();
+    return loggerContext.isStopping() || loggerContext.isStopped();
+  }
+
   /**
    * @param currentClassLoader execution classloader of the logging operation
    * @return true if the logger context associated with this instance must be used for logging, false if we still need to continue
@@ -6,8 +6,10 @@
  */
 package org.mule.runtime.module.launcher.log4j2;
 
+import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.anyString;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.mule.runtime.core.api.util.ClassUtils.withContextClassLoader;
@@ -90,4 +92,31 @@ public class DispatchingLoggerTestCase extends AbstractMuleTestCase {
       verify(contextSelector).getContext(LOGGER_NAME, regionClassLoader, true);
     });
   }
+
+  @Test
+  public void regionClassLoaderLoggerIsCached() {
+    RegionClassLoader regionClassLoader = mock(RegionClassLoader.class);
+    withContextClassLoader(regionClassLoader, () -> {
+      logger.info(MESSAGE);
+      logger.info(MESSAGE);
+      verify(contextSelector).getContext(LOGGER_NAME, regionClassLoader, true);
+    });
+  }
+
+  @Test
+  public void regionClassLoaderLoggerIsResolvedAgainWhenContextStopped() {
+    RegionClassLoader regionClassLoader = mock(RegionClassLoader.class);
+    LoggerContext regionLoggerContext = mock(LoggerContext.class);
+    Logger regionLogger = mock(Logger.class);
+    when(regionLogger.getContext()).thenReturn(regionLoggerContext);
+    when(regionLoggerContext.getLogger(anyString(), any(MessageFactory.class))).thenReturn(regionLogger);
+    when(contextSelector.getContext(LOGGER_NAME, regionClassLoader, true)).thenReturn(regionLoggerContext);
+
+    withContextClassLoader(regionClassLoader, () -> {
+      logger.info(MESSAGE);
+      when(regionLoggerContext.isStopped()).thenReturn(true);
+      logger.info(MESSAGE);
+      verify(contextSelector, times(2)).getContext(LOGGER_NAME, regionClassLoader, true);
+    });
+  }
 }
@@ -99,6 +99,13 @@ public class XmlConfigurationDocumentLoader {
     this.xmlGathererErrorHandlerFactory = errorHandlerFactory;
   }
 
+  /**
+   * @return whether the documents loaded by this loader are validated against their schemas.
+   */
+  public boolean isSchemaValidating() {
+    return validationMode == VALIDATION_XSD;
+  }
+
   /**
    * Creates a {@link Document} from an {@link InputStream} with the required configuration of a mule configuration file parsing.
    *
@@ -125,10 +132,28 @@ public class XmlConfigurationDocumentLoader {
    * @see {@link DefaultXmlLoggerErrorHandler#getErrors()}
    */
   public Document loadDocument(Set<ExtensionModel> extensions, String filename, InputStream inputStream) {
+    return loadDocument(extensions, null, filename, inputStream);
+  }
+
+  /**
+   * Creates a {@link Document} from an {@link InputStream} with the required configuration of a mule configuration file parsing.
+   *
+   * @param extensions if the current {@code inputStream} relies in other schemas pending to be loaded from an
+   *        {@link ExtensionModel}, it will be picked up from {@code extensions} set
+   * @param pluginsDigest the digest of the files of the plugins providing the {@code extensions}, which allows reusing the
+   *        schemas compiled for them when loading the configuration of other artifacts with the same plugins. May be null.
+   * @param filename name of the file to display a better error messages (if there are any). Non null.
+   * @param inputStream the input stream with the XML configuration content.
+   * @return a new {@link Document} object with the provided content.
+   * @throws MuleRuntimeException if an error occurs in {@link org.springframework.beans.factory.xml.DocumentLoader} factory, or
+   *         if the current {@code filename} contains 1 or more errors.
+   * @see {@link DefaultXmlLoggerErrorHandler#getErrors()}
+   */
+  public Document loadDocument(Set<ExtensionModel> extensions, String pluginsDigest, String filename, InputStream inputStream) {
     final XmlGathererErrorHandler errorHandler = createXmlGathererErrorHandler();
     Document document;
     try {
-      document = new MuleDocumentLoader()
+      document = new MuleDocumentLoader(extensions, pluginsDigest)
           .loadDocument(new InputSource(inputStream),
                         validationMode == VALIDATION_XSD ? new ModuleDelegatingEntityResolver(extensions)
                             : new DelegatingEntityResolver(currentThread().getContextClassLoader()),
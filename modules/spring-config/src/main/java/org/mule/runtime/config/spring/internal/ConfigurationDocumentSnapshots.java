@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.spring.internal;
+
+import static java.lang.String.format;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+import static org.mule.runtime.config.spring.internal.MuleDocumentLoader.COPY_METADATA_ANNOTATIONS_DATA_HANDLER;
+import static org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
+import static org.mule.runtime.core.api.config.MuleProperties.SYSTEM_PROPERTY_PREFIX;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.meta.model.ExtensionModel;
+import org.mule.runtime.config.spring.internal.parsers.DefaultXmlMetadataAnnotations;
+import org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations;
+import org.mule.runtime.core.api.config.MuleManifest;
+import org.mule.runtime.core.api.util.xmlsecurity.XMLSecureFactories;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+
+import org.apache.commons.io.IOUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Attr;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+/**
+ * Keeps on disk a snapshot of each {@link Document} loaded from the configuration files of an artifact, so that when the
+ * artifact is deployed again with the same configuration files, their documents are rebuilt from the snapshots instead of parsing
+ * and validating the files again.
+ * <p>
+ * Snapshots are keyed by a digest of the content of the configuration file, the version of the runtime, the name and version of
+ * the extensions and plugins available to the artifact, the size and last modification time of the files the plugins are loaded
+ * from and whether the documents are validated. The files are considered so that a plugin rebuilt without changing its version,
+ * such as a snapshot one, doesn't reuse documents validated against its previous schemas. Any change in those is a different
+ * key, so snapshots never need to be invalidated explicitly. The ones not used by the last load are deleted by
+ * {@link #deleteUnused()}.
+ *
+ * @since 4.0
+ */
+public final class ConfigurationDocumentSnapshots {
+
+  /**
+   * System property to enable the snapshots of the configuration files of the deployed artifacts.
+   */
+  public static final String CONFIG_SNAPSHOTS_PROPERTY = SYSTEM_PROPERTY_PREFIX + "config.snapshots";
+
+  /**
+   * Key of the user data set on the attributes of a rebuilt {@link Document} whose value was not specified in the configuration
+   * file but defaulted by its schema, as the {@link Attr}s created through the DOM API are always
+   * {@link Attr#getSpecified() specified}.
+   */
+  public static final String SCHEMA_DEFAULT_ATTRIBUTE_KEY = "schemaDefaultAttribute";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConfigurationDocumentSnapshots.class);
+
+  // Version 1 snapshots were written while schema defaulted attributes were not flagged by the loader
+  private static final int FORMAT_VERSION = 2;
+  private static final String SNAPSHOT_EXTENSION = ".snapshot";
+
+  private static final byte END = 0;
+  private static final byte ELEMENT = 1;
+  private static final byte TEXT = 2;
+  private static final byte CDATA = 3;
+  private static final byte COMMENT = 4;
+  private static final byte PROCESSING_INSTRUCTION = 5;
+
+  private final File snapshotsFolder;
+  private final String environmentDigest;
+  private final Set<String> usedSnapshots = new HashSet<>();
+
+  /**
+   * @param snapshotsFolder the folder in which the snapshots of the artifact are kept
+   * @param extensions the extensions available to the artifact
+   * @param pluginsDigest the digest of the files of the plugins of the artifact
+   * @param validating whether the loaded documents are validated against their schemas
+   */
+  public ConfigurationDocumentSnapshots(File snapshotsFolder, Set<ExtensionModel> extensions, String pluginsDigest,
+                                        boolean validating) {
+    this.snapshotsFolder = snapshotsFolder;
+
+    SortedSet<String> environment = new TreeSet<>();
+    for (ExtensionModel extension : extensions) {
+      environment.add("extension:" + extension.getName() + ":" + extension.getVersion());
+    }
+    environment.add("plugins:" + pluginsDigest);
+
+    Hasher hasher = Hashing.sha256().newHasher().putInt(FORMAT_VERSION)
+        .putString(MuleManifest.getProductVersion(), UTF_8)
+        .putString(MuleManifest.getBuildNumber(), UTF_8)
+        .putBoolean(validating);
+    environment.forEach(entry -> hasher.putString(entry, UTF_8));
+    this.environmentDigest = hasher.hash().toString();
+  }
+
+  /**
+   * Rebuilds the {@link Document} of a configuration file from its snapshot, or loads it with the given {@code documentLoader}
+   * and keeps a snapshot of it if there is none.
+   *
+   * @param filename the name of the configuration file
+   * @param inputStream the content of the configuration file
+   * @param documentLoader loads the {@link Document} from the content of the configuration file
+   * @return the {@link Document} of the configuration file
+   */
+  public Document loadDocument(String filename, InputStream inputStream, Function<InputStream, Document> documentLoader) {
+    byte[] content;
+    try {
+      content = IOUtils.toByteArray(inputStream);
+    } catch (IOException e) {
+      throw new MuleRuntimeException(createStaticMessage(format("Could not read configuration file '%s'", filename)), e);
+    }
+
+    String snapshotName = Hashing.sha256().newHasher()
+        .putString(environmentDigest, UTF_8)
+        .putString(filename, UTF_8)
+        .putBytes(content)
+        .hash().toString() + SNAPSHOT_EXTENSION;
+    usedSnapshots.add(snapshotName);
+    File snapshot = new File(snapshotsFolder, snapshotName);
+
+    if (snapshot.exists()) {
+      try {
+        Document document = readSnapshot(snapshot);
+        LOGGER.debug("Configuration file '{}' rebuilt from its snapshot", filename);
+        return document;
+      } catch (Exception e) {
+        LOGGER.warn(format("Could not read the snapshot of configuration file '%s', it will be loaded again", filename), e);
+        snapshot.delete();
+      }
+    }
+
+    Document document = documentLoader.apply(new ByteArrayInputStream(content));
+    try {
+      writeSnapshot(document, snapshot);
+    } catch (Exception e) {
+      LOGGER.warn(format("Could not write the snapshot of configuration file '%s'", filename), e);
+    }
+    return document;
+  }
+
+  /**
+   * Deletes the snapshots that were not used by the {@link #loadDocument(String, InputStream, Function) loaded} documents, as
+   * those are from configuration files that changed or from a different environment.
+   */
+  public void deleteUnused() {
+    File[] snapshots = snapshotsFolder.listFiles((dir, name) -> name.endsWith(SNAPSHOT_EXTENSION));
+    if (snapshots == null) {
+      return;
+    }
+    for (File snapshot : snapshots) {
+      if (!usedSnapshots.contains(snapshot.getName()) && !snapshot.delete()) {
+        LOGGER.debug("Could not delete unused configuration snapshot '{}'", snapshot);
+      }
+    }
+  }
+
+  private void writeSnapshot(Document document, File snapshot) throws IOException {
+    if (!snapshotsFolder.exists() && !snapshotsFolder.mkdirs()) {
+      throw new IOException(format("Could not create folder '%s'", snapshotsFolder));
+    }
+
+    // Write to a temporary file first so a partially written snapshot is never read
+    File temporarySnapshot = File.createTempFile("snapshot", ".tmp", snapshotsFolder);
+    try {
+      try (DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporarySnapshot)))) {
+        output.writeInt(FORMAT_VERSION);
+        writeChildren(output, document);
+      }
+      Files.move(temporarySnapshot.toPath(), snapshot.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+    } finally {
+      temporarySnapshot.delete();
+    }
+  }
+
+  private void writeChildren(DataOutputStream output, Node parent) throws IOException {
+    for (Node child = parent.getFirstChild(); child != null; child = child.getNextSibling()) {
+      switch (child.getNodeType()) {
+        case Node.ELEMENT_NODE:
+          output.writeByte(ELEMENT);
+          writeElement(output, (Element) child);
+          break;
+        case Node.TEXT_NODE:
+          output.writeByte(TEXT);
+          writeString(output, child.getNodeValue());
+          break;
+        case Node.CDATA_SECTION_NODE:
+          output.writeByte(CDATA);
+          writeString(output, child.getNodeValue());
+          break;
+        case Node.COMMENT_NODE:
+          output.writeByte(COMMENT);
+          writeString(output, child.getNodeValue());
+          break;
+        case Node.PROCESSING_INSTRUCTION_NODE:
+          output.writeByte(PROCESSING_INSTRUCTION);
+          writeString(output, child.getNodeName());
+          writeString(output, child.getNodeValue());
+          break;
+        default:
+          // Document types are not part of the configuration
+      }
+    }
+    output.writeByte(END);
+  }
+
+  private void writeElement(DataOutputStream output, Element element) throws IOException {
+    writeNullableString(output, element.getNamespaceURI());
+    writeString(output, element.getNodeName());
+
+    NamedNodeMap attributes = element.getAttributes();
+    output.writeInt(attributes.getLength());
+    for (int i = 0; i < attributes.getLength(); ++i) {
+      Attr attribute = (Attr) attributes.item(i);
+      writeNullableString(output, attribute.getNamespaceURI());
+      writeString(output, attribute.getNodeName());
+      writeString(output, attribute.getValue());
+      output.writeBoolean(attribute.getSpecified() && attribute.getUserData(SCHEMA_DEFAULT_ATTRIBUTE_KEY) == null);
+    }
+
+    XmlMetadataAnnotations metadataAnnotations = (XmlMetadataAnnotations) element.getUserData(METADATA_ANNOTATIONS_KEY);
+    output.writeBoolean(metadataAnnotations != null);
+    if (metadataAnnotations != null) {
+      output.writeInt(metadataAnnotations.getLineNumber());
+      writeString(output, metadataAnnotations.getElementString());
+    }
+
+    writeChildren(output, element);
+  }
+
+  private Document readSnapshot(File snapshot) throws Exception {
+    try (DataInputStream input = new DataInputStream(new BufferedInputStream(new FileInputStream(snapshot)))) {
+      int formatVersion = input.readInt();
+      if (formatVersion != FORMAT_VERSION) {
+        throw new IOException(format("Unsupported snapshot format version %d", formatVersion));
+      }
+      Document document = XMLSecureFactories.createDefault().getDocumentBuilderFactory().newDocumentBuilder().newDocument();
+      readChildren(input, document, document);
+      return document;
+    }
+  }
+
+  private void readChildren(DataInputStream input, Document document, Node parent) throws IOException {
+    for (byte type = input.readByte(); type != END; type = input.readByte()) {
+      switch (type) {
+        case ELEMENT:
+          parent.appendChild(readElement(input, document));
+          break;
+        case TEXT:
+          parent.appendChild(document.createTextNode(readString(input)));
+          break;
+        case CDATA:
+          parent.appendChild(document.createCDATASection(readString(input)));
+          break;
+        case COMMENT:
+          parent.appendChild(document.createComment(readString(input)));
+          break;
+        case PROCESSING_INSTRUCTION:
+          parent.appendChild(document.createProcessingInstruction(readString(input), readString(input)));
+          break;
+        default:
+          throw new IOException(format("Unknown node type %d", type));
+      }
+    }
+  }
+
+  private Element readElement(DataInputStream input, Document document) throws IOException {
+    Element element = document.createElementNS(readNullableString(input), readString(input));
+
+    int attributesCount = input.readInt();
+    for (int i = 0; i < attributesCount; ++i) {
+      Attr attribute = document.createAttributeNS(readNullableString(input), readString(input));
+      attribute.setValue(readString(input));
+      if (!input.readBoolean()) {
+        attribute.setUserData(SCHEMA_DEFAULT_ATTRIBUTE_KEY, Boolean.TRUE, null);
+      }
+      element.setAttributeNodeNS(attribute);
+    }
+
+    if (input.readBoolean()) {
+      DefaultXmlMetadataAnnotations metadataAnnotations = new DefaultXmlMetadataAnnotations();
+      metadataAnnotations.setLineNumber(input.readInt());
+      metadataAnnotations.appendElementBody(readString(input));
+      element.setUserData(METADATA_ANNOTATIONS_KEY, metadataAnnotations, COPY_METADATA_ANNOTATIONS_DATA_HANDLER);
+    }
+
+    readChildren(input, document, element);
+    return element;
+  }
+
+  private void writeString(DataOutputStream output, String value) throws IOException {
+    // DataOutput#writeUTF is limited to 64KB, which the text of an element may exceed
+    byte[] bytes = value.getBytes(UTF_8);
+    output.writeInt(bytes.length);
+    output.write(bytes);
+  }
+
+  private void writeNullableString(DataOutputStream output, String value) throws IOException {
+    output.writeBoolean(value != null);
+    if (value != null) {
+      writeString(output, value);
+    }
+  }
+
+  private String readString(DataInputStream input) throws IOException {
+    byte[] bytes = new byte[input.readInt()];
+    input.readFully(bytes);
+    return new String(bytes, UTF_8);
+  }
+
+  private String readNullableString(DataInputStream input) throws IOException {
+    return input.readBoolean() ? readString(input) : null;
+  }
+}
@@ -6,6 +6,7 @@
  */
 package org.mule.runtime.config.spring.internal;
 
+import static java.lang.Boolean.getBoolean;
 import static java.lang.String.format;
 import static java.util.Arrays.asList;
 import static java.util.Collections.emptySet;
@@ -21,6 +22,8 @@ import static org.mule.runtime.config.spring.api.XmlConfigurationDocumentLoader.
 import static org.mule.runtime.config.spring.api.dsl.model.ApplicationModel.CONFIGURATION_IDENTIFIER;
 import static org.mule.runtime.config.spring.api.dsl.model.ApplicationModel.IMPORT_ELEMENT;
 import static org.mule.runtime.config.spring.api.dsl.model.ApplicationModel.MULE_IDENTIFIER;
+import static org.mule.runtime.config.spring.internal.ConfigurationDocumentSnapshots.CONFIG_SNAPSHOTS_PROPERTY;
+import static org.mule.runtime.config.spring.internal.PluginFilesDigest.getPluginsDigest;
 import static org.mule.runtime.config.spring.internal.dsl.spring.BeanDefinitionFactory.SPRING_SINGLETON_OBJECT;
 import static org.mule.runtime.config.spring.internal.dsl.spring.ComponentModelHelper.updateAnnotationValue;
 import static org.mule.runtime.config.spring.internal.parsers.generic.AutoIdUtils.uniqueValue;
@@ -111,6 +114,7 @@ import org.w3c.dom.Document;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
@@ -127,6 +131,8 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
 
   private static final Logger LOGGER = LoggerFactory.getLogger(MuleArtifactContext.class);
 
+  private static final String CONFIG_SNAPSHOTS_FOLDER = "config-snapshots";
+
   public static final String INNER_BEAN_PREFIX = "(inner bean)";
 
   protected final ComponentBuildingDefinitionRegistry componentBuildingDefinitionRegistry =
@@ -138,6 +144,8 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
   private final Optional<ConfigurationProperties> parentConfigurationProperties;
   private final DefaultRegistry serviceDiscoverer;
   private final ConfigurationDependencyResolver dependencyResolver;
+  private final ConfigurationDocumentSnapshots documentSnapshots;
+  private final String pluginsDigest;
   protected ApplicationModel applicationModel;
   protected MuleContext muleContext;
   private ConfigResource[] artifactConfigResources;
@@ -203,6 +211,8 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
     }
 
     xmlApplicationParser = createApplicationParser(pluginsClassLoaders);
+    this.pluginsDigest = getPluginsDigest(pluginsClassLoaders);
+    this.documentSnapshots = getBoolean(CONFIG_SNAPSHOTS_PROPERTY) ? createDocumentSnapshots() : null;
     this.beanDefinitionFactory =
         new BeanDefinitionFactory(componentBuildingDefinitionRegistry, muleContext.getErrorTypeRepository());
 
@@ -221,6 +231,13 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
     return schemaValidatingDocumentLoader();
   }
 
+  private ConfigurationDocumentSnapshots createDocumentSnapshots() {
+    return new ConfigurationDocumentSnapshots(new File(muleContext.getConfiguration().getWorkingDirectory(),
+                                                       CONFIG_SNAPSHOTS_FOLDER),
+                                              getExtensionModels(muleContext.getExtensionManager()).orElse(emptySet()),
+                                              pluginsDigest, xmlConfigurationDocumentLoader.isSchemaValidating());
+  }
+
   private XmlApplicationParser createApplicationParser(List<ClassLoader> pluginsClassLoaders) {
     ExtensionManager extensionManager = muleContext.getExtensionManager();
 
@@ -245,6 +262,9 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
   private void createApplicationModel() {
     try {
       ArtifactConfig artifactConfig = resolveArtifactConfig();
+      if (documentSnapshots != null) {
+        documentSnapshots.deleteUnused();
+      }
       Set<ExtensionModel> extensions =
           muleContext.getExtensionManager() != null ? muleContext.getExtensionManager().getExtensions() : emptySet();
       ResourceProvider externalResourceProvider = new ClassLoaderResourceProvider(muleContext.getExecutionClassLoader());
@@ -285,11 +305,7 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
         .filter(fileNameInputStreamPair -> !alreadyResolvedConfigFiles.stream()
             .anyMatch(configFile -> configFile.getFilename().equals(fileNameInputStreamPair.getFirst())))
         .forEach(fileNameInputStreamPair -> {
-          Document document =
-              xmlConfigurationDocumentLoader.loadDocument(muleContext.getExtensionManager() == null ? emptySet()
-                  : muleContext.getExtensionManager().getExtensions(),
-                                                          fileNameInputStreamPair.getFirst(),
-                                                          fileNameInputStreamPair.getSecond());
+          Document document = loadDocument(fileNameInputStreamPair.getFirst(), fileNameInputStreamPair.getSecond());
           ConfigLine mainConfigLine = xmlApplicationParser.parse(document.getDocumentElement()).get();
           ConfigFile configFile = new ConfigFile(fileNameInputStreamPair.getFirst(), asList(mainConfigLine));
           resolvedConfigFilesBuilder.add(configFile);
@@ -342,6 +358,17 @@ public class MuleArtifactContext extends AbstractRefreshableConfigApplicationCon
     return recursivelyResolveConfigFiles(newConfigFilesToResolved, resolvedConfigFilesBuilder.build());
   }
 
+  private Document loadDocument(String filename, InputStream inputStream) {
+    Set<ExtensionModel> extensions =
+        muleContext.getExtensionManager() == null ? emptySet() : muleContext.getExtensionManager().getExtensions();
+    if (documentSnapshots == null) {
+      return xmlConfigurationDocumentLoader.loadDocument(extensions, pluginsDigest, filename, inputStream);
+    }
+    return documentSnapshots.loadDocument(filename, inputStream,
+                                          content -> xmlConfigurationDocumentLoader.loadDocument(extensions, pluginsDigest,
+                                                                                                 filename, content));
+  }
+
   @Override
   protected void prepareBeanFactory(ConfigurableListableBeanFactory beanFactory) {
     super.prepareBeanFactory(beanFactory);
@@ -1,33 +1,40 @@
-/*
- * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
- * The software in this package is published under the terms of the CPAL v1.0
- * license, a copy of which has been included with this distribution in the
- * LICENSE.txt file.
- */
 package org.mule.runtime.config.spring.internal;
 
+import static java.lang.Boolean.TRUE;
+import static java.util.Collections.emptySet;
+import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE;
+import static javax.xml.XMLConstants.XMLNS_ATTRIBUTE_NS_URI;
 import static org.apache.commons.lang3.SystemUtils.LINE_SEPARATOR;
+import static org.mule.runtime.config.spring.internal.ConfigurationDocumentSnapshots.SCHEMA_DEFAULT_ATTRIBUTE_KEY;
 import static org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
+import static org.springframework.util.xml.XmlValidationModeDetector.VALIDATION_NONE;
+import static org.springframework.util.xml.XmlValidationModeDetector.VALIDATION_XSD;
 
+import org.mule.runtime.api.meta.model.ExtensionModel;
 import org.mule.runtime.config.spring.internal.parsers.DefaultXmlMetadataAnnotations;
 import org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations;
 import org.mule.runtime.core.api.util.xmlsecurity.XMLSecureFactories;
 
 import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
 import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.Set;
 import java.util.Stack;
 
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.parsers.SAXParser;
 import javax.xml.parsers.SAXParserFactory;
+import javax.xml.validation.Schema;
 
 import org.apache.commons.io.IOUtils;
 import org.springframework.beans.factory.xml.DefaultDocumentLoader;
 import org.springframework.beans.factory.xml.DocumentLoader;
+import org.w3c.dom.Attr;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 import org.w3c.dom.Node;
+import org.w3c.dom.Text;
 import org.w3c.dom.UserDataHandler;
 import org.xml.sax.Attributes;
 import org.xml.sax.EntityResolver;
@@ -36,17 +43,28 @@ import org.xml.sax.InputSource;
 import org.xml.sax.Locator;
 import org.xml.sax.SAXException;
 import org.xml.sax.XMLReader;
+import org.xml.sax.ext.Attributes2;
+import org.xml.sax.ext.LexicalHandler;
 import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * Alternative to Spring's default document loader that uses <b>SAX</b> to add metadata to the <b>DOM</b> elements that are the
  * result of the default parser.
- * 
+ * <p>
+ * When validating against XSD, the <b>DOM</b> and its metadata are built with a single <b>SAX</b> pass which validates the
+ * configuration against the {@link Schema} for the namespaces declared in its root element, taken from the container wide
+ * {@link XmlSchemaCache}. Validation problems are reported to the given {@link ErrorHandler} as they are found. Only if that
+ * {@link Schema} is not available, the configuration is loaded with the default parser, validating it with the schema locations
+ * it declares.
+ *
  * @since 3.8.0
  */
 final public class MuleDocumentLoader implements DocumentLoader {
 
-  private static final UserDataHandler COPY_METADATA_ANNOTATIONS_DATA_HANDLER = new UserDataHandler() {
+  private static final String NAMESPACE_PREFIXES_FEATURE = "http://xml.org/sax/features/namespace-prefixes";
+  private static final String LEXICAL_HANDLER_PROPERTY = "http://xml.org/sax/properties/lexical-handler";
+
+  static final UserDataHandler COPY_METADATA_ANNOTATIONS_DATA_HANDLER = new UserDataHandler() {
 
     @Override
     public void handle(short operation, String key, Object data, Node src, Node dst) {
@@ -59,9 +77,29 @@ final public class MuleDocumentLoader implements DocumentLoader {
   private final DocumentLoader defaultLoader = new DefaultDocumentLoader();
 
   private final XmlMetadataAnnotationsFactory metadataFactory;
+  private final Set<ExtensionModel> extensions;
+  private final String pluginsDigest;
 
   public MuleDocumentLoader() {
+    this(emptySet());
+  }
+
+  /**
+   * @param extensions the extensions used to generate the schemas of their namespaces when validating against XSD
+   */
+  public MuleDocumentLoader(Set<ExtensionModel> extensions) {
+    this(extensions, null);
+  }
+
+  /**
+   * @param extensions the extensions used to generate the schemas of their namespaces when validating against XSD
+   * @param pluginsDigest the digest of the files of the plugins providing the {@code extensions}, so that the schemas compiled
+   *        for them can be reused by other artifacts with the same plugins, or {@code null} if it is not known
+   */
+  public MuleDocumentLoader(Set<ExtensionModel> extensions, String pluginsDigest) {
     this.metadataFactory = new DefaultXmlMetadataFactory();
+    this.extensions = extensions;
+    this.pluginsDigest = pluginsDigest;
   }
 
   /**
@@ -71,21 +109,58 @@ final public class MuleDocumentLoader implements DocumentLoader {
   public Document loadDocument(InputSource inputSource, EntityResolver entityResolver, ErrorHandler errorHandler,
                                int validationMode, boolean namespaceAware)
       throws Exception {
-    ByteArrayOutputStream output = new ByteArrayOutputStream();
+    byte[] content;
     try (InputStream inputStream = inputSource.getByteStream()) {
-      IOUtils.copy(inputStream, output);
+      content = IOUtils.toByteArray(inputStream);
     }
 
-    InputSource defaultInputSource = new InputSource(new ByteArrayInputStream(output.toByteArray()));
-    InputSource enrichInputSource = new InputSource(new ByteArrayInputStream(output.toByteArray()));
-
-    Document doc = defaultLoader.loadDocument(defaultInputSource, entityResolver, errorHandler, validationMode, namespaceAware);
+    if (validationMode == VALIDATION_NONE) {
+      return parse(content, namespaceAware, entityResolver, errorHandler);
+    }
 
-    createSaxAnnotator(doc).parse(enrichInputSource);
+    if (validationMode == VALIDATION_XSD) {
+      Optional<Schema> schema = XmlSchemaCache.getInstance().getSchema(content, extensions, pluginsDigest);
+      if (schema.isPresent()) {
+        return parse(content, true, schema.get(), entityResolver, errorHandler);
+      }
+    }
 
+    Document doc = defaultLoader.loadDocument(new InputSource(new ByteArrayInputStream(content)), entityResolver, errorHandler,
+                                              validationMode, namespaceAware);
+    createSaxAnnotator(doc).parse(new InputSource(new ByteArrayInputStream(content)));
     return doc;
   }
 
+  private Document parse(byte[] content, boolean namespaceAware, EntityResolver entityResolver, ErrorHandler errorHandler)
+      throws Exception {
+    return parse(content, namespaceAware, null, entityResolver, errorHandler);
+  }
+
+  /**
+   * Builds the {@link Document} and its metadata with a single <b>SAX</b> pass. If a {@code schema} is given, the content is
+   * validated against it during that same pass, and the attributes defaulted by the {@code schema} are added to the
+   * {@link Document} as not specified, just as a validating parser does.
+   */
+  private Document parse(byte[] content, boolean namespaceAware, Schema schema, EntityResolver entityResolver,
+                         ErrorHandler errorHandler)
+      throws Exception {
+    Document document = XMLSecureFactories.createDefault().getDocumentBuilderFactory().newDocumentBuilder().newDocument();
+    AnnotatingDomBuilder domBuilder = new AnnotatingDomBuilder(document, metadataFactory);
+
+    SAXParserFactory parserFactory = XMLSecureFactories.createDefault().getSAXParserFactory();
+    parserFactory.setNamespaceAware(namespaceAware);
+    parserFactory.setSchema(schema);
+    XMLReader reader = parserFactory.newSAXParser().getXMLReader();
+    // Have the namespace declarations reported as attributes, as they are part of both the DOM and the metadata
+    reader.setFeature(NAMESPACE_PREFIXES_FEATURE, true);
+    reader.setContentHandler(domBuilder);
+    reader.setProperty(LEXICAL_HANDLER_PROPERTY, domBuilder);
+    reader.setEntityResolver(entityResolver);
+    reader.setErrorHandler(errorHandler);
+    reader.parse(new InputSource(new ByteArrayInputStream(content)));
+    return document;
+  }
+
   protected XMLReader createSaxAnnotator(Document doc) throws ParserConfigurationException, SAXException {
     SAXParserFactory saxParserFactory = XMLSecureFactories.createDefault().getSAXParserFactory();
     SAXParser saxParser = saxParserFactory.newSAXParser();
@@ -198,4 +273,169 @@ final public class MuleDocumentLoader implements DocumentLoader {
       return parent.node;
     }
   }
+
+  /**
+   * SAX handler that builds the DOM nodes along with the metadata that annotates them.
+   */
+  private final static class AnnotatingDomBuilder extends DefaultHandler implements LexicalHandler {
+
+    private final Document document;
+    private final XmlMetadataAnnotationsFactory metadataFactory;
+    private final Stack<XmlMetadataAnnotations> annotationsStack = new Stack<>();
+
+    private Locator locator;
+    private Node currentNode;
+    private boolean inDtd;
+    private boolean inCdata;
+    private boolean cdataStarted;
+
+    private AnnotatingDomBuilder(Document document, XmlMetadataAnnotationsFactory metadataFactory) {
+      this.document = document;
+      this.metadataFactory = metadataFactory;
+      this.currentNode = document;
+    }
+
+    @Override
+    public void setDocumentLocator(Locator locator) {
+      this.locator = locator;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+      boolean namespaceAware = !localName.isEmpty();
+      Element element = namespaceAware ? document.createElementNS(uri.isEmpty() ? null : uri, qName)
+          : document.createElement(qName);
+
+      LinkedHashMap<String, String> attsMap = new LinkedHashMap<>();
+      for (int i = 0; i < atts.getLength(); ++i) {
+        String attQName = atts.getQName(i);
+        Attr attribute = namespaceAware ? document.createAttributeNS(getAttributeNamespace(atts.getURI(i), attQName), attQName)
+            : document.createAttribute(attQName);
+        attribute.setValue(atts.getValue(i));
+
+        // Attributes defaulted by the schema are not part of the source element. Attrs created through the DOM API are always
+        // specified, so those are flagged instead
+        if (!(atts instanceof Attributes2) || ((Attributes2) atts).isSpecified(i)) {
+          attsMap.put(attQName, atts.getValue(i));
+        } else {
+          attribute.setUserData(SCHEMA_DEFAULT_ATTRIBUTE_KEY, TRUE, null);
+        }
+
+        if (namespaceAware) {
+          element.setAttributeNodeNS(attribute);
+        } else {
+          element.setAttributeNode(attribute);
+        }
+      }
+      currentNode.appendChild(element);
+      currentNode = element;
+
+      XmlMetadataAnnotations metadataBuilder = metadataFactory.create(locator);
+      metadataBuilder.appendElementStart(qName, attsMap);
+      annotationsStack.push(metadataBuilder);
+    }
+
+    private String getAttributeNamespace(String uri, String qName) {
+      if (!uri.isEmpty()) {
+        return uri;
+      }
+      return qName.equals(XMLNS_ATTRIBUTE) || qName.startsWith(XMLNS_ATTRIBUTE + ":") ? XMLNS_ATTRIBUTE_NS_URI : null;
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) throws SAXException {
+      if (!annotationsStack.isEmpty()) {
+        annotationsStack.peek().appendElementBody(new String(ch, start, length).trim());
+      }
+      appendText(ch, start, length);
+    }
+
+    @Override
+    public void ignorableWhitespace(char[] ch, int start, int length) throws SAXException {
+      appendText(ch, start, length);
+    }
+
+    private void appendText(char[] ch, int start, int length) {
+      if (currentNode == document) {
+        return;
+      }
+
+      String data = new String(ch, start, length);
+      Node lastChild = currentNode.getLastChild();
+      if (inCdata) {
+        if (cdataStarted) {
+          currentNode.appendChild(document.createCDATASection(data));
+          cdataStarted = false;
+        } else {
+          ((Text) lastChild).appendData(data);
+        }
+      } else if (lastChild != null && lastChild.getNodeType() == Node.TEXT_NODE) {
+        ((Text) lastChild).appendData(data);
+      } else {
+        currentNode.appendChild(document.createTextNode(data));
+      }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) throws SAXException {
+      XmlMetadataAnnotations metadataAnnotations = annotationsStack.pop();
+      metadataAnnotations.appendElementEnd(qName);
+
+      if (!annotationsStack.isEmpty()) {
+        annotationsStack.peek()
+            .appendElementBody(LINE_SEPARATOR + metadataAnnotations.getElementString() + LINE_SEPARATOR);
+      }
+
+      currentNode.setUserData(METADATA_ANNOTATIONS_KEY, metadataAnnotations, COPY_METADATA_ANNOTATIONS_DATA_HANDLER);
+      currentNode = currentNode.getParentNode();
+    }
+
+    @Override
+    public void processingInstruction(String target, String data) throws SAXException {
+      currentNode.appendChild(document.createProcessingInstruction(target, data));
+    }
+
+    @Override
+    public void comment(char[] ch, int start, int length) throws SAXException {
+      if (!inDtd) {
+        currentNode.appendChild(document.createComment(new String(ch, start, length)));
+      }
+    }
+
+    @Override
+    public void startCDATA() throws SAXException {
+      inCdata = true;
+      cdataStarted = true;
+    }
+
+    @Override
+    public void endCDATA() throws SAXException {
+      if (cdataStarted) {
+        // Empty CDATA section
+        currentNode.appendChild(document.createCDATASection(""));
+      }
+      inCdata = false;
+      cdataStarted = false;
+    }
+
+    @Override
+    public void startDTD(String name, String publicId, String systemId) throws SAXException {
+      inDtd = true;
+    }
+
+    @Override
+    public void endDTD() throws SAXException {
+      inDtd = false;
+    }
+
+    @Override
+    public void startEntity(String name) throws SAXException {
+      // Entities are expanded in place
+    }
+
+    @Override
+    public void endEntity(String name) throws SAXException {
+      // Entities are expanded in place
+    }
+  }
 }
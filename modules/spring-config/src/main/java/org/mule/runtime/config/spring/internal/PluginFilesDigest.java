@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.spring.internal;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.UUID.randomUUID;
+import static java.util.stream.Collectors.toList;
+import static org.apache.commons.io.FileUtils.toFile;
+
+import org.mule.runtime.module.artifact.api.classloader.ArtifactClassLoader;
+import org.mule.runtime.module.artifact.api.descriptor.BundleDescriptor;
+
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Computes a digest of the plugins of an artifact, considering the size and last modification time of the files each plugin is
+ * loaded from, so that a plugin rebuilt without changing its version, such as a snapshot one, gets a different digest.
+ *
+ * @since 4.0
+ */
+final class PluginFilesDigest {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(PluginFilesDigest.class);
+
+  private PluginFilesDigest() {}
+
+  /**
+   * @param pluginsClassLoaders the class loaders of the plugins of the artifact
+   * @return the digest of the plugins, the same for any order of {@code pluginsClassLoaders}. If the files of a plugin can't be
+   *         read, a random one that doesn't match any other.
+   */
+  static String getPluginsDigest(List<ClassLoader> pluginsClassLoaders) {
+    SortedSet<String> plugins = new TreeSet<>();
+    for (ClassLoader pluginClassLoader : pluginsClassLoaders) {
+      plugins.add(getPluginId(pluginClassLoader) + ":" + getPluginFilesDigest(pluginClassLoader));
+    }
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    plugins.forEach(plugin -> hasher.putString(plugin, UTF_8));
+    return hasher.hash().toString();
+  }
+
+  private static String getPluginId(ClassLoader pluginClassLoader) {
+    if (pluginClassLoader instanceof ArtifactClassLoader) {
+      ArtifactClassLoader artifactClassLoader = (ArtifactClassLoader) pluginClassLoader;
+      BundleDescriptor bundleDescriptor = artifactClassLoader.getArtifactDescriptor().getBundleDescriptor();
+      return bundleDescriptor != null ? bundleDescriptor.toString() : artifactClassLoader.getArtifactId();
+    }
+    return pluginClassLoader.getClass().getName();
+  }
+
+  private static String getPluginFilesDigest(ClassLoader pluginClassLoader) {
+    if (!(pluginClassLoader instanceof URLClassLoader)) {
+      return "";
+    }
+
+    Hasher hasher = Hashing.sha256().newHasher();
+    try {
+      for (URL url : ((URLClassLoader) pluginClassLoader).getURLs()) {
+        File file = toFile(url);
+        if (file == null) {
+          hasher.putString(url.toString(), UTF_8);
+        } else if (file.isDirectory()) {
+          try (Stream<Path> paths = Files.walk(file.toPath())) {
+            for (Path path : paths.filter(Files::isRegularFile).sorted().collect(toList())) {
+              putFile(hasher, path.toFile());
+            }
+          }
+        } else {
+          putFile(hasher, file);
+        }
+      }
+    } catch (IOException | UncheckedIOException e) {
+      LOGGER.warn("Could not read the files of plugin '{}', artifacts using it will not reuse cached configuration data",
+                  getPluginId(pluginClassLoader), e);
+      return randomUUID().toString();
+    }
+    return hasher.hash().toString();
+  }
+
+  private static void putFile(Hasher hasher, File file) {
+    hasher.putString(file.getAbsolutePath(), UTF_8).putLong(file.length()).putLong(file.lastModified());
+  }
+}
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.spring.internal;
+
+import static java.lang.String.format;
+import static java.util.Optional.empty;
+import static java.util.Optional.of;
+import static javax.xml.XMLConstants.W3C_XML_SCHEMA_INSTANCE_NS_URI;
+import static javax.xml.XMLConstants.W3C_XML_SCHEMA_NS_URI;
+import static org.mule.runtime.api.i18n.I18nMessageFactory.createStaticMessage;
+
+import org.mule.runtime.api.exception.MuleRuntimeException;
+import org.mule.runtime.api.meta.model.ExtensionModel;
+import org.mule.runtime.core.api.util.xmlsecurity.XMLSecureFactories;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import java.io.ByteArrayInputStream;
+import java.io.StringReader;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.xml.parsers.SAXParserFactory;
+import javax.xml.transform.Source;
+import javax.xml.transform.sax.SAXSource;
+import javax.xml.validation.Schema;
+import javax.xml.validation.SchemaFactory;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.ls.DOMImplementationLS;
+import org.w3c.dom.ls.LSInput;
+import org.w3c.dom.ls.LSResourceResolver;
+import org.xml.sax.Attributes;
+import org.xml.sax.EntityResolver;
+import org.xml.sax.ErrorHandler;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.SAXParseException;
+import org.xml.sax.helpers.DefaultHandler;
+
+/**
+ * Container wide cache of the compiled {@link Schema}s used to validate configuration files, so that the schemas are not
+ * resolved and compiled again for each configuration file of each application, or on each redeploy.
+ * <p>
+ * The schemas are keyed by the namespaces and locations declared in the {@code xsi:schemaLocation} of the root element of the
+ * configuration file. Schemas that depend on an {@link ExtensionModel} are also keyed by the name and version of the extension
+ * and by the digest of the files of the plugins of the artifact, as a plugin rebuilt without changing its version, such as a
+ * snapshot one, may provide different schemas. Those schemas are not cached if that digest is not known. Other schemas are
+ * expected to be the same for every application that declares the same location.
+ *
+ * @since 4.0
+ */
+final class XmlSchemaCache {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(XmlSchemaCache.class);
+
+  private static final XmlSchemaCache INSTANCE = new XmlSchemaCache();
+
+  private final Cache<SchemaKey, Schema> schemas = CacheBuilder.newBuilder().softValues().build();
+
+  static XmlSchemaCache getInstance() {
+    return INSTANCE;
+  }
+
+  private XmlSchemaCache() {}
+
+  /**
+   * Looks up, compiling it on the first request, the {@link Schema} for the namespaces declared in the root element of the given
+   * configuration.
+   *
+   * @param content the content of the configuration file
+   * @param extensions the extensions available to generate the schemas of their namespaces
+   * @param pluginsDigest the digest of the files of the plugins of the artifact, or {@code null} if it is not known
+   * @return the compiled {@link Schema}, or {@link Optional#empty()} if the root element doesn't declare the locations of its
+   *         schemas or they could not be compiled.
+   */
+  Optional<Schema> getSchema(byte[] content, Set<ExtensionModel> extensions, String pluginsDigest) {
+    try {
+      SortedMap<String, String> schemaLocations = readSchemaLocations(content);
+      if (schemaLocations.isEmpty()) {
+        return empty();
+      }
+      SchemaKey key = new SchemaKey(schemaLocations, extensions, pluginsDigest);
+      if (!key.extensions.isEmpty() && pluginsDigest == null) {
+        return of(compile(schemaLocations, new ModuleDelegatingEntityResolver(extensions)));
+      }
+      return of(schemas.get(key, () -> compile(schemaLocations, new ModuleDelegatingEntityResolver(extensions))));
+    } catch (Exception e) {
+      if (LOGGER.isDebugEnabled()) {
+        LOGGER.debug("Could not get a compiled schema for the configuration, it will be validated using its schema locations", e);
+      }
+      return empty();
+    }
+  }
+
+  private SortedMap<String, String> readSchemaLocations(byte[] content) throws Exception {
+    SortedMap<String, String> schemaLocations = new TreeMap<>();
+    SAXParserFactory factory = XMLSecureFactories.createDefault().getSAXParserFactory();
+    factory.setNamespaceAware(true);
+    try {
+      factory.newSAXParser().parse(new ByteArrayInputStream(content), new DefaultHandler() {
+
+        @Override
+        public InputSource resolveEntity(String publicId, String systemId) {
+          // Only the root element is needed, don't load any external entity
+          return new InputSource(new StringReader(""));
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes atts) throws SAXException {
+          String schemaLocation = atts.getValue(W3C_XML_SCHEMA_INSTANCE_NS_URI, "schemaLocation");
+          if (schemaLocation != null && atts.getValue(W3C_XML_SCHEMA_INSTANCE_NS_URI, "noNamespaceSchemaLocation") == null) {
+            String[] tokens = schemaLocation.trim().split("\\s+");
+            for (int i = 0; i + 1 < tokens.length; i += 2) {
+              schemaLocations.put(tokens[i], tokens[i + 1]);
+            }
+          }
+          throw new RootElementReadException();
+        }
+      });
+    } catch (RootElementReadException e) {
+      // Nothing to do, the rest of the document is not needed
+    }
+    return schemaLocations;
+  }
+
+  private Schema compile(Map<String, String> schemaLocations, EntityResolver entityResolver) throws Exception {
+    LOGGER.debug("Compiling schema for namespaces {}", schemaLocations.keySet());
+
+    Source[] sources = new Source[schemaLocations.size()];
+    int i = 0;
+    for (String location : schemaLocations.values()) {
+      InputSource inputSource = resolve(entityResolver, null, location);
+      if (inputSource.getSystemId() == null) {
+        inputSource.setSystemId(location);
+      }
+      sources[i++] = new SAXSource(inputSource);
+    }
+
+    SchemaFactory schemaFactory = SchemaFactory.newInstance(W3C_XML_SCHEMA_NS_URI);
+    schemaFactory.setResourceResolver(createResourceResolver(entityResolver));
+    // Any problem resolving the schemas makes the compiled schema incomplete, so it is not cached
+    schemaFactory.setErrorHandler(new ErrorHandler() {
+
+      @Override
+      public void warning(SAXParseException exception) throws SAXException {
+        throw exception;
+      }
+
+      @Override
+      public void error(SAXParseException exception) throws SAXException {
+        throw exception;
+      }
+
+      @Override
+      public void fatalError(SAXParseException exception) throws SAXException {
+        throw exception;
+      }
+    });
+    return schemaFactory.newSchema(sources);
+  }
+
+  private LSResourceResolver createResourceResolver(EntityResolver entityResolver) throws Exception {
+    DOMImplementationLS domImplementation = (DOMImplementationLS) XMLSecureFactories.createDefault().getDocumentBuilderFactory()
+        .newDocumentBuilder().getDOMImplementation();
+
+    return (type, namespaceURI, publicId, systemId, baseURI) -> {
+      if (systemId == null) {
+        return null;
+      }
+
+      String expandedSystemId = expandSystemId(systemId, baseURI);
+      InputSource inputSource = resolve(entityResolver, publicId, expandedSystemId);
+
+      LSInput input = domImplementation.createLSInput();
+      input.setByteStream(inputSource.getByteStream());
+      input.setCharacterStream(inputSource.getCharacterStream());
+      input.setEncoding(inputSource.getEncoding());
+      input.setPublicId(publicId);
+      input.setSystemId(inputSource.getSystemId() != null ? inputSource.getSystemId() : expandedSystemId);
+      input.setBaseURI(baseURI);
+      return input;
+    };
+  }
+
+  /**
+   * Schemas that are not resolved locally are not fetched, so that loading a configuration doesn't access the network more than
+   * it would without this cache.
+   */
+  private InputSource resolve(EntityResolver entityResolver, String publicId, String systemId) {
+    InputSource inputSource;
+    try {
+      inputSource = entityResolver.resolveEntity(publicId, systemId);
+    } catch (Exception e) {
+      throw new MuleRuntimeException(createStaticMessage(format("Could not resolve schema '%s'", systemId)), e);
+    }
+    if (inputSource == null) {
+      throw new MuleRuntimeException(createStaticMessage(format("Schema '%s' is not available locally", systemId)));
+    }
+    return inputSource;
+  }
+
+  private String expandSystemId(String systemId, String baseURI) {
+    if (baseURI == null) {
+      return systemId;
+    }
+    try {
+      return new URL(new URL(baseURI), systemId).toExternalForm();
+    } catch (MalformedURLException e) {
+      return systemId;
+    }
+  }
+
+  /**
+   * Thrown to stop parsing a document once its root element has been read.
+   */
+  private static final class RootElementReadException extends SAXException {
+
+    private static final long serialVersionUID = -3532421815046420412L;
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+      return this;
+    }
+  }
+
+  private static final class SchemaKey {
+
+    private final SortedMap<String, String> schemaLocations;
+    private final SortedSet<String> extensions = new TreeSet<>();
+    private final String pluginsDigest;
+
+    private SchemaKey(SortedMap<String, String> schemaLocations, Set<ExtensionModel> extensionModels, String pluginsDigest) {
+      this.schemaLocations = schemaLocations;
+      for (ExtensionModel extensionModel : extensionModels) {
+        if (schemaLocations.containsValue(extensionModel.getXmlDslModel().getSchemaLocation())) {
+          extensions.add(extensionModel.getName() + ":" + extensionModel.getVersion());
+        }
+      }
+      // Schemas that don't depend on any extension are shared by every artifact, whatever its plugins are
+      this.pluginsDigest = extensions.isEmpty() ? null : pluginsDigest;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof SchemaKey)) {
+        return false;
+      }
+      SchemaKey other = (SchemaKey) obj;
+      return schemaLocations.equals(other.schemaLocations) && extensions.equals(other.extensions)
+          && Objects.equals(pluginsDigest, other.pluginsDigest);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(schemaLocations, extensions, pluginsDigest);
+    }
+  }
+}
@@ -14,11 +14,13 @@ import static org.hamcrest.Matchers.is;
 import static org.hamcrest.core.StringContains.containsString;
 import static org.junit.Assert.fail;
 import static org.mockito.Matchers.isNull;
+import static org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
 import static org.mule.runtime.config.spring.api.XmlConfigurationDocumentLoader.schemaValidatingDocumentLoader;
 
 import org.mule.runtime.api.exception.MuleRuntimeException;
 import org.mule.runtime.config.spring.api.XmlConfigurationDocumentLoader;
 import org.mule.runtime.config.spring.api.XmlGathererErrorHandler;
+import org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations;
 import org.mule.tck.junit4.AbstractMuleTestCase;
 
 import java.io.InputStream;
@@ -59,6 +61,19 @@ public class XmlConfigurationDocumentLoaderTestCase extends AbstractMuleTestCase
                is("service"));
   }
 
+  @Test
+  public void testMetadataAnnotations() {
+    // Load twice so that the second time the document is validated with the cached schema
+    getDocument("mule-config.xml");
+    final Document document = getDocument("mule-config.xml");
+
+    final Node flow = document.getDocumentElement().getChildNodes().item(1);
+    final XmlMetadataAnnotations metadataAnnotations = (XmlMetadataAnnotations) flow.getUserData(METADATA_ANNOTATIONS_KEY);
+    assertThat(metadataAnnotations.getLineNumber(), is(6));
+    assertThat(metadataAnnotations.getElementString(), containsString("<flow name=\"service\">"));
+    assertThat(metadataAnnotations.getElementString(), containsString("<logger"));
+  }
+
   @Test
   public void testMalformedXmlWithWrongMuleSchemaLocationAndNoExtensionsRaisesException() {
     try {
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.config.spring.internal;
+
+import static java.util.Collections.emptyList;
+import static java.util.Collections.emptySet;
+import static java.util.Collections.singletonList;
+import static org.apache.commons.io.FileUtils.writeStringToFile;
+import static org.hamcrest.Matchers.arrayWithSize;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.mule.runtime.config.spring.api.XmlConfigurationDocumentLoader.schemaValidatingDocumentLoader;
+import static org.mule.runtime.config.spring.internal.PluginFilesDigest.getPluginsDigest;
+import static org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations.METADATA_ANNOTATIONS_KEY;
+import org.mule.runtime.config.spring.api.XmlConfigurationDocumentLoader;
+import org.mule.runtime.config.spring.api.dsl.processor.ConfigLine;
+import org.mule.runtime.config.spring.api.dsl.processor.SimpleConfigAttribute;
+import org.mule.runtime.config.spring.api.dsl.processor.xml.XmlApplicationParser;
+import org.mule.runtime.config.spring.internal.parsers.XmlMetadataAnnotations;
+import org.mule.tck.junit4.AbstractMuleTestCase;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.io.IOUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Node;
+
+public class ConfigurationDocumentSnapshotsTestCase extends AbstractMuleTestCase {
+
+  private static final String CONFIG_FILE = "mule-config.xml";
+
+  @Rule
+  public TemporaryFolder snapshotsFolder = new TemporaryFolder();
+
+  private final XmlConfigurationDocumentLoader documentLoader = schemaValidatingDocumentLoader();
+  private final XmlApplicationParser applicationParser = new XmlApplicationParser(emptyList());
+  private final AtomicInteger loads = new AtomicInteger();
+
+  private byte[] content;
+
+  @Before
+  public void before() throws IOException {
+    try (InputStream inputStream = Thread.currentThread().getContextClassLoader().getResourceAsStream(CONFIG_FILE)) {
+      content = IOUtils.toByteArray(inputStream);
+    }
+  }
+
+  @Test
+  public void rebuildsDocumentFromSnapshot() {
+    Document loaded = loadDocument(createSnapshots(), content);
+    Document rebuilt = loadDocument(createSnapshots(), content);
+
+    assertThat(loads.get(), is(1));
+    assertConfigLine(applicationParser.parse(rebuilt.getDocumentElement()).get(),
+                     applicationParser.parse(loaded.getDocumentElement()).get());
+
+    Node flow = rebuilt.getDocumentElement().getChildNodes().item(1);
+    XmlMetadataAnnotations metadataAnnotations = (XmlMetadataAnnotations) flow.getUserData(METADATA_ANNOTATIONS_KEY);
+    XmlMetadataAnnotations loadedMetadataAnnotations =
+        (XmlMetadataAnnotations) loaded.getDocumentElement().getChildNodes().item(1).getUserData(METADATA_ANNOTATIONS_KEY);
+    assertThat(metadataAnnotations.getLineNumber(), is(loadedMetadataAnnotations.getLineNumber()));
+    assertThat(metadataAnnotations.getElementString(), is(loadedMetadataAnnotations.getElementString()));
+  }
+
+  @Test
+  public void keepsSchemaDefaultedAttributesFromXsd() {
+    Document loaded = loadDocument(createSnapshots(), content);
+    Document rebuilt = loadDocument(createSnapshots(), content);
+
+    assertFlowAttributes(applicationParser.parse(loaded.getDocumentElement()).get());
+    assertFlowAttributes(applicationParser.parse(rebuilt.getDocumentElement()).get());
+  }
+
+  @Test
+  public void loadsChangedConfigurationAgain() {
+    loadDocument(createSnapshots(), content);
+
+    ConfigurationDocumentSnapshots snapshots = createSnapshots();
+    loadDocument(snapshots, new String(content).replace("service", "changedService").getBytes());
+    snapshots.deleteUnused();
+
+    assertThat(loads.get(), is(2));
+    assertThat(snapshotsFolder.getRoot().listFiles(), arrayWithSize(1));
+  }
+
+  @Test
+  public void loadsAgainForDifferentValidation() {
+    loadDocument(createSnapshots(), content);
+    loadDocument(new ConfigurationDocumentSnapshots(snapshotsFolder.getRoot(), emptySet(), getPluginsDigest(emptyList()), false),
+                 content);
+
+    assertThat(loads.get(), is(2));
+  }
+
+  @Test
+  public void loadsAgainForChangedPluginFiles() throws Exception {
+    File pluginFile = snapshotsFolder.newFile("plugin.jar");
+    writeStringToFile(pluginFile, "plugin");
+    URLClassLoader pluginClassLoader = new URLClassLoader(new URL[] {pluginFile.toURI().toURL()}, null);
+
+    loadDocument(createSnapshots(pluginClassLoader), content);
+    loadDocument(createSnapshots(pluginClassLoader), content);
+    assertThat(loads.get(), is(1));
+
+    writeStringToFile(pluginFile, "rebuilt plugin");
+    loadDocument(createSnapshots(pluginClassLoader), content);
+    assertThat(loads.get(), is(2));
+  }
+
+  private ConfigurationDocumentSnapshots createSnapshots(ClassLoader pluginClassLoader) {
+    return new ConfigurationDocumentSnapshots(snapshotsFolder.getRoot(), emptySet(),
+                                              getPluginsDigest(singletonList(pluginClassLoader)), true);
+  }
+
+  private ConfigurationDocumentSnapshots createSnapshots() {
+    return new ConfigurationDocumentSnapshots(snapshotsFolder.getRoot(), emptySet(), getPluginsDigest(emptyList()), true);
+  }
+
+  private Document loadDocument(ConfigurationDocumentSnapshots snapshots, byte[] content) {
+    return snapshots.loadDocument(CONFIG_FILE, new ByteArrayInputStream(content), inputStream -> {
+      loads.incrementAndGet();
+      return documentLoader.loadDocument(CONFIG_FILE, inputStream);
+    });
+  }
+
+  private void assertFlowAttributes(ConfigLine muleLine) {
+    ConfigLine flowLine = muleLine.getChildren().get(0);
+    assertThat(flowLine.getConfigAttributes().get("name").isValueFromSchema(), is(false));
+    assertThat(flowLine.getConfigAttributes().get("initialState").getValue(), is("started"));
+    assertThat(flowLine.getConfigAttributes().get("initialState").isValueFromSchema(), is(true));
+  }
+
+  private void assertConfigLine(ConfigLine actual, ConfigLine expected) {
+    assertThat(actual.getNamespace(), is(expected.getNamespace()));
+    assertThat(actual.getIdentifier(), is(expected.getIdentifier()));
+    assertThat(actual.getLineNumber(), is(expected.getLineNumber()));
+    assertThat(actual.getConfigAttributes().keySet(), is(expected.getConfigAttributes().keySet()));
+    for (SimpleConfigAttribute attribute : expected.getConfigAttributes().values()) {
+      SimpleConfigAttribute actualAttribute = actual.getConfigAttributes().get(attribute.getName());
+      assertThat(actualAttribute.getValue(), is(attribute.getValue()));
+      assertThat(actualAttribute.isValueFromSchema(), is(attribute.isValueFromSchema()));
+    }
+    assertThat(actual.getChildren().size(), is(expected.getChildren().size()));
+    for (int i = 0; i < expected.getChildren().size(); ++i) {
+      assertConfigLine(actual.getChildren().get(i), expected.getChildren().get(i));
+    }
+  }
+}
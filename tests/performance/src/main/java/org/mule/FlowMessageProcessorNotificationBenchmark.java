@@ -0,0 +1,94 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule;
+
+import static java.util.Collections.singletonMap;
+import static org.mule.runtime.api.component.AbstractComponent.LOCATION_KEY;
+import static org.mule.runtime.api.message.Message.of;
+import static org.mule.runtime.core.api.construct.Flow.builder;
+import static org.mule.runtime.core.api.event.BaseEventContext.create;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import static org.mule.runtime.dsl.api.component.config.DefaultComponentLocation.fromSingleComponent;
+import org.mule.runtime.api.component.AbstractComponent;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.context.notification.MessageProcessorNotification;
+import org.mule.runtime.core.api.context.notification.MessageProcessorNotificationListener;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.api.processor.Processor;
+import org.mule.tck.TriggerableMessageSource;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Measures the throughput of a flow of located processors with and without a {@link MessageProcessorNotificationListener}
+ * registered.
+ */
+public class FlowMessageProcessorNotificationBenchmark extends AbstractBenchmark {
+
+  @Param({"false", "true"})
+  public boolean messageProcessorListener;
+
+  @Param({"10"})
+  public int processors;
+
+  private MuleContext muleContext;
+  private Flow flow;
+  private TriggerableMessageSource source;
+
+  @Setup
+  public void setup() throws Exception {
+    muleContext = createMuleContextWithServices();
+    muleContext.start();
+
+    if (messageProcessorListener) {
+      muleContext.getNotificationManager().addInterfaceToType(MessageProcessorNotificationListener.class,
+                                                              MessageProcessorNotification.class);
+      muleContext.getNotificationManager().addListener((MessageProcessorNotificationListener) notification -> {
+      });
+    }
+
+    List<Processor> messageProcessors = new ArrayList<>();
+    for (int i = 0; i < processors; i++) {
+      LocatedNullProcessor processor = new LocatedNullProcessor();
+      processor.setAnnotations(singletonMap(LOCATION_KEY, fromSingleComponent("processor" + i)));
+      messageProcessors.add(processor);
+    }
+
+    source = new TriggerableMessageSource();
+    flow = builder(FLOW_NAME, muleContext).processors(messageProcessors).source(source).build();
+    muleContext.getRegistry().registerFlowConstruct(flow);
+  }
+
+  @TearDown
+  public void teardown() throws MuleException {
+    SchedulerService schedulerService = muleContext.getRegistry().lookupObject(SchedulerService.class);
+    muleContext.dispose();
+    stopIfNeeded(schedulerService);
+  }
+
+  @Benchmark
+  public BaseEvent processSourceBlocking() throws MuleException {
+    return source.trigger(BaseEvent.builder(create(flow, CONNECTOR_LOCATION)).message(of(PAYLOAD)).build());
+  }
+
+  private static class LocatedNullProcessor extends AbstractComponent implements Processor {
+
+    @Override
+    public BaseEvent process(BaseEvent event) throws MuleException {
+      return event;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.serialization;
+
+import static org.mule.runtime.core.api.event.BaseEventContext.create;
+import static org.mule.runtime.core.api.lifecycle.LifecycleUtils.stopIfNeeded;
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.api.exception.MuleException;
+import org.mule.runtime.api.scheduler.SchedulerService;
+import org.mule.runtime.api.serialization.SerializationProtocol;
+import org.mule.runtime.core.api.MuleContext;
+import org.mule.runtime.core.api.construct.Flow;
+import org.mule.runtime.core.api.event.BaseEvent;
+import org.mule.runtime.core.internal.message.InternalMessage;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Compares the throughput and the size of the output of {@link CompactSerializationProtocol} against
+ * {@link JavaExternalSerializerProtocol}, for events with an increasing amount of variables and properties.
+ */
+public class ObjectSerializerBenchmark extends AbstractBenchmark {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(ObjectSerializerBenchmark.class);
+
+  @Param({"0", "10", "50"})
+  public int properties;
+
+  private MuleContext muleContext;
+  private JavaExternalSerializerProtocol javaProtocol;
+  private CompactSerializationProtocol compactProtocol;
+  private BaseEvent event;
+  private byte[] javaSerialized;
+  private byte[] compactSerialized;
+
+  @Setup
+  public void setup() throws Exception {
+    muleContext = createMuleContextWithServices();
+    muleContext.start();
+    Flow flow = createFlow(muleContext);
+    muleContext.getRegistry().registerFlowConstruct(flow);
+
+    javaProtocol = new JavaExternalSerializerProtocol();
+    javaProtocol.setMuleContext(muleContext);
+    compactProtocol = new CompactSerializationProtocol();
+    compactProtocol.setMuleContext(muleContext);
+
+    InternalMessage.Builder messageBuilder = InternalMessage.builder().value(PAYLOAD);
+    for (int i = 0; i < properties; i++) {
+      messageBuilder.addInboundProperty("inboundProperty" + i, VALUE).addOutboundProperty("outboundProperty" + i, i);
+    }
+    BaseEvent.Builder eventBuilder = BaseEvent.builder(create(flow, CONNECTOR_LOCATION)).message(messageBuilder.build());
+    for (int i = 0; i < properties; i++) {
+      eventBuilder.addVariable("variable" + i, VALUE);
+    }
+    event = eventBuilder.build();
+
+    javaSerialized = javaProtocol.serialize(event);
+    compactSerialized = compactProtocol.serialize(event);
+    LOGGER.info("Serialized event with {} variables and properties: java={} bytes, compact={} bytes", properties,
+                javaSerialized.length, compactSerialized.length);
+  }
+
+  @TearDown
+  public void teardown() throws MuleException {
+    stopIfNeeded(muleContext.getRegistry().lookupObject(SchedulerService.class));
+    muleContext.dispose();
+  }
+
+  @Benchmark
+  public byte[] javaSerialize() {
+    return javaProtocol.serialize(event);
+  }
+
+  @Benchmark
+  public byte[] compactSerialize() {
+    return compactProtocol.serialize(event);
+  }
+
+  @Benchmark
+  public Object javaDeserialize() {
+    return javaProtocol.deserialize(javaSerialized);
+  }
+
+  @Benchmark
+  public Object compactDeserialize() {
+    return compactProtocol.deserialize(compactSerialized);
+  }
+
+  @Benchmark
+  public Object javaRoundTrip() {
+    return roundTrip(javaProtocol);
+  }
+
+  @Benchmark
+  public Object compactRoundTrip() {
+    return roundTrip(compactProtocol);
+  }
+
+  private Object roundTrip(SerializationProtocol protocol) {
+    return protocol.deserialize(protocol.serialize(event));
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.core.internal.store;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.mule.runtime.core.internal.util.store.MuleObjectStoreManager.UNBOUNDED;
+
+import org.mule.AbstractBenchmark;
+import org.mule.runtime.api.store.ObjectStoreException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.TearDown;
+
+@OutputTimeUnit(NANOSECONDS)
+public class PartitionedInMemoryObjectStoreBenchmark extends AbstractBenchmark {
+
+  private static final String PARTITION = "partition";
+  private static final int ENTRIES = 1000000;
+
+  private static final long ENTRY_INTERVAL = MILLISECONDS.toNanos(1);
+
+  private PartitionedInMemoryObjectStore<String> objectStore;
+  private int nextKey;
+  private long currentNanoTime;
+
+  @Setup
+  public void setup() throws ObjectStoreException {
+    // Entries are stored one millisecond apart from each other, so that the TTL expiry case removes exactly one entry each time
+    objectStore = new PartitionedInMemoryObjectStore<String>() {
+
+      @Override
+      protected long getCurrentNanoTime() {
+        return currentNanoTime;
+      }
+    };
+    for (nextKey = 0; nextKey < ENTRIES; nextKey++) {
+      currentNanoTime += ENTRY_INTERVAL;
+      objectStore.store(KEY + nextKey, VALUE, PARTITION);
+    }
+  }
+
+  @TearDown
+  public void teardown() throws ObjectStoreException {
+    objectStore.disposePartition(PARTITION);
+  }
+
+  @Benchmark
+  public String storeAndRemove() throws ObjectStoreException {
+    String key = KEY + nextKey++;
+    objectStore.store(key, VALUE, PARTITION);
+    return objectStore.remove(key, PARTITION);
+  }
+
+  @Benchmark
+  public String removeOldestAndStore() throws ObjectStoreException {
+    String removed = objectStore.remove(KEY + (nextKey - ENTRIES), PARTITION);
+    objectStore.store(KEY + nextKey++, VALUE, PARTITION);
+    return removed;
+  }
+
+  @Benchmark
+  public void storeAndExpireByMaxEntries() throws ObjectStoreException {
+    objectStore.store(KEY + nextKey++, VALUE, PARTITION);
+    objectStore.expire(UNBOUNDED, ENTRIES, PARTITION);
+  }
+
+  @Benchmark
+  public void storeAndExpireByTtl() throws ObjectStoreException {
+    currentNanoTime += ENTRY_INTERVAL;
+    objectStore.store(KEY + nextKey++, VALUE, PARTITION);
+    objectStore.expire(ENTRIES, UNBOUNDED, PARTITION);
+  }
+}
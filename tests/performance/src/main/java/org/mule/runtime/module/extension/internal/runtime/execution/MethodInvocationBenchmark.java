@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) MuleSoft, Inc.  All rights reserved.  http://www.mulesoft.com
+ * The software in this package is published under the terms of the CPAL v1.0
+ * license, a copy of which has been included with this distribution in the
+ * LICENSE.txt file.
+ */
+package org.mule.runtime.module.extension.internal.runtime.execution;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static org.springframework.util.ReflectionUtils.invokeMethod;
+
+import org.mule.AbstractBenchmark;
+
+import java.lang.reflect.Method;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Setup;
+
+/**
+ * Compares invoking an operation method through {@link GeneratedMethodInvoker} against the reflective invocation it replaced.
+ */
+@OutputTimeUnit(NANOSECONDS)
+public class MethodInvocationBenchmark extends AbstractBenchmark {
+
+  private Operations operations;
+  private Method method;
+  private GeneratedMethodInvoker invoker;
+  private Object[] args;
+
+  @Setup
+  public void setup() throws NoSuchMethodException {
+    operations = new Operations();
+    method = Operations.class.getMethod("operation", String.class, int.class, Object.class);
+    invoker = new GeneratedMethodInvoker(method, operations);
+    args = new Object[] {VALUE, 42, KEY};
+  }
+
+  @Benchmark
+  public Object reflective() {
+    return invokeMethod(method, operations, args);
+  }
+
+  @Benchmark
+  public Object generated() {
+    return invoker.invoke(args);
+  }
+
+  @Benchmark
+  public Object direct() {
+    return operations.operation((String) args[0], (Integer) args[1], args[2]);
+  }
+
+  public static class Operations {
+
+    public Object operation(String value, int count, Object other) {
+      return value.length() + count == 0 ? other : value;
+    }
+  }
+}